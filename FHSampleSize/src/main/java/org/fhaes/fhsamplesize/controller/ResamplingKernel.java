@@ -0,0 +1,239 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Joshua Brogan and Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhsamplesize.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.fhaes.fhsamplesize.model.SSIZAnalysisModel;
+import org.fhaes.segmentation.SegmentModel;
+
+/**
+ * ResamplingKernel Class. Counts the number of fire years in resampled pools of series for one segment, without building the pools
+ * themselves.
+ * 
+ * <p>
+ * When the kernel is created each series in the pool is reduced to the list of years within the segment in which it records an event and
+ * the event threshold is met. The fire years of a resampled pool are then the distinct years in the lists of the series drawn, so each
+ * simulation only touches the event years of the series it draws. The years counted in a simulation are marked in a buffer with the
+ * simulation number, so the buffer does not need clearing between simulations.
+ * </p>
+ * 
+ * <p>
+ * Series are drawn using exactly the same calls to the random number generator as the list based resampling, and without replacement the
+ * series remaining are kept in their original order, so a given seed still draws the same series. The series remaining are held in a
+ * Fenwick tree so that finding and removing the n-th remaining series is O(log n) rather than a list removal.
+ * </p>
+ * 
+ * <p>
+ * A kernel holds the buffers for its simulations so must only be used by one thread at a time. Copies made with the copy constructor
+ * share the fire years of the series, so simulations can be run on several threads without reducing the pool again for each one.
+ * </p>
+ * 
+ * @author Joshua Brogan and Peter Brewer
+ */
+public class ResamplingKernel {
+	
+	private static final int EVENT_RECORDED = 1;
+	
+	private final int[][] fireYearsBySeries;
+	private final int[] yearMarks;
+	private final int[] remainingTree;
+	private int currentMark = 0;
+	
+	/**
+	 * Create a new kernel for the series pool of the model and the specified segment.
+	 * 
+	 * @param model
+	 * @param segment
+	 */
+	public ResamplingKernel(SSIZAnalysisModel model, SegmentModel segment) {
+	
+		List<List<Integer>> pool = model.getSeriesPoolToAnalyze();
+		boolean[] belowThreshold = SSIZController.getYearsBelowThreshold(model);
+		
+		ArrayList<Integer> yearsArray = model.getReader().getYearArray();
+		int firstind = yearsArray.indexOf(segment.getFirstYear());
+		int lastind = yearsArray.indexOf(segment.getLastYear());
+		int numberOfYears = Math.max(0, lastind - firstind + 1);
+		
+		fireYearsBySeries = new int[pool.size()][];
+		int[] buffer = new int[numberOfYears];
+		for (int s = 0; s < pool.size(); s++)
+		{
+			List<Integer> series = pool.get(s);
+			int count = 0;
+			for (int i = firstind; i <= lastind; i++)
+			{
+				if (series.get(i) == EVENT_RECORDED && (i >= belowThreshold.length || !belowThreshold[i]))
+				{
+					buffer[count++] = i - firstind;
+				}
+			}
+			
+			int[] fireYears = new int[count];
+			System.arraycopy(buffer, 0, fireYears, 0, count);
+			fireYearsBySeries[s] = fireYears;
+		}
+		
+		yearMarks = new int[numberOfYears];
+		remainingTree = new int[pool.size() + 1];
+	}
+	
+	/**
+	 * Create a new kernel for the same series pool and segment as another. The fire years of the series are shared, but the new kernel has
+	 * its own buffers so the two can be used on different threads at once.
+	 * 
+	 * @param kernel
+	 */
+	public ResamplingKernel(ResamplingKernel kernel) {
+	
+		fireYearsBySeries = kernel.fireYearsBySeries;
+		yearMarks = new int[kernel.yearMarks.length];
+		remainingTree = new int[kernel.remainingTree.length];
+	}
+	
+	/**
+	 * Resample (with replacement) numSamplesToChoose series from the pool and count the number of years within the segment in which at
+	 * least one of them records an event that meets the threshold.
+	 * 
+	 * @param numSamplesToChoose
+	 * @param random
+	 * @return
+	 */
+	public int countFireYearsWithReplacement(int numSamplesToChoose, Random random) {
+	
+		int sizeOfCompletePool = fireYearsBySeries.length;
+		int mark = nextMark();
+		int count = 0;
+		
+		for (int i = 1; i <= numSamplesToChoose; i++)
+		{
+			int randomIndex = (int) (random.nextDouble() * sizeOfCompletePool);
+			count += markFireYears(fireYearsBySeries[randomIndex], mark);
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Resample (without replacement) numSamplesToChoose series from the pool and count the number of years within the segment in which at
+	 * least one of them records an event that meets the threshold. Each series can only be drawn once.
+	 * 
+	 * @param numSamplesToChoose
+	 * @param random
+	 * @return
+	 */
+	public int countFireYearsWithoutReplacement(int numSamplesToChoose, Random random) {
+	
+		int sizeOfCompletePool = fireYearsBySeries.length;
+		
+		if (sizeOfCompletePool < numSamplesToChoose)
+			throw new ArrayIndexOutOfBoundsException("More samples requested than are in the complete pool");
+		
+		// Every series starts off remaining, so each node of the tree holds the size of the range it covers
+		for (int i = 1; i <= sizeOfCompletePool; i++)
+		{
+			remainingTree[i] = i & -i;
+		}
+		
+		int mark = nextMark();
+		int count = 0;
+		int remaining = sizeOfCompletePool;
+		
+		for (int i = 1; i <= numSamplesToChoose; i++)
+		{
+			int randomIndex = (int) (random.nextDouble() * remaining);
+			int series = removeRemainingSeries(randomIndex);
+			remaining--;
+			count += markFireYears(fireYearsBySeries[series], mark);
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Mark the fire years of a series, returning the number that had not already been marked in this simulation.
+	 * 
+	 * @param fireYears
+	 * @param mark
+	 * @return
+	 */
+	private int markFireYears(int[] fireYears, int mark) {
+	
+		int count = 0;
+		for (int i = 0; i < fireYears.length; i++)
+		{
+			if (yearMarks[fireYears[i]] != mark)
+			{
+				yearMarks[fireYears[i]] = mark;
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Find the index in the pool of the n-th series (counting from zero) of those remaining, and remove it from the remaining series.
+	 * 
+	 * @param n
+	 * @return
+	 */
+	private int removeRemainingSeries(int n) {
+	
+		// Descend the tree to find the position at which n + 1 series remain up to and including it
+		int pos = 0;
+		int rank = n + 1;
+		for (int step = Integer.highestOneBit(remainingTree.length - 1); step > 0; step >>= 1)
+		{
+			int next = pos + step;
+			if (next < remainingTree.length && remainingTree[next] < rank)
+			{
+				pos = next;
+				rank -= remainingTree[next];
+			}
+		}
+		
+		int found = pos + 1;
+		for (int i = found; i < remainingTree.length; i += i & -i)
+		{
+			remainingTree[i]--;
+		}
+		
+		return found - 1;
+	}
+	
+	/**
+	 * Get the mark for the next simulation. If the marks wrap around, the buffer is cleared so that old marks cannot be confused with new
+	 * ones.
+	 * 
+	 * @return
+	 */
+	private int nextMark() {
+	
+		currentMark++;
+		if (currentMark == 0)
+		{
+			Arrays.fill(yearMarks, 0);
+			currentMark = 1;
+		}
+		return currentMark;
+	}
+}
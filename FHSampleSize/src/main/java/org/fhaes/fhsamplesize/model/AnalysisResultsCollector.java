@@ -0,0 +1,199 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Joshua Brogan and Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhsamplesize.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.fhaes.math.Weibull;
+import org.fhaes.segmentation.SegmentModel;
+
+/**
+ * AnalysisResultsCollector Class. Collects the results of a single sample size analysis run. Simulations are added in blocks, which may be
+ * added from several threads at once and in any order. Once all the blocks for a segment have been added, completeSegment() joins the
+ * blocks for each number of samples in block order, fits the Weibull distributions for the whole segment in one batch and calculates its
+ * results. Results are always returned ordered by segment and then by number of samples, whatever order
+ * they were calculated in.
+ * 
+ * @author Joshua Brogan and Peter Brewer
+ */
+public class AnalysisResultsCollector {
+	
+	private final ArrayList<SegmentModel> segments;
+	private final ArrayList<AnalysisResultsModel> analysisResults = new ArrayList<AnalysisResultsModel>();
+	
+	// Blocks of simulations waiting for their segment to be completed, by segment, number of samples and then block
+	private final Map<SegmentModel, TreeMap<Integer, double[][]>> pending = new HashMap<SegmentModel, TreeMap<Integer, double[][]>>();
+	
+	/**
+	 * Create a new empty collector for an analysis of the specified segments.
+	 * 
+	 * @param segments
+	 */
+	public AnalysisResultsCollector(List<SegmentModel> segments) {
+	
+		this.segments = new ArrayList<SegmentModel>(segments);
+	}
+	
+	/**
+	 * Add a block of the simulations of one segment and number of samples. Their results are calculated when the segment is completed.
+	 * 
+	 * @param firesPerCenturyPerSim
+	 * @param segment
+	 * @param numberOfSamples
+	 * @param block - index of this block of simulations
+	 * @param blockCount - number of blocks the simulations for this segment and number of samples are split into
+	 */
+	public synchronized void add(double[] firesPerCenturyPerSim, SegmentModel segment, int numberOfSamples, int block, int blockCount) {
+	
+		TreeMap<Integer, double[][]> simulations = pending.get(segment);
+		if (simulations == null)
+		{
+			simulations = new TreeMap<Integer, double[][]>();
+			pending.put(segment, simulations);
+		}
+		
+		double[][] blocks = simulations.get(numberOfSamples);
+		if (blocks == null)
+		{
+			blocks = new double[blockCount][];
+			simulations.put(numberOfSamples, blocks);
+		}
+		blocks[block] = firesPerCenturyPerSim;
+	}
+	
+	/**
+	 * Calculate the results for all the simulations added for a segment, fitting their Weibull distributions in one batch using up to the
+	 * specified number of threads. This should be called once all the simulations for the segment have been added.
+	 * 
+	 * @param segment
+	 * @param threads
+	 * @throws IllegalStateException if any blocks of simulations are missing or any of the Weibull distributions could not be fitted
+	 */
+	public void completeSegment(SegmentModel segment, int threads) {
+	
+		TreeMap<Integer, double[][]> simulations;
+		synchronized (this)
+		{
+			simulations = pending.remove(segment);
+		}
+		if (simulations == null)
+			return;
+		
+		double[][] data = new double[simulations.size()][];
+		int i = 0;
+		for (Map.Entry<Integer, double[][]> entry : simulations.entrySet())
+		{
+			data[i++] = joinBlocks(entry.getValue(), entry.getKey());
+		}
+		Weibull[] fits = Weibull.fit(data, threads);
+		
+		// The statistics are calculated outside the lock so segments can be completed concurrently
+		ArrayList<AnalysisResultsModel> results = new ArrayList<AnalysisResultsModel>();
+		i = 0;
+		for (Integer numberOfSamples : simulations.keySet())
+		{
+			results.add(new AnalysisResultsModel(data[i], fits[i], segment, numberOfSamples));
+			i++;
+		}
+		
+		synchronized (this)
+		{
+			analysisResults.addAll(results);
+		}
+	}
+	
+	/**
+	 * Join the blocks of simulations for one number of samples in block order.
+	 * 
+	 * @param blocks
+	 * @param numberOfSamples
+	 * @return
+	 */
+	private static double[] joinBlocks(double[][] blocks, int numberOfSamples) {
+	
+		int length = 0;
+		for (int block = 0; block < blocks.length; block++)
+		{
+			if (blocks[block] == null)
+				throw new IllegalStateException("Block " + block + " of the simulations for " + numberOfSamples + " samples is missing");
+			
+			length += blocks[block].length;
+		}
+		
+		double[] joined = new double[length];
+		int offset = 0;
+		for (double[] block : blocks)
+		{
+			System.arraycopy(block, 0, joined, offset, block.length);
+			offset += block.length;
+		}
+		return joined;
+	}
+	
+	/**
+	 * Add a result to the collection.
+	 * 
+	 * @param results
+	 */
+	public synchronized void add(AnalysisResultsModel results) {
+	
+		analysisResults.add(results);
+	}
+	
+	/**
+	 * Get the number of results collected so far.
+	 * 
+	 * @return
+	 */
+	public synchronized int size() {
+	
+		return analysisResults.size();
+	}
+	
+	/**
+	 * Get a copy of the results collected so far, ordered by segment and then number of samples.
+	 * 
+	 * @return
+	 */
+	public synchronized ArrayList<AnalysisResultsModel> getAnalysisResults() {
+	
+		ArrayList<AnalysisResultsModel> copy = new ArrayList<AnalysisResultsModel>(analysisResults);
+		
+		Collections.sort(copy, new Comparator<AnalysisResultsModel>() {
+			
+			@Override
+			public int compare(AnalysisResultsModel o1, AnalysisResultsModel o2) {
+			
+				int s1 = segments.indexOf(o1.getSegment());
+				int s2 = segments.indexOf(o2.getSegment());
+				if (s1 != s2)
+					return s1 < s2 ? -1 : 1;
+				
+				return Integer.compare(o1.getNumberOfSamples(), o2.getNumberOfSamples());
+			}
+		});
+		
+		return copy;
+	}
+}
@@ -18,6 +18,7 @@
 package org.fhaes.fhsamplesize.model;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import org.fhaes.enums.EventTypeToProcess;
@@ -53,9 +54,8 @@ public class SSIZAnalysisModel {
 	private double[] cachedPercentOfAllData;
 	private double[] cachedPercentOfRecordedData;
 	
-	private Random[] randomArray;
 	
-	private ArrayList<ArrayList<Integer>> seriesPoolToAnalyze;
+	private List<List<Integer>> seriesPoolToAnalyze;
 	private ArrayList<SegmentModel> segments;
 	
 	/**
@@ -73,7 +73,6 @@ public class SSIZAnalysisModel {
 		this.reader = reader;
 		this.firstYear = reader.getFirstYear();
 		this.lastYear = reader.getLastYear();
-		populateRandomArray();
 	}
 	
 	public FHX2FileReader getReader() {
@@ -171,37 +170,36 @@ public class SSIZAnalysisModel {
 	}
 	
 	/**
-	 * TODO
-	 */
-	private void populateRandomArray() {
-	
-		// Populate Random array
-		randomArray = new Random[reader.getNumberOfSeries()];
-		
-		for (int i = 0; i < reader.getNumberOfSeries(); i++)
-		{
-			Random rand = new Random();
-			rand.setSeed(seedValue + i);
-			randomArray[i] = rand;
-		}
-	}
-	
-	/**
-	 * TODO
+	 * Create the random number generator for a block of the simulations of a segment with the specified number of samples. Each segment,
+	 * number of samples and block has its own generator seeded from the seed value, so the results do not depend on the order or the
+	 * threads in which the simulations are run. The generators for the first block of the first segment are seeded with seedValue +
+	 * numSamples - 1 as they always have been.
 	 * 
-	 * @param i
+	 * @param segmentIndex
+	 * @param numSamples
+	 * @param block - index of the block of simulations
 	 * @return
 	 */
-	public Random getRandomGenerator(int i) {
+	public Random createRandomGenerator(int segmentIndex, int numSamples, int block) {
 	
-		try
+		long seed = seedValue + numSamples - 1;
+		
+		if (segmentIndex > 0)
 		{
-			return randomArray[i];
+			// Mix the segment index into the bits of the 48-bit Random seed above those set by the seed value
+			seed ^= ((long) segmentIndex) << 32;
 		}
-		catch (IndexOutOfBoundsException e)
+		
+		if (block > 0)
 		{
-			return null;
+			// Spread the other blocks out with the SplitMix64 finalizer so that neighbouring blocks get unrelated generators
+			long z = seed + block * 0x9E3779B97F4A7C15L;
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			seed = z ^ (z >>> 31);
 		}
+		
+		return new Random(seed);
 	}
 	
 	/**
@@ -318,7 +316,7 @@ public class SSIZAnalysisModel {
 	/**
 	 * Updates the contents of seriesPoolToAnalyze to those of the input array.
 	 */
-	public void setSeriesPoolToAnalyize(ArrayList<ArrayList<Integer>> updatedSeriesPool) {
+	public void setSeriesPoolToAnalyize(List<List<Integer>> updatedSeriesPool) {
 	
 		this.seriesPoolToAnalyze = updatedSeriesPool;
 	}
@@ -328,12 +326,12 @@ public class SSIZAnalysisModel {
 	 * 
 	 * @return seriesPoolToAnalyze
 	 */
-	public ArrayList<ArrayList<Integer>> getSeriesPoolToAnalyze() {
+	public List<List<Integer>> getSeriesPoolToAnalyze() {
 	
 		return this.seriesPoolToAnalyze;
 	}
 	
-	public double[] getPercentOfAllScarred() {
+	public synchronized double[] getPercentOfAllScarred() {
 	
 		if (cachedPercentOfAllData == null)
 		{
@@ -343,7 +341,7 @@ public class SSIZAnalysisModel {
 		return cachedPercentOfAllData;
 	}
 	
-	public double[] getPercentOfRecordedScarred() {
+	public synchronized double[] getPercentOfRecordedScarred() {
 	
 		if (cachedPercentOfRecordedData == null)
 		{
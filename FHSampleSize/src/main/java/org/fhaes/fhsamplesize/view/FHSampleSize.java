@@ -30,9 +30,13 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
@@ -71,6 +75,7 @@ import org.fhaes.enums.MiddleMetric;
 import org.fhaes.enums.ResamplingType;
 import org.fhaes.fhfilereader.FHX2FileReader;
 import org.fhaes.fhsamplesize.controller.SSIZController;
+import org.fhaes.fhsamplesize.model.AnalysisResultsCollector;
 import org.fhaes.fhsamplesize.model.AnalysisResultsModel;
 import org.fhaes.fhsamplesize.model.SSIZAnalysisModel;
 import org.fhaes.filefilter.CSVFileFilter;
@@ -146,6 +151,7 @@ public class FHSampleSize extends JFrame implements ActionListener {
 	private AsymptoteTable asymptoteTable;
 	private SegmentationPanel segmentationPanel;
 	private int segmentsDone = 0;
+	private AnalysisResultsCollector analysisResults = new AnalysisResultsCollector(new ArrayList<SegmentModel>());
 	
 	private Boolean mouseListenersActive;
 	
@@ -1049,40 +1055,68 @@ public class FHSampleSize extends JFrame implements ActionListener {
 			SSIZController.doPreRunSetup(analysisModel);
 			
 			segmentsDone = 0;
+			analysisResults = new AnalysisResultsCollector(analysisModel.getSegments());
 			
-			// Loop through from 1 to n series
-			for (SegmentModel segment : analysisModel.getSegments())
+			// Submit the tasks for every block of simulations of every segment and every number of series from 1 to n. The tasks are
+			// independent so the pool is free to run them on all cores in any order
+			ForkJoinPool pool = new ForkJoinPool();
+			try
 			{
-				Double centuryMultiplier = SSIZController.getCenturyMultiplier(analysisModel, segment);
+				ArrayList<ArrayList<ArrayList<Future<double[]>>>> futuresBySegment = new ArrayList<ArrayList<ArrayList<Future<double[]>>>>(
+						analysisModel.getSegments().size());
+				for (int segmentIndex = 0; segmentIndex < analysisModel.getSegments().size(); segmentIndex++)
+				{
+					Double centuryMultiplier = SSIZController.getCenturyMultiplier(analysisModel,
+							analysisModel.getSegments().get(segmentIndex));
+					
+					List<List<Callable<double[]>>> tasks = SSIZController.createAnalysisTasks(analysisModel, segmentIndex,
+							centuryMultiplier, analysisResults);
+					
+					ArrayList<ArrayList<Future<double[]>>> futuresBySamples = new ArrayList<ArrayList<Future<double[]>>>();
+					for (List<Callable<double[]>> blocks : tasks)
+					{
+						ArrayList<Future<double[]>> futures = new ArrayList<Future<double[]>>();
+						for (Callable<double[]> block : blocks)
+						{
+							futures.add(pool.submit(block));
+						}
+						futuresBySamples.add(futures);
+					}
+					futuresBySegment.add(futuresBySamples);
+				}
 				
-				for (int n = 1; n <= analysisModel.getSeriesPoolToAnalyze().size(); n++)
+				// Wait for the tasks in order, reporting progress as each number of series completes and the results as each segment
+				// completes
+				for (int segmentIndex = 0; segmentIndex < futuresBySegment.size(); segmentIndex++)
 				{
-					if (task.isCancelled())
+					ArrayList<ArrayList<Future<double[]>>> futuresBySamples = futuresBySegment.get(segmentIndex);
+					Integer currentItem = 0;
+					for (int n = 1; n <= futuresBySamples.size(); n++)
 					{
-						log.debug("Current analysis task has been cancelled");
-						return null;
+						for (Future<double[]> future : futuresBySamples.get(n - 1))
+						{
+							if (task.isCancelled())
+							{
+								log.debug("Current analysis task has been cancelled");
+								return null;
+							}
+							
+							future.get();
+						}
+						
+						currentItem = (segmentsDone * analysisModel.getSeriesPoolToAnalyze().size()) + n;
+						publish(new ResultPair(currentItem, analysisModel));
 					}
 					
-					SSIZController.runSampleSizeAnalysisLoopIteration(analysisModel, centuryMultiplier, n, segment);
-					
-					Integer currentItem = (segmentsDone * analysisModel.getSeriesPoolToAnalyze().size()) + n;
-					// progressBar.setValue(currentItem);
-					
-					// Draws the chart and table once for every 25 iterations completed (only when there is one segment)
-					// if (currentItem % 25 == 0 && analysisModel.getSegments().size() == 1)
-					// displayChartAndTableOutput(analysisModel);
+					analysisResults.completeSegment(analysisModel.getSegments().get(segmentIndex),
+							Runtime.getRuntime().availableProcessors());
 					publish(new ResultPair(currentItem, analysisModel));
+					segmentsDone++;
 				}
-				
-				// Draws the chart and table after every segment is completed (when multiple segments have been specified)
-				/*
-				 * if (analysisModel.getSegments().size() > 1 && segmentsDone < analysisModel.getSegments().size()) { if (segmentsDone > 0)
-				 * cboSegment.setSelectedIndex(segmentsDone);
-				 * 
-				 * displayChartAndTableOutput(analysisModel); }
-				 */
-				
-				segmentsDone++;
+			}
+			finally
+			{
+				pool.shutdownNow();
 			}
 			return analysisModel;
 		}
@@ -1154,7 +1188,7 @@ public class FHSampleSize extends JFrame implements ActionListener {
 			populateFromAnalysisModel(analysisModel);
 			
 			// Update the results table with the analysis results
-			simulationsTable.redrawTable(SSIZController.getAnalysisResults());
+			simulationsTable.redrawTable(analysisResults.getAnalysisResults());
 			
 			// Update the curve chart with the analysis results
 			updateChart();
@@ -1194,8 +1228,8 @@ public class FHSampleSize extends JFrame implements ActionListener {
 	 */
 	private void updateChart() {
 	
-		curveChart = new SSIZCurveChart(SSIZController.getAnalysisResults().toArray(
-				new AnalysisResultsModel[SSIZController.getAnalysisResults().size()]),
+		ArrayList<AnalysisResultsModel> results = analysisResults.getAnalysisResults();
+		curveChart = new SSIZCurveChart(results.toArray(new AnalysisResultsModel[results.size()]),
 				(MiddleMetric) this.cboChartMetric.getSelectedItem(), (SegmentModel) cboSegment.getSelectedItem());
 		curveChart.addMouseListener(new ChartPopClickListener());
 		curveChart.setMaximumDrawHeight(MAX_DRAW_HEIGHT);
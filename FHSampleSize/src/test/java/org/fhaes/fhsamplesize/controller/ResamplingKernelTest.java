@@ -0,0 +1,280 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Joshua Brogan and Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhsamplesize.controller;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import junit.framework.TestCase;
+
+import org.fhaes.enums.EventTypeToProcess;
+import org.fhaes.enums.FireFilterType;
+import org.fhaes.enums.ResamplingType;
+import org.fhaes.fhfilereader.FHX2FileReader;
+import org.fhaes.fhsamplesize.model.AnalysisResultsCollector;
+import org.fhaes.fhsamplesize.model.AnalysisResultsModel;
+import org.fhaes.fhsamplesize.model.SSIZAnalysisModel;
+import org.fhaes.preferences.App;
+import org.fhaes.segmentation.SegmentModel;
+
+/**
+ * ResamplingKernelTest Class. Checks the fire year counts of the kernel against resampling the series pool as lists and counting the years
+ * with SSIZController.getFiresByYear(), which is how each simulation was counted before the kernel was introduced. The same seed must
+ * draw the same series in both. Also checks that the results of simulations split into blocks do not depend on the order the blocks run in.
+ */
+public class ResamplingKernelTest extends TestCase {
+	
+	private static final int FIRST_YEAR = 1600;
+	private static final int SIMULATIONS = 50;
+	private static final String CODES = "|||||..UUu";
+	
+	private final ArrayList<File> tempFiles = new ArrayList<File>();
+	
+	@Override
+	protected void setUp() {
+	
+		// No frame as the tests may be run headless
+		App.init(null);
+	}
+	
+	@Override
+	protected void tearDown() {
+	
+		for (File file : tempFiles)
+		{
+			file.delete();
+		}
+	}
+	
+	/**
+	 * Write an FHX2 file of random series and read it back. Each series has a random range of years within which each year is recording,
+	 * not recording or a fire or injury event. The first series never records an event.
+	 * 
+	 * @param random
+	 * @param numberOfSeries
+	 * @param numberOfYears
+	 * @return
+	 * @throws IOException
+	 */
+	private FHX2FileReader createReader(Random random, int numberOfSeries, int numberOfYears) throws IOException {
+	
+		char[][] codes = new char[numberOfYears][numberOfSeries];
+		for (int s = 0; s < numberOfSeries; s++)
+		{
+			int first = random.nextInt(numberOfYears - 1);
+			int last = first + 1 + random.nextInt(numberOfYears - first - 1);
+			for (int y = 0; y < numberOfYears; y++)
+			{
+				char code = CODES.charAt(random.nextInt(CODES.length()));
+				codes[y][s] = y == first ? '{' : y == last ? '}' : y < first || y > last ? '.' : s == 0 ? '|' : code;
+			}
+		}
+		
+		File file = File.createTempFile("ResamplingKernelTest", ".fhx");
+		tempFiles.add(file);
+		Writer wr = new FileWriter(file);
+		try
+		{
+			wr.write("FHX2 FORMAT\n" + FIRST_YEAR + " " + numberOfSeries + " 1\n");
+			wr.write("ABCDEFGHIJKLMNOPQRSTUVWXYZ".substring(0, numberOfSeries) + "\n\n");
+			for (int y = 0; y < numberOfYears; y++)
+			{
+				wr.write(new String(codes[y]) + " " + (FIRST_YEAR + y) + "\n");
+			}
+		}
+		finally
+		{
+			wr.close();
+		}
+		
+		FHX2FileReader reader = new FHX2FileReader(file);
+		assertEquals(numberOfSeries, reader.getNumberOfSeries().intValue());
+		return reader;
+	}
+	
+	/**
+	 * Count the fire years in a simulation by building the resampled pool as a list, as the analysis used to.
+	 * 
+	 * @param model
+	 * @param segment
+	 * @param numSamplesToChoose
+	 * @param withReplacement
+	 * @param random
+	 * @return
+	 */
+	private static int countFireYearsFromPool(SSIZAnalysisModel model, SegmentModel segment, int numSamplesToChoose,
+			boolean withReplacement, Random random) {
+		
+		List<List<Integer>> remaining = new ArrayList<List<Integer>>(model.getSeriesPoolToAnalyze());
+		List<List<Integer>> pool = new ArrayList<List<Integer>>();
+		for (int i = 1; i <= numSamplesToChoose; i++)
+		{
+			int randomIndex = (int) (random.nextDouble() * remaining.size());
+			if (withReplacement)
+			{
+				pool.add(remaining.get(randomIndex));
+			}
+			else
+			{
+				pool.add(remaining.remove(randomIndex));
+			}
+		}
+		
+		int count = 0;
+		for (Integer fires : SSIZController.getFiresByYear(model, pool, segment))
+		{
+			if (fires > 0)
+				count++;
+		}
+		return count;
+	}
+	
+	/**
+	 * Assert that the kernel gives the same counts as the pool based resampling for every number of samples.
+	 * 
+	 * @param model
+	 * @param segment
+	 */
+	private static void assertMatchesPool(SSIZAnalysisModel model, SegmentModel segment) {
+	
+		int poolSize = model.getSeriesPoolToAnalyze().size();
+		ResamplingKernel kernel = new ResamplingKernel(model, segment);
+		
+		for (int numSamples = 1; numSamples <= poolSize; numSamples++)
+		{
+			Random kernelRandom = new Random(numSamples);
+			Random poolRandom = new Random(numSamples);
+			for (int sim = 0; sim < SIMULATIONS; sim++)
+			{
+				String message = poolSize + " series, " + numSamples + " samples, simulation " + sim;
+				assertEquals(message, countFireYearsFromPool(model, segment, numSamples, true, poolRandom),
+						kernel.countFireYearsWithReplacement(numSamples, kernelRandom));
+			}
+			
+			kernelRandom = new Random(numSamples);
+			poolRandom = new Random(numSamples);
+			for (int sim = 0; sim < SIMULATIONS; sim++)
+			{
+				String message = poolSize + " series, " + numSamples + " samples without replacement, simulation " + sim;
+				assertEquals(message, countFireYearsFromPool(model, segment, numSamples, false, poolRandom),
+						kernel.countFireYearsWithoutReplacement(numSamples, kernelRandom));
+			}
+		}
+	}
+	
+	/**
+	 * Create a model for the reader with no event threshold.
+	 * 
+	 * @param reader
+	 * @return
+	 */
+	private static SSIZAnalysisModel createModel(FHX2FileReader reader) {
+	
+		SSIZAnalysisModel model = new SSIZAnalysisModel(30188, reader, EventTypeToProcess.FIRE_EVENT);
+		model.setThresholdType(FireFilterType.NUMBER_OF_EVENTS);
+		model.setThresholdValueGT(1);
+		return model;
+	}
+	
+	public void testPoolSizes() throws IOException {
+	
+		// Pool sizes either side of powers of two, where the descent of the Fenwick tree changes
+		Random random = new Random(1);
+		int[] poolSizes = new int[] { 1, 3, 8, 9, 17 };
+		for (int poolSize : poolSizes)
+		{
+			FHX2FileReader reader = createReader(random, poolSize, 130);
+			assertMatchesPool(createModel(reader), new SegmentModel(reader.getFirstYear(), reader.getLastYear()));
+		}
+	}
+	
+	public void testSegment() throws IOException {
+	
+		// A segment within the file, so the fire years of each series have to be offset and trimmed
+		FHX2FileReader reader = createReader(new Random(2), 12, 200);
+		assertMatchesPool(createModel(reader), new SegmentModel(FIRST_YEAR + 63, FIRST_YEAR + 128));
+	}
+	
+	public void testThresholds() throws IOException {
+	
+		FHX2FileReader reader = createReader(new Random(3), 20, 150);
+		SegmentModel segment = new SegmentModel(reader.getFirstYear(), reader.getLastYear());
+		
+		SSIZAnalysisModel model = createModel(reader);
+		model.setThresholdValueGT(2);
+		model.setThresholdValueLT(4);
+		model.enabledLowerThreshold(true);
+		assertMatchesPool(model, segment);
+		
+		model = createModel(reader);
+		model.setThresholdType(FireFilterType.PERCENTAGE_OF_RECORDING);
+		model.setThresholdValueGT(25);
+		assertMatchesPool(model, segment);
+	}
+	
+	public void testBlocksDoNotDependOnOrder() throws Exception {
+	
+		FHX2FileReader reader = createReader(new Random(8), 6, 150);
+		SSIZAnalysisModel model = createModel(reader);
+		model.setResamplingType(ResamplingType.WITH_REPLACEMENT);
+		model.setNumSimulationsToRun(SSIZController.SIMULATIONS_PER_BLOCK * 2 + 10);
+		model.setSegmentArray(new ArrayList<SegmentModel>());
+		SegmentModel segment = model.getSegments().get(0);
+		Double centuryMultiplier = SSIZController.getCenturyMultiplier(model, segment);
+		
+		// Run the blocks in order and then in reverse, as threads may finish them in any order
+		AnalysisResultsCollector forward = new AnalysisResultsCollector(model.getSegments());
+		for (List<Callable<double[]>> blocks : SSIZController.createAnalysisTasks(model, 0, centuryMultiplier, forward))
+		{
+			assertEquals(3, blocks.size());
+			for (Callable<double[]> block : blocks)
+			{
+				block.call();
+			}
+		}
+		forward.completeSegment(segment, 1);
+		
+		AnalysisResultsCollector reverse = new AnalysisResultsCollector(model.getSegments());
+		List<List<Callable<double[]>>> tasks = SSIZController.createAnalysisTasks(model, 0, centuryMultiplier, reverse);
+		for (int n = tasks.size() - 1; n >= 0; n--)
+		{
+			for (int block = tasks.get(n).size() - 1; block >= 0; block--)
+			{
+				tasks.get(n).get(block).call();
+			}
+		}
+		reverse.completeSegment(segment, 4);
+		
+		ArrayList<AnalysisResultsModel> expected = forward.getAnalysisResults();
+		ArrayList<AnalysisResultsModel> actual = reverse.getAnalysisResults();
+		assertEquals(6, actual.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertEquals(i + 1, actual.get(i).getNumberOfSamples());
+			assertEquals(expected.get(i).getMean(), actual.get(i).getMean());
+			assertEquals(expected.get(i).getStandardDeviation(), actual.get(i).getStandardDeviation());
+			assertEquals(expected.get(i).getWeibullMedian(), actual.get(i).getWeibullMedian());
+		}
+	}
+}
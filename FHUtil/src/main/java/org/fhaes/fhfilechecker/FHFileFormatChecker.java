@@ -0,0 +1,456 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Elena Velasquez and Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhfilechecker;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Date;
+
+import org.fhaes.enums.EventTypeToProcess;
+import org.fhaes.fhfilereader.IFHAESReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * FHFileFormatChecker Class. The format checks used by FHFileChecker, kept apart from the checker window so that files can be validated
+ * without loading any GUI classes, e.g. when running headless.
+ * 
+ * @author elena
+ */
+public class FHFileFormatChecker {
+	
+	private static final Logger log = LoggerFactory.getLogger(FHFileFormatChecker.class);
+	
+	/**
+	 * Run the format checks on a file that has already been parsed, appending the format report (and optionally the individual sample
+	 * summary) to the supplied StringBuilder. Unlike doCheck() this does not re-read the file from disk, so it can be used by callers that
+	 * already hold a reader for the file (e.g. FHFile).
+	 * 
+	 * @param reader - reader for the file to check
+	 * @param report - StringBuilder to append the report to
+	 * @param jcheckindivreport - whether to include the individual sample summary in the report
+	 * @return true if the file passed the format checks
+	 */
+	public static boolean checkReader(IFHAESReader reader, StringBuilder report, boolean jcheckindivreport) {
+	
+		ArrayList<Integer> FyearperSampletemp;
+		ArrayList<Integer> FIyearperSampletemp;
+		DecimalFormat onePlace = new DecimalFormat("0.0");
+		Date now = new Date();
+		String numericalDataint = "^[0-9 \\-]+$";
+		String fhx2dataline = "^[a-z A-Z . | } { \\[ \\]]+$";
+		boolean passFormat;
+		
+		int linecounter = 0;
+		ArrayList<ArrayList<Integer>> FyearperSample = new ArrayList<ArrayList<Integer>>();
+		ArrayList<ArrayList<Integer>> FIyearperSample = new ArrayList<ArrayList<Integer>>();
+		// log.debug("REPORT ");
+		// myReader.get(i).PrintReport();
+		// reader.makeClimate2d();
+		// Checking each file
+		/*
+		 * The check for the format of the fhx file NOTE: the heading of the file with the metadata is not being check. Must check
+		 * with Elaine about the comment lines. 1. the file extension is not check also. 2. First and most important line is the
+		 * FHX2 FORMAT or FIRE2 format. 3. next line must contain the following integer data (the integer format will be check) a.
+		 * Beginning year: this is the beginning year for the fire data file integer b. number of sample in the data: number of
+		 * columns integer c. longest code of all samples: integer 4. black (empty line) must come before the fire data start. 5.
+		 * fire data : I will check for the symbols lower/Upper case letters | { } [ ] . a. I will check that only this symbols are
+		 * used in the data b. I will check that the data is the correct length ie same as the number of samples Warning c. all the
+		 * samples should have a starting point either [ , { or Uppercase letter (fire) Warning d. all the samples should have a
+		 * closing point either ] or } Warning 6. A report on each file will be created.
+		 */
+		
+		report.append("\n" + " FORMAT REPORT FOR FILE: " + reader.getName() + "\n");
+		report.append("\t" + "This report was created on: " + now + "\n");
+		passFormat = true;
+		// if(reader.isFormatInfoSet())
+		if (true)
+		{
+			// log.debug("I am inside isFormatInfo");
+			// get the format line if it was found
+			report.append("\t" + "The format of the file is: " + reader.getFileFormat() + "\n");
+			// get the next line information
+			if (reader.getFirstYear().toString().matches(numericalDataint))
+			{
+				report.append("\t" + "The first year of your data is: " + reader.getFirstYear()
+						+ "\n");
+			}
+			else
+			{
+				report.append("\t"
+						+ "There an issue with the begining year of fire scared data, please make sure it is an whole number."
+						+ "\n");
+				passFormat = false;
+			}
+			
+			// display logger information
+			log.debug("size of bad lines is : " + reader.getBadDataLineNumbers().size());
+			log.debug("size of data is : " + reader.getData().size());
+			log.debug("size of row data is : " + reader.getRawRowData().size());
+			log.debug("number of series is : " + reader.getNumberOfSeries().toString());
+			
+			if ((reader.getNumberOfSeries().toString().matches(numericalDataint))
+					&& (reader.passesBasicSyntaxCheck()))
+			{
+				report.append("\t" + "Expect " + reader.getNumberOfSeries()
+						+ " samples in this data file. " + "\n");
+			}
+			else
+			{
+				if (reader.getBadDataLineNumbers().size() == 0)
+				{
+					log.debug("I am here in BadDataLine == 0 size of badlines is "
+							+ reader.getBadDataLineNumbers().size());
+					report.append("\t"
+							+ "There an issue with the number of samples in your data, please make sure it is an whole number."
+							+ "\n");
+					passFormat = false;
+				}
+				else
+				{
+					for (int j = 0; j < reader.getBadDataLineNumbers().size(); j++)
+					{
+						log.debug("bad line number " + reader.getBadDataLineNumbers().get(j).intValue());
+						log.debug("bad line length " + reader.getRawRowData()
+								.get(reader.getBadDataLineNumbers().get(j).intValue()).length());
+						log.debug("Number of series: " + reader.getNumberOfSeries());
+						if ((reader.getRawRowData().get(reader.getBadDataLineNumbers().get(j).intValue()).length()) > reader
+								.getNumberOfSeries())
+						{
+							
+							report.append("\t" + "Row number: "
+									+ reader.getBadDataLineNumbers().get(j).intValue()
+									+ " on the fire matrix has more samples than " + reader.getNumberOfSeries()
+									+ "\n");
+							passFormat = false;
+						}
+						else
+						{
+							report.append("\t" + "Row number: "
+									+ reader.getBadDataLineNumbers().get(j).intValue()
+									+ " on the fire matrix has less samples than " + reader.getNumberOfSeries()
+									+ "\n");
+							passFormat = false;
+						}
+					}
+				}
+			}
+			if (reader.getLengthOfSeriesName().toString().matches(numericalDataint))
+			{
+				report.append("\t" + "Expect the longest ID code to be "
+						+ reader.getLengthOfSeriesName() + " characters long." + "\n");
+			}
+			else
+			{
+				report.append("\t"
+						+ "There an issue with the longest length of the ID codes of your samples in your data, please make sure it is an whole number."
+						+ "\n");
+				passFormat = false;
+			}
+			
+			if (reader.passesBasicSyntaxCheck())
+			{
+				// int linecounter = 0;
+				reader.getData();
+				for (int j = 0; j < reader.getData().size(); j++)
+				{
+					if (reader.getData().get(j).matches(fhx2dataline))
+					{
+						linecounter = linecounter + 1;
+					}
+					else
+					{
+						// log.debug("I am here in the else the line is "
+						// +myReader.get(i).getData().get(j)+"the line is "+j);
+						report.append("\t" + "there is something wrong with at least one of the line in the data"
+								+ "\n");
+						passFormat = false;
+					}
+				}
+				for (int j = 0; j < reader.getNumberOfSeries(); j++)
+				{
+					if ((reader.getStartYearIndexPerSample()[j] == -1))
+					{
+						
+						report.append("\t"
+								+ " WARNING All samples Should have either { or [, or at least one of the following symbols D, E, M, L, A, U. Sample: "
+								+ (j + 1) + " seems to have this issue" + "\n");
+						// passFormat = false;
+					}
+					if ((reader.getLastYearIndexPerSample()[j] == -1))
+					{
+						
+						report.append("\t"
+								+ " WARNING All samples should have either }, or ], or at least one of the following symbols D,d, E,e, M,m, L,l, A,a, U,u. Sample: "
+								+ (j + 1) + " seems to have this issue " + "\n");
+						// passFormat = false;
+					}
+				}
+				if (linecounter == (reader.getLastYear() - reader.getFirstYear() + 1))
+				{
+					
+					report.append("\t" + "The beginning year of the data is: " + reader.getFirstYear()
+							+ " The end year of your data is: " + reader.getLastYear() + " for a total of : "
+							+ linecounter + " lines in the data section \n");
+				}
+				else
+				{
+					report.append("\t"
+							+ "Although the all the data lines pass the checked, there seems to be something wrong the the total number of lines of your data section"
+							+ "\n");
+					passFormat = false;
+				}
+			}
+			else
+			{
+				report.append("\t" + "The mandatory blank line before starting the fire data was not found" + "\n");
+				passFormat = false;
+			}
+		} // end of if for finding the format line
+		else
+		{
+			// log.debug("the file did not pass the format line test");
+			passFormat = false;
+		} // end of else of if format line passes.
+		if (passFormat)
+		{
+			report.append("\t" + "CONGRATULATIONS THE FILE " + reader.getName()
+					+ " PASSED THE FORMAT TEST" + "\n");
+			if (!reader.hasFireEventsOrInjuries())
+			{
+				report.append("\t"
+						+ "HOWEVER: This file contains no fire events so will not be used in any analyses" + "\n");
+			}
+		
+		}
+		else
+		{
+			report.append("\t" + "SORRY! this file failed at least one format condition Therefore: THE "
+					+ reader.getName() + " FILE FAILED TO PASS THE FORMAT TEST" + "\n");
+		}
+		
+		// /end of the Format check
+		
+		// String SummReport = "";
+		
+		// if(jcheckformatreport){SummReport=formatReport;}
+		// //creating the individual summary for the file if they past the test
+		// if starts here
+		int totalRecorderYearsPerSite = 0;
+		int totalFireScarsPerSite = 0;
+		int totalAllIndicatorsPerSite = 0;
+		double totalMeanFireIntervals = 0.0;
+		int totalYearsWithFirePerSite = 0;
+		
+		if (jcheckindivreport && passFormat)
+		{
+			report.append("\n\n" + " INDIVIDUAL SAMPLE SUMMARY FOR FHX FILE :" + reader.getName()
+					+ "\n");
+			
+			// These are generated automatically now
+			// reader.generateRecorderYearsArray();
+			// reader.makeClimate();
+			
+			for (int k = 0; k < reader.getNumberOfSeries(); k++)
+			{
+				
+				report.append("\t\n" + "Sample: " + (k + 1) + "\t" + "Code: "
+						+ reader.getSeriesNameArray().get(k) + "\n");
+				if (reader.getPithIndexPerSample()[k] != -1)
+				{
+					report.append("\t" + "Pith Ring: "
+							+ (reader.getPithIndexPerSample()[k] + reader.getFirstYear()) + "\n");
+				}
+				if (reader.getInnerMostperTree()[k] != -1)
+				{
+					report.append("\t" + "Inner Ring: "
+							+ (reader.getInnerMostperTree()[k] + reader.getFirstYear()) + "\n");
+				}
+				if (reader.getBarkIndexPerTree()[k] != -1)
+				{
+					report.append("\t" + "Bark Ring: "
+							+ (reader.getBarkIndexPerTree()[k] + reader.getFirstYear()) + "\n");
+				}
+				if (reader.getOutterMostperTree()[k] != -1)
+				{
+					report.append("\t" + "Outer Ring: "
+							+ (reader.getOutterMostperTree()[k] + reader.getFirstYear()) + "\n");
+				}
+				
+				FyearperSampletemp = new ArrayList<Integer>();
+				// FIyearperSampletemp = new ArrayList<Integer>();
+				for (int j = 0; j < reader.getYearArray().size(); j++)
+				{
+					if ((reader.getEventDataArrays(EventTypeToProcess.FIRE_EVENT).get(k).get(j) == 1))
+					{
+						FyearperSampletemp.add((j + reader.getFirstYear()));
+					}
+				}
+				
+				report.append("\t" + "Length of sample: " + ((reader.getLastYearIndexPerSample()[k]
+						- reader.getStartYearIndexPerSample()[k]) + 1) + "\n");
+				report.append("\t" + "Number of recorder years in sample: "
+						+ (reader.getTotalRecorderYearsPerSample()[k]) + "\n");
+				report.append("\t" + "INFORMATION ON FIRE HISTORY: " + "\n");
+				// log.debug("the total recorder years is: " + allrecorYearperSample[k] +
+				// " total number of analysis:
+				// "+(((myReader.get(i).getlastYearperSample()[k]+myReader.get(i).getFirstYear())-(myReader.get(i).getstartYearperSample()[k]+myReader.get(i).getFirstYear())+1)));
+				FyearperSample.add(FyearperSampletemp);
+				FIyearperSampletemp = new ArrayList<Integer>();
+				int fisumtemp = 0;
+				for (int jk = 0; jk < FyearperSample.get(k).size() - 1; jk++)
+				{
+					FIyearperSampletemp.add(FyearperSample.get(k).get(jk + 1) - FyearperSample.get(k).get(jk));
+					fisumtemp = fisumtemp + FIyearperSampletemp.get(jk).intValue();
+				}
+				FIyearperSample.add(FIyearperSampletemp);
+				int FIcount = 0;
+				// log.debug("size of FIyearperSample "+ FIyearperSample.size()+ " X "+FIyearperSample.get(k).size());
+				for (int j = 0; j < reader.getCalosYearperSample2d().get(k).size(); j++)
+				{
+					if ((reader.getCalosperSample2d().get(k).get(j) >= 'a')
+							&& (reader.getCalosperSample2d().get(k).get(j) <= 'z'))
+					{
+						report.append("\t   "
+								+ (reader.getCalosYearperSample2d().get(k).get(j)
+										+ reader.getFirstYear())
+								+ "   " + reader.getCalosperSample2d().get(k).get(j) + "\n");
+					}
+					else
+					{
+						// log.debug("first cap year "+myReader.get(i).getCapsYearperSample2d().get(k).get(0)+"the other year
+						// "+myReader.get(i).getCalosYearperSample2d().get(k).get(j));
+						if (reader.getCapsYearperSample2d().get(k).get(0).intValue() == reader
+								.getCalosYearperSample2d().get(k).get(j).intValue())
+						{
+							report.append("\t   "
+									+ (reader.getCalosYearperSample2d().get(k).get(j)
+											+ reader.getFirstYear())
+									+ "   " + reader.getCalosperSample2d().get(k).get(j) + "\n");
+							FIcount = 0;
+						}
+						else
+						{
+							report.append("\t   "
+									+ (reader.getCalosYearperSample2d().get(k).get(j)
+											+ reader.getFirstYear())
+									+ "   " + reader.getCalosperSample2d().get(k).get(j) + "    FI = "
+									+ FIyearperSample.get(k).get(FIcount) + "\n");
+							FIcount = FIcount + 1;
+						}
+					
+					}
+				}
+				
+				report.append("\t" + "Total number of fire scars: "
+						+ reader.getCapsperSample2d().get(k).size() + "\n");
+				report.append("\t" + "Total number of all indicators: "
+						+ reader.getCalosYearperSample2d().get(k).size() + "\n");
+				// log.debug("totalrecorderyearpersample: "+myReader.get(i).gettotalrecYearsperSample()[k]);
+				// log.debug("capspersample: "+myReader.get(i).getCapsperSample2d().get(k).size());
+				// log.debug("fireintervalsumtemp: "+fisumtemp);
+				// log.debug("FireIntervalyearperSample: "+FIyearperSample.get(k).size());
+				if (reader.getCapsperSample2d().get(k).size() != 0)
+				{
+					report.append("\t" + "Average number years per fire: "
+							+ onePlace.format((((double) reader.getTotalRecorderYearsPerSample()[k])
+									/ reader.getCapsperSample2d().get(k).size()))
+							+ "\n");
+				}
+				else
+				{
+					report.append("\t" + "Average number years per fire: " + " NA \n");
+				}
+				if (FIyearperSample.get(k).size() != 0)
+				{
+					report.append("\t" + "Sample mean fire interval: "
+							+ onePlace.format((((double) fisumtemp) / FIyearperSample.get(k).size())) + "\n");
+				}
+				else
+				{
+					report.append("\t" + "Sample mean fire interval: " + " NA \n");
+				}
+				
+				totalRecorderYearsPerSite = totalRecorderYearsPerSite + reader.getTotalRecorderYearsPerSample()[k];
+				totalFireScarsPerSite = totalFireScarsPerSite + reader.getCapsperSample2d().get(k).size();
+				totalAllIndicatorsPerSite = totalAllIndicatorsPerSite
+						+ reader.getCalosYearperSample2d().get(k).size();
+				if (FIyearperSample.get(k).size() != 0)
+				{
+					totalMeanFireIntervals = totalMeanFireIntervals + (((double) fisumtemp) / FIyearperSample.get(k).size());
+				}
+				
+				// log.debug("the size of FyearperSample is: "+ FyearperSample.size()+"X"+FyearperSample.get(k).size() );
+			} // end of k loop number of series
+			/*
+			 * find totals for Recorder years per file totals for fire scars per file totals for all indicators avg number of years
+			 * per fire: total number of recorder years/total number of fire scars avg number of years per all injuries: total
+			 * number of recorder years/total number of all indicators avg all sample mean fire intervals total number of years with
+			 * fire percentage of years with fires: total number of years with fire percentage of years with fire: percentage year
+			 * MFI
+			 */
+			for (int j = 0; j < reader.getFireEventsArray().size(); j++)
+			{
+				
+				if (reader.getFireEventsArray().get(j) == 1)
+				{
+					totalYearsWithFirePerSite = totalYearsWithFirePerSite + 1;
+				}
+			}
+			// log.debug("total recorder years: "+ totalRecorderYearsPerSite );
+			// log.debug("total fire scars: "+ totalFireScarsPerSite );
+			// log.debug("total all indicators: "+ totalAllIndicatorsPerSite );
+			// log.debug("total years with fire per site: "+ totalYearsWithFirePerSite );
+			// log.debug("linecounter is: "+ linecounter);
+			report.append("\n\n" + " FINAL SUMMARY INFORMATION FOR ENTIRE SITE :" + "\n");
+			report.append("\t" + "Total number of recorder years: " + totalRecorderYearsPerSite + "\n");
+			report.append("\t" + "Total number of fire scars: " + totalFireScarsPerSite + "\n");
+			report.append("\t" + "Total number of all indicators: " + totalAllIndicatorsPerSite + "\n");
+			if (totalFireScarsPerSite != 0)
+			{
+				report.append("\t" + "Average number of years per fire: "
+						+ onePlace.format((((double) totalRecorderYearsPerSite) / totalFireScarsPerSite)) + "\n");
+			}
+			else
+			{
+				report.append("\t" + "Average number of years per fire: " + " NA \n");
+			}
+			if (totalAllIndicatorsPerSite != 0)
+			{
+				report.append("\t" + "Average number of years per all indicators: "
+						+ onePlace.format((((double) totalRecorderYearsPerSite) / totalAllIndicatorsPerSite)) + "\n");
+			}
+			else
+			{
+				report.append("\t" + "Average number of years per all indicators: " + " NA \n");
+			}
+			report.append("\t" + "Average all sample mean fire intervals: "
+					+ onePlace.format(totalMeanFireIntervals / reader.getNumberOfSeries()) + "\n");
+			report.append("\t" + "Total number of years with fire: " + totalYearsWithFirePerSite + "\n");
+			report.append("\t" + "Percentage of years with fire: "
+					+ onePlace.format(((double) totalYearsWithFirePerSite / linecounter * 100)) + "\n");
+			report.append("\t" + "Percentage of years with without fire: "
+					+ onePlace.format((100 - ((double) totalYearsWithFirePerSite / linecounter * 100))) + "\n");
+			report.append("\t" + "Percentage of years with MFI: "
+					+ onePlace.format((100 / ((double) totalYearsWithFirePerSite / linecounter * 100))) + "\n");
+		
+		} // end of if for indvireports
+		
+		return passFormat;
+	}
+}
@@ -18,6 +18,9 @@
 package org.fhaes.fhfilereader;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 import org.fhaes.enums.EventTypeToProcess;
 import org.fhaes.enums.FireFilterType;
@@ -39,6 +42,14 @@ public abstract class AbstractFireHistoryReader implements IFHAESReader {
 	protected ArrayList<FHSeries> seriesList;
 	private boolean needToPopulateSeriesList = true;
 	
+	// Statistics derived from the raw data, calculated the first time they are requested. These are cleared by replaceSeriesList()
+	private int[] sampleDepths;
+	private final Map<EventTypeToProcess, int[]> recordingDepths = new EnumMap<EventTypeToProcess, int[]>(EventTypeToProcess.class);
+	private final Map<EventTypeToProcess, double[]> percentOfRecordingScarred = new EnumMap<EventTypeToProcess, double[]>(
+			EventTypeToProcess.class);
+	private final Map<EventTypeToProcess, double[]> percentOfAllScarred = new EnumMap<EventTypeToProcess, double[]>(
+			EventTypeToProcess.class);
+	
 	public abstract String getFileContentsAsString();
 	
 	/**
@@ -52,10 +63,23 @@ public abstract class AbstractFireHistoryReader implements IFHAESReader {
 	 * 
 	 * @param seriesList
 	 */
-	public void replaceSeriesList(ArrayList<FHSeries> inSeriesList) {
+	public synchronized void replaceSeriesList(ArrayList<FHSeries> inSeriesList) {
 	
 		seriesList.clear();
 		seriesList.addAll(inSeriesList);
+		clearDerivedStatistics();
+	}
+	
+	/**
+	 * Discard the sample depths, recording depths and percentages scarred calculated so far, so that they are recalculated the next time
+	 * they are requested. Implementing classes should call this if the underlying data changes.
+	 */
+	protected synchronized void clearDerivedStatistics() {
+	
+		sampleDepths = null;
+		recordingDepths.clear();
+		percentOfRecordingScarred.clear();
+		percentOfAllScarred.clear();
 	}
 	
 	/**
@@ -63,7 +87,7 @@ public abstract class AbstractFireHistoryReader implements IFHAESReader {
 	 * 
 	 * @return
 	 */
-	public ArrayList<FHSeries> getSeriesList() {
+	public synchronized ArrayList<FHSeries> getSeriesList() {
 	
 		if (needToPopulateSeriesList)
 		{
@@ -78,15 +102,29 @@ public abstract class AbstractFireHistoryReader implements IFHAESReader {
 	 * Returns an array of ints with size equal to the number of years in the file. The values in the array are the number trees for each
 	 * year in the file (regardless of recording status), starting with the earliest, and finishing with the most recent year.
 	 * 
+	 * <p>
+	 * The array is calculated on the first call and the same array is returned thereafter, so it must not be modified.
+	 * </p>
+	 * 
 	 * @return
 	 */
-	public int[] getSampleDepths() {
+	public synchronized int[] getSampleDepths() {
+	
+		if (sampleDepths == null)
+		{
+			sampleDepths = calculateSampleDepths();
+		}
+		
+		return sampleDepths;
+	}
+	
+	private int[] calculateSampleDepths() {
 	
 		// Instantiate the array ready to populate
 		int[] arr = new int[this.getYearArray().size()];
 		int totaltreeperyear = 0;
 		
-		ArrayList<ArrayList<Integer>> data = this.getRecorderYears2DArray(EventTypeToProcess.FIRE_EVENT);
+		List<List<Integer>> data = this.getRecorderYears2DArray(EventTypeToProcess.FIRE_EVENT);
 		
 		if (data == null)
 			return null;
@@ -119,15 +157,32 @@ public abstract class AbstractFireHistoryReader implements IFHAESReader {
 	 * Returns an array of ints with size equal to the number of years in the file. The values in the array are the number of samples that
 	 * are in recording status for each year in the file, starting with the earliest, and finishing with the most recent year.
 	 * 
+	 * <p>
+	 * The array is calculated on the first call for each event type and the same array is returned thereafter, so it must not be modified.
+	 * </p>
+	 * 
 	 * @return
 	 */
-	public int[] getRecordingDepths(EventTypeToProcess eventTypeToProcess) {
+	public synchronized int[] getRecordingDepths(EventTypeToProcess eventTypeToProcess) {
+	
+		int[] arr = recordingDepths.get(eventTypeToProcess);
+		
+		if (arr == null)
+		{
+			arr = calculateRecordingDepths(eventTypeToProcess);
+			recordingDepths.put(eventTypeToProcess, arr);
+		}
+		
+		return arr;
+	}
+	
+	private int[] calculateRecordingDepths(EventTypeToProcess eventTypeToProcess) {
 	
 		// Instantiate the array ready to populate
 		int[] arr = new int[this.getYearArray().size()];
 		int totalrecorderperyear;
 		
-		ArrayList<ArrayList<Integer>> data = this.getRecorderYears2DArray(eventTypeToProcess);
+		List<List<Integer>> data = this.getRecorderYears2DArray(eventTypeToProcess);
 		
 		for (int j = 0; j < this.getYearArray().size(); j++)
 		{
@@ -150,30 +205,38 @@ public abstract class AbstractFireHistoryReader implements IFHAESReader {
 	 * Returns an array of doubles with size equal to the number of years in the file. The values in the array are the percentage of samples
 	 * that are in recording status and which have an event. The type of event (fire, injury or both) is specified as a parameter.
 	 * 
+	 * <p>
+	 * The array is calculated on the first call for each event type and the same array is returned thereafter, so it must not be modified.
+	 * </p>
+	 * 
 	 * @param eventTypeToProcess - whether to calculate the percentage based on fire events, injury events, or both.
 	 * @return
 	 */
-	public double[] getPercentOfRecordingScarred(EventTypeToProcess eventTypeToProcess) {
+	public synchronized double[] getPercentOfRecordingScarred(EventTypeToProcess eventTypeToProcess) {
+	
+		double[] arrpc = percentOfRecordingScarred.get(eventTypeToProcess);
+		
+		if (arrpc == null)
+		{
+			arrpc = calculatePercentOfRecordingScarred(eventTypeToProcess);
+			percentOfRecordingScarred.put(eventTypeToProcess, arrpc);
+		}
+		
+		return arrpc;
+	}
+	
+	private double[] calculatePercentOfRecordingScarred(EventTypeToProcess eventTypeToProcess) {
 	
 		// Instantiate the array ready to populate
 		double[] arrpc = new double[this.getYearArray().size()];
-		int[] arr1 = new int[this.getYearArray().size()];
+		int[] arr1 = getRecordingDepths(eventTypeToProcess);
+		List<Double> events = this.getFilterArrays(eventTypeToProcess).get(0);
 		
 		for (int j = 0; j < this.getYearArray().size(); j++)
 		{
-			int totalrecorderperyear = 0;
-			for (int k = 0; k < this.getNumberOfSeries(); k++)
-			{
-				if (this.getRecorderYears2DArray(eventTypeToProcess).get(k).get(j) == 1)
-				{
-					totalrecorderperyear = totalrecorderperyear + 1;
-				}
-			}
-			arr1[j] = totalrecorderperyear;
-			
 			if (arr1[j] != 0)
 			{
-				arrpc[j] = (this.getFilterArrays(eventTypeToProcess).get(0).get(j) / arr1[j]) * 100;
+				arrpc[j] = (events.get(j) / arr1[j]) * 100;
 			}
 			else
 			{
@@ -188,20 +251,38 @@ public abstract class AbstractFireHistoryReader implements IFHAESReader {
 	 * Returns an array of doubles with size equal to the number of years in the file. The values in the array are the percentage of samples
 	 * that are present in that specific year. The type of event (fire, injury or both) is specified as a parameter.
 	 * 
+	 * <p>
+	 * The array is calculated on the first call for each event type and the same array is returned thereafter, so it must not be modified.
+	 * </p>
+	 * 
 	 * @param eventTypeToProcess - whether to calculate the percentage based on fire events, injury events, or both.
 	 * @return
 	 */
-	public double[] getPercentOfAllScarred(EventTypeToProcess eventTypeToProcess) {
+	public synchronized double[] getPercentOfAllScarred(EventTypeToProcess eventTypeToProcess) {
+	
+		double[] arrpc = percentOfAllScarred.get(eventTypeToProcess);
+		
+		if (arrpc == null)
+		{
+			arrpc = calculatePercentOfAllScarred(eventTypeToProcess);
+			percentOfAllScarred.put(eventTypeToProcess, arrpc);
+		}
+		
+		return arrpc;
+	}
+	
+	private double[] calculatePercentOfAllScarred(EventTypeToProcess eventTypeToProcess) {
 	
 		// Instantiate the array ready to populate
 		double[] arrpc = new double[this.getYearArray().size()];
 		int[] arr1 = getSampleDepths();
+		List<Double> events = this.getFilterArrays(eventTypeToProcess).get(0);
 		
 		for (int j = 0; j < this.getYearArray().size(); j++)
 		{
 			if (arr1[j] != 0)
 			{
-				arrpc[j] = (this.getFilterArrays(eventTypeToProcess).get(0).get(j) / arr1[j]) * 100;
+				arrpc[j] = (events.get(j) / arr1[j]) * 100;
 			}
 			else
 			{
@@ -252,7 +333,7 @@ public abstract class AbstractFireHistoryReader implements IFHAESReader {
 		if (filterType.equals(FireFilterType.NUMBER_OF_EVENTS))
 		{
 			
-			ArrayList<Double> dataArray = this.getFilterArrays(eventTypeToProcess).get(0);
+			List<Double> dataArray = this.getFilterArrays(eventTypeToProcess).get(0);
 			
 			Integer currentYear = this.getFirstYear();
 			for (int i = 0; i < dataArray.size(); i++)
@@ -313,7 +394,7 @@ public abstract class AbstractFireHistoryReader implements IFHAESReader {
 		{
 			// log.debug("Doing recording trees");
 			
-			ArrayList<Double> numberOfEvents = this.getFilterArrays(eventTypeToProcess).get(0);
+			List<Double> numberOfEvents = this.getFilterArrays(eventTypeToProcess).get(0);
 			int[] recordingDepths = this.getRecordingDepths(eventTypeToProcess);
 			
 			Integer currentYear = this.getFirstYear();
@@ -19,18 +19,13 @@ package org.fhaes.fhfilereader;
 
 import java.io.File;
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
-import java.util.TimeZone;
 
 import org.apache.commons.io.FilenameUtils;
 import org.codehaus.plexus.util.FileUtils;
 import org.fhaes.enums.AnalysisLabelType;
 import org.fhaes.enums.EventTypeToProcess;
-import org.fhaes.fhfilechecker.FHFileChecker;
+import org.fhaes.fhfilechecker.FHFileFormatChecker;
 import org.fhaes.model.FHCategoryEntry;
 import org.fhaes.model.FHSeries;
 import org.fhaes.preferences.App;
@@ -40,11 +35,6 @@ import org.slf4j.LoggerFactory;
 import org.tridas.io.exceptions.InvalidDendroFileException;
 import org.tridas.io.exceptions.InvalidDendroFileException.PointerType;
 import org.tridas.io.formats.fhx2.FHX2Reader;
-import org.tridas.io.util.TridasUtils;
-import org.tridas.schema.TridasGenericField;
-import org.tridas.schema.TridasObject;
-import org.tridas.schema.TridasProject;
-import org.tridas.spatial.GMLPointSRSHandler;
 
 /**
  * FHFile Class. Simple extension of java.io.File which includes functions for checking whether this is a valid FHX format file, and if not,
@@ -62,16 +52,11 @@ public class FHFile extends File {
 	// Declare local variables
 	private AbstractFireHistoryReader fhaesReader;
 	private boolean isFileValid;
-	private boolean isInitialised = false;
 	private String categoryFilePath = null;
 	private String errorMessage = null;
 	private String report = "";
 	private Integer lineNumberError = null;
-	private TridasProject[] projects;
-	private BigDecimal latitude;
-	private BigDecimal longitude;
-	private FHX2Reader tricycleReader;
-	private Boolean locationInitialize = false;
+	private FHFileMetadata metadata;
 	
 	/**
 	 * Initializes a new FHFile.
@@ -121,6 +106,30 @@ public class FHFile extends File {
 		return report;
 	}
 	
+	/**
+	 * Get a hash of the content of this file as it was when it was loaded, or null if the file could not be read. Files with the same content
+	 * have the same hash regardless of their name or location.
+	 * 
+	 * @return
+	 */
+	public String getContentHash() {
+	
+		if (fhaesReader instanceof FHX2FileReader)
+			return ((FHX2FileReader) fhaesReader).getContentHash();
+		
+		return null;
+	}
+	
+	/**
+	 * Get the metadata that was extracted from this file when it was loaded.
+	 * 
+	 * @return
+	 */
+	public FHFileMetadata getMetadata() {
+	
+		return metadata;
+	}
+	
 	/**
 	 * Get a string containing an error message reporting problems with the file. If the file is valid then this will return null.
 	 * 
@@ -128,17 +137,24 @@ public class FHFile extends File {
 	 */
 	public String getErrorMessage() {
 	
-		if (!isInitialised)
-			init();
-		
-		EventTypeToProcess eventType = App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_EVENT);
-		
+		return getErrorMessage(App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_EVENT));
+	}
+	
+	/**
+	 * Get a string containing an error message reporting problems with the file when analyzing the specified type of events. If the file is
+	 * valid and contains the required events then this will return null.
+	 * 
+	 * @param eventType
+	 * @return
+	 */
+	public String getErrorMessage(EventTypeToProcess eventType) {
+	
 		// If file is valid but is missing the required events then override the error messages from the libraries
 		if (this.isFileValid)
 		{
 			if (eventType.equals(EventTypeToProcess.FIRE_EVENT))
 			{
-				if (!fhaesReader.hasFireEvents())
+				if (!metadata.hasFireEvents())
 				{
 					return "N.B. The analysis parameters are currently set to analyze files for fire scars.  "
 							+ "This file, however contains no fire scars so will be excluded from the analyses";
@@ -146,7 +162,7 @@ public class FHFile extends File {
 			}
 			else if (eventType.equals(EventTypeToProcess.INJURY_EVENT))
 			{
-				if (!fhaesReader.hasInjuryEvents())
+				if (!metadata.hasInjuryEvents())
 				{
 					return "N.B. The analysis parameters are currently set to analyze files for other indicators.  "
 							+ "This file, however contains no other indicators so will be excluded from the analyses";
@@ -154,7 +170,7 @@ public class FHFile extends File {
 			}
 			else if (eventType.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
 			{
-				if (!fhaesReader.hasInjuryEvents() && !fhaesReader.hasFireEvents())
+				if (!metadata.hasInjuryEvents() && !metadata.hasFireEvents())
 				{
 					return "N.B. This file contains no fire or other indicators so will be excluded from the analyses";
 				}
@@ -171,16 +187,7 @@ public class FHFile extends File {
 	 */
 	public boolean isValidFHXFile() {
 	
-		if (!isInitialised)
-			init();
-		try
-		{
-			return isFileValid;
-		}
-		catch (Exception e)
-		{
-			return false;
-		}
+		return isFileValid;
 	}
 	
 	/**
@@ -190,16 +197,7 @@ public class FHFile extends File {
 	 */
 	public Integer getErrorLine() {
 	
-		if (!isInitialised)
-			init();
-		try
-		{
-			return lineNumberError;
-		}
-		catch (Exception e)
-		{
-			return null;
-		}
+		return lineNumberError;
 	}
 	
 	/**
@@ -209,16 +207,7 @@ public class FHFile extends File {
 	 */
 	public boolean hasFireEventsOrInjuries() {
 	
-		if (!isInitialised)
-			init();
-		try
-		{
-			return fhaesReader.hasFireEventsOrInjuries();
-		}
-		catch (Exception e)
-		{
-			return false;
-		}
+		return metadata.hasFireEventsOrInjuries();
 	}
 	
 	/**
@@ -228,16 +217,7 @@ public class FHFile extends File {
 	 */
 	public boolean hasFireEvents() {
 	
-		if (!isInitialised)
-			init();
-		try
-		{
-			return fhaesReader.hasFireEvents();
-		}
-		catch (Exception e)
-		{
-			return false;
-		}
+		return metadata.hasFireEvents();
 	}
 	
 	/**
@@ -247,16 +227,7 @@ public class FHFile extends File {
 	 */
 	public boolean hasInjuryEvents() {
 	
-		if (!isInitialised)
-			init();
-		try
-		{
-			return fhaesReader.hasInjuryEvents();
-		}
-		catch (Exception e)
-		{
-			return false;
-		}
+		return metadata.hasInjuryEvents();
 	}
 	
 	/**
@@ -266,16 +237,7 @@ public class FHFile extends File {
 	 */
 	public Integer getFirstYear() {
 	
-		if (!isInitialised)
-			init();
-		try
-		{
-			return fhaesReader.getFirstYear();
-		}
-		catch (Exception e)
-		{
-			return null;
-		}
+		return metadata.getFirstYear();
 	}
 	
 	/**
@@ -285,16 +247,7 @@ public class FHFile extends File {
 	 */
 	public Integer getLastYear() {
 	
-		if (!isInitialised)
-			init();
-		try
-		{
-			return fhaesReader.getLastYear();
-		}
-		catch (Exception e)
-		{
-			return null;
-		}
+		return metadata.getLastYear();
 	}
 	
 	/**
@@ -304,27 +257,7 @@ public class FHFile extends File {
 	 */
 	public String getSiteCode() {
 	
-		if (!isInitialised)
-			init();
-		try
-		{
-			projects = tricycleReader.getProjects();
-			if (projects == null)
-				return "Unknown site code";
-			if (projects.length == 0)
-				return "Unknown site code";
-			
-			TridasObject o = projects[0].getObjects().get(0);
-			
-			TridasGenericField objCodeField = TridasUtils.getGenericFieldByName(o, "tellervo.objectLabCode");
-			return objCodeField.getValue();
-		}
-		catch (Exception e)
-		{
-			
-		}
-		
-		return "Unknown site code";
+		return metadata.getSiteCode();
 	}
 	
 	/**
@@ -334,26 +267,7 @@ public class FHFile extends File {
 	 */
 	public String getSiteName() {
 	
-		if (!isInitialised)
-			init();
-		try
-		{
-			projects = tricycleReader.getProjects();
-			if (projects == null)
-				return "Unknown site";
-			if (projects.length == 0)
-				return "Unknown site";
-			
-			TridasObject o = projects[0].getObjects().get(0);
-			
-			return o.getTitle();
-		}
-		catch (Exception e)
-		{
-			
-		}
-		
-		return "Unknown site";
+		return metadata.getSiteName();
 	}
 	
 	/**
@@ -363,39 +277,19 @@ public class FHFile extends File {
 	 */
 	public String getLabel() {
 	
-		AnalysisLabelType lt = App.prefs.getAnalysisLabelTypePref(PrefKey.ANALYSIS_LABEL_TYPE, AnalysisLabelType.INPUT_FILENAME);
-		String label = "";
-		
-		if (lt != null)
-		{
-			if (lt.equals(AnalysisLabelType.INPUT_FILENAME))
-			{
-				label = getFileNameWithoutExtension().replace(",", "_");
-			}
-			else if (lt.equals(AnalysisLabelType.SITE_CODE))
-			{
-				label = getSiteCode().replace(",", "_");
-			}
-			else if (lt.equals(AnalysisLabelType.SITE_NAME))
-			{
-				label = getSiteName().replace(",", "_");
-			}
-			else
-			{
-				label = getFileNameWithoutExtension().replace(",", "_");
-			}
-		}
-		
-		if (label == null || label.length() == 0)
-		{
-			label = getFileNameWithoutExtension().replace(",", "_");
-			if (label == null || label.length() == 0)
-			{
-				label = "-";
-			}
-		}
-		
-		return label;
+		return getLabel(App.prefs.getAnalysisLabelTypePref(PrefKey.ANALYSIS_LABEL_TYPE, AnalysisLabelType.INPUT_FILENAME));
+	}
+	
+	/**
+	 * Get the string to label this file by in analysis results using the specified type of label. Use this rather than getLabel() when
+	 * labelling many files so that the preference only needs to be read once.
+	 * 
+	 * @param labelType
+	 * @return
+	 */
+	public String getLabel(AnalysisLabelType labelType) {
+	
+		return metadata.getLabel(labelType);
 	}
 	
 	/**
@@ -405,29 +299,7 @@ public class FHFile extends File {
 	 */
 	public String getFirstCollectionDate() {
 	
-		projects = tricycleReader.getProjects();
-		if (projects == null)
-			return null;
-		if (projects.length == 0)
-			return null;
-		
-		TridasProject p = projects[0];
-		if (p.isSetObjects())
-		{
-			try
-			{
-				Date dt = p.getObjects().get(0).getElements().get(0).getSamples().get(0).getSamplingDate().getValue().toGregorianCalendar()
-						.getTime();
-				DateFormat df = new SimpleDateFormat("yyyy-MM-dd");
-				df.setTimeZone(TimeZone.getTimeZone("UTC"));
-				return df.format(dt);
-			}
-			catch (Exception e)
-			{
-			}
-		}
-		
-		return null;
+		return metadata.getFirstCollectionDate();
 	}
 	
 	/**
@@ -437,25 +309,7 @@ public class FHFile extends File {
 	 */
 	public String getFirstState() {
 	
-		projects = tricycleReader.getProjects();
-		if (projects == null)
-			return null;
-		if (projects.length == 0)
-			return null;
-		
-		TridasProject p = projects[0];
-		if (p.isSetObjects())
-		{
-			try
-			{
-				return p.getObjects().get(0).getLocation().getAddress().getStateProvinceRegion();
-			}
-			catch (Exception e)
-			{
-			}
-		}
-		
-		return null;
+		return metadata.getFirstState();
 	}
 	
 	/**
@@ -465,82 +319,7 @@ public class FHFile extends File {
 	 */
 	public String getFirstCountry() {
 	
-		projects = tricycleReader.getProjects();
-		if (projects == null)
-			return null;
-		if (projects.length == 0)
-			return null;
-		
-		TridasProject p = projects[0];
-		if (p.isSetObjects())
-		{
-			try
-			{
-				return p.getObjects().get(0).getLocation().getAddress().getCountry();
-			}
-			catch (Exception e)
-			{
-			}
-		}
-		
-		return null;
-	}
-	
-	/**
-	 * Parse the location information from the metadata and store in latitude and longitude fields
-	 */
-	private void parseLocation() {
-	
-		if (!isInitialised)
-			init();
-		locationInitialize = true;
-		
-		// Parse the legacy data file
-		try
-		{
-			// TridasEntitiesFromDefaults def = new TridasEntitiesFromDefaults();
-			
-			projects = tricycleReader.getProjects();
-			
-			if (projects == null)
-				return;
-			if (projects.length == 0)
-				return;
-			
-			TridasProject p = projects[0];
-			
-			try
-			{
-				// Set coordinates using the projection handler to make sure we're reading correctly
-				TridasObject o = p.getObjects().get(0);
-				if (o.isSetLocation())
-				{
-					if (o.getLocation().isSetLocationGeometry())
-					{
-						if (o.getLocation().getLocationGeometry().isSetPoint())
-						{
-							GMLPointSRSHandler tph = new GMLPointSRSHandler(o.getLocation().getLocationGeometry().getPoint());
-							
-							latitude = BigDecimal.valueOf(tph.getWGS84LatCoord());
-							// latitude = tph.getWGS84LatCoord().toString();
-							// longitude = tph.getWGS84LongCoord().toString();
-							longitude = BigDecimal.valueOf(tph.getWGS84LongCoord());
-							
-						}
-					}
-				}
-				
-			}
-			catch (Exception e1)
-			{
-				return;
-			}
-		}
-		catch (Exception e)
-		{
-			log.error("Exception parsing FHFile");
-			e.printStackTrace();
-		}
+		return metadata.getFirstCountry();
 	}
 	
 	/**
@@ -550,17 +329,10 @@ public class FHFile extends File {
 	 */
 	public String getFirstLatitude() {
 	
-		if (!locationInitialize)
-			parseLocation();
-		
-		try
-		{
-			return latitude.toString();
-		}
-		catch (NullPointerException e)
-		{
+		if (metadata.getLatitude() == null)
 			return null;
-		}
+		
+		return metadata.getLatitude().toString();
 	}
 	
 	/**
@@ -570,17 +342,10 @@ public class FHFile extends File {
 	 */
 	public String getFirstLongitude() {
 	
-		if (!locationInitialize)
-			parseLocation();
-		
-		try
-		{
-			return longitude.toString();
-		}
-		catch (NullPointerException e)
-		{
+		if (metadata.getLongitude() == null)
 			return null;
-		}
+		
+		return metadata.getLongitude().toString();
 	}
 	
 	/**
@@ -590,17 +355,10 @@ public class FHFile extends File {
 	 */
 	public Double getFirstLatitudeDbl() {
 	
-		if (!locationInitialize)
-			parseLocation();
-		
-		try
-		{
-			return latitude.doubleValue();
-		}
-		catch (Exception e)
-		{
+		if (metadata.getLatitude() == null)
 			return null;
-		}
+		
+		return metadata.getLatitude().doubleValue();
 	}
 	
 	/**
@@ -610,17 +368,10 @@ public class FHFile extends File {
 	 */
 	public Double getFirstLongitudeDbl() {
 	
-		if (!locationInitialize)
-			parseLocation();
-		
-		try
-		{
-			return longitude.doubleValue();
-		}
-		catch (Exception e)
-		{
+		if (metadata.getLongitude() == null)
 			return null;
-		}
+		
+		return metadata.getLongitude().doubleValue();
 	}
 	
 	/**
@@ -710,27 +461,39 @@ public class FHFile extends File {
 	}
 	
 	/**
-	 * Initializes all properties of a new FHFile.
+	 * Initializes all properties of a new FHFile. The file is read from disk and parsed just once by FHX2FileReader. The decoded lines are
+	 * then handed to DendroFileIO for validation, and the same reader is passed to the file checker for the summary report.
+	 * The reader is also added to the FHX2FileReaderCache so that the analyses can reuse it. Finally the metadata is extracted into an
+	 * FHFileMetadata snapshot.
+	 * 
+	 * If the results of validating and checking a file with the same content are held in the FHFileParseCache then these are restored
+	 * instead, skipping DendroFileIO and the file checker entirely.
 	 */
 	private void init() {
 	
 		log.debug("Initialising file: " + this.getName());
-		isInitialised = true;
 		isFileValid = false;
 		
-		File outputFile = null;
-		try
-		{
-			outputFile = File.createTempFile("fhaes", ".tmp");
-			outputFile.deleteOnExit();
-		}
-		catch (IOException e1)
-		{
-			e1.printStackTrace();
+		FHX2FileReader reader = new FHX2FileReader(this);
+		FHX2FileReaderCache.put(this, reader);
+		fhaesReader = reader;
+		
+		String cacheKey = FHFileParseCache.isEnabled() ? FHFileParseCache.getKey(this, reader) : null;
+		FHFileParseCache.Entry cached = FHFileParseCache.get(cacheKey);
+		if (cached != null)
+		{
+			log.debug("Restored checks and metadata for " + this.getName() + " from the parse cache");
+			isFileValid = cached.valid;
+			errorMessage = cached.errorMessage;
+			lineNumberError = cached.lineNumberError;
+			report = cached.report;
+			metadata = new FHFileMetadata(this, reader, isFileValid, cached.siteCode, cached.siteName, cached.firstCollectionDate,
+					cached.firstState, cached.firstCountry, cached.latitude, cached.longitude);
+			return;
 		}
 		
-		File[] inputFileArr = new File[1];
-		inputFileArr[0] = this;
+		ArrayList<String> lines = reader.getFileLines();
+		FHX2Reader tricycleReader = null;
 		
 		// Parse the legacy data file
 		try
@@ -739,8 +502,11 @@ public class FHFile extends File {
 			tricycleReader = new FHX2Reader();
 			log.debug("Checking file using DendroFileIO...");
 			
+			if (lines == null)
+				throw new IOException("Unable to read " + this.getName());
+			
 			// TridasEntitiesFromDefaults def = new TridasEntitiesFromDefaults();
-			tricycleReader.loadFile(super.getAbsolutePath());
+			tricycleReader.loadFile(lines.toArray(new String[lines.size()]));
 			log.debug("DendroFileIO is happy with file");
 			isFileValid = true;
 		}
@@ -774,12 +540,21 @@ public class FHFile extends File {
 		
 		log.debug("DendroFileIO was happy with file, but let's make sure that FHAES parser is happy too...");
 		
-		fhaesReader = new FHX2FileReader(this);
 		try
 		{
-			FHFileChecker checker = new FHFileChecker();
-			isFileValid = checker.doCheck(null, inputFileArr, outputFile, false, true);
-			report = checker.getReport();
+			StringBuilder checkerReport = new StringBuilder(" ");
+			isFileValid = FHFileFormatChecker.checkReader(reader, checkerReport, true);
+			report = checkerReport.toString();
+			
+			if (isFileValid)
+			{
+				log.debug("File checker is happy with file");
+			}
+			else
+			{
+				log.debug("File checker found an error");
+				errorMessage = "FHAES stage 2 parser found an error with this file.  See summary tab for more information.";
+			}
 		}
 		catch (Exception e)
 		{
@@ -789,25 +564,12 @@ public class FHFile extends File {
 					+ e.getClass().getSimpleName() + "\nError:           " + e.getLocalizedMessage();
 			
 			e.printStackTrace();
-			return;
-		}
-		finally
-		{
-			outputFile.delete();
 		}
 		
-		fhaesReader = new FHX2FileReader(this);
+		// Take a snapshot of the metadata now so that the DendroFileIO projects don't need to be kept and walked on every request
+		metadata = FHFileMetadata.fromDendroFileIO(this, tricycleReader, reader, isFileValid);
 		
-		if (isFileValid)
-		{
-			log.debug("File checker is happy with file");
-			return;
-		}
-		else
-		{
-			log.debug("File checker found an error");
-			errorMessage = "FHAES stage 2 parser found an error with this file.  See summary tab for more information.";
-		}
+		FHFileParseCache.put(cacheKey, isFileValid, errorMessage, lineNumberError, report, metadata);
 	}
 	
 	public String getContentsAsString() {
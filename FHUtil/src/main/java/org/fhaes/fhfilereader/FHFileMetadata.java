@@ -0,0 +1,431 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhfilereader;
+
+import java.math.BigDecimal;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.TimeZone;
+
+import org.fhaes.enums.AnalysisLabelType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tridas.io.formats.fhx2.FHX2Reader;
+import org.tridas.io.util.TridasUtils;
+import org.tridas.schema.TridasGenericField;
+import org.tridas.schema.TridasObject;
+import org.tridas.schema.TridasProject;
+import org.tridas.spatial.GMLPointSRSHandler;
+
+/**
+ * FHFileMetadata Class. An immutable snapshot of the metadata for an FHFile. This is extracted once when the file is loaded so that lists of
+ * files can be sorted, rendered and labelled without walking the DendroFileIO project tree or rescanning the data each time.
+ * 
+ * @author Peter Brewer
+ */
+public final class FHFileMetadata {
+	
+	private static final Logger log = LoggerFactory.getLogger(FHFileMetadata.class);
+	
+	private final String siteCode;
+	private final String siteName;
+	private final String firstCollectionDate;
+	private final String firstState;
+	private final String firstCountry;
+	private final BigDecimal latitude;
+	private final BigDecimal longitude;
+	private final Integer firstYear;
+	private final Integer lastYear;
+	private final boolean valid;
+	private final boolean hasFireEvents;
+	private final boolean hasInjuryEvents;
+	private final boolean hasFireEventsOrInjuries;
+	private final EnumMap<AnalysisLabelType, String> labels = new EnumMap<AnalysisLabelType, String>(AnalysisLabelType.class);
+	
+	/**
+	 * Extract the metadata for a file from the DendroFileIO representation of it.
+	 * 
+	 * @param file - the file the metadata belongs to
+	 * @param tricycleReader - DendroFileIO reader that the file has been loaded into
+	 * @param reader - FHAES reader for the file
+	 * @param valid - whether the file passed the format checks
+	 * @return
+	 */
+	static FHFileMetadata fromDendroFileIO(FHFile file, FHX2Reader tricycleReader, AbstractFireHistoryReader reader, boolean valid) {
+	
+		TridasObject object = null;
+		TridasProject project = getFirstProject(tricycleReader);
+		if (project != null && project.isSetObjects())
+		{
+			try
+			{
+				object = project.getObjects().get(0);
+			}
+			catch (Exception e)
+			{
+			}
+		}
+		
+		BigDecimal lat = null;
+		BigDecimal lon = null;
+		try
+		{
+			// Set coordinates using the projection handler to make sure we're reading correctly
+			if (object != null && object.isSetLocation() && object.getLocation().isSetLocationGeometry()
+					&& object.getLocation().getLocationGeometry().isSetPoint())
+			{
+				GMLPointSRSHandler tph = new GMLPointSRSHandler(object.getLocation().getLocationGeometry().getPoint());
+				lat = BigDecimal.valueOf(tph.getWGS84LatCoord());
+				lon = BigDecimal.valueOf(tph.getWGS84LongCoord());
+			}
+		}
+		catch (Exception e)
+		{
+			log.debug("Unable to parse location of " + file.getName());
+			lat = null;
+			lon = null;
+		}
+		
+		return new FHFileMetadata(file, reader, valid, readSiteCode(object), readSiteName(object), readFirstCollectionDate(object),
+				readFirstState(object), readFirstCountry(object), lat, lon);
+	}
+	
+	/**
+	 * Create the metadata for a file from values that have already been extracted from the DendroFileIO representation of it, e.g. when
+	 * they are restored from the FHFileParseCache. The year range and event flags are taken from the FHAES reader.
+	 * 
+	 * @param file - the file the metadata belongs to
+	 * @param reader - FHAES reader for the file
+	 * @param valid - whether the file passed the format checks
+	 * @param siteCode
+	 * @param siteName
+	 * @param firstCollectionDate
+	 * @param firstState
+	 * @param firstCountry
+	 * @param latitude - WGS84 latitude or null
+	 * @param longitude - WGS84 longitude or null
+	 */
+	FHFileMetadata(FHFile file, AbstractFireHistoryReader reader, boolean valid, String siteCode, String siteName,
+			String firstCollectionDate, String firstState, String firstCountry, BigDecimal latitude, BigDecimal longitude) {
+	
+		this.valid = valid;
+		this.siteCode = siteCode;
+		this.siteName = siteName;
+		this.firstCollectionDate = firstCollectionDate;
+		this.firstState = firstState;
+		this.firstCountry = firstCountry;
+		this.latitude = latitude;
+		this.longitude = longitude;
+		
+		Integer first = null;
+		Integer last = null;
+		boolean fires = false;
+		boolean injuries = false;
+		boolean firesOrInjuries = false;
+		if (reader != null)
+		{
+			try
+			{
+				first = reader.getFirstYear();
+			}
+			catch (Exception e)
+			{
+			}
+			try
+			{
+				last = reader.getLastYear();
+			}
+			catch (Exception e)
+			{
+			}
+			try
+			{
+				fires = reader.hasFireEvents();
+			}
+			catch (Exception e)
+			{
+			}
+			try
+			{
+				injuries = reader.hasInjuryEvents();
+			}
+			catch (Exception e)
+			{
+			}
+			try
+			{
+				firesOrInjuries = reader.hasFireEventsOrInjuries();
+			}
+			catch (Exception e)
+			{
+			}
+		}
+		firstYear = first;
+		lastYear = last;
+		hasFireEvents = fires;
+		hasInjuryEvents = injuries;
+		hasFireEventsOrInjuries = firesOrInjuries;
+		
+		// Labels fall back to the file name, and then to a dash, if the value is empty
+		String fileNameLabel = toLabel(file.getFileNameWithoutExtension(), "-");
+		labels.put(AnalysisLabelType.INPUT_FILENAME, fileNameLabel);
+		labels.put(AnalysisLabelType.SITE_CODE, toLabel(siteCode, fileNameLabel));
+		labels.put(AnalysisLabelType.SITE_NAME, toLabel(siteName, fileNameLabel));
+	}
+	
+	/**
+	 * Get the site code from the file metadata. If no site code is included returns "Unknown site code".
+	 * 
+	 * @return
+	 */
+	public String getSiteCode() {
+	
+		return siteCode;
+	}
+	
+	/**
+	 * Get the site name from the file's metadata. If no site name is included then it returns "Unknown site".
+	 * 
+	 * @return
+	 */
+	public String getSiteName() {
+	
+		return siteName;
+	}
+	
+	/**
+	 * Get the sampling date of the first samples within this file, or null if there is none.
+	 * 
+	 * @return
+	 */
+	public String getFirstCollectionDate() {
+	
+		return firstCollectionDate;
+	}
+	
+	/**
+	 * Get the first state or province specified in the metadata or null if no state is specified.
+	 * 
+	 * @return
+	 */
+	public String getFirstState() {
+	
+		return firstState;
+	}
+	
+	/**
+	 * Get the first country specified in the metadata or null if no country is specified.
+	 * 
+	 * @return
+	 */
+	public String getFirstCountry() {
+	
+		return firstCountry;
+	}
+	
+	/**
+	 * Get the WGS84 latitude specified in the metadata, or null if there is no location.
+	 * 
+	 * @return
+	 */
+	public BigDecimal getLatitude() {
+	
+		return latitude;
+	}
+	
+	/**
+	 * Get the WGS84 longitude specified in the metadata, or null if there is no location.
+	 * 
+	 * @return
+	 */
+	public BigDecimal getLongitude() {
+	
+		return longitude;
+	}
+	
+	/**
+	 * Get the first year in the file, or null if it could not be read.
+	 * 
+	 * @return
+	 */
+	public Integer getFirstYear() {
+	
+		return firstYear;
+	}
+	
+	/**
+	 * Get the last year in the file, or null if it could not be read.
+	 * 
+	 * @return
+	 */
+	public Integer getLastYear() {
+	
+		return lastYear;
+	}
+	
+	/**
+	 * Whether the file passed the format checks
+	 * 
+	 * @return
+	 */
+	public boolean isValid() {
+	
+		return valid;
+	}
+	
+	/**
+	 * Whether the file has any fire events
+	 * 
+	 * @return
+	 */
+	public boolean hasFireEvents() {
+	
+		return hasFireEvents;
+	}
+	
+	/**
+	 * Whether the file has any injuries recorded
+	 * 
+	 * @return
+	 */
+	public boolean hasInjuryEvents() {
+	
+		return hasInjuryEvents;
+	}
+	
+	/**
+	 * Whether the file has any fire events or injuries
+	 * 
+	 * @return
+	 */
+	public boolean hasFireEventsOrInjuries() {
+	
+		return hasFireEventsOrInjuries;
+	}
+	
+	/**
+	 * Get the string to label the file by in analysis results for the specified type of label. If the file has no value for the type of
+	 * label then the file name is used instead.
+	 * 
+	 * @param labelType
+	 * @return
+	 */
+	public String getLabel(AnalysisLabelType labelType) {
+	
+		if (labelType == null)
+			return labels.get(AnalysisLabelType.INPUT_FILENAME);
+		
+		return labels.get(labelType);
+	}
+	
+	private static String toLabel(String value, String defaultLabel) {
+	
+		if (value == null || value.length() == 0)
+			return defaultLabel;
+		
+		return value.replace(",", "_");
+	}
+	
+	private static TridasProject getFirstProject(FHX2Reader tricycleReader) {
+	
+		if (tricycleReader == null)
+			return null;
+		
+		try
+		{
+			TridasProject[] projects = tricycleReader.getProjects();
+			if (projects == null || projects.length == 0)
+				return null;
+			
+			return projects[0];
+		}
+		catch (Exception e)
+		{
+			return null;
+		}
+	}
+	
+	private static String readSiteCode(TridasObject object) {
+	
+		if (object == null)
+			return "Unknown site code";
+		
+		try
+		{
+			TridasGenericField objCodeField = TridasUtils.getGenericFieldByName(object, "tellervo.objectLabCode");
+			return objCodeField.getValue();
+		}
+		catch (Exception e)
+		{
+		}
+		
+		return "Unknown site code";
+	}
+	
+	private static String readSiteName(TridasObject object) {
+	
+		if (object == null)
+			return "Unknown site";
+		
+		return object.getTitle();
+	}
+	
+	private static String readFirstCollectionDate(TridasObject object) {
+	
+		try
+		{
+			Date dt = object.getElements().get(0).getSamples().get(0).getSamplingDate().getValue().toGregorianCalendar().getTime();
+			DateFormat df = new SimpleDateFormat("yyyy-MM-dd");
+			df.setTimeZone(TimeZone.getTimeZone("UTC"));
+			return df.format(dt);
+		}
+		catch (Exception e)
+		{
+		}
+		
+		return null;
+	}
+	
+	private static String readFirstState(TridasObject object) {
+	
+		try
+		{
+			return object.getLocation().getAddress().getStateProvinceRegion();
+		}
+		catch (Exception e)
+		{
+		}
+		
+		return null;
+	}
+	
+	private static String readFirstCountry(TridasObject object) {
+	
+		try
+		{
+			return object.getLocation().getAddress().getCountry();
+		}
+		catch (Exception e)
+		{
+		}
+		
+		return null;
+	}
+}
@@ -0,0 +1,539 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhfilereader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.fhaes.preferences.App;
+import org.fhaes.preferences.FHAESPreferences.PrefKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tridas.io.formats.fhx2.FHX2Reader;
+
+/**
+ * FHFileParseCache Class. A persistent on-disk cache of the results of validating and checking FHX files. When an FHFile is loaded the
+ * file is validated by DendroFileIO and checked by the FHAES file checker, both of which are slow compared to reading the file. As an
+ * archive of files rarely changes, the outcome of these checks along with the metadata extracted from DendroFileIO is stored in a small
+ * binary file in the cache folder so that reopening the same files can skip them.
+ * 
+ * <p>
+ * Entries are keyed on a hash of the content of the file, the file name (which appears in the checker report), the charset settings, the
+ * version of the DendroFileIO library and the PARSER_VERSION. PARSER_VERSION must be incremented whenever a change to the file checker or
+ * the metadata extraction could change the cached results, so that stale entries are ignored. Entries that cannot be read, or that do not
+ * match the key they were requested with or their checksum, are treated as a miss and deleted.
+ * </p>
+ * 
+ * <p>
+ * The cache can be switched off with the PARSE_CACHE_ENABLED preference. Entries that have not been used for MAX_AGE_DAYS are removed, as
+ * are the least recently used entries once there are more than MAX_ENTRIES.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class FHFileParseCache {
+	
+	private static final Logger log = LoggerFactory.getLogger(FHFileParseCache.class);
+	
+	/**
+	 * Version of the parsing and checking code whose results are cached. Increment this to invalidate all existing entries.
+	 */
+	public static final int PARSER_VERSION = 1;
+	
+	/**
+	 * Maximum number of entries kept in the cache.
+	 */
+	public static final int MAX_ENTRIES = 2000;
+	
+	/**
+	 * Number of days after which an entry that has not been used is removed from the cache.
+	 */
+	public static final int MAX_AGE_DAYS = 90;
+	
+	// Number of entries written between each check of the size of the cache
+	private static final int PRUNE_INTERVAL = 100;
+	
+	private static final int MAGIC = 0x46485043;
+	private static final String EXTENSION = ".fhpc";
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private static File cacheFolder = new File(System.getProperty("user.home"), ".fhaes" + File.separator + "parsecache");
+	private static String libraryVersion = null;
+	private static int writeCount = 0;
+	private static long hitCount = 0;
+	private static long missCount = 0;
+	
+	private FHFileParseCache() {
+	
+	}
+	
+	/**
+	 * Get the cache key for a file that has been read by the specified reader. Returns null if the file could not be read, in which case it
+	 * should not be cached.
+	 * 
+	 * @param file
+	 * @param reader
+	 * @return
+	 */
+	static String getKey(File file, FHX2FileReader reader) {
+	
+		if (file == null || reader == null || reader.getContentHash() == null)
+			return null;
+		
+		try
+		{
+			MessageDigest md = MessageDigest.getInstance("SHA-1");
+			String id = reader.getContentHash() + "|" + file.getName() + "|" + reader.getCharsetSetting() + "|" + getLibraryVersion() + "|"
+					+ PARSER_VERSION;
+			md.update(id.getBytes(UTF8));
+			
+			StringBuilder sb = new StringBuilder();
+			for (byte b : md.digest())
+			{
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			log.error("Unable to generate parse cache key");
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	/**
+	 * Get a description of the version of DendroFileIO in use. Snapshot builds all share the same version number, so the size of the
+	 * library is included too.
+	 * 
+	 * @return
+	 */
+	static synchronized String getLibraryVersion() {
+	
+		if (libraryVersion != null)
+			return libraryVersion;
+		
+		Package pkg = FHX2Reader.class.getPackage();
+		String version = pkg != null ? pkg.getImplementationVersion() : null;
+		long size = -1;
+		try
+		{
+			CodeSource source = FHX2Reader.class.getProtectionDomain().getCodeSource();
+			URL location = source != null ? source.getLocation() : null;
+			if (location != null && "file".equals(location.getProtocol()))
+			{
+				size = new File(location.toURI()).length();
+			}
+		}
+		catch (Exception e)
+		{
+			log.debug("Unable to find the DendroFileIO library: " + e.getLocalizedMessage());
+		}
+		
+		libraryVersion = version + ":" + size;
+		return libraryVersion;
+	}
+	
+	/**
+	 * Get the cached entry with the specified key, or null if there is no valid entry.
+	 * 
+	 * @param key
+	 * @return
+	 */
+	static Entry get(String key) {
+	
+		if (key == null)
+			return null;
+		
+		File cacheFile = getCacheFile(key);
+		if (!cacheFile.isFile())
+		{
+			countMiss();
+			return null;
+		}
+		
+		DataInputStream in = null;
+		try
+		{
+			CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(new FileInputStream(cacheFile)), new CRC32());
+			in = new DataInputStream(checked);
+			
+			if (in.readInt() != MAGIC || in.readInt() != PARSER_VERSION || !key.equals(in.readUTF()))
+				throw new IOException("Cache entry does not match key");
+			
+			// Strings are bounded by the size of the file so that a corrupt length cannot cause a huge allocation before the checksum is read
+			long fileLength = cacheFile.length();
+			Entry entry = new Entry();
+			entry.valid = in.readBoolean();
+			entry.errorMessage = readString(in, fileLength);
+			entry.lineNumberError = in.readBoolean() ? Integer.valueOf(in.readInt()) : null;
+			entry.report = readString(in, fileLength);
+			entry.siteCode = readString(in, fileLength);
+			entry.siteName = readString(in, fileLength);
+			entry.firstCollectionDate = readString(in, fileLength);
+			entry.firstState = readString(in, fileLength);
+			entry.firstCountry = readString(in, fileLength);
+			String lat = readString(in, fileLength);
+			String lon = readString(in, fileLength);
+			entry.latitude = lat != null ? new BigDecimal(lat) : null;
+			entry.longitude = lon != null ? new BigDecimal(lon) : null;
+			
+			long checksum = checked.getChecksum().getValue();
+			if (in.readLong() != checksum)
+				throw new IOException("Cache entry is corrupt");
+			
+			// Mark the entry as recently used so that it is kept when the cache is pruned
+			cacheFile.setLastModified(System.currentTimeMillis());
+			countHit();
+			return entry;
+		}
+		catch (Exception e)
+		{
+			log.debug("Discarding unreadable parse cache entry " + cacheFile.getName() + ": " + e.getLocalizedMessage());
+			// Close before deleting so that the file is not held open on Windows
+			closeQuietly(in);
+			in = null;
+			cacheFile.delete();
+			countMiss();
+			return null;
+		}
+		finally
+		{
+			closeQuietly(in);
+		}
+	}
+	
+	/**
+	 * Store the results of validating and checking a file in the cache. Failure to write the entry is logged but otherwise ignored.
+	 * 
+	 * @param key
+	 * @param valid
+	 * @param errorMessage
+	 * @param lineNumberError
+	 * @param report
+	 * @param metadata
+	 */
+	static void put(String key, boolean valid, String errorMessage, Integer lineNumberError, String report, FHFileMetadata metadata) {
+	
+		if (key == null || metadata == null)
+			return;
+		
+		File folder = getCacheFolder();
+		if (!folder.isDirectory() && !folder.mkdirs())
+		{
+			log.debug("Unable to create parse cache folder " + folder.getAbsolutePath());
+			return;
+		}
+		
+		// Write to a temporary file first so that other threads or instances never see a partial entry
+		File tempFile = null;
+		DataOutputStream out = null;
+		try
+		{
+			tempFile = File.createTempFile(key, ".tmp", folder);
+			CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)), new CRC32());
+			out = new DataOutputStream(checked);
+			
+			out.writeInt(MAGIC);
+			out.writeInt(PARSER_VERSION);
+			out.writeUTF(key);
+			out.writeBoolean(valid);
+			writeString(out, errorMessage);
+			out.writeBoolean(lineNumberError != null);
+			if (lineNumberError != null)
+				out.writeInt(lineNumberError);
+			writeString(out, report);
+			writeString(out, metadata.getSiteCode());
+			writeString(out, metadata.getSiteName());
+			writeString(out, metadata.getFirstCollectionDate());
+			writeString(out, metadata.getFirstState());
+			writeString(out, metadata.getFirstCountry());
+			writeString(out, metadata.getLatitude() != null ? metadata.getLatitude().toString() : null);
+			writeString(out, metadata.getLongitude() != null ? metadata.getLongitude().toString() : null);
+			out.writeLong(checked.getChecksum().getValue());
+			out.close();
+			out = null;
+			
+			File cacheFile = getCacheFile(key);
+			if (!tempFile.renameTo(cacheFile))
+			{
+				// Most likely another thread has just written the same entry
+				tempFile.delete();
+			}
+			else if (isPruneDue())
+			{
+				prune(MAX_ENTRIES, MAX_AGE_DAYS * 24L * 60 * 60 * 1000);
+			}
+		}
+		catch (IOException e)
+		{
+			log.debug("Unable to write parse cache entry: " + e.getLocalizedMessage());
+			closeQuietly(out);
+			if (tempFile != null)
+				tempFile.delete();
+		}
+	}
+	
+	/**
+	 * Remove the entries that have not been used for longer than maxAge milliseconds, and then the least recently used entries so that no
+	 * more than maxEntries remain.
+	 * 
+	 * @param maxEntries
+	 * @param maxAge
+	 */
+	static void prune(int maxEntries, long maxAge) {
+	
+		File[] files = getCacheFolder().listFiles();
+		if (files == null)
+			return;
+		
+		long oldest = System.currentTimeMillis() - maxAge;
+		List<File> entries = new ArrayList<File>(Arrays.asList(files));
+		for (int i = entries.size() - 1; i >= 0; i--)
+		{
+			File f = entries.get(i);
+			if (!f.getName().endsWith(EXTENSION))
+			{
+				entries.remove(i);
+			}
+			else if (f.lastModified() < oldest)
+			{
+				f.delete();
+				entries.remove(i);
+			}
+		}
+		
+		if (entries.size() <= maxEntries)
+			return;
+		
+		// Sort most recently used first, taking the times up front as entries may be used while sorting
+		final HashMap<File, Long> lastUsed = new HashMap<File, Long>();
+		for (File f : entries)
+		{
+			lastUsed.put(f, f.lastModified());
+		}
+		Collections.sort(entries, new Comparator<File>() {
+			
+			@Override
+			public int compare(File a, File b) {
+			
+				return lastUsed.get(b).compareTo(lastUsed.get(a));
+			}
+		});
+		
+		log.debug("Removing " + (entries.size() - maxEntries) + " entries from the parse cache");
+		for (File f : entries.subList(maxEntries, entries.size()))
+		{
+			f.delete();
+		}
+	}
+	
+	/**
+	 * Delete all entries from the cache and reset the hit and miss counters.
+	 */
+	public static void clear() {
+	
+		File[] files = getCacheFolder().listFiles();
+		if (files != null)
+		{
+			for (File f : files)
+			{
+				if (f.getName().endsWith(EXTENSION))
+					f.delete();
+			}
+		}
+		
+		synchronized (FHFileParseCache.class)
+		{
+			hitCount = 0;
+			missCount = 0;
+		}
+	}
+	
+	/**
+	 * Set the folder in which the cache entries are stored.
+	 * 
+	 * @param folder
+	 */
+	public static synchronized void setCacheFolder(File folder) {
+	
+		cacheFolder = folder;
+	}
+	
+	/**
+	 * Get the folder in which the cache entries are stored.
+	 * 
+	 * @return
+	 */
+	public static synchronized File getCacheFolder() {
+	
+		return cacheFolder;
+	}
+	
+	/**
+	 * Whether the cache is being used, as set by the PARSE_CACHE_ENABLED preference. When disabled every file is validated and checked in
+	 * full.
+	 * 
+	 * @return
+	 */
+	public static boolean isEnabled() {
+	
+		return App.prefs.getBooleanPref(PrefKey.PARSE_CACHE_ENABLED, true);
+	}
+	
+	/**
+	 * Get the number of files whose results were restored from the cache.
+	 * 
+	 * @return
+	 */
+	public static synchronized long getHitCount() {
+	
+		return hitCount;
+	}
+	
+	/**
+	 * Get the number of files that had to be validated and checked because they were not in the cache.
+	 * 
+	 * @return
+	 */
+	public static synchronized long getMissCount() {
+	
+		return missCount;
+	}
+	
+	private static synchronized void countHit() {
+	
+		hitCount++;
+	}
+	
+	private static synchronized void countMiss() {
+	
+		missCount++;
+	}
+	
+	/**
+	 * Whether the size of the cache should be checked after writing an entry. This is done for the first entry written and then every
+	 * PRUNE_INTERVAL entries.
+	 * 
+	 * @return
+	 */
+	private static synchronized boolean isPruneDue() {
+	
+		return writeCount++ % PRUNE_INTERVAL == 0;
+	}
+	
+	private static File getCacheFile(String key) {
+	
+		return new File(getCacheFolder(), key + EXTENSION);
+	}
+	
+	/**
+	 * Write a string that may be null and may be longer than writeUTF() allows.
+	 * 
+	 * @param out
+	 * @param value
+	 * @throws IOException
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+	
+		if (value == null)
+		{
+			out.writeInt(-1);
+			return;
+		}
+		
+		byte[] bytes = value.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	/**
+	 * Read a string written by writeString().
+	 * 
+	 * @param in
+	 * @param fileLength - length of the file being read, which no valid string can exceed
+	 * @return
+	 * @throws IOException if the string length is invalid
+	 */
+	private static String readString(DataInputStream in, long fileLength) throws IOException {
+	
+		int length = in.readInt();
+		if (length == -1)
+			return null;
+		if (length < 0 || length > fileLength)
+			throw new IOException("Invalid string length");
+		
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, UTF8);
+	}
+	
+	private static void closeQuietly(Closeable c) {
+	
+		if (c == null)
+			return;
+		
+		try
+		{
+			c.close();
+		}
+		catch (IOException e)
+		{
+		}
+	}
+	
+	/**
+	 * The cached results for a single file.
+	 */
+	static class Entry {
+		
+		boolean valid;
+		String errorMessage;
+		Integer lineNumberError;
+		String report;
+		String siteCode;
+		String siteName;
+		String firstCollectionDate;
+		String firstState;
+		String firstCountry;
+		BigDecimal latitude;
+		BigDecimal longitude;
+	}
+}
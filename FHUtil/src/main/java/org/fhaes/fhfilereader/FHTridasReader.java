@@ -19,6 +19,7 @@ package org.fhaes.fhfilereader;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.fhaes.enums.EventTypeToProcess;
 import org.slf4j.Logger;
@@ -100,21 +101,21 @@ public class FHTridasReader extends AbstractFireHistoryReader {
 	}
 	
 	@Override
-	public ArrayList<Integer> getFireEventsArray() {
+	public List<Integer> getFireEventsArray() {
 	
 		// TODO Auto-generated method stub
 		return null;
 	}
 	
 	@Override
-	public ArrayList<Integer> getOtherInjuriesArray() {
+	public List<Integer> getOtherInjuriesArray() {
 	
 		// TODO Auto-generated method stub
 		return null;
 	}
 	
 	@Override
-	public ArrayList<Integer> getFiresAndInjuriesArray() {
+	public List<Integer> getFiresAndInjuriesArray() {
 	
 		// TODO Auto-generated method stub
 		return null;
@@ -156,42 +157,42 @@ public class FHTridasReader extends AbstractFireHistoryReader {
 	}
 	
 	@Override
-	public ArrayList<ArrayList<Integer>> getEventDataArrays(EventTypeToProcess eventType) {
+	public List<List<Integer>> getEventDataArrays(EventTypeToProcess eventType) {
 	
 		// TODO Auto-generated method stub
 		return null;
 	}
 	
 	@Override
-	public ArrayList<ArrayList<Integer>> getCapsYearperSample2d() {
+	public List<List<Integer>> getCapsYearperSample2d() {
 	
 		// TODO Auto-generated method stub
 		return null;
 	}
 	
 	@Override
-	public ArrayList<ArrayList<Integer>> getCalosYearperSample2d() {
+	public List<List<Integer>> getCalosYearperSample2d() {
 	
 		// TODO Auto-generated method stub
 		return null;
 	}
 	
 	@Override
-	public ArrayList<ArrayList<Character>> getCapsperSample2d() {
+	public List<List<Character>> getCapsperSample2d() {
 	
 		// TODO Auto-generated method stub
 		return null;
 	}
 	
 	@Override
-	public ArrayList<ArrayList<Character>> getCalosperSample2d() {
+	public List<List<Character>> getCalosperSample2d() {
 	
 		// TODO Auto-generated method stub
 		return null;
 	}
 	
 	@Override
-	public ArrayList<ArrayList<Double>> getFilterArrays(EventTypeToProcess eventType) {
+	public List<List<Double>> getFilterArrays(EventTypeToProcess eventType) {
 	
 		// TODO Auto-generated method stub
 		return null;
@@ -352,7 +353,7 @@ public class FHTridasReader extends AbstractFireHistoryReader {
 	}
 	
 	@Override
-	public ArrayList<ArrayList<Integer>> getRecorderYears2DArray(EventTypeToProcess eventTypeToProces) {
+	public List<List<Integer>> getRecorderYears2DArray(EventTypeToProcess eventTypeToProces) {
 	
 		// TODO Auto-generated method stub
 		return null;
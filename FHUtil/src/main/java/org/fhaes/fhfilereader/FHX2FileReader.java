@@ -18,21 +18,21 @@
 package org.fhaes.fhfilereader;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import org.fhaes.enums.EventTypeToProcess;
 import org.fhaes.model.FHSeries;
-import org.fhaes.preferences.App;
-import org.fhaes.preferences.FHAESPreferences.PrefKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,7 +66,10 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	
 	private static final Logger log = LoggerFactory.getLogger(FHX2FileReader.class);
 	private final File file;
-	private String rawContent = "";
+	private volatile String rawContent;
+	private String contentHash;
+	private final String charsetSetting;
+	private ArrayList<String> fileLines;
 	private String format;
 	private Integer firstYear;
 	private Integer firstFireYear;
@@ -83,44 +86,48 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	private ArrayList<String> dataByRow;
 	private ArrayList<Integer> badDataLines;
 	
+	// *********
+	// Event data is held in primitive arrays indexed [series][year index] where the year index is the offset from firstYear. The public
+	// accessors wrap these in read-only List views (see PrimitiveListViews) so no boxed copies of the data are kept in memory.
+	// *********
+	private byte[][] seriesData;
+	
 	// *********
 	// The following arrays all come in I, II, III variants corresponding to:
 	// I - fires only
 	// II - injuries only
 	// III - fires and injuries
 	// *********
-	private ArrayList<Integer> climate1dI;
-	private ArrayList<Integer> climate1dII;
-	private ArrayList<Integer> climate1dIII;
-	private ArrayList<ArrayList<Integer>> climate2dI;
-	private ArrayList<ArrayList<Integer>> climate2dII;
-	private ArrayList<ArrayList<Integer>> climate2dIII;
-	private ArrayList<ArrayList<Double>> filters2dI;
-	private ArrayList<ArrayList<Double>> filters2dII;
-	private ArrayList<ArrayList<Double>> filters2dIII;
+	private byte[] climate1dI;
+	private byte[] climate1dII;
+	private byte[] climate1dIII;
+	private byte[][] climate2dI;
+	private byte[][] climate2dII;
+	private byte[][] climate2dIII;
+	private double[][] filters2dI;
+	private double[][] filters2dII;
+	private double[][] filters2dIII;
 	
 	// Booleans for keeping track of which arrays have been initialised
-	private boolean isClimate1dIinit = false;
-	private boolean isClimate1dIIinit = false;
-	private boolean isClimate1dIIIinit = false;
-	private boolean isClimate2dIinit = false;
-	private final boolean isClimate2dIIinit = false;
-	private boolean isClimate2dIIIinit = false;
-	private boolean isFilterse2dIinit = false;
-	private boolean isFilterse2dIIinit = false;
-	private boolean isFilterse2dIIIinit = false;
-	
-	private ArrayList<ArrayList<Character>> capsperSample2d;
-	private ArrayList<ArrayList<Integer>> capsYearperSample2d;
-	private ArrayList<ArrayList<Character>> lowsperSample2d;
-	private ArrayList<ArrayList<Integer>> lowsYearperSample2d;
-	private ArrayList<ArrayList<Character>> calosperSample2d;
-	private ArrayList<ArrayList<Integer>> calosYearperSample2d;
-	private ArrayList<ArrayList<Integer>> recorderYears2DArray;
-	private boolean isRecorderYears2DArrayInit = false;
-	private ArrayList<ArrayList<Integer>> recorderYears2DArrayII;
-	private boolean isRecorderYears2DArrayInitII = false;
-	private ArrayList<ArrayList<Integer>> DecompSyb2d;
+	private volatile boolean isClimate1dIinit = false;
+	private volatile boolean isClimate1dIIinit = false;
+	private volatile boolean isClimate1dIIIinit = false;
+	private volatile boolean isClimate2dIinit = false;
+	private volatile boolean isClimate2dIIinit = false;
+	private volatile boolean isClimate2dIIIinit = false;
+	private volatile boolean isFilterse2dIinit = false;
+	private volatile boolean isFilterse2dIIinit = false;
+	private volatile boolean isFilterse2dIIIinit = false;
+	
+	private char[][] capsperSample2d;
+	private int[][] capsYearperSample2d;
+	private char[][] calosperSample2d;
+	private int[][] calosYearperSample2d;
+	private byte[][] recorderYears2DArray;
+	private volatile boolean isRecorderYears2DArrayInit = false;
+	private byte[][] recorderYears2DArrayII;
+	private volatile boolean isRecorderYears2DArrayInitII = false;
+	private int[][] DecompSyb2d;
 	private int[] lastFirePerSample;
 	private int[] lastInjuryPerSample;
 	
@@ -146,7 +153,20 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 */
 	public FHX2FileReader(File inputFile) {
 	
+		this(inputFile, FHX2FileReaderCache.getCharsetSetting());
+	}
+	
+	/**
+	 * Constructor for reading FHX2 format fire history data files with the charset settings that have already been read from the
+	 * preferences.
+	 * 
+	 * @param inputFile - File to read
+	 * @param charsetSetting - FHX2FileReaderCache.AUTO_DETECT_CHARSET or the name of the charset to decode the file with
+	 */
+	FHX2FileReader(File inputFile, String charsetSetting) {
+	
 		this.file = inputFile;
+		this.charsetSetting = charsetSetting;
 		init();
 	}
 	
@@ -170,14 +190,93 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 		} // end of i loop
 	}
 	
+	/**
+	 * Get the data block transposed so that there is one array of character codes per series. This is built once and shared by the generate
+	 * methods below rather than each of them transposing the data block again. FHX data is plain ASCII so each code is stored as a single
+	 * byte. Anything outside of the ASCII range is stored as '?' which is not a valid FHX code.
+	 * 
+	 * @return
+	 */
+	private synchronized byte[][] getSeriesData() {
+	
+		if (seriesData == null)
+		{
+			byte[][] str = new byte[numberOfSeries][dataBlock.size()];
+			
+			for (int i = 0; i < dataBlock.size(); i++)
+			{
+				String ts = dataBlock.get(i);
+				for (int j = 0; j < ts.length(); j++)
+				{
+					char c = ts.charAt(j);
+					str[j][i] = (byte) (c > 127 ? '?' : c);
+				}
+			}
+			
+			seriesData = str;
+		}
+		
+		return seriesData;
+	}
+	
+	private static boolean isUpperCase(int c) {
+	
+		return c >= 'A' && c <= 'Z';
+	}
+	
+	private static boolean isLowerCase(int c) {
+	
+		return c >= 'a' && c <= 'z';
+	}
+	
+	/**
+	 * Get the index of the first occurrence of value in the array, or -1 if it is not present
+	 * 
+	 * @param arr
+	 * @param value
+	 * @return
+	 */
+	private static int indexOf(byte[] arr, int value) {
+	
+		for (int i = 0; i < arr.length; i++)
+		{
+			if (arr[i] == value)
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Get the lowest non-negative index in the array of per series indices, or -1 if there are none
+	 * 
+	 * @param indices
+	 * @return
+	 */
+	private static int earliestIndex(int[] indices) {
+	
+		int earliest = -1;
+		
+		for (int index : indices)
+		{
+			if (index >= 0 && (earliest == -1 || index < earliest))
+				earliest = index;
+		}
+		
+		return earliest;
+	}
+	
 	/**
 	 * Generates the standard fireEventsArray
 	 */
-	private void generate1DEventsI() {
+	private synchronized void generate1DEventsI() {
 	
-		climate1dI = new ArrayList<Integer>();
+		if (isClimate1dIinit)
+			return;
+		
+		climate1dI = new byte[dataBlock.size()];
 		String str;
-		Integer in;
+		int in;
 		
 		for (int i = 0; i < dataBlock.size(); i++)
 		{
@@ -195,30 +294,27 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 					in = 0;
 				}
 				else if (in != 0 && in != 1)
-				// (in != 0 && in != 1)
 				{
 					in = -1;
 				}
-				// log.debug(str.charAt(j) + "\t" + in.toString());
 			}
-			// log.debug(str + '\t' + in);
-			climate1dI.add(in);
+			climate1dI[i] = (byte) in;
 		}
 		this.isClimate1dIinit = true;
-		firstFireYear = firstYear + climate1dI.indexOf(1);
+		firstFireYear = firstYear + indexOf(climate1dI, 1);
 	}
 	
 	/**
 	 * Generates the otherInjuriesArray for storing lowercase events
 	 */
-	private void generate1DEventsII() {
+	private synchronized void generate1DEventsII() {
 	
-		// instantiate the climate array list
-		climate1dII = new ArrayList<Integer>();
-		// declare local variables
+		if (isClimate1dIIinit)
+			return;
+		
+		climate1dII = new byte[dataBlock.size()];
 		String strI;
-		Integer inI;
-		// log.debug("I am in make climateI injury");
+		int inI;
 		
 		for (int i = 0; i < dataBlock.size(); i++)
 		{
@@ -236,46 +332,33 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 					inI = 0;
 				}
 				else if (inI != 0 && inI != 1)
-				// (inI != 0 && inI != 1)
 				{
 					inI = -1;
 				}
-				// eelog.debug(str.charAt(j) + "\t" + in.toString());
 			}
-			// eelog.debug(str + '\t' + in);
-			climate1dII.add(inI);
+			climate1dII[i] = (byte) inI;
 		}
 		isClimate1dIIinit = true;
 		
-		firstInjuryYear = firstYear + climate1dII.indexOf(1);
+		firstInjuryYear = firstYear + indexOf(climate1dII, 1);
 	}
 	
 	/**
 	 * Generates most of the basic arrays of data including climate2D.
 	 */
-	public void generate2DEventsI() {
-	
-		climate2dI = new ArrayList<ArrayList<Integer>>();
-		capsperSample2d = new ArrayList<ArrayList<Character>>();
-		lowsperSample2d = new ArrayList<ArrayList<Character>>();
-		calosperSample2d = new ArrayList<ArrayList<Character>>();
-		capsYearperSample2d = new ArrayList<ArrayList<Integer>>();
-		lowsYearperSample2d = new ArrayList<ArrayList<Integer>>();
-		calosYearperSample2d = new ArrayList<ArrayList<Integer>>();
-		// declare local variables
-		char[][] str = new char[numberOfSeries][dataBlock.size()];
-		String ts;
-		ArrayList<Integer> eachTree;
-		ArrayList<Integer> eachTreeTemp;
-		ArrayList<Character> capstemp;
-		ArrayList<Integer> capsYtemp;
-		ArrayList<Character> lowstemp;
-		ArrayList<Integer> lowsYtemp;
-		ArrayList<Character> calostemp;
-		ArrayList<Integer> calosYtemp;
-		Integer in;
-		// log.debug("I am in make climate2d");
-		// int FirstFireFlag[];
+	public synchronized void generate2DEventsI() {
+	
+		if (isClimate2dIinit)
+			return;
+		
+		byte[][] str = getSeriesData();
+		int years = dataBlock.size();
+		
+		climate2dI = new byte[numberOfSeries][years];
+		capsperSample2d = new char[numberOfSeries][];
+		capsYearperSample2d = new int[numberOfSeries][];
+		calosperSample2d = new char[numberOfSeries][];
+		calosYearperSample2d = new int[numberOfSeries][];
 		
 		fIYearPerTree = new int[numberOfSeries];
 		FFyearperTree = new int[numberOfSeries];
@@ -288,190 +371,108 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 		lastFirePerSample = new int[numberOfSeries];
 		lastInjuryPerSample = new int[numberOfSeries];
 		
-		// Load the data of the fhx file into the str[j][i]
-		// str is of size
-		for (int i = 0; i < dataBlock.size(); i++)
-		{
-			ts = dataBlock.get(i);
-			for (int j = 0; j < ts.length(); j++)
-			{
-				str[j][i] = ts.charAt(j);
-			} // end of j loop
-		} // end of i loop load
+		Arrays.fill(fIYearPerTree, -1);
+		Arrays.fill(FFyearperTree, -1);
+		Arrays.fill(pithIndexPerSample, -1);
+		Arrays.fill(innerMostPerTree, -1);
+		Arrays.fill(outerMostPerTree, -1);
+		Arrays.fill(barkPerTree, -1);
+		Arrays.fill(lastFirePerSample, -1);
+		Arrays.fill(lastInjuryPerSample, -1);
 		
-		// /new stuff from elena
+		// Find the index of the first fire, injury, pith, innermost, outermost and bark codes plus the last fire and injury for each sample
 		for (int i = 0; i < numberOfSeries; i++)
 		{
-			eachTreeTemp = new ArrayList<Integer>();
-			for (int j = 0; j < dataBlock.size(); j++)
+			for (int j = 0; j < years; j++)
 			{
-				if (str[i][j] >= 'A' && str[i][j] <= 'Z')
-				{
-					eachTreeTemp.add(1);
-				}
-				else if (str[i][j] >= 'a' && str[i][j] <= 'z')
+				byte c = str[i][j];
+				
+				if (isUpperCase(c))
 				{
-					eachTreeTemp.add(6);
+					if (FFyearperTree[i] == -1)
+						FFyearperTree[i] = j;
+					lastFirePerSample[i] = j;
 				}
-				else if (str[i][j] == '[')
+				else if (isLowerCase(c))
 				{
-					eachTreeTemp.add(2);
+					if (fIYearPerTree[i] == -1)
+						fIYearPerTree[i] = j;
+					lastInjuryPerSample[i] = j;
 				}
-				else if (str[i][j] == '{')
+				else if (c == '[' && pithIndexPerSample[i] == -1)
 				{
-					eachTreeTemp.add(3);
+					pithIndexPerSample[i] = j;
 				}
-				else if (str[i][j] == '}')
+				else if (c == '{' && innerMostPerTree[i] == -1)
 				{
-					eachTreeTemp.add(4);
+					innerMostPerTree[i] = j;
 				}
-				else if (str[i][j] == ']')
+				else if (c == '}' && outerMostPerTree[i] == -1)
 				{
-					eachTreeTemp.add(5);
+					outerMostPerTree[i] = j;
 				}
-				else
+				else if (c == ']' && barkPerTree[i] == -1)
 				{
-					eachTreeTemp.add(0);
+					barkPerTree[i] = j;
 				}
-				// log.debug(i+" "+str[i][j] +" "
-				// +eachTreeTemp.get(j));
-			} // end of j loop
-			if (eachTreeTemp.contains(1))
-			{
-				FFyearperTree[i] = eachTreeTemp.indexOf(1);
-				// log.debug("the last year of a cap is "+eachTreeTemp.lastIndexOf(1)
-				// );
-				lastFirePerSample[i] = eachTreeTemp.lastIndexOf(1);
-			}
-			else
-			{
-				FFyearperTree[i] = eachTreeTemp.indexOf(1);
-				// FFyearperTree[i]=-1;
-				lastFirePerSample[i] = eachTreeTemp.lastIndexOf(1);
-			}
-			if (eachTreeTemp.contains(6))
-			{
-				fIYearPerTree[i] = eachTreeTemp.indexOf(6);
-				// );
-				lastInjuryPerSample[i] = eachTreeTemp.lastIndexOf(6);
 			}
-			else
-			{
-				lastInjuryPerSample[i] = eachTreeTemp.lastIndexOf(6);
-				fIYearPerTree[i] = eachTreeTemp.indexOf(6);
-			}
-			if (eachTreeTemp.contains(2))
-			{
-				pithIndexPerSample[i] = eachTreeTemp.indexOf(2);
-			}
-			else
-			{
-				pithIndexPerSample[i] = eachTreeTemp.indexOf(2);
-				// FFyearperTree[i]=-1;
-			}
-			if (eachTreeTemp.contains(3))
-			{
-				innerMostPerTree[i] = eachTreeTemp.indexOf(3);
-			}
-			else
-			{
-				innerMostPerTree[i] = eachTreeTemp.indexOf(3);
-				// FFyearperTree[i]=-1;
-			}
-			if (eachTreeTemp.contains(4))
-			{
-				outerMostPerTree[i] = eachTreeTemp.indexOf(4);
-			}
-			else
-			{
-				outerMostPerTree[i] = eachTreeTemp.indexOf(4);
-				// FFyearperTree[i]=-1;
-			}
-			if (eachTreeTemp.contains(5))
-			{
-				barkPerTree[i] = eachTreeTemp.indexOf(5);
-			}
-			else
-			{
-				barkPerTree[i] = eachTreeTemp.indexOf(5);
-				// FFyearperTree[i]=-1;
-			}
-			eachTreeTemp.clear();
-			// log.debug(" tree "+ i
-			// +"index of firstfire "+FFyearperTree[i]);
-		} // end of i loop
-			// end new stuff
+		}
+		
+		// Classify each year of each sample, and collect the fire scars (caps) and all scars (calos) along with their year indices
+		char[] capstemp = new char[years];
+		int[] capsYtemp = new int[years];
+		char[] calostemp = new char[years];
+		int[] calosYtemp = new int[years];
 		
-		// Load each crossection (or tree) into the ArrayList variable eachTree
 		for (int j = 0; j < numberOfSeries; j++)
 		{
-			eachTree = new ArrayList<Integer>();
-			capstemp = new ArrayList<Character>();
-			capsYtemp = new ArrayList<Integer>();
-			lowstemp = new ArrayList<Character>();
-			lowsYtemp = new ArrayList<Integer>();
-			calostemp = new ArrayList<Character>();
-			calosYtemp = new ArrayList<Integer>();
-			in = -7;
-			if (j == 0)
-			{
-				// log.debug("the FFyearperTree is : " + FFyearperTree[j]);
-			}
-			for (int i = 0; i < dataBlock.size(); i++)
+			int capsCount = 0;
+			int calosCount = 0;
+			
+			for (int i = 0; i < years; i++)
 			{
-				// if(j==0){log.debug("charte is "+ str[j][i]);}
+				byte c = str[j][i];
+				byte in;
+				
 				if (i < FFyearperTree[j] || FFyearperTree[j] == -1)
 				{
 					in = -1;
-					if (str[j][i] >= 'a' && str[j][i] <= 'z')
+					if (isLowerCase(c))
 					{
-						lowstemp.add(str[j][i]);
-						lowsYtemp.add(i);
-						calostemp.add(str[j][i]);
-						calosYtemp.add(i);
+						calostemp[calosCount] = (char) c;
+						calosYtemp[calosCount++] = i;
 					}
 				}
-				else
+				else if (isUpperCase(c))
 				{
-					if (str[j][i] >= 'A' && str[j][i] <= 'Z')
+					in = 1;
+					capstemp[capsCount] = (char) c;
+					capsYtemp[capsCount++] = i;
+					calostemp[calosCount] = (char) c;
+					calosYtemp[calosCount++] = i;
+				}
+				else if (isLowerCase(c) || c == '|')
+				{
+					in = 0;
+					if (isLowerCase(c))
 					{
-						in = 1;
-						capstemp.add(str[j][i]);
-						capsYtemp.add(i);
-						calostemp.add(str[j][i]);
-						calosYtemp.add(i);
+						calostemp[calosCount] = (char) c;
+						calosYtemp[calosCount++] = i;
 					}
-					else if (((str[j][i] >= 'a') && (str[j][i] <= 'z')) || str[j][i] == '|')
-					{
-						in = 0;
-						// log.debug("it is a low " + i);
-						if (str[j][i] >= 'a' && str[j][i] <= 'z')
-						{
-							lowstemp.add(str[j][i]);
-							lowsYtemp.add(i);
-							calostemp.add(str[j][i]);
-							calosYtemp.add(i);
-						}
-					}
-					else if (str[j][i] == '.')
-						in = -1;
-					else
-						in = -1;
-					
 				}
-				eachTree.add(in);
-			} // end of i loop
-			climate2dI.add(eachTree);
-			capsperSample2d.add(capstemp);
-			capsYearperSample2d.add(capsYtemp);
-			lowsperSample2d.add(lowstemp);
-			lowsYearperSample2d.add(lowsYtemp);
-			calosperSample2d.add(calostemp);
-			calosYearperSample2d.add(calosYtemp);
-			// if(j==0){log.debug("caps #, Y"+capstemp+" "+ capsYtemp
-			// +"lows #, Y"+ lowstemp+" "+ lowsYtemp
-			// +"capls #, Y"+calostemp+" "+ calosYtemp);}
-		} // end of j loop
+				else
+				{
+					in = -1;
+				}
+				
+				climate2dI[j][i] = in;
+			}
+			
+			capsperSample2d[j] = Arrays.copyOf(capstemp, capsCount);
+			capsYearperSample2d[j] = Arrays.copyOf(capsYtemp, capsCount);
+			calosperSample2d[j] = Arrays.copyOf(calostemp, calosCount);
+			calosYearperSample2d[j] = Arrays.copyOf(calosYtemp, calosCount);
+		}
 		/*
 		 * set the start year for each sample it is the pith date or the innermost yearset the Last year for each sample it is the bark or
 		 * the outermost year
@@ -546,745 +547,257 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 				{
 					lastYearIndexPerSample[k] = -1;
 				}
-				
+			
 			}
-			// log.debug("sample "+k +" the start " +
-			// startYearperSample[k]+ " the end " + lastYearperSample[k]);
-		}
-		
-		// determineFirstFireYear2
-		
-		// firstFireYear = firstYear + climate2d.indexOf(1);
-		ArrayList<Integer> ind = new ArrayList<Integer>();
-		for (int j = 0; j < numberOfSeries; j++)
-		{
-			// log.debug("the climate2d.get.indexof(1) is: " +
-			// climate2d.get(j).indexOf(1) );
-			ind.add(climate2dI.get(j).indexOf(1));
 		}
-		Collections.sort(ind);
 		
-		// log.debug("DEBUG Element " + climate2d.get(k).indexOf(1));
-		boolean breakme = true;
-		for (int j = 0; j < numberOfSeries; j++)
+		// The first fire in each sample is the first year coded as 1 in climate2dI
+		int firstFireIndex = earliestIndex(FFyearperTree);
+		if (firstFireIndex >= 0)
 		{
-			if (ind.get(j) >= 0 && breakme)
-			{
-				firstFireYear = firstYear + ind.get(j);
-				breakme = false;
-			}
+			firstFireYear = firstYear + firstFireIndex;
 		}
 		
-		// log.debug("DEBUG Internal First Fire Year is" +
-		// firstFireYear);
 		isClimate2dIinit = true;
 	}
 	
 	/**
-	 * Generate multi-dimensional ArrayList of recorder years. A recorder year is where the sample actually recorded an event or a year in
-	 * which it was capable of recording an event if one was present
+	 * Generate multi-dimensional array of recorder years. A recorder year is where the sample actually recorded an event or a year in which
+	 * it was capable of recording an event if one was present
 	 */
-	private void generateRecorderYearsArray(EventTypeToProcess eventTypeToProcess) {
+	private synchronized void generateRecorderYearsArray(EventTypeToProcess eventTypeToProcess) {
 	
 		if (this.isClimate2dIinit == false)
 			this.generate2DEventsI();
 		
-		char Achar;
-		char Zchar;
-		char AcharInverse;
-		char ZcharInverse;
-		
-		if (eventTypeToProcess.equals(EventTypeToProcess.INJURY_EVENT))
-		{
-			Achar = 'a';
-			Zchar = 'z';
-			AcharInverse = 'A';
-			ZcharInverse = 'Z';
-		}
-		else if (eventTypeToProcess.equals(EventTypeToProcess.FIRE_EVENT)
-				|| eventTypeToProcess.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
-		{
-			Achar = 'A';
-			Zchar = 'Z';
-			AcharInverse = 'a';
-			ZcharInverse = 'z';
-		}
-		else
-		{
-			log.error("Unsupported EventTypeToProcess");
-			return;
-			
-		}
-		
-		// instantiate the recorder array list
-		ArrayList<ArrayList<Integer>> myRecorderYears2DArray = new ArrayList<ArrayList<Integer>>();
-		
-		// declare local variables
-		char[][] str = new char[numberOfSeries][dataBlock.size()];
-		String ts;
-		ArrayList<Integer> tempRecorderYearsForSample;
-		boolean charFlagFound = false;
-		char previousCharToCompare = ' ';
-		
-		totalRecordYearsPerSample = new int[numberOfSeries];
-		
-		// Load the data of the fhx file into the str[j][i]
-		for (int i = 0; i < dataBlock.size(); i++)
-		{
-			ts = dataBlock.get(i);
-			for (int j = 0; j < ts.length(); j++)
-			{
-				str[j][i] = ts.charAt(j);
-			}
-		}
-		
-		// Loop through all series with index i
-		for (int i = 0; i < numberOfSeries; i++)
-		{
-			tempRecorderYearsForSample = new ArrayList<Integer>();
-			totalRecordYearsPerSample[i] = 0;
-			
-			// Loop through years with index j
-			for (int j = 0; j < dataBlock.size(); j++)
-			{
-				// Only check years which fall in the range of the current
-				// sample
-				if ((startYearIndexPerSample[i] <= j) && (lastYearIndexPerSample[i] >= j))
-				{
-					char theCurrentValue = str[i][j];
-					
-					// All the simple cases first...
-					if (theCurrentValue == '|')
-					{
-						// Data file explicitly defines that the sample was
-						// recording
-						tempRecorderYearsForSample.add(1);
-						totalRecordYearsPerSample[i] = totalRecordYearsPerSample[i] + 1;
-					}
-					else if (theCurrentValue >= Achar && theCurrentValue <= Zchar)
-					{
-						// Fire event was found so sample must have been
-						// recording
-						tempRecorderYearsForSample.add(1);
-						totalRecordYearsPerSample[i] = totalRecordYearsPerSample[i] + 1;
-					}
-					else if (theCurrentValue == '.')
-					{
-						// Data file explicitly defines that the sample was not
-						// recording
-						tempRecorderYearsForSample.add(0);
-					}
-					else if (theCurrentValue == '[')
-					{
-						// go to the next character if it is a fire event or | then recorder
-						// if it is a injury event or . then no recorder
-						int l = j;
-						if (((str[i][l + 1] == '|') || (str[i][l + 1] >= Achar && str[i][l + 1] <= Zchar))
-								&& ((l + 1) <= lastYearIndexPerSample[i]))
-						{
-							tempRecorderYearsForSample.add(1);
-							totalRecordYearsPerSample[i] = totalRecordYearsPerSample[i] + 1;
-						}
-						else
-						{
-							tempRecorderYearsForSample.add(0);
-						}
-					}
-					// If first year of sample has no pith then
-					// more fun......
-					else if (theCurrentValue == '{')
-					{
-						// If the year following the first year { bracket is a
-						// recorder year, or
-						// and fire scar than count start bracket as recorder,
-						// otherwise don't.
-						int n = j;
-						if (((str[i][n + 1] == '|') || (str[i][n + 1] >= Achar && str[i][n + 1] <= Zchar))
-								&& ((n + 1) <= lastYearIndexPerSample[i]))
-						{
-							tempRecorderYearsForSample.add(1);
-							totalRecordYearsPerSample[i] = totalRecordYearsPerSample[i] + 1;
-						}
-						else
-						{
-							tempRecorderYearsForSample.add(0);
-						}
-					}
-					
-					// Also complicated for the last year in sample and for
-					// injuries
-					else if ((theCurrentValue >= AcharInverse && theCurrentValue <= ZcharInverse))
-					{
-						// first look at the year following the injury
-						int ln = j;
-						if (((str[i][ln + 1] == '|') || (str[i][ln + 1] >= Achar && str[i][ln + 1] <= Zchar))
-								&& ((ln + 1) <= lastYearIndexPerSample[i]))
-						{
-							tempRecorderYearsForSample.add(1);
-							totalRecordYearsPerSample[i] = totalRecordYearsPerSample[i] + 1;
-						}
-						else
-						{
-							// Step backwards until we find a . | or fire event
-							// int m = j;
-							charFlagFound = false;
-							for (int k = ln - 1; k >= startYearIndexPerSample[i]; k--)
-							{
-								// log.debug("k is: "+ k);
-								if ((str[i][k] == '.') || (str[i][k] == '|') || (str[i][k] >= Achar && str[i][k] <= Zchar)
-										|| (str[i][k] == '{') || (str[i][k] == '['))
-								{
-									charFlagFound = true;
-									previousCharToCompare = str[i][k];
-									// log.debug("at k: "+ k+
-									// " we hit the charcther "+
-									// str[i][k]+" m is "+m);
-									break;
-								}
-							}
-							if ((previousCharToCompare == '.') || (previousCharToCompare == '{') || (previousCharToCompare == '['))
-							{
-								// Previous year was an explicit non-recorder year
-								// so count this year as a non-recorder too
-								tempRecorderYearsForSample.add(0);
-							}
-							else if ((previousCharToCompare == '|') || (previousCharToCompare >= Achar && previousCharToCompare <= Zchar))
-							{
-								// Previous year was an explicit recorder year or
-								// event so count this year as recorder too
-								tempRecorderYearsForSample.add(1);
-								totalRecordYearsPerSample[i] = totalRecordYearsPerSample[i] + 1;
-							}
-							else if (charFlagFound == false)
-							{
-								tempRecorderYearsForSample.add(0);
-							}
-							else
-							{
-								log.error("Error calculating recorder year matrix.  Should never reach this code!");
-							}
-						}
-					} // adding separate case for } ]. in this case we step backwards (only) until we find a . | or fire event
-					else if ((theCurrentValue == '}') || (theCurrentValue == ']'))
-					{
-						// Step backwards until we find a . | or fire event
-						int m = j;
-						charFlagFound = false;
-						for (int k = m - 1; k >= startYearIndexPerSample[i]; k--)
-						{
-							// log.debug("k is: "+ k);
-							if ((str[i][k] == '.') || (str[i][k] == '|') || (str[i][k] >= Achar && str[i][k] <= Zchar)
-									|| (str[i][k] == '{') || (str[i][k] == '['))
-							{
-								charFlagFound = true;
-								previousCharToCompare = str[i][k];
-								// log.debug("at k: "+ k+
-								// " we hit the charcther "+
-								// str[i][k]+" m is "+m);
-								break;
-							}
-						}
-						if ((previousCharToCompare == '.') || (previousCharToCompare == '{') || (previousCharToCompare == '['))
-						{
-							// Previous year was an explicit non-recorder year
-							// so count this year as a non-recorder too
-							tempRecorderYearsForSample.add(0);
-						}
-						else if ((previousCharToCompare == '|') || (previousCharToCompare >= Achar && previousCharToCompare <= Zchar))
-						{
-							// Previous year was an explicit recorder year or
-							// event so count this year as recorder too
-							tempRecorderYearsForSample.add(1);
-							totalRecordYearsPerSample[i] = totalRecordYearsPerSample[i] + 1;
-						}
-						else if (charFlagFound == false)
-						{
-							tempRecorderYearsForSample.add(0);
-						}
-						else
-						{
-							log.error("Error calculating recorder year matrix.  Should never reach this code!");
-						}
-					} // end of new stuff
-				} // end first if
-				else
-				{
-					// Current year outside of the range of this sample so mark
-					// with -1
-					tempRecorderYearsForSample.add(-1);
-				}
-			}
-			
-			Integer previousSize = null;
-			
-			if (myRecorderYears2DArray != null && myRecorderYears2DArray.size() > 0)
-			{
-				previousSize = myRecorderYears2DArray.get(0).size();
-			}
-			
-			if (previousSize != null)
-			{
-				if (previousSize != tempRecorderYearsForSample.size())
-				{
-					log.error("Size mismatch: " + previousSize + " v. " + tempRecorderYearsForSample.size());
-					
-				}
-			}
-			
-			myRecorderYears2DArray.add(tempRecorderYearsForSample);
-			
-			// + "x" +
-			// recorder2d.get(i).size()+" the sum of rec "+totalrecYearsperSample[i]);
-		} // end of i loop
-			// log.debug("DEBUG: SIZE recorder2d " + recorder2d.size()
-			// + "x" + recorder2d.get(2).size());
+		int[] totals = new int[numberOfSeries];
 		
 		if (eventTypeToProcess.equals(EventTypeToProcess.INJURY_EVENT))
 		{
-			recorderYears2DArrayII = myRecorderYears2DArray;
+			if (isRecorderYears2DArrayInitII)
+				return;
+			recorderYears2DArrayII = calculateRecorderYears('a', 'z', 'A', 'Z', totals);
+			totalRecordYearsPerSample = totals;
 			isRecorderYears2DArrayInitII = true;
 		}
 		else if (eventTypeToProcess.equals(EventTypeToProcess.FIRE_EVENT)
 				|| eventTypeToProcess.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
 		{
-			recorderYears2DArray = myRecorderYears2DArray;
+			if (isRecorderYears2DArrayInit)
+				return;
+			recorderYears2DArray = calculateRecorderYears('A', 'Z', 'a', 'z', totals);
+			totalRecordYearsPerSample = totals;
 			isRecorderYears2DArrayInit = true;
 		}
 		else
 		{
 			log.error("Unsupported EventTypeToProcess");
 			return;
-			
-		}
 		
+		}
 	}
 	
-	//
-	// NEW Recorder II
-	//
 	/**
-	 * Generate multi-dimensional ArrayList of recorder years. A recorder year is where the sample actually recorded an event or a year in
-	 * which it was capable of recording an event if one was present
+	 * Generate multi-dimensional array of recorder years for injuries. A recorder year is where the sample actually recorded an event or a
+	 * year in which it was capable of recording an event if one was present
 	 */
-	public void generateRecorderYearsArrayII() {
+	public synchronized void generateRecorderYearsArrayII() {
 	
 		if (this.isClimate2dIinit == false)
 			this.generate2DEventsI();
 		
-		// instantiate the recorder array list
-		recorderYears2DArrayII = new ArrayList<ArrayList<Integer>>();
-		
-		// declare local variables
-		char[][] str = new char[numberOfSeries][dataBlock.size()];
-		String ts;
-		ArrayList<Integer> tempRecorderYearsForSampleII;
+		int[] totals = new int[numberOfSeries];
+		recorderYears2DArrayII = calculateRecorderYears('a', 'z', 'A', 'Z', totals);
+		totalRecordYearsPerSampleII = totals;
+		isRecorderYears2DArrayInitII = true;
+	}
+	
+	/**
+	 * Calculate the recorder years for each sample. The returned array contains 1 for recorder years, 0 for non-recorder years and -1 for
+	 * years outside the range of the sample.
+	 * 
+	 * @param Achar - first character of the range of event codes being processed
+	 * @param Zchar - last character of the range of event codes being processed
+	 * @param AcharInverse - first character of the range of event codes not being processed
+	 * @param ZcharInverse - last character of the range of event codes not being processed
+	 * @param totalRecordYears - array populated with the total number of recorder years for each sample
+	 * @return
+	 */
+	private byte[][] calculateRecorderYears(char Achar, char Zchar, char AcharInverse, char ZcharInverse, int[] totalRecordYears) {
+	
+		byte[][] str = getSeriesData();
+		int years = dataBlock.size();
+		byte[][] recorderYears = new byte[numberOfSeries][years];
 		boolean charFlagFound = false;
-		char previousCharToCompare = ' ';
-		
-		totalRecordYearsPerSampleII = new int[numberOfSeries];
-		
-		// Load the data of the fhx file into the str[j][i]
-		for (int i = 0; i < dataBlock.size(); i++)
-		{
-			ts = dataBlock.get(i);
-			for (int j = 0; j < ts.length(); j++)
-			{
-				str[j][i] = ts.charAt(j);
-			}
-		}
+		int previousCharToCompare = ' ';
 		
 		// Loop through all series with index i
 		for (int i = 0; i < numberOfSeries; i++)
 		{
-			tempRecorderYearsForSampleII = new ArrayList<Integer>();
-			totalRecordYearsPerSampleII[i] = 0;
+			byte[] series = str[i];
+			int start = startYearIndexPerSample[i];
+			int last = lastYearIndexPerSample[i];
+			totalRecordYears[i] = 0;
 			
 			// Loop through years with index j
-			for (int j = 0; j < dataBlock.size(); j++)
+			for (int j = 0; j < years; j++)
 			{
-				// Only check years which fall in the range of the current
-				// sample
-				if ((startYearIndexPerSample[i] <= j) && (lastYearIndexPerSample[i] >= j))
+				byte recorder;
+				
+				// Only check years which fall in the range of the current sample
+				if ((start <= j) && (last >= j))
 				{
-					char theCurrentValue = str[i][j];
+					int theCurrentValue = series[j];
+					
+					// Whether the following year is explicitly a recorder year or an event
+					boolean nextIsRecorder = (j + 1) <= last
+							&& ((series[j + 1] == '|') || (series[j + 1] >= Achar && series[j + 1] <= Zchar));
 					
-					// All the simple cases first...
 					if (theCurrentValue == '|')
 					{
-						// Data file explicitly defines that the sample was
-						// recording
-						tempRecorderYearsForSampleII.add(1);
-						totalRecordYearsPerSampleII[i] = totalRecordYearsPerSampleII[i] + 1;
+						// Data file explicitly defines that the sample was recording
+						recorder = 1;
 					}
-					else if (theCurrentValue >= 'a' && theCurrentValue <= 'z')
+					else if (theCurrentValue >= Achar && theCurrentValue <= Zchar)
 					{
-						// injury event was found so sample must have been
-						// recording
-						tempRecorderYearsForSampleII.add(1);
-						totalRecordYearsPerSampleII[i] = totalRecordYearsPerSampleII[i] + 1;
+						// Event was found so sample must have been recording
+						recorder = 1;
 					}
 					else if (theCurrentValue == '.')
 					{
-						// Data file explicitly defines that the sample was not
-						// recording
-						tempRecorderYearsForSampleII.add(0);
+						// Data file explicitly defines that the sample was not recording
+						recorder = 0;
 					}
-					else if (theCurrentValue == '[')
+					else if ((theCurrentValue == '[') || (theCurrentValue == '{'))
 					{
-						// go to the next character if it is a injury event or | then recorder
-						// if it is a fire event or . then no recorder
-						int l = j;
-						if (((str[i][l + 1] == '|') || (str[i][l + 1] >= 'a' && str[i][l + 1] <= 'z'))
-								&& ((l + 1) <= lastYearIndexPerSample[i]))
-						{
-							tempRecorderYearsForSampleII.add(1);
-							totalRecordYearsPerSampleII[i] = totalRecordYearsPerSampleII[i] + 1;
-						}
-						else
-						{
-							tempRecorderYearsForSampleII.add(0);
-						}
-					}
-					// If first year of sample has no pith then
-					// more fun......
-					else if (theCurrentValue == '{')
-					{
-						// If the year following the first year { bracket is a
-						// recorder year, or
-						// and injury scar than count start bracket as recorder,
-						// otherwise don't.
-						int n = j;
-						if (((str[i][n + 1] == '|') || (str[i][n + 1] >= 'a' && str[i][n + 1] <= 'z'))
-								&& ((n + 1) <= lastYearIndexPerSample[i]))
-						{
-							tempRecorderYearsForSampleII.add(1);
-							totalRecordYearsPerSampleII[i] = totalRecordYearsPerSampleII[i] + 1;
-						}
-						else
-						{
-							tempRecorderYearsForSampleII.add(0);
-						}
+						// First year of the sample is a recorder if the following year is a recorder year or an event
+						recorder = nextIsRecorder ? (byte) 1 : (byte) 0;
 					}
-					
-					// Also complicated for the last year in sample and for
-					// fires
-					else if ((theCurrentValue >= 'A' && theCurrentValue <= 'Z'))
+					else if ((theCurrentValue >= AcharInverse && theCurrentValue <= ZcharInverse) && nextIsRecorder)
 					{
-						// first look at the year following the injury
-						int ln = j;
-						if (((str[i][ln + 1] == '|') || (str[i][ln + 1] >= 'a' && str[i][ln + 1] <= 'z'))
-								&& ((ln + 1) <= lastYearIndexPerSample[i]))
-						{
-							tempRecorderYearsForSampleII.add(1);
-							totalRecordYearsPerSampleII[i] = totalRecordYearsPerSampleII[i] + 1;
-						}
-						else
-						{
-							// Step backwards until we find a . | or injury event
-							// int m = j;
-							charFlagFound = false;
-							for (int k = ln - 1; k >= startYearIndexPerSample[i]; k--)
-							{
-								// log.debug("k is: "+ k);
-								if ((str[i][k] == '.') || (str[i][k] == '|') || (str[i][k] >= 'a' && str[i][k] <= 'z')
-										|| (str[i][k] == '{') || (str[i][k] == '['))
-								{
-									charFlagFound = true;
-									previousCharToCompare = str[i][k];
-									// log.debug("at k: "+ k+
-									// " we hit the charcther "+
-									// str[i][k]+" m is "+m);
-									break;
-								}
-							}
-							if ((previousCharToCompare == '.') || (previousCharToCompare == '{') || (previousCharToCompare == '['))
-							{
-								// Previous year was an explicit non-recorder year
-								// so count this year as a non-recorder too
-								tempRecorderYearsForSampleII.add(0);
-							}
-							else if ((previousCharToCompare == '|') || (previousCharToCompare >= 'a' && previousCharToCompare <= 'z'))
-							{
-								// Previous year was an explicit recorder year or
-								// event so count this year as recorder too
-								tempRecorderYearsForSampleII.add(1);
-								totalRecordYearsPerSampleII[i] = totalRecordYearsPerSampleII[i] + 1;
-							}
-							else if (charFlagFound == false)
-							{
-								tempRecorderYearsForSampleII.add(0);
-							}
-							else
-							{
-								log.error("Error calculating recorder year matrix.  Should never reach this code!");
-							}
-						}
-					} // adding separate case for } ]. in this case we step backwards (only) until we find a . | or fire event
-					else if ((theCurrentValue == '}') || (theCurrentValue == ']'))
+						// Other type of event followed by a recorder year or event
+						recorder = 1;
+					}
+					else if ((theCurrentValue >= AcharInverse && theCurrentValue <= ZcharInverse) || (theCurrentValue == '}')
+							|| (theCurrentValue == ']'))
 					{
-						// Step backwards until we find a . | or injury event
-						int m = j;
+						// Step backwards until we find a . | or event
 						charFlagFound = false;
-						for (int k = m - 1; k >= startYearIndexPerSample[i]; k--)
+						for (int k = j - 1; k >= start; k--)
 						{
-							// log.debug("k is: "+ k);
-							if ((str[i][k] == '.') || (str[i][k] == '|') || (str[i][k] >= 'a' && str[i][k] <= 'z') || (str[i][k] == '{')
-									|| (str[i][k] == '['))
+							if ((series[k] == '.') || (series[k] == '|') || (series[k] >= Achar && series[k] <= Zchar) || (series[k] == '{')
+									|| (series[k] == '['))
 							{
 								charFlagFound = true;
-								previousCharToCompare = str[i][k];
-								// log.debug("at k: "+ k+
-								// " we hit the charcther "+
-								// str[i][k]+" m is "+m);
+								previousCharToCompare = series[k];
 								break;
 							}
 						}
 						if ((previousCharToCompare == '.') || (previousCharToCompare == '{') || (previousCharToCompare == '['))
 						{
-							// Previous year was an explicit non-recorder year
-							// so count this year as a non-recorder too
-							tempRecorderYearsForSampleII.add(0);
+							// Previous year was an explicit non-recorder year so count this year as a non-recorder too
+							recorder = 0;
 						}
-						else if ((previousCharToCompare == '|') || (previousCharToCompare >= 'a' && previousCharToCompare <= 'z'))
+						else if ((previousCharToCompare == '|') || (previousCharToCompare >= Achar && previousCharToCompare <= Zchar))
 						{
-							// Previous year was an explicit recorder year or
-							// event so count this year as recorder too
-							tempRecorderYearsForSampleII.add(1);
-							totalRecordYearsPerSampleII[i] = totalRecordYearsPerSampleII[i] + 1;
+							// Previous year was an explicit recorder year or event so count this year as recorder too
+							recorder = 1;
 						}
 						else if (charFlagFound == false)
 						{
-							tempRecorderYearsForSampleII.add(0);
+							recorder = 0;
 						}
 						else
 						{
 							log.error("Error calculating recorder year matrix.  Should never reach this code!");
+							recorder = 0;
 						}
-					} // end of new stuff
-				} // end first if
-				else
-				{
-					// Current year outside of the range of this sample so mark
-					// with -1
-					tempRecorderYearsForSampleII.add(-1);
+					}
+					else
+					{
+						log.error("Unrecognised character '" + (char) theCurrentValue + "' in series " + (i + 1)
+								+ " when calculating recorder years");
+						recorder = 0;
+					}
 				}
-			}
-			
-			Integer previousSize = null;
-			
-			if (recorderYears2DArrayII != null && recorderYears2DArrayII.size() > 0)
-			{
-				previousSize = recorderYears2DArrayII.get(0).size();
-			}
-			
-			if (previousSize != null)
-			{
-				if (previousSize != tempRecorderYearsForSampleII.size())
+				else
 				{
-					log.error("Size mismatch: " + previousSize + " v. " + tempRecorderYearsForSampleII.size());
-					
+					// Current year outside of the range of this sample so mark with -1
+					recorder = -1;
 				}
+				
+				if (recorder == 1)
+					totalRecordYears[i]++;
+				recorderYears[i][j] = recorder;
 			}
-			
-			recorderYears2DArrayII.add(tempRecorderYearsForSampleII);
-			
-			// + "x" +
-			// recorder2d.get(i).size()+" the sum of rec "+totalrecYearsperSampleII[i]);
-		} // end of i loop
-			// log.debug("DEBUG: SIZE recorder2d " + recorder2d.size()
-			// + "x" + recorder2d.get(2).size());
+		}
 		
-		isRecorderYears2DArrayInitII = true;
+		return recorderYears;
 	}
 	
-	//
-	// End of recoder II
-	//
 	/**
 	 * Generates the basic injuries arrays including climate2dII and fIIYearPerTree
 	 */
-	private void generate2DEventsII() {
+	private synchronized void generate2DEventsII() {
 	
-		// instantiate the climate array list
-		climate2dII = new ArrayList<ArrayList<Integer>>();
-		// declare local variables
-		char[][] strII = new char[numberOfSeries][dataBlock.size()];
-		String tsII;
-		ArrayList<Integer> eachTreeII;
-		ArrayList<Integer> eachTreeTempII;
-		Integer inII;
-		// log.debug("I am in make climate2dII injury");
-		// int FirstFireFlag[];
+		if (isClimate2dIIinit)
+			return;
 		
-		// FirstFireFlag = new int[numberOfSeries];
-		fIIYearPerTree = new int[numberOfSeries];
+		byte[][] strII = getSeriesData();
+		int years = dataBlock.size();
 		
-		// Load the data of the fhx file into the strII[j][i]
-		// strII is of size
-		for (int i = 0; i < dataBlock.size(); i++)
-		{
-			tsII = dataBlock.get(i);
-			for (int j = 0; j < tsII.length(); j++)
-			{
-				strII[j][i] = tsII.charAt(j);
-			} // end of j loop
-		} // end of i loop load
+		climate2dII = new byte[numberOfSeries][years];
+		fIIYearPerTree = new int[numberOfSeries];
 		
-		// /new stuff from elena
-		for (int i = 0; i < numberOfSeries; i++)
+		for (int j = 0; j < numberOfSeries; j++)
 		{
-			eachTreeTempII = new ArrayList<Integer>();
-			for (int j = 0; j < dataBlock.size(); j++)
+			fIIYearPerTree[j] = -1;
+			for (int i = 0; i < years; i++)
 			{
-				if (strII[i][j] >= 'a' && strII[i][j] <= 'z')
-				{
-					eachTreeTempII.add(1);
-				}
-				else
+				if (isLowerCase(strII[j][i]))
 				{
-					eachTreeTempII.add(0);
+					fIIYearPerTree[j] = i;
+					break;
 				}
-				// log.debug(i+" "+str[i][j] +" "
-				// +eachTreeTemp.get(j));
-			} // end of j loop
-			if (eachTreeTempII.contains(1))
-			{
-				fIIYearPerTree[i] = eachTreeTempII.indexOf(1);
-			}
-			else
-			{
-				fIIYearPerTree[i] = eachTreeTempII.indexOf(1);
-				// FFyearperTree[i]=-1;
 			}
-			eachTreeTempII.clear();
 			
-		} // end of i loop
-		
-		// Load each crossection (or tree) into the ArrayList variable eachTree
-		for (int j = 0; j < numberOfSeries; j++)
-		{
-			eachTreeII = new ArrayList<Integer>();
-			inII = -7;
-			for (int i = 0; i < dataBlock.size(); i++)
+			for (int i = 0; i < years; i++)
 			{
+				byte c = strII[j][i];
+				
 				if (i < fIIYearPerTree[j] || fIIYearPerTree[j] == -1)
-					inII = -1;
+					climate2dII[j][i] = -1;
+				else if (isLowerCase(c))
+					climate2dII[j][i] = 1;
+				else if (isUpperCase(c) || c == '|')
+					climate2dII[j][i] = 0;
 				else
-				{
-					if (strII[j][i] >= 'a' && strII[j][i] <= 'z')
-						inII = 1;
-					else if ((strII[j][i] >= 'A' && strII[j][i] <= 'Z') || strII[j][i] == '|')
-						inII = 0;
-					else if (strII[j][i] == '.')
-						inII = -1;
-					else
-						inII = -1;
-					
-				}
-				eachTreeII.add(inII);
-			} // end of i loop
-			climate2dII.add(eachTreeII);
-		} // end of j loop
-			// log.debug("DEBUG: SIZE climate2d " + climate2dII.size()
-			// + "x" + climate2dII.get(0).size());
-			// determineFirstInjuryYear2
-		
-		// firstFireYear = firstYear + climate2d.indexOf(1);
-		ArrayList<Integer> indII = new ArrayList<Integer>();
-		for (int j = 0; j < numberOfSeries; j++)
-		{
-			// log.debug("the climate2dII.get.indexof(1) is: " +
-			// climate2dII.get(j).indexOf(1) );
-			indII.add(climate2dII.get(j).indexOf(1));
+					climate2dII[j][i] = -1;
+			}
 		}
-		Collections.sort(indII);
-		// for (int k=0; k<numberOfSeries; k++)
-		// log.debug("DEBUG Element " + climate2dII.get(k).indexOf(1));
-		boolean breakme = true;
-		for (int j = 0; j < numberOfSeries; j++)
+		
+		// The first injury in each sample is the first year coded as 1 in climate2dII
+		int firstInjuryIndex = earliestIndex(fIIYearPerTree);
+		if (firstInjuryIndex >= 0)
 		{
-			if (indII.get(j) >= 0 && breakme)
-			{
-				firstInjuryYear = firstYear + indII.get(j);
-				breakme = false;
-			}
+			firstInjuryYear = firstYear + firstInjuryIndex;
 		}
 		
-		isClimate2dIinit = true;
+		isClimate2dIIinit = true;
 	}
 	
 	/**
 	 * Generates the filters2d array
 	 */
-	private void generate2DFiltersI() {
+	private synchronized void generate2DFiltersI() {
 	
+		if (isFilterse2dIinit)
+			return;
+		
 		if (this.isClimate2dIinit == false)
 			this.generate2DEventsI();
 		
-		// instantiate the climate array list
-		filters2dI = new ArrayList<ArrayList<Double>>();
-		// declare local variables
-		char[][] strfilters = new char[numberOfSeries][dataBlock.size()];
-		String tsfilters;
-		ArrayList<Double> filtercaps;
-		ArrayList<Double> filtertrees;
-		ArrayList<Double> filterprotrees;
-		double[] filters = new double[3];
-		double TotalBars;
-		double TotalLowerCase;
-		double TotalTrees;
-		int[] datayears = new int[dataBlock.size()];
-		
-		filtercaps = new ArrayList<Double>();
-		filtertrees = new ArrayList<Double>();
-		filterprotrees = new ArrayList<Double>();
-		
-		// Load the data of the fhx file into the str[j][i]
-		for (int i = 0; i < dataBlock.size(); i++)
-		{
-			tsfilters = dataBlock.get(i);
-			datayears[i] = yearArray.get(i);
-			
-			for (int j = 0; j < tsfilters.length(); j++)
-			{
-				strfilters[j][i] = tsfilters.charAt(j);
-			}
-			
-			// Load each cross-section (or tree) into the ArrayList variable
-			// eachTree
-			
-			filters[0] = 0;
-			filters[1] = 0;
-			filters[2] = 0;
-			TotalBars = 0;
-			TotalLowerCase = 0;
-			TotalTrees = 0;
-			
-			for (int j = 0; j < numberOfSeries; j++)
-			{
-				if (strfilters[j][i] >= 'A' && strfilters[j][i] <= 'Z')
-					filters[0] = filters[0] + 1;
-				if (strfilters[j][i] >= 'a' && strfilters[j][i] <= 'z')
-					TotalLowerCase = TotalLowerCase + 1;
-				if (strfilters[j][i] == '|')
-					TotalBars = TotalBars + 1;
-				if ((FFyearperTree[j] != -1) && (yearArray.get(i) >= yearArray.get(FFyearperTree[j]))
-						&& (TotalLowerCase >= 1 || TotalBars >= 1 || filters[0] >= 1))
-					TotalTrees = TotalTrees + 1;
-			} // end j loop
-			filtercaps.add(filters[0]);
-			filters[1] = TotalTrees;
-			filtertrees.add(filters[1]);
-			if (filters[1] > 0.0)
-				filters[2] = filters[0] / filters[1];
-			else
-				filters[2] = -99;
-			filterprotrees.add(filters[2]);
-			
-		} // end i loop
-		filters2dI.add(filtercaps);
-		filters2dI.add(filtertrees);
-		filters2dI.add(filterprotrees);
+		filters2dI = calculateFilters(EventTypeToProcess.FIRE_EVENT, FFyearperTree);
 		
 		this.isFilterse2dIinit = true;
 	}
@@ -1292,175 +805,93 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	/**
 	 * Generate the filters2dII array
 	 */
-	private void generate2DFiltersII() {
+	private synchronized void generate2DFiltersII() {
 	
+		if (isFilterse2dIIinit)
+			return;
+		
 		if (this.isClimate2dIinit == false)
 			this.generate2DEventsI();
 		if (this.isClimate2dIIinit == false)
 			this.generate2DEventsII();
 		
-		// instantiate the climate array list
-		filters2dII = new ArrayList<ArrayList<Double>>();
-		// declare local variables
-		char[][] strfiltersII = new char[numberOfSeries][dataBlock.size()];
-		String tsfiltersII;
-		ArrayList<Double> filterlowsII;
-		ArrayList<Double> filtertreesII;
-		ArrayList<Double> filterprotreesII;
-		double[] filtersII = new double[3];
-		double TotalBarsII;
-		double TotalUpperCaseII;
-		double TotalTreesII;
-		int[] datayearsII = new int[dataBlock.size()];
-		
-		filterlowsII = new ArrayList<Double>();
-		filtertreesII = new ArrayList<Double>();
-		filterprotreesII = new ArrayList<Double>();
-		
-		// Load the data of the fhx file into the str[j][i]
-		for (int i = 0; i < dataBlock.size(); i++)
-		{
-			tsfiltersII = dataBlock.get(i);
-			datayearsII[i] = yearArray.get(i);
-			// log.debug(" data "+i+" "+year.get(i) + " "
-			// +data.get(i)+" ");
-			for (int j = 0; j < tsfiltersII.length(); j++)
-			{
-				strfiltersII[j][i] = tsfiltersII.charAt(j);
-			}
-			
-			// Load each sample into the ArrayList variable eachTree
-			
-			filtersII[0] = 0;
-			filtersII[1] = 0;
-			filtersII[2] = 0;
-			TotalBarsII = 0;
-			TotalUpperCaseII = 0;
-			TotalTreesII = 0;
-			
-			for (int j = 0; j < numberOfSeries; j++)
-			{
-				
-				if (strfiltersII[j][i] >= 'a' && strfiltersII[j][i] <= 'z')
-					filtersII[0] = filtersII[0] + 1;
-				if (strfiltersII[j][i] >= 'A' && strfiltersII[j][i] <= 'Z')
-					TotalUpperCaseII = TotalUpperCaseII + 1;
-				if (strfiltersII[j][i] == '|')
-					TotalBarsII = TotalBarsII + 1;
-				if ((fIIYearPerTree[j] != -1) && (yearArray.get(i) >= yearArray.get(fIIYearPerTree[j]))
-						&& (TotalUpperCaseII >= 1 || TotalBarsII >= 1 || filtersII[0] >= 1))
-					TotalTreesII = TotalTreesII + 1;
-			} // end j loop
-			filterlowsII.add(filtersII[0]);
-			filtersII[1] = TotalTreesII;
-			filtertreesII.add(filtersII[1]);
-			if (filtersII[1] > 0.0)
-				filtersII[2] = filtersII[0] / filtersII[1];
-			else
-				filtersII[2] = -99;
-			filterprotreesII.add(filtersII[2]);
-			
-			// log.debug(filtercapsII.get(i)+" "+filtertreesII.get(i)+
-			// " "+ filterprotreesII.get(i));
-			
-		} // end i loop
-		filters2dII.add(filterlowsII);
-		filters2dII.add(filtertreesII);
-		filters2dII.add(filterprotreesII);
-		// log.debug("DEBUG: SIZE Filtersed " + filters2d.size() + "x"
-		// + filters2d.get(0).size());
+		filters2dII = calculateFilters(EventTypeToProcess.INJURY_EVENT, fIIYearPerTree);
 		
-		// determineFirstInjuryYear2();
 		this.isFilterse2dIIinit = true;
-		
 	}
 	
 	/**
 	 * Generates the filters2dIII array
 	 */
-	private void generate2DFiltersIII() {
+	private synchronized void generate2DFiltersIII() {
 	
+		if (isFilterse2dIIIinit)
+			return;
+		
 		if (this.isClimate2dIinit == false)
 			this.generate2DEventsI();
 		if (this.isClimate2dIIIinit == false)
 			this.generate2DEventsIII();
 		
-		// instantiate the climate array list
-		filters2dIII = new ArrayList<ArrayList<Double>>();
-		// declare local variables
-		char[][] strfiltersIII = new char[numberOfSeries][dataBlock.size()];
-		String tsfiltersIII;
-		ArrayList<Double> filterIndicatorsIII;
-		ArrayList<Double> filtertreesIII;
-		ArrayList<Double> filterprotreesIII;
-		double[] filtersIII = new double[3];
-		double TotalBarsIII;
-		double TotalIndicatorsIII;
-		double TotalTreesIII;
-		int[] datayearsIII = new int[dataBlock.size()];
-		
-		filterIndicatorsIII = new ArrayList<Double>();
-		filtertreesIII = new ArrayList<Double>();
-		filterprotreesIII = new ArrayList<Double>();
-		
-		// Load the data of the fhx file into the str[j][i]
-		for (int i = 0; i < dataBlock.size(); i++)
+		filters2dIII = calculateFilters(EventTypeToProcess.FIRE_AND_INJURY_EVENT, fIIIYearPerTree);
+		
+		this.isFilterse2dIIIinit = true;
+	}
+	
+	/**
+	 * Calculate the filter arrays for the specified event type. The returned array has three rows each with one entry per year:
+	 * 
+	 * <ul>
+	 * <li>0 = number of events</li>
+	 * <li>1 = number of trees</li>
+	 * <li>2 = proportion of trees scarred, or -99 if there are no trees</li>
+	 * </ul>
+	 * 
+	 * @param eventType
+	 * @param firstEventIndexPerTree - index of the first event of this type in each sample
+	 * @return
+	 */
+	private double[][] calculateFilters(EventTypeToProcess eventType, int[] firstEventIndexPerTree) {
+	
+		byte[][] str = getSeriesData();
+		int years = dataBlock.size();
+		double[][] filters = new double[3][years];
+		boolean fires = eventType.equals(EventTypeToProcess.FIRE_EVENT);
+		boolean injuries = eventType.equals(EventTypeToProcess.INJURY_EVENT);
+		
+		for (int i = 0; i < years; i++)
 		{
-			tsfiltersIII = dataBlock.get(i);
-			datayearsIII[i] = yearArray.get(i);
-			// log.debug(" data "+i+" "+year.get(i) + " "
-			// +data.get(i)+" ");
-			for (int j = 0; j < tsfiltersIII.length(); j++)
-			{
-				strfiltersIII[j][i] = tsfiltersIII.charAt(j);
-			}
-			
-			// Load each sample into the ArrayList variable eachTree
-			
-			filtersIII[0] = 0;
-			filtersIII[1] = 0;
-			filtersIII[2] = 0;
-			TotalBarsIII = 0;
-			TotalIndicatorsIII = 0;
-			TotalTreesIII = 0;
+			double totalEvents = 0;
+			double totalOthers = 0;
+			double totalBars = 0;
+			double totalTrees = 0;
 			
 			for (int j = 0; j < numberOfSeries; j++)
 			{
+				byte c = str[j][i];
+				boolean upper = isUpperCase(c);
+				boolean lower = isLowerCase(c);
 				
-				if ((strfiltersIII[j][i] >= 'a' && strfiltersIII[j][i] <= 'z')
-						|| (strfiltersIII[j][i] >= 'A' && strfiltersIII[j][i] <= 'Z'))
-					filtersIII[0] = filtersIII[0] + 1;
-				if ((strfiltersIII[j][i] >= 'A' && strfiltersIII[j][i] <= 'Z')
-						|| (strfiltersIII[j][i] >= 'a' && strfiltersIII[j][i] <= 'z'))
-					TotalIndicatorsIII = TotalIndicatorsIII + 1;
-				if (strfiltersIII[j][i] == '|')
-					TotalBarsIII = TotalBarsIII + 1;
-				if ((fIIIYearPerTree[j] != -1) && (yearArray.get(i) >= yearArray.get(fIIIYearPerTree[j]))
-						&& (TotalIndicatorsIII >= 1 || TotalBarsIII >= 1 || filtersIII[0] >= 1))
-					TotalTreesIII = TotalTreesIII + 1;
-			} // end j loop
-			filterIndicatorsIII.add(filtersIII[0]);
-			filtersIII[1] = TotalTreesIII;
-			filtertreesIII.add(filtersIII[1]);
-			if (filtersIII[1] > 0.0)
-				filtersIII[2] = filtersIII[0] / filtersIII[1];
-			else
-				filtersIII[2] = -99;
-			filterprotreesIII.add(filtersIII[2]);
-			
-			// log.debug(filtercapsII.get(i)+" "+filtertreesII.get(i)+
-			// " "+ filterprotreesII.get(i));
+				if (fires ? upper : injuries ? lower : (upper || lower))
+					totalEvents = totalEvents + 1;
+				if (fires ? lower : injuries ? upper : (upper || lower))
+					totalOthers = totalOthers + 1;
+				if (c == '|')
+					totalBars = totalBars + 1;
+				if ((firstEventIndexPerTree[j] != -1) && (i >= firstEventIndexPerTree[j])
+						&& (totalOthers >= 1 || totalBars >= 1 || totalEvents >= 1))
+					totalTrees = totalTrees + 1;
+			}
 			
-		} // end i loop
-		filters2dIII.add(filterIndicatorsIII);
-		filters2dIII.add(filtertreesIII);
-		filters2dIII.add(filterprotreesIII);
-		// log.debug("DEBUG: SIZE Filtersed " + filters2d.size() + "x"
-		// + filters2d.get(0).size());
-		
-		// determineFirstIndicatorYear2();
-		this.isFilterse2dIIIinit = true;
+			filters[0][i] = totalEvents;
+			filters[1][i] = totalTrees;
+			if (totalTrees > 0.0)
+				filters[2][i] = totalEvents / totalTrees;
+			else
+				filters[2][i] = -99;
+		}
 		
+		return filters;
 	}
 	
 	/**
@@ -1468,14 +899,8 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * 
 	 */
 	@Override
-	public void makeDecompSyb2d() {
+	public synchronized void makeDecompSyb2d() {
 	
-		// instantiate the DecompSyb ArrayList
-		
-		DecompSyb2d = new ArrayList<ArrayList<Integer>>();
-		ArrayList<Integer> DecompSybtemp;
-		// declare local variables
-		
 		String tsfilters;
 		/*
 		 * totals = { tcaps,tlows,tD,tE,tM,tL,tA,tU,td, te,tm, tl, ta, tu ,t[]{} } filters = { caps, lows, D, E, M, L, A, U, d, e, m, l, a,
@@ -1483,55 +908,17 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 		 */
 		int[] filters = new int[20];
 		totals = new int[15];
+		DecompSyb2d = new int[dataBlock.size()][];
 		
 		log.debug("I am in make DecompSyb");
-		totals[0] = 0;
-		totals[1] = 0;
-		totals[2] = 0;
-		totals[3] = 0;
-		totals[4] = 0;
-		totals[5] = 0;
-		totals[6] = 0;
-		totals[7] = 0;
-		totals[8] = 0;
-		totals[9] = 0;
-		totals[10] = 0;
-		totals[11] = 0;
-		totals[12] = 0;
-		totals[13] = 0;
-		totals[14] = 0;
 		for (int i = 0; i < dataBlock.size(); i++)
 		{
 			tsfilters = dataBlock.get(i);
-			DecompSybtemp = new ArrayList<Integer>();
-			
-			// Load each crossection (or tree) into the ArrayList variable
-			// eachTree
+			Arrays.fill(filters, 0);
 			
-			filters[0] = 0;
-			filters[1] = 0;
-			filters[2] = 0;
-			filters[3] = 0;
-			filters[4] = 0;
-			filters[5] = 0;
-			filters[6] = 0;
-			filters[7] = 0;
-			filters[8] = 0;
-			filters[9] = 0;
-			filters[10] = 0;
-			filters[11] = 0;
-			filters[12] = 0;
-			filters[13] = 0;
-			filters[14] = 0;
-			filters[15] = 0;
-			filters[16] = 0;
-			filters[17] = 0;
-			filters[18] = 0;
-			filters[19] = 0;
 			for (int j = 0; j < tsfilters.length(); j++)
 			{
 				char c = tsfilters.charAt(j);
-				// log.debug("I am in and the makeDecompSyb per tree is "+FFyearperTree[j]);
 				if (c >= 'A' && c <= 'Z')
 					filters[0] = filters[0] + 1;
 				if (c >= 'a' && c <= 'z')
@@ -1579,42 +966,21 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 			}
 			
 			totals[14] = totals[14] + filters[14] + filters[15] + filters[16] + filters[17];
-			for (int ik = 0; ik < 5; ik++)
-			{
-				DecompSybtemp.add(totals[ik + 2]);
-			}
-			DecompSyb2d.add(DecompSybtemp);
+			DecompSyb2d[i] = Arrays.copyOfRange(totals, 2, 7);
 		} // end i loop
-			// for(int k=0;k<9;k++){
-			// log.debug("DEBUG: SIZE totals " + totals.length
-			// +" number of totals is "+ totals[k]);
-			// }
-		
-		// log.debug("DEBUG: SIZE DecompSyb " + DecompSyb.size() + "x"
-		// + DecompSyb.get(0).size());
-		// for(int k=0;k<DecompSyb.get(0).size();k++){
-		// log.debug("DEBUG: the value of capitals at k is " + k
-		// +" value "+ DecompSyb.get(0).get(k));
-		// }
-		// log.debug("DEBUG: SIZE DecompSyb2d " + DecompSyb2d.size() +
-		// "x" + DecompSyb2d.get(0).size());
-		
-		// end Decompsyb
-		// endDecomp
-		// new determnine First injury year
 	}
 	
 	/**
 	 * Generate the firesAndInjuriesArray
 	 */
-	private void generate1DEventsIII() {
+	private synchronized void generate1DEventsIII() {
 	
-		// instantiate the climate array list
-		climate1dIII = new ArrayList<Integer>();
-		// declare local variables
+		if (isClimate1dIIIinit)
+			return;
+		
+		climate1dIII = new byte[dataBlock.size()];
 		String strIII;
-		Integer inIII;
-		// log.debug("I am in make climate");
+		int inIII;
 		
 		for (int i = 0; i < dataBlock.size(); i++)
 		{
@@ -1632,123 +998,63 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 					inIII = 0;
 				}
 				else if (inIII != 0 && inIII != 1)
-				// (in != 0 && in != 1)
 				{
 					inIII = -1;
 				}
-				// eelog.debug(str.charAt(j) + "\t" + in.toString());
 			}
-			// eelog.debug(str + '\t' + in);
-			climate1dIII.add(inIII);
+			climate1dIII[i] = (byte) inIII;
 		}
 		isClimate1dIIIinit = true;
-		firstIndicatorYear = firstYear + climate1dIII.indexOf(1);
+		firstIndicatorYear = firstYear + indexOf(climate1dIII, 1);
 	}
 	
 	/**
 	 * Generates the basic fire events and injuries arrays including climate2dIII
 	 */
-	private void generate2DEventsIII() {
+	private synchronized void generate2DEventsIII() {
 	
-		// instantiate the climate array list
-		climate2dIII = new ArrayList<ArrayList<Integer>>();
-		// declare local variables
-		char[][] strIII = new char[numberOfSeries][dataBlock.size()];
-		String tsIII;
-		ArrayList<Integer> eachTreeIII;
-		ArrayList<Integer> eachTreeTempIII;
-		Integer inIII;
-		// log.debug("I am in make climate2dII injury");
+		if (isClimate2dIIIinit)
+			return;
 		
-		fIIIYearPerTree = new int[numberOfSeries];
+		byte[][] strIII = getSeriesData();
+		int years = dataBlock.size();
 		
-		// Load the data of the fhx file into the strIII[j][i]
-		for (int i = 0; i < dataBlock.size(); i++)
-		{
-			tsIII = dataBlock.get(i);
-			for (int j = 0; j < tsIII.length(); j++)
-			{
-				strIII[j][i] = tsIII.charAt(j);
-			} // end of j loop
-		} // end of i loop load
+		climate2dIII = new byte[numberOfSeries][years];
+		fIIIYearPerTree = new int[numberOfSeries];
 		
-		// /new stuff from elena
-		for (int i = 0; i < numberOfSeries; i++)
+		for (int j = 0; j < numberOfSeries; j++)
 		{
-			eachTreeTempIII = new ArrayList<Integer>();
-			for (int j = 0; j < dataBlock.size(); j++)
+			fIIIYearPerTree[j] = -1;
+			for (int i = 0; i < years; i++)
 			{
-				if ((strIII[i][j] >= 'a' && strIII[i][j] <= 'z') || (strIII[i][j] >= 'A' && strIII[i][j] <= 'Z'))
-				{
-					eachTreeTempIII.add(1);
-				}
-				else
+				if (isLowerCase(strIII[j][i]) || isUpperCase(strIII[j][i]))
 				{
-					eachTreeTempIII.add(0);
+					fIIIYearPerTree[j] = i;
+					break;
 				}
-				// log.debug(i+" "+str[i][j] +" "
-				// +eachTreeTemp.get(j));
-			} // end of j loop
-			if (eachTreeTempIII.contains(1))
-			{
-				fIIIYearPerTree[i] = eachTreeTempIII.indexOf(1);
 			}
-			else
-			{
-				fIIIYearPerTree[i] = eachTreeTempIII.indexOf(1);
-				// FFyearperTree[i]=-1;
-			}
-			eachTreeTempIII.clear();
 			
-		} // end of i loop
-		
-		// Load each crossection (or tree) into the ArrayList variable eachTree
-		for (int j = 0; j < numberOfSeries; j++)
-		{
-			eachTreeIII = new ArrayList<Integer>();
-			inIII = -7;
-			for (int i = 0; i < dataBlock.size(); i++)
+			for (int i = 0; i < years; i++)
 			{
+				byte c = strIII[j][i];
+				
 				if (i < fIIIYearPerTree[j] || fIIIYearPerTree[j] == -1)
-					inIII = -1;
+					climate2dIII[j][i] = -1;
+				else if (isLowerCase(c) || isUpperCase(c))
+					climate2dIII[j][i] = 1;
+				else if (c == '|')
+					climate2dIII[j][i] = 0;
 				else
-				{
-					if ((strIII[j][i] >= 'a' && strIII[j][i] <= 'z') || (strIII[j][i] >= 'A' && strIII[j][i] <= 'Z'))
-						inIII = 1;
-					else if (strIII[j][i] == '|')
-						inIII = 0;
-					else if (strIII[j][i] == '.')
-						inIII = -1;
-					else
-						inIII = -1;
-					
-				}
-				eachTreeIII.add(inIII);
-			} // end of i loop
-			climate2dIII.add(eachTreeIII);
-		} // end of j loop
-			// log.debug("DEBUG: SIZE climate2d " + climate2dIII.size()
-			// + "x" + climate2dIII.get(0).size());
-		
-		// determineFirstIndicatorYear2
-		
-		ArrayList<Integer> indIII = new ArrayList<Integer>();
-		for (int j = 0; j < numberOfSeries; j++)
-		{
-			indIII.add(climate2dIII.get(j).indexOf(1));
+					climate2dIII[j][i] = -1;
+			}
 		}
-		Collections.sort(indIII);
-		boolean breakme = true;
-		for (int j = 0; j < numberOfSeries; j++)
+		
+		// The first indicator in each sample is the first year coded as 1 in climate2dIII
+		int firstIndicatorIndex = earliestIndex(fIIIYearPerTree);
+		if (firstIndicatorIndex >= 0)
 		{
-			if (indIII.get(j) >= 0 && breakme)
-			{
-				firstIndicatorYear = firstYear + indIII.get(j);
-				breakme = false;
-			}
+			firstIndicatorYear = firstYear + firstIndicatorIndex;
 		}
-		// log.debug("DEBUG Internal First indicator Year" +
-		// firstIndicatorYear);
 		
 		isClimate2dIIIinit = true;
 	}
@@ -1761,8 +1067,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 		String record = null;
 		String blankName = "";
 		BufferedReader br = null;
-		FileInputStream is = null;
-		InputStreamReader isr = null;
+		fileLines = new ArrayList<String>();
 		dataBlock = new ArrayList<String>();
 		dataByRow = new ArrayList<String>();
 		badDataLines = new ArrayList<Integer>();
@@ -1775,13 +1080,16 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 		
 		try
 		{
-			String charsetName = App.prefs.getCharsetPref(PrefKey.FORCE_CHAR_ENC_TO, Charset.forName("UTF-8")).toString();
+			String charsetName = charsetSetting;
 			
-			if (App.prefs.getBooleanPref(PrefKey.AUTO_DETECT_CHAR_ENC, true))
+			// Read the file from disk just once. The same bytes are used for charset detection and decoding.
+			byte[] byteData = Files.readAllBytes(file.toPath());
+			contentHash = computeContentHash(byteData);
+			
+			if (FHX2FileReaderCache.AUTO_DETECT_CHARSET.equals(charsetSetting))
 			{
 				CharsetDetector detector;
 				CharsetMatch match;
-				byte[] byteData = Files.readAllBytes(file.toPath());
 				
 				detector = new CharsetDetector();
 				
@@ -1791,17 +1099,14 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 				charsetName = match.getName();
 			}
 			
-			is = new FileInputStream(file.toPath().toString());
-			isr = new InputStreamReader(is, charsetName);
 			log.debug("Opening file using " + charsetName + " charset");
-			// BufferedReader buffReader = new BufferedReader(isr);
 			
 			// fr = ReaderFactory.createReaderFromFile(file);
-			br = new BufferedReader(isr);
+			br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(byteData), charsetName));
 			
 			while ((record = br.readLine()) != null)
 			{
-				rawContent += record + System.lineSeparator();
+				fileLines.add(record);
 				idx = record.lastIndexOf(" ");
 				// log.debug("record is: "+ record +" idx is: "+idx);
 				if (idx != -1)
@@ -1825,7 +1130,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 						}
 						
 						record = br.readLine();
-						rawContent += record + System.lineSeparator();
+						fileLines.add(record);
 						String[] result = p.split(record);
 						// if(result[0].t)
 						
@@ -1843,7 +1148,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 							
 							// record = br.readLine().trim();
 							record = br.readLine();
-							rawContent += record + System.lineSeparator();
+							fileLines.add(record);
 							// log.debug("length of record is : "+
 							// record.length());
 							if ((i == this.getLengthOfSeriesName() && record.isEmpty())
@@ -1861,7 +1166,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 								{
 									seriesNameLine.add((record.substring(0, record.length()))
 											+ (blankName.substring(0, (this.getNumberOfSeries() - record.length()))));
-									
+								
 								}
 							}
 							// log.debug("nameLine : "+ record);
@@ -1869,7 +1174,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 						int countblines = 0;
 						while ((record = br.readLine()) != null)
 						{
-							rawContent += record + System.lineSeparator();
+							fileLines.add(record);
 							dataByRow.add(record);
 							// log.debug("I am here in the while of the loop and countblines is "+countblines);
 							// log.debug("Line has "+record.length()+" records in it, whereas format line says "+this.getNumberOfSeries());
@@ -1920,18 +1225,23 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 				}
 			}
 		}
-		catch (FileNotFoundException e)
+		catch (NoSuchFileException e)
 		{
 			log.error("The file '" + file.getName() + "' does not exist");
+			fileLines = null;
 			return;
 		}
 		catch (NumberFormatException e)
 		{
+			// Don't hand a partially read file on to DendroFileIO or the checker
+			log.error("Invalid number found when reading '" + file.getName() + "'");
 			e.printStackTrace();
+			fileLines = null;
 		}
 		catch (IOException e)
 		{
 			e.printStackTrace();
+			fileLines = null;
 		}
 		finally
 		{
@@ -1939,25 +1249,21 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 			// Clean up readers
 			try
 			{
-				if (is != null)
-					is.close();
-				if (isr != null)
-					isr.close();
 				if (br != null)
 					br.close();
 			}
 			catch (IOException e)
 			{
-				
-			}
 			
+			}
+		
 		}
 		yearArray = new ArrayList<Integer>();
 		for (int i = 0; i < dataBlock.size(); i++)
 			yearArray.add(this.getFirstYear() + i);
 		
 		generateSeriesName();
-		
+	
 	}
 	
 	// **************
@@ -2000,7 +1306,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	
 	/**
 	 * <p>
-	 * Get an ArrayList with length equal to number of years in file, containing Integer codes meaning
+	 * Get a read-only List with length equal to number of years in file, containing Integer codes meaning
 	 * </p>
 	 * <ul>
 	 * <li>-1 = no data</li>
@@ -2011,16 +1317,16 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Override
-	public ArrayList<Integer> getFireEventsArray() {
+	public List<Integer> getFireEventsArray() {
 	
 		if (isClimate1dIinit == false)
 			this.generate1DEventsI();
-		return climate1dI;
+		return PrimitiveListViews.asList(climate1dI);
 	}
 	
 	/**
 	 * <p>
-	 * Get an ArrayList with length equal to number of years in file, containing Integer codes meaning
+	 * Get a read-only List with length equal to number of years in file, containing Integer codes meaning
 	 * </p>
 	 * <ul>
 	 * <li>1 = injury event</li>
@@ -2031,16 +1337,16 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Override
-	public ArrayList<Integer> getOtherInjuriesArray() {
+	public List<Integer> getOtherInjuriesArray() {
 	
 		if (this.isClimate1dIIinit == false)
 			this.generate1DEventsII();
-		return climate1dII;
+		return PrimitiveListViews.asList(climate1dII);
 	}
 	
 	/**
 	 * <p>
-	 * Get an ArrayList with length equal to number of years in file, containing Integer codes meaning
+	 * Get a read-only List with length equal to number of years in file, containing Integer codes meaning
 	 * </p>
 	 * <ul>
 	 * <li>1 = fire or injury event</li>
@@ -2051,11 +1357,11 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Override
-	public ArrayList<Integer> getFiresAndInjuriesArray() {
+	public List<Integer> getFiresAndInjuriesArray() {
 	
 		if (isClimate1dIIIinit == false)
 			this.generate1DEventsIII();
-		return climate1dIII;
+		return PrimitiveListViews.asList(climate1dIII);
 	}
 	
 	/**
@@ -2130,7 +1436,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Override
-	public ArrayList<ArrayList<Integer>> getEventDataArrays(EventTypeToProcess eventType) {
+	public List<List<Integer>> getEventDataArrays(EventTypeToProcess eventType) {
 	
 		if (eventType == null)
 		{
@@ -2141,23 +1447,23 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 		{
 			if (this.isClimate2dIinit == false)
 				this.generate2DEventsI();
-			return this.climate2dI;
+			return PrimitiveListViews.asList(this.climate2dI);
 		}
 		else if (eventType.equals(EventTypeToProcess.INJURY_EVENT))
 		{
 			if (this.isClimate2dIIinit == false)
 				this.generate2DEventsII();
-			return this.climate2dII;
+			return PrimitiveListViews.asList(this.climate2dII);
 		}
 		else if (eventType.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
 		{
 			if (this.isClimate2dIIIinit == false)
 				this.generate2DEventsIII();
-			return this.climate2dIII;
+			return PrimitiveListViews.asList(this.climate2dIII);
 		}
 		
 		return null;
-		
+	
 	}
 	
 	/**
@@ -2166,11 +1472,11 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Override
-	public ArrayList<ArrayList<Integer>> getCapsYearperSample2d() {
+	public List<List<Integer>> getCapsYearperSample2d() {
 	
 		if (this.isClimate2dIinit == false)
 			this.generate2DEventsI();
-		return capsYearperSample2d;
+		return PrimitiveListViews.asList(capsYearperSample2d);
 	}
 	
 	/**
@@ -2179,11 +1485,11 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Override
-	public ArrayList<ArrayList<Integer>> getCalosYearperSample2d() {
+	public List<List<Integer>> getCalosYearperSample2d() {
 	
 		if (this.isClimate2dIinit == false)
 			this.generate2DEventsI();
-		return calosYearperSample2d;
+		return PrimitiveListViews.asList(calosYearperSample2d);
 	}
 	
 	/**
@@ -2192,11 +1498,11 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Override
-	public ArrayList<ArrayList<Character>> getCapsperSample2d() {
+	public List<List<Character>> getCapsperSample2d() {
 	
 		if (this.isClimate2dIinit == false)
 			this.generate2DEventsI();
-		return capsperSample2d;
+		return PrimitiveListViews.asList(capsperSample2d);
 	}
 	
 	/**
@@ -2205,11 +1511,11 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Override
-	public ArrayList<ArrayList<Character>> getCalosperSample2d() {
+	public List<List<Character>> getCalosperSample2d() {
 	
 		if (this.isClimate2dIinit == false)
 			this.generate2DEventsI();
-		return calosperSample2d;
+		return PrimitiveListViews.asList(calosperSample2d);
 	}
 	
 	/**
@@ -2231,7 +1537,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Override
-	public ArrayList<ArrayList<Double>> getFilterArrays(EventTypeToProcess eventType) {
+	public List<List<Double>> getFilterArrays(EventTypeToProcess eventType) {
 	
 		if (eventType == null)
 		{
@@ -2242,23 +1548,23 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 		{
 			if (this.isFilterse2dIinit == false)
 				generate2DFiltersI();
-			return this.filters2dI;
+			return PrimitiveListViews.asList(this.filters2dI);
 		}
 		else if (eventType.equals(EventTypeToProcess.INJURY_EVENT))
 		{
 			if (this.isFilterse2dIIinit == false)
 				generate2DFiltersII();
-			return this.filters2dII;
+			return PrimitiveListViews.asList(this.filters2dII);
 		}
 		else if (eventType.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
 		{
 			if (this.isFilterse2dIIIinit == false)
 				generate2DFiltersIII();
-			return this.filters2dIII;
+			return PrimitiveListViews.asList(this.filters2dIII);
 		}
 		
 		return null;
-		
+	
 	}
 	
 	/**
@@ -2366,26 +1672,26 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Override
-	public ArrayList<ArrayList<Integer>> getRecorderYears2DArray(EventTypeToProcess eventTypeToProcess) {
+	public List<List<Integer>> getRecorderYears2DArray(EventTypeToProcess eventTypeToProcess) {
 	
 		if (eventTypeToProcess.equals(EventTypeToProcess.FIRE_EVENT) || eventTypeToProcess.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
 		{
 			if (this.isRecorderYears2DArrayInit == false)
 				this.generateRecorderYearsArray(EventTypeToProcess.FIRE_EVENT);
-			return this.recorderYears2DArray;
+			return PrimitiveListViews.asList(this.recorderYears2DArray);
 		}
 		else if (eventTypeToProcess.equals(EventTypeToProcess.INJURY_EVENT))
 		{
 			if (this.isRecorderYears2DArrayInitII == false)
 				this.generateRecorderYearsArray(EventTypeToProcess.INJURY_EVENT);
-			return this.recorderYears2DArrayII;
+			return PrimitiveListViews.asList(this.recorderYears2DArrayII);
 		}
 		else
 		{
 			log.error("Unsupported EventTypeToProcess");
 			return null;
 		}
-		
+	
 	}
 	
 	/**
@@ -2518,7 +1824,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 		}
 		
 		return false;
-		
+	
 	}
 	
 	/**
@@ -2662,7 +1968,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Deprecated
-	public ArrayList<Integer> getClimate() {
+	public List<Integer> getClimate() {
 	
 		return getFireEventsArray();
 	}
@@ -2674,7 +1980,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Deprecated
-	public ArrayList<Integer> getClimateI() {
+	public List<Integer> getClimateI() {
 	
 		return this.getOtherInjuriesArray();
 	}
@@ -2686,7 +1992,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Deprecated
-	public ArrayList<Integer> getClimateIII() {
+	public List<Integer> getClimateIII() {
 	
 		return this.getFiresAndInjuriesArray();
 	}
@@ -2711,7 +2017,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	public void makeClimateI() {
 	
 		generate1DEventsII();
-		
+	
 	}
 	
 	/**
@@ -2723,7 +2029,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	public void makeClimateIII() {
 	
 		generate1DEventsIII();
-		
+	
 	}
 	
 	/**
@@ -2778,7 +2084,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * 
 	 */
 	@Deprecated
-	public ArrayList<ArrayList<Integer>> getClimate2d() {
+	public List<List<Integer>> getClimate2d() {
 	
 		return this.getEventDataArrays(EventTypeToProcess.FIRE_EVENT);
 	}
@@ -2788,7 +2094,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Deprecated
-	public ArrayList<ArrayList<Integer>> getClimate2dII() {
+	public List<List<Integer>> getClimate2dII() {
 	
 		return this.getEventDataArrays(EventTypeToProcess.INJURY_EVENT);
 	}
@@ -2798,7 +2104,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Deprecated
-	public ArrayList<ArrayList<Integer>> getClimate2dIII() {
+	public List<List<Integer>> getClimate2dIII() {
 	
 		return this.getEventDataArrays(EventTypeToProcess.FIRE_AND_INJURY_EVENT);
 	}
@@ -2823,7 +2129,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	public void makeClimate2dII() {
 	
 		generate2DEventsII();
-		
+	
 	}
 	
 	/**
@@ -2844,10 +2150,10 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Deprecated
-	public ArrayList<ArrayList<Double>> getfilters2d() {
+	public List<List<Double>> getfilters2d() {
 	
 		return getFilterArrays(EventTypeToProcess.FIRE_EVENT);
-		
+	
 	}
 	
 	/**
@@ -2857,7 +2163,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Deprecated
-	public ArrayList<ArrayList<Double>> getfilters2dII() {
+	public List<List<Double>> getfilters2dII() {
 	
 		return getFilterArrays(EventTypeToProcess.INJURY_EVENT);
 	}
@@ -2869,7 +2175,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 	 * @return
 	 */
 	@Deprecated
-	public ArrayList<ArrayList<Double>> getfilters2dIII() {
+	public List<List<Double>> getfilters2dIII() {
 	
 		return getFilterArrays(EventTypeToProcess.FIRE_AND_INJURY_EVENT);
 	}
@@ -2937,7 +2243,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 				}
 				else
 				{
-					
+				
 				}
 				if (outeryearbark[i] != -1 && outeryear[i] == -1)
 				{
@@ -2949,7 +2255,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 				}
 				else
 				{
-					
+				
 				}
 				
 				// Calculate inner index, outer index and length of series
@@ -2973,20 +2279,20 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 				boolean[] injuryYears = new boolean[arraylength];
 				// boolean[] recordingYearsII = new boolean[arraylength];
 				
-				ArrayList<ArrayList<Integer>> rya = getRecorderYears2DArray(EventTypeToProcess.FIRE_EVENT);
-				ArrayList<ArrayList<Integer>> eda1 = getEventDataArrays(EventTypeToProcess.FIRE_EVENT);
-				ArrayList<ArrayList<Integer>> eda2 = getEventDataArrays(EventTypeToProcess.INJURY_EVENT);
-				// ArrayList<ArrayList<Integer>> rya2 = getRecorderYears2DArray();
+				// Make sure the arrays have been generated then read them directly rather than through the List views
+				getRecorderYears2DArray(EventTypeToProcess.FIRE_EVENT);
+				getEventDataArrays(EventTypeToProcess.FIRE_EVENT);
+				getEventDataArrays(EventTypeToProcess.INJURY_EVENT);
+				byte[] rya = recorderYears2DArray[i];
+				byte[] eda1 = climate2dI[i];
+				byte[] eda2 = climate2dII[i];
 				
 				int j = 0;
 				for (int ind = inner; ind <= outer; ind++)
 				{
-					if (rya != null && rya.size() > 0)
-						recordingYears[j] = rya.get(i).get(ind) == 1;
-					if (eda1 != null && eda1.size() > 0)
-						eventYears[j] = eda1.get(i).get(ind) == 1;
-					if (eda2 != null && eda2.size() > 0)
-						injuryYears[j] = eda2.get(i).get(ind) == 1;
+					recordingYears[j] = rya[ind] == 1;
+					eventYears[j] = eda1[ind] == 1;
+					injuryYears[j] = eda2[ind] == 1;
 					/*
 					 * if (rya2 != null && rya2.size() > 0) recordingYearsII[j] = rya2.get(i).get(ind) == 1;
 					 */
@@ -2995,7 +2301,7 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 				
 				FHSeries series = new FHSeries(title, firstYear, hasPith, hasBark, recordingYears, eventYears, injuryYears);
 				seriesList.add(series);
-				
+			
 			}
 			catch (Exception e)
 			{
@@ -3005,9 +2311,92 @@ public class FHX2FileReader extends AbstractFireHistoryReader {
 		}
 	}
 	
+	/**
+	 * Get the lines of the file exactly as they were decoded when the file was read. This allows other parsers (e.g. DendroFileIO) to work
+	 * from the same decoded content rather than reading the file from disk again. Returns null if the file could not be read.
+	 * 
+	 * @return
+	 */
+	public ArrayList<String> getFileLines() {
+	
+		return fileLines;
+	}
+	
+	/**
+	 * Get a SHA-1 hash of the raw bytes of the file, as a hex string, taken when the file was read. This identifies the content of the file
+	 * regardless of its name or modification time. Returns null if the file could not be read.
+	 * 
+	 * @return
+	 */
+	public String getContentHash() {
+	
+		return contentHash;
+	}
+	
+	/**
+	 * Get the charset settings the file was read with, either FHX2FileReaderCache.AUTO_DETECT_CHARSET or the name of the forced charset.
+	 * 
+	 * @return
+	 */
+	String getCharsetSetting() {
+	
+		return charsetSetting;
+	}
+	
+	/**
+	 * Calculate the SHA-1 hash of the specified bytes as a hex string
+	 * 
+	 * @param data
+	 * @return
+	 */
+	private static String computeContentHash(byte[] data) {
+	
+		try
+		{
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(data);
+			StringBuilder sb = new StringBuilder(digest.length * 2);
+			for (byte b : digest)
+			{
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			log.error("Unable to calculate content hash of file");
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	/**
+	 * Get the contents of the file as a single string. The string is only built the first time it is requested as most callers never need
+	 * it.
+	 */
 	@Override
 	public String getFileContentsAsString() {
 	
-		return this.rawContent;
+		if (rawContent == null)
+		{
+			synchronized (this)
+			{
+				if (rawContent == null)
+				{
+					ArrayList<String> lines = fileLines;
+					StringBuilder sb = new StringBuilder();
+					if (lines != null)
+					{
+						String sep = System.lineSeparator();
+						for (String line : lines)
+						{
+							sb.append(line).append(sep);
+						}
+					}
+					rawContent = sb.toString();
+				}
+			}
+		}
+		
+		return rawContent;
 	}
 }
@@ -0,0 +1,306 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhfilereader;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.fhaes.preferences.App;
+import org.fhaes.preferences.FHAESPreferences.PrefKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * FHX2FileReaderCache Class. A process-wide cache of parsed FHX2FileReaders so that the analysis modules do not need to re-read and
+ * re-parse the same file from disk each time they are run. Readers are keyed on the absolute path, size and modification time of the file
+ * along with the charset settings in use, so a file that is edited on disk or read with a different encoding is parsed afresh.
+ * 
+ * <p>
+ * An edit that leaves both the size and the modification time unchanged cannot be seen from these alone, so for an FHFile the hash of the
+ * content it was loaded with is part of the key too. Reloading such a file therefore gets a reader for its new content, and a file that
+ * has not been reloaded keeps getting the reader for the content it describes. Plain Files have no content hash and are identified by their
+ * size and modification time only.
+ * </p>
+ * 
+ * <p>
+ * The cache is bounded by an estimate of the memory used by each reader and evicts the least recently used readers once the limit is
+ * reached. Readers handed out by the cache are shared, so callers must treat the data they return as read-only.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class FHX2FileReaderCache {
+	
+	private static final Logger log = LoggerFactory.getLogger(FHX2FileReaderCache.class);
+	
+	/**
+	 * Rough multiplier from file size to the memory used by a parsed reader. This covers the raw content, the line arrays and the event
+	 * arrays generated on demand by the analyses.
+	 */
+	private static final long BYTES_PER_FILE_BYTE = 16;
+	
+	/**
+	 * Charset setting used when the charset of each file is detected rather than forced.
+	 */
+	static final String AUTO_DETECT_CHARSET = "auto";
+	
+	private static final LinkedHashMap<String, CacheEntry> cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true);
+	private static long maxMemory = Runtime.getRuntime().maxMemory() / 4;
+	private static long memoryInUse = 0;
+	private static long hitCount = 0;
+	private static long missCount = 0;
+	
+	private FHX2FileReaderCache() {
+	
+	}
+	
+	/**
+	 * Get a reader for the specified file. If an up to date reader is already held in the cache it is returned, otherwise the file is parsed
+	 * and the new reader is added to the cache.
+	 * 
+	 * @param file
+	 * @return
+	 */
+	public static FHX2FileReader getReader(File file) {
+	
+		if (file == null)
+			return null;
+		
+		// Read the charset preferences once so that the key always matches the settings the file is parsed with
+		String charsetSetting = getCharsetSetting();
+		String contentHash = file instanceof FHFile ? ((FHFile) file).getContentHash() : null;
+		String key = getKey(file, charsetSetting, contentHash);
+		
+		synchronized (cache)
+		{
+			CacheEntry entry = cache.get(key);
+			if (entry != null)
+			{
+				hitCount++;
+				log.debug("Reader cache hit for " + file.getName());
+				return entry.reader;
+			}
+			missCount++;
+		}
+		
+		log.debug("Reader cache miss for " + file.getName());
+		
+		// Parse outside the lock so that several files can be read at once
+		FHX2FileReader reader = new FHX2FileReader(file, charsetSetting);
+		return put(key, file, reader);
+	}
+	
+	/**
+	 * Add a reader that has already been created for the specified file. If another thread has already cached a reader for the same version
+	 * of the file then that reader is kept.
+	 * 
+	 * @param file
+	 * @param reader
+	 * @return the reader now held in the cache
+	 */
+	public static FHX2FileReader put(File file, FHX2FileReader reader) {
+	
+		if (file == null || reader == null)
+			return reader;
+		
+		return put(getKey(file, reader.getCharsetSetting(), reader.getContentHash()), file, reader);
+	}
+	
+	/**
+	 * Remove any cached readers for the specified file.
+	 * 
+	 * @param file
+	 */
+	public static void invalidate(File file) {
+	
+		if (file == null)
+			return;
+		
+		String prefix = file.getAbsolutePath() + "|";
+		
+		synchronized (cache)
+		{
+			Iterator<Map.Entry<String, CacheEntry>> it = cache.entrySet().iterator();
+			while (it.hasNext())
+			{
+				Map.Entry<String, CacheEntry> e = it.next();
+				if (e.getKey().startsWith(prefix))
+				{
+					memoryInUse -= e.getValue().size;
+					it.remove();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Empty the cache and reset the hit and miss counters.
+	 */
+	public static void clear() {
+	
+		synchronized (cache)
+		{
+			cache.clear();
+			memoryInUse = 0;
+			hitCount = 0;
+			missCount = 0;
+		}
+	}
+	
+	/**
+	 * Set the approximate maximum number of bytes of memory the cached readers may use. The most recently used reader is always kept.
+	 * 
+	 * @param bytes
+	 */
+	public static void setMaxMemory(long bytes) {
+	
+		synchronized (cache)
+		{
+			maxMemory = bytes;
+			evict();
+		}
+	}
+	
+	/**
+	 * Get the approximate maximum number of bytes of memory the cached readers may use.
+	 * 
+	 * @return
+	 */
+	public static long getMaxMemory() {
+	
+		synchronized (cache)
+		{
+			return maxMemory;
+		}
+	}
+	
+	/**
+	 * Get the number of times a reader was served from the cache.
+	 * 
+	 * @return
+	 */
+	public static long getHitCount() {
+	
+		synchronized (cache)
+		{
+			return hitCount;
+		}
+	}
+	
+	/**
+	 * Get the number of times a file had to be parsed because it was not in the cache.
+	 * 
+	 * @return
+	 */
+	public static long getMissCount() {
+	
+		synchronized (cache)
+		{
+			return missCount;
+		}
+	}
+	
+	/**
+	 * Get the number of readers currently held in the cache.
+	 * 
+	 * @return
+	 */
+	public static int size() {
+	
+		synchronized (cache)
+		{
+			return cache.size();
+		}
+	}
+	
+	private static FHX2FileReader put(String key, File file, FHX2FileReader reader) {
+	
+		synchronized (cache)
+		{
+			CacheEntry existing = cache.get(key);
+			if (existing != null)
+				return existing.reader;
+			
+			CacheEntry entry = new CacheEntry(reader, file.length() * BYTES_PER_FILE_BYTE);
+			cache.put(key, entry);
+			memoryInUse += entry.size;
+			evict();
+			return reader;
+		}
+	}
+	
+	/**
+	 * Drop least recently used readers until the cache is within its memory limit. Must be called while holding the cache lock.
+	 */
+	private static void evict() {
+	
+		Iterator<Map.Entry<String, CacheEntry>> it = cache.entrySet().iterator();
+		while (memoryInUse > maxMemory && cache.size() > 1 && it.hasNext())
+		{
+			Map.Entry<String, CacheEntry> e = it.next();
+			log.debug("Evicting cached reader " + e.getKey());
+			memoryInUse -= e.getValue().size;
+			it.remove();
+		}
+	}
+	
+	/**
+	 * Build the cache key for a file from its path, size, modification time, the charset it is decoded with and the hash of its content if
+	 * known.
+	 * 
+	 * @param file
+	 * @param charsetSetting
+	 * @param contentHash - hash of the content of the file, or null if not known
+	 * @return
+	 */
+	private static String getKey(File file, String charsetSetting, String contentHash) {
+	
+		return file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified() + "|" + charsetSetting + "|" + contentHash;
+	}
+	
+	/**
+	 * Get a string describing how files are currently decoded, either AUTO_DETECT_CHARSET if the charset is detected or the name of the
+	 * forced charset.
+	 * 
+	 * @return
+	 */
+	static String getCharsetSetting() {
+	
+		if (App.prefs.getBooleanPref(PrefKey.AUTO_DETECT_CHAR_ENC, true))
+		{
+			return AUTO_DETECT_CHARSET;
+		}
+		
+		return App.prefs.getCharsetPref(PrefKey.FORCE_CHAR_ENC_TO, Charset.forName("UTF-8")).name();
+	}
+	
+	private static class CacheEntry {
+		
+		private final FHX2FileReader reader;
+		private final long size;
+		
+		CacheEntry(FHX2FileReader reader, long size) {
+		
+			this.reader = reader;
+			this.size = size;
+		}
+	}
+}
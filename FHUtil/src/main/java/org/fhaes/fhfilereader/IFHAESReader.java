@@ -19,6 +19,7 @@ package org.fhaes.fhfilereader;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.fhaes.enums.EventTypeToProcess;
 
@@ -84,7 +85,7 @@ public interface IFHAESReader {
 	
 	/**
 	 * <p>
-	 * Get an ArrayList with length equal to number of years in file, containing Integer codes meaning.
+	 * Get a read-only List with length equal to number of years in file, containing Integer codes meaning.
 	 * </p>
 	 * <ul>
 	 * <li>1 = fire event</li>
@@ -94,11 +95,11 @@ public interface IFHAESReader {
 	 * 
 	 * @return
 	 */
-	public abstract ArrayList<Integer> getFireEventsArray();
+	public abstract List<Integer> getFireEventsArray();
 	
 	/**
 	 * <p>
-	 * Get an ArrayList with length equal to number of years in file, containing Integer codes meaning.
+	 * Get a read-only List with length equal to number of years in file, containing Integer codes meaning.
 	 * </p>
 	 * <ul>
 	 * <li>1 = injury event</li>
@@ -108,11 +109,11 @@ public interface IFHAESReader {
 	 * 
 	 * @return
 	 */
-	public abstract ArrayList<Integer> getOtherInjuriesArray();
+	public abstract List<Integer> getOtherInjuriesArray();
 	
 	/**
 	 * <p>
-	 * Get an ArrayList with length equal to number of years in file, containing Integer codes meaning.
+	 * Get a read-only List with length equal to number of years in file, containing Integer codes meaning.
 	 * </p>
 	 * <ul>
 	 * <li>1 = fire or injury event</li>
@@ -122,7 +123,7 @@ public interface IFHAESReader {
 	 * 
 	 * @return
 	 */
-	public abstract ArrayList<Integer> getFiresAndInjuriesArray();
+	public abstract List<Integer> getFiresAndInjuriesArray();
 	
 	/**
 	 * Get an ArrayList of years contained within this file.
@@ -174,38 +175,42 @@ public interface IFHAESReader {
 	 * <li>0 = susceptible to fire (recording) but no event detected (a pipe in the file)</li>
 	 * </ul>
 	 * 
+	 * <p>
+	 * The lists returned by this and the other array accessors are read-only. Take a copy if the data needs to be modified.
+	 * </p>
+	 * 
 	 * @param eventType
 	 * @return
 	 */
-	public abstract ArrayList<ArrayList<Integer>> getEventDataArrays(EventTypeToProcess eventType);
+	public abstract List<List<Integer>> getEventDataArrays(EventTypeToProcess eventType);
 	
 	/**
 	 * TODO Documentation needed
 	 * 
 	 * @return
 	 */
-	public abstract ArrayList<ArrayList<Integer>> getCapsYearperSample2d();
+	public abstract List<List<Integer>> getCapsYearperSample2d();
 	
 	/**
 	 * TODO Documentation needed
 	 * 
 	 * @return
 	 */
-	public abstract ArrayList<ArrayList<Integer>> getCalosYearperSample2d();
+	public abstract List<List<Integer>> getCalosYearperSample2d();
 	
 	/**
 	 * TODO Documentation needed
 	 * 
 	 * @return
 	 */
-	public abstract ArrayList<ArrayList<Character>> getCapsperSample2d();
+	public abstract List<List<Character>> getCapsperSample2d();
 	
 	/**
 	 * TODO Documentation needed
 	 * 
 	 * @return
 	 */
-	public abstract ArrayList<ArrayList<Character>> getCalosperSample2d();
+	public abstract List<List<Character>> getCalosperSample2d();
 	
 	/**
 	 * <p>
@@ -225,7 +230,7 @@ public interface IFHAESReader {
 	 * @param eventType
 	 * @return
 	 */
-	public abstract ArrayList<ArrayList<Double>> getFilterArrays(EventTypeToProcess eventType);
+	public abstract List<List<Double>> getFilterArrays(EventTypeToProcess eventType);
 	
 	/**
 	 * Returns an int[] with one entry per sample in the file with each int containing the index to the earliest year for the sample.
@@ -394,6 +399,6 @@ public interface IFHAESReader {
 	 * 
 	 * @return
 	 */
-	public abstract ArrayList<ArrayList<Integer>> getRecorderYears2DArray(EventTypeToProcess eventTypeToProcess);
+	public abstract List<List<Integer>> getRecorderYears2DArray(EventTypeToProcess eventTypeToProcess);
 	
 }
@@ -0,0 +1,295 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhfilereader;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * PrimitiveListViews Class. Read-only List views over the primitive arrays that the readers use to store their data. The views do not copy
+ * the underlying arrays, so callers that need to modify the data must make their own copy first.
+ * 
+ * @author Peter Brewer
+ */
+final class PrimitiveListViews {
+	
+	private PrimitiveListViews() {
+	
+	}
+	
+	/**
+	 * Get a read-only view of a byte array as a list of Integers
+	 * 
+	 * @param values
+	 * @return
+	 */
+	static List<Integer> asList(final byte[] values) {
+	
+		if (values == null)
+			return null;
+		return new ByteList(values);
+	}
+	
+	/**
+	 * Get a read-only view of a 2D byte array as a list of lists of Integers
+	 * 
+	 * @param values
+	 * @return
+	 */
+	static List<List<Integer>> asList(final byte[][] values) {
+	
+		if (values == null)
+			return null;
+		
+		return new RowList<Integer>(values.length) {
+			
+			@Override
+			protected List<Integer> row(int index) {
+			
+				return new ByteList(values[index]);
+			}
+		};
+	}
+	
+	/**
+	 * Get a read-only view of a 2D int array as a list of lists of Integers
+	 * 
+	 * @param values
+	 * @return
+	 */
+	static List<List<Integer>> asList(final int[][] values) {
+	
+		if (values == null)
+			return null;
+		
+		return new RowList<Integer>(values.length) {
+			
+			@Override
+			protected List<Integer> row(int index) {
+			
+				return new IntList(values[index]);
+			}
+		};
+	}
+	
+	/**
+	 * Get a read-only view of a 2D char array as a list of lists of Characters
+	 * 
+	 * @param values
+	 * @return
+	 */
+	static List<List<Character>> asList(final char[][] values) {
+	
+		if (values == null)
+			return null;
+		
+		return new RowList<Character>(values.length) {
+			
+			@Override
+			protected List<Character> row(int index) {
+			
+				return new CharList(values[index]);
+			}
+		};
+	}
+	
+	/**
+	 * Get a read-only view of a 2D double array as a list of lists of Doubles
+	 * 
+	 * @param values
+	 * @return
+	 */
+	static List<List<Double>> asList(final double[][] values) {
+	
+		if (values == null)
+			return null;
+		
+		return new RowList<Double>(values.length) {
+			
+			@Override
+			protected List<Double> row(int index) {
+			
+				return new DoubleList(values[index]);
+			}
+		};
+	}
+	
+	/**
+	 * Base class for the outer list of a 2D view. Rows are wrapped on demand.
+	 */
+	private static abstract class RowList<T> extends AbstractList<List<T>> implements RandomAccess {
+		
+		private final int size;
+		
+		RowList(int size) {
+		
+			this.size = size;
+		}
+		
+		protected abstract List<T> row(int index);
+		
+		@Override
+		public List<T> get(int index) {
+		
+			if (index < 0 || index >= size)
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			return row(index);
+		}
+		
+		@Override
+		public int size() {
+		
+			return size;
+		}
+	}
+	
+	/**
+	 * View of a byte[] of event codes. indexOf() and friends are overridden as they are used heavily when searching for the first event.
+	 */
+	private static final class ByteList extends AbstractList<Integer> implements RandomAccess {
+		
+		private final byte[] values;
+		
+		ByteList(byte[] values) {
+		
+			this.values = values;
+		}
+		
+		@Override
+		public Integer get(int index) {
+		
+			return Integer.valueOf(values[index]);
+		}
+		
+		@Override
+		public int size() {
+		
+			return values.length;
+		}
+		
+		@Override
+		public int indexOf(Object o) {
+		
+			if (!(o instanceof Integer))
+				return -1;
+			int v = (Integer) o;
+			for (int i = 0; i < values.length; i++)
+			{
+				if (values[i] == v)
+					return i;
+			}
+			return -1;
+		}
+		
+		@Override
+		public int lastIndexOf(Object o) {
+		
+			if (!(o instanceof Integer))
+				return -1;
+			int v = (Integer) o;
+			for (int i = values.length - 1; i >= 0; i--)
+			{
+				if (values[i] == v)
+					return i;
+			}
+			return -1;
+		}
+		
+		@Override
+		public boolean contains(Object o) {
+		
+			return indexOf(o) != -1;
+		}
+	}
+	
+	/**
+	 * View of an int[]
+	 */
+	private static final class IntList extends AbstractList<Integer> implements RandomAccess {
+		
+		private final int[] values;
+		
+		IntList(int[] values) {
+		
+			this.values = values;
+		}
+		
+		@Override
+		public Integer get(int index) {
+		
+			return Integer.valueOf(values[index]);
+		}
+		
+		@Override
+		public int size() {
+		
+			return values.length;
+		}
+	}
+	
+	/**
+	 * View of a char[]
+	 */
+	private static final class CharList extends AbstractList<Character> implements RandomAccess {
+		
+		private final char[] values;
+		
+		CharList(char[] values) {
+		
+			this.values = values;
+		}
+		
+		@Override
+		public Character get(int index) {
+		
+			return Character.valueOf(values[index]);
+		}
+		
+		@Override
+		public int size() {
+		
+			return values.length;
+		}
+	}
+	
+	/**
+	 * View of a double[]
+	 */
+	private static final class DoubleList extends AbstractList<Double> implements RandomAccess {
+		
+		private final double[] values;
+		
+		DoubleList(double[] values) {
+		
+			this.values = values;
+		}
+		
+		@Override
+		public Double get(int index) {
+		
+			return Double.valueOf(values[index]);
+		}
+		
+		@Override
+		public int size() {
+		
+			return values.length;
+		}
+	}
+}
@@ -18,72 +18,191 @@
 package org.fhaes.math;
 
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Weibull Class. Class for calculating various statistical measured based on the Weibull distribution.
  * 
+ * <p>
+ * Each instance holds its own fitted parameters and is immutable once constructed, so fits can be calculated and used on several threads
+ * at once. Many data sets can be fitted in one call with fit().
+ * </p>
+ * 
  * @author Elena Velasquez
  */
 public class Weibull {
 	
-	private static double[] wparam;
+	private final double[] wparam;
 	
 	/**
-	 * TODO
+	 * Fit a Weibull distribution to the data.
 	 * 
 	 * @param data
 	 */
 	public Weibull(ArrayList<Double> data) {
 		
+		this(toArray(data));
+	}
+	
+	/**
+	 * Fit a Weibull distribution to the data.
+	 * 
+	 * @param data
+	 */
+	public Weibull(double[] data) {
+		
 		wparam = Weibull.generateParameters(data);
 	}
 	
 	/**
-	 * TODO
+	 * Fit a Weibull distribution to each of the data sets using as many threads as there are processors.
+	 * 
+	 * @param data - array of data sets to fit
+	 * @return array of fitted distributions in the same order as the data sets
+	 * @throws IllegalStateException if any of the data sets could not be fitted
+	 */
+	public static Weibull[] fit(double[][] data) {
+		
+		return fit(data, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Fit a Weibull distribution to each of the data sets using up to the specified number of threads. Either every data set is fitted or
+	 * an exception is thrown, whether the fits are run on one thread or several.
+	 * 
+	 * @param data - array of data sets to fit
+	 * @param threads
+	 * @return array of fitted distributions in the same order as the data sets
+	 * @throws IllegalStateException if any of the data sets could not be fitted or the thread was interrupted
+	 */
+	public static Weibull[] fit(final double[][] data, int threads) {
+		
+		Weibull[] fits = new Weibull[data.length];
+		
+		if (threads <= 1 || data.length <= 1)
+		{
+			for (int i = 0; i < data.length; i++)
+			{
+				fits[i] = fitDataSet(data, i);
+			}
+			return fits;
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, data.length));
+		try
+		{
+			ArrayList<Future<Weibull>> futures = new ArrayList<Future<Weibull>>();
+			for (int i = 0; i < data.length; i++)
+			{
+				final int index = i;
+				futures.add(executor.submit(new Callable<Weibull>() {
+					
+					@Override
+					public Weibull call() {
+					
+						return fitDataSet(data, index);
+					}
+				}));
+			}
+			
+			for (int i = 0; i < futures.size(); i++)
+			{
+				fits[i] = futures.get(i).get();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while fitting Weibull distributions", e);
+		}
+		catch (ExecutionException e)
+		{
+			// fitDataSet() has already described which data set failed
+			if (e.getCause() instanceof IllegalStateException)
+			{
+				throw (IllegalStateException) e.getCause();
+			}
+			throw new IllegalStateException("Error fitting Weibull distributions", e.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		
+		return fits;
+	}
+	
+	/**
+	 * Fit a Weibull distribution to one of the data sets, reporting which data set failed if it cannot be fitted.
+	 * 
+	 * @param data
+	 * @param index
+	 * @return
+	 */
+	private static Weibull fitDataSet(double[][] data, int index) {
+		
+		try
+		{
+			return new Weibull(data[index]);
+		}
+		catch (RuntimeException e)
+		{
+			throw new IllegalStateException("Unable to fit a Weibull distribution to data set " + index, e);
+		}
+	}
+	
+	/**
+	 * Copy a list of values into a primitive array.
 	 * 
 	 * @param data
 	 * @return
 	 */
-	private static double[] generateParameters(ArrayList<Double> data) {
+	private static double[] toArray(ArrayList<Double> data) {
+		
+		double[] datap = new double[data.size()];
+		for (int k = 0; k < datap.length; k++)
+		{
+			datap[k] = data.get(k);
+		}
+		return datap;
+	}
+	
+	/**
+	 * Estimate the shape and scale parameters by maximum likelihood using Newton's method.
+	 * 
+	 * @param datap
+	 * @return array containing the shape and scale parameters
+	 */
+	private static double[] generateParameters(double[] datap) {
 		
 		//
 		// Initialization of local variables.
 		//
-		Double[] Ddatap;
-		double[] datap;
 		double[] wparam;
+		double[] lnx;
 		double tolerance = 0.0001;
 		double mnew = 0.0;
 		int maxitr = 50;
 		int niter = 1;
 		double m = 1.0;
 		double x0 = 0.0;
-		double lgxi = 0;
 		double slnx = 0;
 		double tt = Math.abs(m - mnew);
 		
 		wparam = new double[2];
 		//
-		// loading of the data: converting the ArrayList into an Array
-		//
-		Ddatap = new Double[data.size()];
-		Ddatap = data.toArray(Ddatap);
-		datap = new double[data.size()];
-		for (int k = 0; k < Ddatap.length; k++)
-		{
-			datap[k] = Ddatap[k].doubleValue();
-			
-		}
-		// log.debug("here is the data : "+ datap);
-		//
-		// Beging calculation of all the terms in the equations to be solve
+		// Beging calculation of all the terms in the equations to be solve. The logs of the data do not change between iterations so
+		// are only calculated once.
 		//
+		lnx = new double[datap.length];
 		for (int j = 0; j < datap.length; j++)
 		{
-			lgxi = Math.log(datap[j]);
-			// log.debug("here is the log of each data point: " +
-			// lgxi);
-			slnx = slnx + lgxi;
+			lnx[j] = Math.log(datap[j]);
+			slnx = slnx + lnx[j];
 		}
 		//
 		// Begin the iteration of m(k+1)=m(k)-f(x)/f'(x)
@@ -99,10 +218,9 @@ public class Weibull {
 			for (int i = 0; i < datap.length; i++)
 			{
 				xitom = Math.pow(datap[i], m);
-				lgxi = Math.log(datap[i]);
 				sxm = sxm + xitom;
-				sxmlnx = sxmlnx + xitom * lgxi;
-				sxmlnx2 = sxmlnx2 + (xitom * lgxi * lgxi);
+				sxmlnx = sxmlnx + xitom * lnx[i];
+				sxmlnx2 = sxmlnx2 + (xitom * lnx[i] * lnx[i]);
 			}
 			double numera = (1 / m) + (slnx / datap.length) - (sxmlnx / sxm);
 			denom = (1 / (m * m)) + (((sxm * sxmlnx2) - (sxmlnx * sxmlnx)) / (sxm * sxm));
@@ -17,6 +17,8 @@
  *************************************************************************************************/
 package org.fhaes.preferences;
 
+import java.awt.GraphicsEnvironment;
+
 import javax.swing.JFrame;
 
 import org.fhaes.preferences.FHAESPreferences.PrefKey;
@@ -28,7 +30,9 @@ import org.fhaes.util.Builder;
 public class App {
 	
 	public static FHAESPreferences prefs;
-	public static JFrame mainFrame = new JFrame();
+	
+	// There is no frame when running headless, e.g. from the command line on a server
+	public static JFrame mainFrame = GraphicsEnvironment.isHeadless() ? null : new JFrame();
 	
 	/**
 	 * TODO
@@ -52,4 +56,12 @@ public class App {
 		prefs.setBooleanPref(PrefKey.DONT_REQUEST_PARAM_CONFIRMATION, false);
 		
 	}
+	
+	/**
+	 * Initialize the preferences for running without a GUI. No frame is created so this can be used when running headless.
+	 */
+	public static void initHeadless() {
+	
+		prefs = new FHAESPreferences();
+	}
 }
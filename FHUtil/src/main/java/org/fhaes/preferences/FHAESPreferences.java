@@ -20,10 +20,13 @@ package org.fhaes.preferences;
 import java.awt.Color;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.prefs.Preferences;
 
+import javax.swing.SwingUtilities;
+
 import org.fhaes.enums.AnalysisLabelType;
 import org.fhaes.enums.AnalysisType;
 import org.fhaes.enums.EventTypeToProcess;
@@ -73,6 +76,8 @@ public class FHAESPreferences {
 	// Declare local variables
 	private Boolean silentMode = false;
 	private final ArrayList<PrefsListener> listeners = new ArrayList<PrefsListener>();
+	private final EnumSet<PrefKey> pendingChanges = EnumSet.noneOf(PrefKey.class);
+	private boolean isDeliveryScheduled = false;
 	
 	/**
 	 * This enum contains the keys for the preference values stored and used by FHAES.
@@ -139,6 +144,10 @@ public class FHAESPreferences {
 		
 		FORCE_CHAR_ENC_TO("forceCharacterEncodingTo"),
 		
+		FILE_LOAD_THREAD_COUNT("fileLoadThreadCount"),
+		
+		PARSE_CACHE_ENABLED("parseCacheEnabled"),
+		
 		/**
 		 * 
 		 * SEASONALITY PREFERENCES
@@ -512,7 +521,9 @@ public class FHAESPreferences {
 	}
 	
 	/**
-	 * Fire a preference change event for a specific PrefKey.
+	 * Fire a preference change event for a specific PrefKey. Listeners are not notified straight away. Instead the change is queued and
+	 * delivered on the event dispatch thread once the current event has been handled, along with any other preferences changed in the
+	 * meantime. This means code that sets many preferences in one go only triggers a single round of updates.
 	 * 
 	 * @param pref
 	 */
@@ -523,9 +534,44 @@ public class FHAESPreferences {
 		
 		log.debug("Preference change fired");
 		
-		PrefsEvent e = new PrefsEvent(FHAESPreferences.class, pref);
+		synchronized (pendingChanges)
+		{
+			pendingChanges.add(pref);
+			if (isDeliveryScheduled)
+				return;
+			isDeliveryScheduled = true;
+		}
+		
+		SwingUtilities.invokeLater(new Runnable() {
+			
+			@Override
+			public void run() {
+				
+				firePendingPrefChanges();
+			}
+		});
+	}
+	
+	/**
+	 * Notify the listeners straight away of any preference changes that are waiting to be delivered.
+	 */
+	public void firePendingPrefChanges() {
+		
+		PrefsEvent e;
+		synchronized (pendingChanges)
+		{
+			isDeliveryScheduled = false;
+			if (pendingChanges.isEmpty())
+				return;
+			
+			e = new PrefsEvent(FHAESPreferences.class, pendingChanges);
+			pendingChanges.clear();
+		}
+		
+		log.debug("Notifying listeners of changes to " + e.getPrefs());
 		
-		for (PrefsListener l : listeners)
+		// Copy the listeners as they may add or remove listeners in response to the event
+		for (PrefsListener l : new ArrayList<PrefsListener>(listeners))
 		{
 			l.prefChanged(e);
 		}
@@ -17,17 +17,21 @@
  *************************************************************************************************/
 package org.fhaes.preferences;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.EventObject;
+import java.util.Set;
 
 import org.fhaes.preferences.FHAESPreferences.PrefKey;
 
 /**
- * PrefsEvent Class.
+ * PrefsEvent Class. Describes one or more preferences that have changed. Changes made in quick succession are delivered together in a single
+ * event, so listeners should use contains() or getPrefs() rather than assuming only getPref() has changed.
  */
 public class PrefsEvent extends EventObject {
 	
 	private static final long serialVersionUID = 1L;
-	private final PrefKey pref;
+	private final Set<PrefKey> prefs;
 	
 	/**
 	 * Make a new PrefsEvent.
@@ -37,17 +41,50 @@ public class PrefsEvent extends EventObject {
 	 */
 	public PrefsEvent(Object source, PrefKey pref) {
 		
+		this(source, EnumSet.of(pref));
+	}
+	
+	/**
+	 * Make a new PrefsEvent for several preferences that changed together.
+	 * 
+	 * @param source the object which fired this event
+	 * @param prefs the keys for the preferences which were changed
+	 */
+	public PrefsEvent(Object source, Set<PrefKey> prefs) {
+		
 		super(source);
-		this.pref = pref;
+		this.prefs = Collections.unmodifiableSet(EnumSet.copyOf(prefs));
 	}
 	
 	/**
-	 * Get the key for the preference which was changed.
+	 * Get the key for the preference which was changed. If several preferences changed together this is the first of them in the order
+	 * they are declared in PrefKey.
 	 * 
 	 * @return the key of the pref which was changed
 	 */
 	public PrefKey getPref() {
 		
-		return pref;
+		return prefs.iterator().next();
+	}
+	
+	/**
+	 * Get the keys of all the preferences which were changed.
+	 * 
+	 * @return
+	 */
+	public Set<PrefKey> getPrefs() {
+		
+		return prefs;
+	}
+	
+	/**
+	 * Whether the specified preference was one of those changed.
+	 * 
+	 * @param pref
+	 * @return
+	 */
+	public boolean contains(PrefKey pref) {
+		
+		return prefs.contains(pref);
 	}
 }
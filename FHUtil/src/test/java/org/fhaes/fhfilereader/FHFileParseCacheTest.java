@@ -0,0 +1,202 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhfilereader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import junit.framework.TestCase;
+
+import org.fhaes.preferences.App;
+
+/**
+ * FHFileParseCacheTest Class. Loads a file twice through FHFile and checks that the second load is restored from the cache with the same
+ * results as checking the file in full, and that changed files and damaged entries are checked again rather than restored.
+ */
+public class FHFileParseCacheTest extends TestCase {
+	
+	private File folder;
+	private File cacheFolder;
+	private File originalCacheFolder;
+	
+	@Override
+	protected void setUp() throws IOException {
+	
+		// No frame as the tests may be run headless
+		App.init(null);
+		
+		folder = File.createTempFile("FHFileParseCacheTest", "");
+		folder.delete();
+		folder.mkdir();
+		cacheFolder = new File(folder, "cache");
+		
+		originalCacheFolder = FHFileParseCache.getCacheFolder();
+		FHFileParseCache.setCacheFolder(cacheFolder);
+		FHFileParseCache.clear();
+	}
+	
+	@Override
+	protected void tearDown() {
+	
+		FHFileParseCache.clear();
+		FHFileParseCache.setCacheFolder(originalCacheFolder);
+		
+		cacheFolder.delete();
+		for (File file : folder.listFiles())
+		{
+			file.delete();
+		}
+		folder.delete();
+	}
+	
+	/**
+	 * Copy one of the test data files to the temporary folder.
+	 * 
+	 * @param name
+	 * @return
+	 * @throws IOException
+	 */
+	private File copyTestFile(String name) throws IOException {
+	
+		File file = new File(folder, name);
+		Files.copy(new File("TestData", name).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		return file;
+	}
+	
+	/**
+	 * Get the single entry in the cache folder.
+	 * 
+	 * @return
+	 */
+	private File getOnlyEntry() {
+	
+		File[] entries = cacheFolder.listFiles();
+		assertNotNull(entries);
+		assertEquals(1, entries.length);
+		return entries[0];
+	}
+	
+	/**
+	 * Assert that two files were given the same results.
+	 * 
+	 * @param expected
+	 * @param actual
+	 */
+	private static void assertSameResults(FHFile expected, FHFile actual) {
+	
+		assertEquals(expected.isValidFHXFile(), actual.isValidFHXFile());
+		assertEquals(expected.getErrorMessage(), actual.getErrorMessage());
+		assertEquals(expected.getErrorLine(), actual.getErrorLine());
+		assertEquals(expected.getReport(), actual.getReport());
+		assertEquals(expected.getSiteName(), actual.getSiteName());
+		assertEquals(expected.getSiteCode(), actual.getSiteCode());
+		assertEquals(expected.getFirstCollectionDate(), actual.getFirstCollectionDate());
+		assertEquals(expected.getFirstLatitude(), actual.getFirstLatitude());
+		assertEquals(expected.getFirstLongitude(), actual.getFirstLongitude());
+	}
+	
+	public void testMissThenHit() throws IOException {
+	
+		File file = copyTestFile("PET.FHX");
+		
+		FHFile first = new FHFile(file);
+		assertEquals(0, FHFileParseCache.getHitCount());
+		assertEquals(1, FHFileParseCache.getMissCount());
+		getOnlyEntry();
+		
+		FHFile second = new FHFile(file);
+		assertEquals(1, FHFileParseCache.getHitCount());
+		assertEquals(1, FHFileParseCache.getMissCount());
+		assertSameResults(first, second);
+	}
+	
+	public void testChangedFileIsMiss() throws IOException {
+	
+		File file = copyTestFile("PET.FHX");
+		new FHFile(file);
+		
+		// Replace the content of the file but keep the name
+		Files.copy(new File("TestData", "TEST.FHX").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		FHFile changed = new FHFile(file);
+		assertEquals(0, FHFileParseCache.getHitCount());
+		assertEquals(2, FHFileParseCache.getMissCount());
+		assertEquals(2, cacheFolder.listFiles().length);
+		
+		FHFileParseCache.clear();
+		assertSameResults(new FHFile(file), changed);
+	}
+	
+	public void testCorruptEntryIsMiss() throws IOException {
+	
+		File file = copyTestFile("PET.FHX");
+		FHFile expected = new FHFile(file);
+		
+		// Overwrite the middle of the entry with garbage
+		File entry = getOnlyEntry();
+		RandomAccessFile raf = new RandomAccessFile(entry, "rw");
+		try
+		{
+			raf.seek(raf.length() / 2);
+			for (int i = 0; i < 16; i++)
+			{
+				raf.write(0xFF);
+			}
+		}
+		finally
+		{
+			raf.close();
+		}
+		
+		FHFile reloaded = new FHFile(file);
+		assertEquals(0, FHFileParseCache.getHitCount());
+		assertEquals(2, FHFileParseCache.getMissCount());
+		assertSameResults(expected, reloaded);
+		
+		// The damaged entry is replaced by a good one
+		new FHFile(file);
+		assertEquals(1, FHFileParseCache.getHitCount());
+	}
+	
+	public void testHugeStringLengthIsMiss() throws IOException {
+	
+		File file = copyTestFile("PET.FHX");
+		new FHFile(file);
+		String key = FHFileParseCache.getKey(file, new FHX2FileReader(file));
+		
+		// Replace the length of the first string, which follows the magic number, version, key and valid flag, with one far larger than
+		// the file so that it would run out of memory if it were allocated
+		File entry = getOnlyEntry();
+		RandomAccessFile raf = new RandomAccessFile(entry, "rw");
+		try
+		{
+			raf.seek(4 + 4 + 2 + key.length() + 1);
+			raf.writeInt(Integer.MAX_VALUE - 8);
+		}
+		finally
+		{
+			raf.close();
+		}
+		
+		assertNull(FHFileParseCache.get(key));
+		assertFalse(entry.exists());
+		assertEquals(2, FHFileParseCache.getMissCount());
+	}
+}
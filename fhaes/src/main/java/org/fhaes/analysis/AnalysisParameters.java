@@ -0,0 +1,279 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.analysis;
+
+import org.fhaes.enums.AnalysisLabelType;
+import org.fhaes.enums.AnalysisType;
+import org.fhaes.enums.EventTypeToProcess;
+import org.fhaes.enums.FireFilterType;
+import org.fhaes.enums.SampleDepthFilterType;
+import org.fhaes.preferences.FHAESPreferences;
+import org.fhaes.preferences.FHAESPreferences.PrefKey;
+
+/**
+ * AnalysisParameters Class. An immutable snapshot of the preferences used by the seasonality, intervals and matrix analyses. The snapshot
+ * is taken once when a run of the analyses starts so that every analysis in the run sees the same settings, even if the preferences are
+ * changed while the analyses are being calculated, and so that the preference store is only read once per run rather than by each
+ * analysis.
+ * 
+ * @author Peter Brewer
+ */
+public final class AnalysisParameters {
+	
+	public static final EventTypeToProcess DEFAULT_EVENT_TYPE = EventTypeToProcess.FIRE_EVENT;
+	public static final AnalysisType DEFAULT_ANALYSIS_TYPE = AnalysisType.COMPOSITE;
+	public static final FireFilterType DEFAULT_FILTER_TYPE = FireFilterType.NUMBER_OF_EVENTS;
+	public static final int DEFAULT_FILTER_VALUE = 1;
+	public static final double DEFAULT_ALPHA_LEVEL = 0.125;
+	public static final SampleDepthFilterType DEFAULT_SAMPLE_DEPTH_TYPE = SampleDepthFilterType.MIN_NUM_SAMPLES;
+	public static final double DEFAULT_SAMPLE_DEPTH_VALUE = 1.0;
+	public static final int DEFAULT_OVERLAP_REQUIRED = 25;
+	public static final AnalysisLabelType DEFAULT_LABEL_TYPE = AnalysisLabelType.INPUT_FILENAME;
+	
+	private final EventTypeToProcess eventType;
+	private final int firstYear;
+	private final int lastYear;
+	private final AnalysisType analysisType;
+	private final FireFilterType filterType;
+	private final double filterValue;
+	private final boolean includeIncomplete;
+	private final double alphaLevel;
+	private final SampleDepthFilterType sampleDepthType;
+	private final double sampleDepthValue;
+	private final int overlapRequired;
+	private final AnalysisLabelType labelType;
+	
+	private final boolean firstGroupDormant;
+	private final boolean firstGroupEarlyEarly;
+	private final boolean firstGroupMiddleEarly;
+	private final boolean firstGroupLateEarly;
+	private final boolean firstGroupLate;
+	private final boolean secondGroupDormant;
+	private final boolean secondGroupEarlyEarly;
+	private final boolean secondGroupMiddleEarly;
+	private final boolean secondGroupLateEarly;
+	private final boolean secondGroupLate;
+	
+	/**
+	 * Take a snapshot of the current analysis preferences.
+	 * 
+	 * @param prefs
+	 * @return
+	 */
+	public static AnalysisParameters fromPreferences(FHAESPreferences prefs) {
+	
+		return new AnalysisParameters(prefs);
+	}
+	
+	private AnalysisParameters(FHAESPreferences prefs) {
+	
+		eventType = prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, DEFAULT_EVENT_TYPE);
+		firstYear = prefs.getIntPref(PrefKey.RANGE_FIRST_YEAR, 0);
+		lastYear = prefs.getIntPref(PrefKey.RANGE_LAST_YEAR, 0);
+		analysisType = prefs.getAnalysisTypePref(PrefKey.INTERVALS_ANALYSIS_TYPE, DEFAULT_ANALYSIS_TYPE);
+		filterType = prefs.getFireFilterTypePref(PrefKey.COMPOSITE_FILTER_TYPE, DEFAULT_FILTER_TYPE);
+		filterValue = prefs.getIntPref(PrefKey.COMPOSITE_FILTER_VALUE, DEFAULT_FILTER_VALUE);
+		includeIncomplete = prefs.getBooleanPref(PrefKey.INTERVALS_INCLUDE_OTHER_INJURIES, false);
+		alphaLevel = prefs.getDoublePref(PrefKey.INTERVALS_ALPHA_LEVEL, DEFAULT_ALPHA_LEVEL);
+		sampleDepthType = prefs.getSampleDepthFilterTypePref(PrefKey.COMPOSITE_SAMPLE_DEPTH_TYPE, DEFAULT_SAMPLE_DEPTH_TYPE);
+		sampleDepthValue = prefs.getDoublePref(PrefKey.COMPOSITE_MIN_SAMPLES, DEFAULT_SAMPLE_DEPTH_VALUE);
+		overlapRequired = prefs.getIntPref(PrefKey.RANGE_OVERLAP_REQUIRED, DEFAULT_OVERLAP_REQUIRED);
+		labelType = prefs.getAnalysisLabelTypePref(PrefKey.ANALYSIS_LABEL_TYPE, DEFAULT_LABEL_TYPE);
+		
+		firstGroupDormant = prefs.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_DORMANT, true);
+		firstGroupEarlyEarly = prefs.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_EARLY_EARLY, true);
+		firstGroupMiddleEarly = prefs.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_MIDDLE_EARLY, false);
+		firstGroupLateEarly = prefs.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_LATE_EARLY, false);
+		firstGroupLate = prefs.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_LATE, false);
+		secondGroupDormant = prefs.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_DORMANT, false);
+		secondGroupEarlyEarly = prefs.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_EARLY_EARLY, false);
+		secondGroupMiddleEarly = prefs.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_MIDDLE_EARLY, true);
+		secondGroupLateEarly = prefs.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_LATE_EARLY, true);
+		secondGroupLate = prefs.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_LATE, true);
+	}
+	
+	/**
+	 * Get the type of events to analyse
+	 * 
+	 * @return
+	 */
+	public EventTypeToProcess getEventType() {
+	
+		return eventType;
+	}
+	
+	/**
+	 * Get the first year of the range to analyse, or 0 to use the first year of the files
+	 * 
+	 * @return
+	 */
+	public int getFirstYear() {
+	
+		return firstYear;
+	}
+	
+	/**
+	 * Get the last year of the range to analyse, or 0 to use the last year of the files
+	 * 
+	 * @return
+	 */
+	public int getLastYear() {
+	
+		return lastYear;
+	}
+	
+	/**
+	 * Get whether the intervals analysis is run on the composite or on the individual samples
+	 * 
+	 * @return
+	 */
+	public AnalysisType getAnalysisType() {
+	
+		return analysisType;
+	}
+	
+	/**
+	 * Get the type of composite filter
+	 * 
+	 * @return
+	 */
+	public FireFilterType getFilterType() {
+	
+		return filterType;
+	}
+	
+	/**
+	 * Get the composite filter value
+	 * 
+	 * @return
+	 */
+	public double getFilterValue() {
+	
+		return filterValue;
+	}
+	
+	/**
+	 * Whether the intervals analysis includes other injuries
+	 * 
+	 * @return
+	 */
+	public boolean isIncludeIncomplete() {
+	
+		return includeIncomplete;
+	}
+	
+	/**
+	 * Get the alpha level for the intervals analysis
+	 * 
+	 * @return
+	 */
+	public double getAlphaLevel() {
+	
+		return alphaLevel;
+	}
+	
+	/**
+	 * Get the type of sample depth filter
+	 * 
+	 * @return
+	 */
+	public SampleDepthFilterType getSampleDepthType() {
+	
+		return sampleDepthType;
+	}
+	
+	/**
+	 * Get the sample depth filter value
+	 * 
+	 * @return
+	 */
+	public double getSampleDepthValue() {
+	
+		return sampleDepthValue;
+	}
+	
+	/**
+	 * Get the number of years that must overlap between two files for them to be compared in the matrix analysis
+	 * 
+	 * @return
+	 */
+	public int getOverlapRequired() {
+	
+		return overlapRequired;
+	}
+	
+	/**
+	 * Get the type of label to identify files by in the results
+	 * 
+	 * @return
+	 */
+	public AnalysisLabelType getLabelType() {
+	
+		return labelType;
+	}
+	
+	public boolean isFirstGroupDormant() {
+	
+		return firstGroupDormant;
+	}
+	
+	public boolean isFirstGroupEarlyEarly() {
+	
+		return firstGroupEarlyEarly;
+	}
+	
+	public boolean isFirstGroupMiddleEarly() {
+	
+		return firstGroupMiddleEarly;
+	}
+	
+	public boolean isFirstGroupLateEarly() {
+	
+		return firstGroupLateEarly;
+	}
+	
+	public boolean isFirstGroupLate() {
+	
+		return firstGroupLate;
+	}
+	
+	public boolean isSecondGroupDormant() {
+	
+		return secondGroupDormant;
+	}
+	
+	public boolean isSecondGroupEarlyEarly() {
+	
+		return secondGroupEarlyEarly;
+	}
+	
+	public boolean isSecondGroupMiddleEarly() {
+	
+		return secondGroupMiddleEarly;
+	}
+	
+	public boolean isSecondGroupLateEarly() {
+	
+		return secondGroupLateEarly;
+	}
+	
+	public boolean isSecondGroupLate() {
+	
+		return secondGroupLate;
+	}
+}
@@ -0,0 +1,352 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.analysis;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.fhaes.enums.AnalysisLabelType;
+import org.fhaes.fhfilereader.FHFile;
+import org.fhaes.model.ResultTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AnalysisResultCache Class. A process-wide cache of the results of the multi-file analyses (FHInterval, FHMatrix and the seasonality
+ * table) so that running the analyses again with a combination of files and parameters that has already been calculated, e.g. when a
+ * filter is toggled back and forth, returns the previous results rather than recalculating them.
+ * 
+ * <p>
+ * Results are keyed on the name of the analysis, the ordered list of files and the analysis parameters. Each file is identified by the hash
+ * of its content along with its name and the label it is given in the results, so an edited file or a change to the label preference is
+ * calculated afresh. Files that could not be read have no content hash and their results are never cached.
+ * </p>
+ * 
+ * <p>
+ * The cache is bounded both by the number of results and by their size, and evicts the least recently used results when either limit is
+ * exceeded. A single FHMatrix result on a large site matrix can hold millions of cells, so a limit on the count alone would not bound the
+ * memory used. The size of a result is estimated as the total number of characters in the cells of its ResultTables, and a result larger
+ * than the whole limit is not cached at all. Results handed out by the cache are shared, so callers must treat them as read-only.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class AnalysisResultCache {
+	
+	private static final Logger log = LoggerFactory.getLogger(AnalysisResultCache.class);
+	
+	private static final LinkedHashMap<String, Object> cache = new LinkedHashMap<String, Object>(16, 0.75f, true);
+	private static final HashMap<String, Long> sizes = new HashMap<String, Long>();
+	private static int maxEntries = 12;
+	private static long maxCharacters = 20000000;
+	private static long totalCharacters = 0;
+	private static long hitCount = 0;
+	private static long missCount = 0;
+	
+	private AnalysisResultCache() {
+	
+	}
+	
+	/**
+	 * Build the cache key for running an analysis on the specified files with the specified parameters. The parameters must include
+	 * everything that the results depend on, in a fixed order. Returns null if the results for these files cannot be cached.
+	 * 
+	 * @param analysis - name of the analysis
+	 * @param files - files in the order they are passed to the analysis
+	 * @param labelType - type of label the files are identified by in the results
+	 * @param parameters - analysis parameters
+	 * @return
+	 */
+	public static String getKey(String analysis, FHFile[] files, AnalysisLabelType labelType, Object... parameters) {
+	
+		if (files == null)
+			return null;
+		
+		StringBuilder key = new StringBuilder(analysis);
+		for (Object parameter : parameters)
+		{
+			key.append('|').append(parameter);
+		}
+		
+		for (FHFile file : files)
+		{
+			if (file == null || file.getContentHash() == null)
+				return null;
+			
+			key.append('|').append(file.getContentHash()).append(':').append(file.getName()).append(':').append(file.getLabel(labelType));
+		}
+		
+		return key.toString();
+	}
+	
+	/**
+	 * Get the cached result for the specified key, or null if there is none or it is not of the requested type.
+	 * 
+	 * @param key
+	 * @param type
+	 * @return
+	 */
+	public static <T> T get(String key, Class<T> type) {
+	
+		if (key == null)
+			return null;
+		
+		synchronized (cache)
+		{
+			Object result = cache.get(key);
+			if (type.isInstance(result))
+			{
+				hitCount++;
+				log.debug("Analysis result cache hit for " + type.getSimpleName());
+				return type.cast(result);
+			}
+			
+			missCount++;
+			return null;
+		}
+	}
+	
+	/**
+	 * Add a result to the cache. Nothing is cached if the key or result is null, or if the result is larger than the size limit, in which
+	 * case the results already cached are left as they are.
+	 * 
+	 * @param key
+	 * @param result
+	 */
+	public static void put(String key, Object result) {
+	
+		if (key == null || result == null)
+			return;
+		
+		long size = estimateSize(result);
+		
+		synchronized (cache)
+		{
+			if (size > maxCharacters)
+			{
+				log.debug("Not caching result of " + size + " characters as it is larger than the limit of " + maxCharacters);
+				return;
+			}
+			
+			remove(key);
+			cache.put(key, result);
+			sizes.put(key, size);
+			totalCharacters += size;
+			evict();
+		}
+	}
+	
+	/**
+	 * Empty the cache and reset the hit and miss counters.
+	 */
+	public static void clear() {
+	
+		synchronized (cache)
+		{
+			cache.clear();
+			sizes.clear();
+			totalCharacters = 0;
+			hitCount = 0;
+			missCount = 0;
+		}
+	}
+	
+	/**
+	 * Set the maximum number of results held in the cache. Setting this to zero disables the cache.
+	 * 
+	 * @param entries
+	 */
+	public static void setMaxEntries(int entries) {
+	
+		synchronized (cache)
+		{
+			maxEntries = Math.max(0, entries);
+			evict();
+		}
+	}
+	
+	/**
+	 * Get the maximum number of results held in the cache.
+	 * 
+	 * @return
+	 */
+	public static int getMaxEntries() {
+	
+		synchronized (cache)
+		{
+			return maxEntries;
+		}
+	}
+	
+	/**
+	 * Set the maximum total size of the results held in the cache, as the number of characters in the cells of their ResultTables.
+	 * 
+	 * @param characters
+	 */
+	public static void setMaxCharacters(long characters) {
+	
+		synchronized (cache)
+		{
+			maxCharacters = Math.max(0, characters);
+			evict();
+		}
+	}
+	
+	/**
+	 * Get the maximum total size of the results held in the cache.
+	 * 
+	 * @return
+	 */
+	public static long getMaxCharacters() {
+	
+		synchronized (cache)
+		{
+			return maxCharacters;
+		}
+	}
+	
+	/**
+	 * Get the estimated total size of the results currently held in the cache.
+	 * 
+	 * @return
+	 */
+	public static long getTotalCharacters() {
+	
+		synchronized (cache)
+		{
+			return totalCharacters;
+		}
+	}
+	
+	/**
+	 * Get the number of times a result was served from the cache.
+	 * 
+	 * @return
+	 */
+	public static long getHitCount() {
+	
+		synchronized (cache)
+		{
+			return hitCount;
+		}
+	}
+	
+	/**
+	 * Get the number of times a result had to be calculated because it was not in the cache.
+	 * 
+	 * @return
+	 */
+	public static long getMissCount() {
+	
+		synchronized (cache)
+		{
+			return missCount;
+		}
+	}
+	
+	/**
+	 * Get the number of results currently held in the cache.
+	 * 
+	 * @return
+	 */
+	public static int size() {
+	
+		synchronized (cache)
+		{
+			return cache.size();
+		}
+	}
+	
+	/**
+	 * Estimate the size of a result as the number of characters in the cells of its tables.
+	 * 
+	 * @param result
+	 * @return
+	 */
+	static long estimateSize(Object result) {
+	
+		if (result instanceof ResultTable)
+		{
+			return ((ResultTable) result).getCharacterCount();
+		}
+		else if (result instanceof FHMatrix)
+		{
+			FHMatrix fhm = (FHMatrix) result;
+			return sumSizes(fhm.getTreeSummaryTable(), fhm.getNTPResultTable(), fhm.getSiteResultTable(), fhm.getMatrix11ResultTable(),
+					fhm.getMatrix10ResultTable(), fhm.getMatrix01ResultTable(), fhm.getMatrix00ResultTable(), fhm.getSumResultTable(),
+					fhm.getSCOHResultTable(), fhm.getDSCOHResultTable(), fhm.getSJACResultTable(), fhm.getDSJACResultTable());
+		}
+		else if (result instanceof FHInterval)
+		{
+			FHInterval fhint = (FHInterval) result;
+			return sumSizes(fhint.getExceedenceTable(), fhint.getSummaryTable());
+		}
+		else if (result instanceof CharSequence)
+		{
+			return ((CharSequence) result).length();
+		}
+		return 0;
+	}
+	
+	/**
+	 * Get the total size of the tables, ignoring any that are null.
+	 * 
+	 * @param tables
+	 * @return
+	 */
+	private static long sumSizes(ResultTable... tables) {
+	
+		long size = 0;
+		for (ResultTable table : tables)
+		{
+			if (table != null)
+				size += table.getCharacterCount();
+		}
+		return size;
+	}
+	
+	/**
+	 * Remove the result with the specified key, if any. Must be called while holding the cache lock.
+	 * 
+	 * @param key
+	 */
+	private static void remove(String key) {
+	
+		cache.remove(key);
+		Long size = sizes.remove(key);
+		if (size != null)
+			totalCharacters -= size;
+	}
+	
+	/**
+	 * Drop least recently used results until the cache is within its count and size limits. Must be called while holding the cache lock.
+	 */
+	private static void evict() {
+	
+		Iterator<Map.Entry<String, Object>> it = cache.entrySet().iterator();
+		while ((cache.size() > maxEntries || totalCharacters > maxCharacters) && it.hasNext())
+		{
+			Long size = sizes.remove(it.next().getKey());
+			if (size != null)
+				totalCharacters -= size;
+			it.remove();
+		}
+	}
+}
@@ -20,20 +20,13 @@ package org.fhaes.analysis;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.text.DecimalFormat;
-import java.util.ArrayList;
 import java.util.Vector;
 
 import javax.swing.table.DefaultTableModel;
 
 import org.fhaes.enums.EventTypeToProcess;
-import org.fhaes.fhfilereader.AbstractFireHistoryReader;
 import org.fhaes.fhfilereader.FHFile;
 import org.fhaes.model.ReadOnlyDefaultTableModel;
-import org.fhaes.preferences.App;
-import org.fhaes.preferences.FHAESPreferences.PrefKey;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import au.com.bytecode.opencsv.CSVWriter;
 
@@ -45,62 +38,20 @@ import au.com.bytecode.opencsv.CSVWriter;
  */
 public class FHDescriptiveStats {
 	
-	private static final Logger log = LoggerFactory.getLogger(FHDescriptiveStats.class);
+	public static DefaultTableModel getSingleFileSummaryTableModel(FHFile file, EventTypeToProcess eventType) {
 	
-	public static DefaultTableModel getSingleFileSummaryTableModel(FHFile file) {
-	
-		try
-		{
-			AbstractFireHistoryReader fr = file.getFireHistoryReader();
-			DecimalFormat twoPlace = new DecimalFormat("0.00");
-			
-			EventTypeToProcess eventType = App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS,
-					EventTypeToProcess.FIRE_AND_INJURY_EVENT);
-			int[] sampledepths = fr.getSampleDepths();
-			int[] recordingdepths = fr.getRecordingDepths(eventType);
-			ArrayList<ArrayList<Double>> filterArray = fr.getFilterArrays(eventType);
-			double[] percentScarred = fr.getPercentOfRecordingScarred(eventType);
-			double[] percentAllScarred = fr.getPercentOfAllScarred(eventType);
-			
-			Vector<Object> headers = new Vector<Object>();
-			headers.add("Year");
-			headers.add("Sample depth");
-			headers.add("Recording depth");
-			headers.add("Number of " + eventType.toString().toLowerCase());
-			headers.add("Percentage of recording trees with " + eventType.toString().toLowerCase());
-			headers.add("Percentage of all trees with " + eventType.toString().toLowerCase());
-			Vector<Vector<Object>> rows = new Vector<Vector<Object>>();
-			
-			int i = 0;
-			for (int yr = fr.getFirstYear(); yr <= fr.getLastYear(); yr++)
-			{
-				Vector<Object> row = new Vector<Object>();
-				
-				row.add(yr);
-				row.add(sampledepths[i]);
-				row.add(recordingdepths[i]);
-				row.add(filterArray.get(0).get(i));
-				row.add(twoPlace.format(percentScarred[i]));
-				row.add(twoPlace.format(percentAllScarred[i]));
-				rows.add(row);
-				i++;
-			}
-			
-			ReadOnlyDefaultTableModel model = new ReadOnlyDefaultTableModel(rows, headers);
-			
-			return model;
-		}
-		catch (Exception e)
-		{
-			log.error("Error creating descriptive stats table model");
-			e.printStackTrace();
+		Vector<Vector<Object>> rows = FHDescriptiveStatsResults.getSingleFileSummaryRows(file, eventType);
+		
+		if (rows == null)
 			return null;
-		}
+		
+		Vector<Object> headers = rows.remove(0);
+		return new ReadOnlyDefaultTableModel(rows, headers);
 	}
 	
-	public static File getSingleFileSummaryAsFile(FHFile infile, File outfile) {
+	public static File getSingleFileSummaryAsFile(FHFile infile, File outfile, EventTypeToProcess eventType) {
 	
-		DefaultTableModel model = getSingleFileSummaryTableModel(infile);
+		DefaultTableModel model = getSingleFileSummaryTableModel(infile, eventType);
 		
 		if (model == null)
 			return null;
@@ -176,67 +127,17 @@ public class FHDescriptiveStats {
 	 */
 	public static DefaultTableModel getEventSummaryTableModel(FHFile file, EventTypeToProcess eventType) {
 	
-		try
-		{
-			AbstractFireHistoryReader fr = file.getFireHistoryReader();
-			
-			// Create array list to hold data
-			ArrayList<ArrayList<Integer>> list = new ArrayList<ArrayList<Integer>>();
-			for (int i = 0; i <= fr.getNumberOfSeries(); i++)
-			{
-				list.add(new ArrayList<Integer>());
-			}
-			
-			ArrayList<Double> events = fr.getFilterArrays(eventType).get(0);
-			
-			int currentYear = fr.getFirstYear();
-			
-			for (int i = 0; i < events.size(); i++)
-			{
-				int x = events.get(i).intValue();
-				list.get(x).add(currentYear);
-				currentYear++;
-			}
-			
-			Vector<Object> headers = new Vector<Object>();
-			headers.add("Trees recording");
-			headers.add("# of years");
-			headers.add("Years");
-			Vector<Vector<Object>> rows = new Vector<Vector<Object>>();
-			
-			for (int i = 0; i < list.size(); i++)
-			{
-				Vector<Object> row = new Vector<Object>();
-				ArrayList<Integer> r = list.get(i);
-				
-				// Skip indices where there are no years lists
-				if (r.size() == 0)
-					continue;
-				
-				row.add(i);
-				row.add(r.size());
-				String listOfYears = "";
-				for (Integer yr : r)
-				{
-					listOfYears += yr + " ";
-				}
-				row.add(listOfYears);
-				
-				rows.add(row);
-			}
-			
-			ReadOnlyDefaultTableModel model = new ReadOnlyDefaultTableModel(rows, headers);
-			model.setColumnClass(0, Integer.class);
-			model.setColumnClass(1, Integer.class);
-			
-			return model;
-		}
-		catch (Exception e)
-		{
-			e.printStackTrace();
-			log.error("Error creating Event Summary table model");
+		Vector<Vector<Object>> rows = FHDescriptiveStatsResults.getEventSummaryRows(file, eventType);
+		
+		if (rows == null)
 			return null;
-		}
+		
+		Vector<Object> headers = rows.remove(0);
+		ReadOnlyDefaultTableModel model = new ReadOnlyDefaultTableModel(rows, headers);
+		model.setColumnClass(0, Integer.class);
+		model.setColumnClass(1, Integer.class);
+		
+		return model;
 	}
 	
 	public static File getEventSummaryAsFile(FHFile infile, File outfile, EventTypeToProcess eventType) {
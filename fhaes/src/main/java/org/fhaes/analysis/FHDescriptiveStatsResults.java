@@ -0,0 +1,210 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Elena Velasquez and Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.analysis;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+
+import org.fhaes.enums.EventTypeToProcess;
+import org.fhaes.fhfilereader.AbstractFireHistoryReader;
+import org.fhaes.fhfilereader.FHFile;
+import org.fhaes.model.ResultTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calculates the descriptive statistics provided by FHDescriptiveStats, returning them as plain rows or ResultTables rather than table
+ * models. No GUI classes are used so these can be run headless, e.g. by BatchAnalysisRunner.
+ * 
+ * @author pbrewer
+ * 
+ */
+public class FHDescriptiveStatsResults {
+	
+	private static final Logger log = LoggerFactory.getLogger(FHDescriptiveStatsResults.class);
+	
+	/**
+	 * Returns the single file summary as a ResultTable. The event type is passed in rather than read from the preferences.
+	 * 
+	 * @param file
+	 * @param eventType
+	 * @return
+	 */
+	public static ResultTable getSingleFileSummaryTable(FHFile file, EventTypeToProcess eventType) {
+	
+		return toResultTable("FHDescriptiveStats", getSingleFileSummaryRows(file, eventType));
+	}
+	
+	/**
+	 * Returns the rows of the single file summary, the first row being the column headers.
+	 * 
+	 * @param file
+	 * @param eventType
+	 * @return
+	 */
+	static Vector<Vector<Object>> getSingleFileSummaryRows(FHFile file, EventTypeToProcess eventType) {
+	
+		try
+		{
+			AbstractFireHistoryReader fr = file.getFireHistoryReader();
+			DecimalFormat twoPlace = new DecimalFormat("0.00");
+			
+			int[] sampledepths = fr.getSampleDepths();
+			int[] recordingdepths = fr.getRecordingDepths(eventType);
+			List<List<Double>> filterArray = fr.getFilterArrays(eventType);
+			double[] percentScarred = fr.getPercentOfRecordingScarred(eventType);
+			double[] percentAllScarred = fr.getPercentOfAllScarred(eventType);
+			
+			Vector<Object> headers = new Vector<Object>();
+			headers.add("Year");
+			headers.add("Sample depth");
+			headers.add("Recording depth");
+			headers.add("Number of " + eventType.toString().toLowerCase());
+			headers.add("Percentage of recording trees with " + eventType.toString().toLowerCase());
+			headers.add("Percentage of all trees with " + eventType.toString().toLowerCase());
+			Vector<Vector<Object>> rows = new Vector<Vector<Object>>();
+			rows.add(headers);
+			
+			int i = 0;
+			for (int yr = fr.getFirstYear(); yr <= fr.getLastYear(); yr++)
+			{
+				Vector<Object> row = new Vector<Object>();
+				
+				row.add(yr);
+				row.add(sampledepths[i]);
+				row.add(recordingdepths[i]);
+				row.add(filterArray.get(0).get(i));
+				row.add(twoPlace.format(percentScarred[i]));
+				row.add(twoPlace.format(percentAllScarred[i]));
+				rows.add(row);
+				i++;
+			}
+			
+			return rows;
+		}
+		catch (Exception e)
+		{
+			log.error("Error creating descriptive stats table model");
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the event summary as a ResultTable.
+	 * 
+	 * @param file
+	 * @param eventType
+	 * @return
+	 */
+	public static ResultTable getEventSummaryTable(FHFile file, EventTypeToProcess eventType) {
+	
+		return toResultTable("FHEventSummary", getEventSummaryRows(file, eventType));
+	}
+	
+	/**
+	 * Returns the rows of the event summary, the first row being the column headers.
+	 * 
+	 * @param file
+	 * @param eventType
+	 * @return
+	 */
+	static Vector<Vector<Object>> getEventSummaryRows(FHFile file, EventTypeToProcess eventType) {
+	
+		try
+		{
+			AbstractFireHistoryReader fr = file.getFireHistoryReader();
+			
+			// Create array list to hold data
+			ArrayList<ArrayList<Integer>> list = new ArrayList<ArrayList<Integer>>();
+			for (int i = 0; i <= fr.getNumberOfSeries(); i++)
+			{
+				list.add(new ArrayList<Integer>());
+			}
+			
+			List<Double> events = fr.getFilterArrays(eventType).get(0);
+			
+			int currentYear = fr.getFirstYear();
+			
+			for (int i = 0; i < events.size(); i++)
+			{
+				int x = events.get(i).intValue();
+				list.get(x).add(currentYear);
+				currentYear++;
+			}
+			
+			Vector<Object> headers = new Vector<Object>();
+			headers.add("Trees recording");
+			headers.add("# of years");
+			headers.add("Years");
+			Vector<Vector<Object>> rows = new Vector<Vector<Object>>();
+			rows.add(headers);
+			
+			for (int i = 0; i < list.size(); i++)
+			{
+				Vector<Object> row = new Vector<Object>();
+				ArrayList<Integer> r = list.get(i);
+				
+				// Skip indices where there are no years lists
+				if (r.size() == 0)
+					continue;
+				
+				row.add(i);
+				row.add(r.size());
+				String listOfYears = "";
+				for (Integer yr : r)
+				{
+					listOfYears += yr + " ";
+				}
+				row.add(listOfYears);
+				
+				rows.add(row);
+			}
+			
+			return rows;
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+			log.error("Error creating Event Summary table model");
+			return null;
+		}
+	}
+	
+	/**
+	 * Add rows, the first of which are the column headers, to a new ResultTable.
+	 * 
+	 * @param name
+	 * @param rows
+	 * @return the table, or null if rows is null
+	 */
+	private static ResultTable toResultTable(String name, Vector<Vector<Object>> rows) {
+	
+		if (rows == null)
+			return null;
+		
+		ResultTable table = new ResultTable(name);
+		for (Vector<Object> row : rows)
+		{
+			table.addRow(row.toArray());
+		}
+		return table;
+	}
+}
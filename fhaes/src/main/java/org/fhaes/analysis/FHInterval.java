@@ -17,28 +17,26 @@
  *************************************************************************************************/
 package org.fhaes.analysis;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Collections;
 
-import javax.swing.JFileChooser;
-import javax.swing.filechooser.FileFilter;
-
 import org.apache.commons.math.stat.StatUtils;
 import org.apache.commons.math.stat.descriptive.DescriptiveStatistics;
+import org.fhaes.enums.AnalysisLabelType;
 import org.fhaes.enums.AnalysisType;
 import org.fhaes.enums.EventTypeToProcess;
 import org.fhaes.enums.FireFilterType;
 import org.fhaes.enums.SampleDepthFilterType;
 import org.fhaes.fhfilereader.FHFile;
 import org.fhaes.fhfilereader.FHX2FileReader;
-import org.fhaes.filefilter.CSVFileFilter;
+import org.fhaes.fhfilereader.FHX2FileReaderCache;
 import org.fhaes.math.Weibull;
+import org.fhaes.model.ResultTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,10 +58,12 @@ public class FHInterval {
 	private SampleDepthFilterType sampleDepthFilterType = SampleDepthFilterType.MIN_NUM_SAMPLES;
 	private Double sampleDepthFilterValue;
 	
-	private File exceedenceFile = null;
-	private File summaryFile = null;
+	private final ResultTable exceedenceTable = new ResultTable("FHInterval");
+	private final ResultTable summaryTable = new ResultTable("FHInterval");
 	private Double alphaLevel = 0.125;
 	
+	private final AnalysisLabelType labelType;
+	
 	/**
 	 * Construction for setting up an FHInterval analysis. After construction call doAnalysis() to run the analysis and then get results by
 	 * calling getExceedence() and getSummary().
@@ -77,11 +77,16 @@ public class FHInterval {
 	 * @param includeIncomplete
 	 * @param eventTypeToProcess
 	 * @param alphaLevel
+	 * @param sampleDepthFilterType
+	 * @param sampleDepthFilterValue
+	 * @param labelType - type of label to identify the files by in the results
 	 */
 	public FHInterval(FHFile[] inputFileArray, AnalysisType analysisType, Integer startYear, Integer endYear, FireFilterType filterType,
 			Double filterValue, Boolean includeIncomplete, EventTypeToProcess eventTypeToProcess, Double alphaLevel,
-			SampleDepthFilterType sampleDepthFilterType, Double sampleDepthFilterValue) {
+			SampleDepthFilterType sampleDepthFilterType, Double sampleDepthFilterValue, AnalysisLabelType labelType) {
 	
+		this.labelType = labelType;
+		
 		if (inputFileArray == null || inputFileArray.length == 0)
 		{
 			log.error("FHInterval must be passed an input file array");
@@ -90,20 +95,6 @@ public class FHInterval {
 		
 		this.inputFileArray = inputFileArray;
 		
-		try
-		{
-			summaryFile = File.createTempFile("FHInterval", ".tmp");
-			exceedenceFile = File.createTempFile("FHInterval", ".tmp");
-			summaryFile.deleteOnExit();
-			exceedenceFile.deleteOnExit();
-			
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
-			return;
-		}
-		
 		this.analysisType = analysisType;
 		this.fireFilterType = filterType;
 		this.filterValue = filterValue;
@@ -120,23 +111,43 @@ public class FHInterval {
 	}
 	
 	/**
-	 * Get CSV file containing Exceedence results#.
+	 * Get CSV file containing Exceedence results. The file is only written when first requested.
 	 * 
 	 * @return
 	 */
 	public File getExceedence() {
 	
-		return exceedenceFile;
+		return exceedenceTable.getFile();
 	}
 	
 	/**
-	 * Get CSV file containing summary of results.
+	 * Get CSV file containing summary of results. The file is only written when first requested.
 	 * 
 	 * @return
 	 */
 	public File getSummary() {
 	
-		return summaryFile;
+		return summaryTable.getFile();
+	}
+	
+	/**
+	 * Get the in-memory table containing Exceedence results.
+	 * 
+	 * @return
+	 */
+	public ResultTable getExceedenceTable() {
+	
+		return exceedenceTable;
+	}
+	
+	/**
+	 * Get the in-memory table containing summary of results.
+	 * 
+	 * @return
+	 */
+	public ResultTable getSummaryTable() {
+	
+		return summaryTable;
 	}
 	
 	/**
@@ -161,12 +172,9 @@ public class FHInterval {
 		Integer minFirstYear = new Integer(9999);
 		Integer maxLastYear = new Integer(0);
 		
-		String savePath = new String();
-		savePath = inputFileArray[0].getAbsolutePath();
-		
 		for (int i = 0; i < inputFileArray.length; i++)
 		{
-			myReader.add(new FHX2FileReader(inputFileArray[i]));
+			myReader.add(FHX2FileReaderCache.getReader(inputFileArray[i]));
 			
 			/*
 			 * set the beginning year accounting for the filter
@@ -275,18 +283,21 @@ public class FHInterval {
 		{
 			listYears.add(minFirstYear + i);
 		}
+		
+		/*
+		 * Align the data for all the files on the listYears so each year can be looked up directly
+		 */
+		YearAlignedEventCube cube = new YearAlignedEventCube(myReader, eventTypeToProcess, minFirstYear, maxLastYear);
 		/*
 		 * create arraylist need for the Interval Analysis
 		 */
 		
 		ArrayList<ArrayList<Integer>> climateMatrixSite = new ArrayList<ArrayList<Integer>>();
 		ArrayList<ArrayList<Double>> filterMatrix = new ArrayList<ArrayList<Double>>();
-		ArrayList<Integer> climateVector = new ArrayList<Integer>();
-		ArrayList<ArrayList<Double>> climateVectorFilter2 = new ArrayList<ArrayList<Double>>();
+		int[] climateVector = null;
 		// ArrayList<Double> fireintervalspersite = new ArrayList<Double>();
 		ArrayList<Integer> climateVectorActualSite = null;
 		ArrayList<Double> filterVectorActual = null;
-		ArrayList<Integer> climateYear = new ArrayList<Integer>();
 		ArrayList<Integer> minSampleFilter = null;
 		ArrayList<Double> percentOfRecordingfilter = null;
 		Double[] Dfireintervalspersite;
@@ -426,6 +437,12 @@ public class FHInterval {
 		
 		boolean[] enoughIntComp = new boolean[myReader.size()];
 		boolean[] enoughIntSamp = new boolean[myReader.size()];
+		
+		// Fire intervals of each file with enough intervals for the Weibull statistics, otherwise null
+		ArrayList<ArrayList<Double>> intervalsComp = new ArrayList<ArrayList<Double>>(Collections.nCopies(myReader.size(),
+				(ArrayList<Double>) null));
+		ArrayList<ArrayList<Double>> intervalsSamp = new ArrayList<ArrayList<Double>>(Collections.nCopies(myReader.size(),
+				(ArrayList<Double>) null));
 		// NEW FOR ELENA
 		log.debug("Sample depth filter type = " + sampleDepthFilterType);
 		log.debug("Sample depth value = " + sampleDepthFilterValue);
@@ -446,23 +463,17 @@ public class FHInterval {
 		{
 			log.debug("  Starting to Process file : " + myReader.get(i).getName());
 			
-			/*
-			 * get the vector Year containing the vector of year of a given fhx file load it into the array list climateYear.
-			 */
-			
-			climateYear = myReader.get(i).getYearArray();
-			
 			// new stuff
 			// Create filter based on min number of samples/recorder samples
 			int[] depths = null;
 			if (sampleDepthFilterType.equals(SampleDepthFilterType.MIN_NUM_SAMPLES))
 			{
-				depths = myReader.get(i).getSampleDepths();
+				depths = cube.getSampleDepths(i);
 				log.debug("MIN_NUM_SAMPLES ");
 			}
 			else if (sampleDepthFilterType.equals(SampleDepthFilterType.MIN_NUM_RECORDER_SAMPLES))
 			{
-				depths = myReader.get(i).getRecordingDepths(eventTypeToProcess);
+				depths = cube.getRecordingDepths(i);
 				log.debug(" MIN_NUM_RECORDER_SAMPLES");
 			}
 			else
@@ -473,7 +484,7 @@ public class FHInterval {
 			minSampleFilter = new ArrayList<Integer>();
 			for (int ij = 0; ij < listYears.size(); ij++)
 			{
-				if (climateYear.indexOf(listYears.get(ij)) == -1)
+				if (!cube.hasYear(i, listYears.get(ij)))
 				{
 					minSampleFilter.add(-1);
 				}
@@ -481,7 +492,7 @@ public class FHInterval {
 				{
 					// log.debug("the sample depth is "
 					// + myReader.get(i).getSampleDepths()[climateYear.indexOf(listYearsComp.get(ij))]);
-					minSampleFilter.add(new Integer(depths[climateYear.indexOf(listYears.get(ij))]));
+					minSampleFilter.add(new Integer(depths[ij]));
 				}
 				// log.debug(" " + minSampleFilter.get(ij));
 			}
@@ -495,7 +506,6 @@ public class FHInterval {
 			 * case letter plus bars counting only after a fire) percent of scared trees total fires/total trees
 			 */
 			
-			// climateVectorFilter2 = myReader.get(i).getFilterArrays(eventTypeToProcess);
 			/*
 			 * More new stuff
 			 */
@@ -508,8 +518,6 @@ public class FHInterval {
 				 * lower case letter plus bars counting only after a fire) percent of scared trees total fires/total trees
 				 */
 				
-				climateVectorFilter2 = myReader.get(i).getFilterArrays(eventTypeToProcess);
-				
 				/*
 				 * if by tree analysis is selected create two matrices (array list) 1. filterMatrix containing the three filter vectors only
 				 * in between common years (so using the listYearComp array list subset of the years vector) 2. climateMatrix 2 dimensional
@@ -518,21 +526,21 @@ public class FHInterval {
 				if (fireFilterType.equals(FireFilterType.PERCENTAGE_OF_RECORDING))
 				{
 					percentOfRecordingfilter = new ArrayList<Double>();
+					double[] numberOfEvents = cube.getFilterValues(i, 0);
+					int[] recordingDepths = cube.getRecordingDepths(i);
 					
 					for (int ij = 0; ij < listYears.size(); ij++)
 					{
 						
-						if (climateYear.indexOf(listYears.get(ij)) == -1)
+						if (!cube.hasYear(i, listYears.get(ij)))
 						{
 							percentOfRecordingfilter.add(-1.0);
 						}
 						else
 						{
-							if (myReader.get(i).getRecordingDepths(eventTypeToProcess)[climateYear.indexOf(listYears.get(ij))] != 0)
+							if (recordingDepths[ij] != 0)
 							{
-								percentOfRecordingfilter.add(new Double(climateVectorFilter2.get(0).get(
-										climateYear.indexOf(listYears.get(ij)))
-										/ myReader.get(i).getRecordingDepths(eventTypeToProcess)[climateYear.indexOf(listYears.get(ij))]));
+								percentOfRecordingfilter.add(new Double(numberOfEvents[ij] / recordingDepths[ij]));
 							}
 							else
 							{
@@ -548,20 +556,20 @@ public class FHInterval {
 					{
 						log.debug("filter number is: " + ik);
 						filterVectorActual = new ArrayList<Double>();
+						double[] filterValues = cube.getFilterValues(i, ik);
 						for (int ij = 0; ij < listYears.size(); ij++)
 						{ // log.debug(" climateYear.indexOf(listYearsComp.get(j))" +
 							// climateYear.indexOf(listYearsComp.get(ij)));
 							// if(ik==0){log.debug("number of fires
 							// "+climateVectorFilter2.get(0).get(climateYear.indexOf(listYears.get(ij)))+" year
 							// "+listYearsComp.get(ij));}
-							if (climateYear.indexOf(listYears.get(ij)) == -1)
+							if (!cube.hasYear(i, listYears.get(ij)))
 							{
 								filterVectorActual.add(-1.0);
 							}
 							else
 							{
-								filterVectorActual
-										.add(new Double(climateVectorFilter2.get(ik).get(climateYear.indexOf(listYears.get(ij)))));
+								filterVectorActual.add(new Double(filterValues[ij]));
 							}
 							if (ik == 2)
 							{
@@ -614,30 +622,14 @@ public class FHInterval {
 				log.debug("inside the comp");
 				// System.out.println("inside the comp " + " working on file "+ myReader.get(i).getName() );
 				
-				if (eventTypeToProcess.equals(EventTypeToProcess.FIRE_EVENT))
-				{
-					climateVector = myReader.get(i).getFireEventsArray();
-				}
-				else if (eventTypeToProcess.equals(EventTypeToProcess.INJURY_EVENT))
-				{
-					climateVector = myReader.get(i).getOtherInjuriesArray();
-				}
-				else if (eventTypeToProcess.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
-				{
-					climateVector = myReader.get(i).getFiresAndInjuriesArray();
-				}
-				else
-				{
-					
-					log.error("Unsupported event type caught");
-				}
+				climateVector = cube.getEvents(i);
 				
 				climateVectorActualSite = new ArrayList<Integer>();
 				
 				for (int j = 0; j < listYears.size(); j++)
 				{
 					
-					if (climateYear.indexOf(listYears.get(j)) == -1)
+					if (!cube.hasYear(i, listYears.get(j)))
 					{
 						climateVectorActualSite.add(-1);
 					}
@@ -653,13 +645,13 @@ public class FHInterval {
 									// +" fires: "+filterMatrix.get(3*i).get(j)+" climatevector:
 									// "+climateVector.get(climateYear.indexOf(listYears.get(j))));
 									if ((filterMatrix.get(3 * i).get(j) < firesFilter1)
-											&& (climateVector.get(climateYear.indexOf(listYears.get(j)))) != -1.0)
+											&& climateVector[j] != -1.0)
 									{
 										climateVectorActualSite.add(0);
 									}
 									else
 									{
-										climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYears.get(j))));
+										climateVectorActualSite.add(climateVector[j]);
 									}
 								}
 								else if (fireFilterType.equals(FireFilterType.PERCENTAGE_OF_ALL_TREES))
@@ -674,13 +666,13 @@ public class FHInterval {
 									else
 									{
 										if ((filterMatrix.get(3 * i + 2).get(j) < firesFilter2)
-												&& ((climateVector.get(climateYear.indexOf(listYears.get(j)))) != -1.0))
+												&& (climateVector[j] != -1.0))
 										{
 											climateVectorActualSite.add(0);
 										}
 										else
 										{
-											climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYears.get(j))));
+											climateVectorActualSite.add(climateVector[j]);
 										}
 									}
 								}
@@ -696,13 +688,13 @@ public class FHInterval {
 									else
 									{
 										if ((percentOfRecordingfilter.get(j) < firesFilter2)
-												&& ((climateVector.get(climateYear.indexOf(listYears.get(j)))) != -1.0))
+												&& (climateVector[j] != -1.0))
 										{
 											climateVectorActualSite.add(0);
 										}
 										else
 										{
-											climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYears.get(j))));
+											climateVectorActualSite.add(climateVector[j]);
 										}
 									}
 									
@@ -716,7 +708,7 @@ public class FHInterval {
 							} // end of if filter not equal to 1
 							else
 							{
-								climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYears.get(j))));
+								climateVectorActualSite.add(climateVector[j]);
 							} // end of else of if filter not equal to 1
 						} // end of if the filter minsampedepth
 						else
@@ -840,76 +832,7 @@ public class FHInterval {
 					// log.debug("nomean \t\t nostd \t\t nokurt \t noskew \t\t nomedian");
 					// log.debug(twoPlace.format(mean)+"\t\t"+twoPlace.format(std)+"\t\t"+twoPlace.format(kurt)+"\t\t"+twoPlace.format(skew)+"\t\t"+twoPlace.format(median));
 					
-					Weibull weibull = new Weibull(fireintervalspersite);
-					
-					ArrayList<Double> weibullProb = weibull.getWeibullProbability(fireintervalspersite);
-					ArrayList<Double> siglonglowbound = new ArrayList<Double>();
-					ArrayList<Double> sigshortupbound = new ArrayList<Double>();
-					log.debug("the weibull probability of first element is " + weibullProb.get(0));
-					log.debug("the index  the size of the interval is " + weibullProb.indexOf(weibullProb.get(0)));
-					for (int ij = 0; ij < weibullProb.size() - 1; ij++)
-					{
-						if (weibullProb.get(ij) <= alphaLevel)
-						{
-							siglonglowbound.add(fireintervalspersite.get(ij));
-							
-						}
-						if (weibullProb.get(ij) >= (1 - alphaLevel))
-						{
-							sigshortupbound.add(fireintervalspersite.get(ij));
-							
-						}
-						
-					}
-					
-					summaryComp[10][i] = weibull.getScale();
-					summaryComp[11][i] = weibull.getShape();
-					summaryComp[12][i] = weibull.getMean();
-					summaryComp[13][i] = weibull.getMedian();
-					summaryComp[14][i] = weibull.getMode();
-					summaryComp[15][i] = weibull.getSigma();
-					summaryComp[16][i] = 1.0 / summaryComp[13][i];
-					summaryComp[17][i] = weibull.getSkew();
-					summaryComp[18][i] = weibull.getExceedenceProbability2()[0];
-					summaryComp[19][i] = weibull.getExceedenceProbability2()[1];
-					Collections.sort(sigshortupbound);
-					log.debug("siglonglowbound is " + siglonglowbound);
-					try
-					{
-						summaryComp[20][i] = sigshortupbound.get(sigshortupbound.size() - 1);
-					}
-					catch (Exception e)
-					{
-						summaryComp[20][i] = Double.NaN;
-					}
-					Collections.sort(siglonglowbound);
-					
-					try
-					{
-						summaryComp[21][i] = siglonglowbound.get(0);
-					}
-					catch (Exception e)
-					{
-						summaryComp[21][i] = Double.NaN;
-					}
-					log.debug("sigshortupbound is " + sigshortupbound);
-					Collections.sort(fireintervalspersite);
-					summaryComp[8][i] = fireintervalspersite.get(0);
-					summaryComp[9][i] = fireintervalspersite.get(fireintervalspersite.size() - 1);
-					// log.debug("shape \t\t scale \t\t median ");
-					// log.debug(twoPlace.format(test1.Weibull_Parameters(fireintervalspersite)[0])+"\t\t"+twoPlace.format(test1.Weibull_Parameters(fireintervalspersite)[1])+"\t\t"+twoPlace.format(test1.weibull_median(test1.Weibull_Parameters(fireintervalspersite))));
-					// log.debug("mean \t\t sigma \t\t mode \t\t skewness");
-					// log.debug(twoPlace.format(test1.weibull_mean(test1.Weibull_Parameters(fireintervalspersite)))+"\t\t"+twoPlace.format(test1.weibull_sigma(test1.Weibull_Parameters(fireintervalspersite)))+"\t\t"+twoPlace.format(test1.weibull_mode(test1.Weibull_Parameters(fireintervalspersite)))+"\t\t"+twoPlace.format(test1.weibull_skew(test1.Weibull_Parameters(fireintervalspersite))));
-					// log.debug("maxhazard \t\t lei \t\t uei ");
-					// log.debug(twoPlace.format(test1.maxhazard_int(test1.Weibull_Parameters(fireintervalspersite)))+"\t\t"+twoPlace.format(test1.weibull_lowuppexcint(test1.Weibull_Parameters(fireintervalspersite))[0])+"\t\t"+twoPlace.format(test1.weibull_lowuppexcint(test1.Weibull_Parameters(fireintervalspersite))[1]));
-					// log.debug("the size of YearWith Fires is "+YearsWithFires.size());
-					System.out.println("the size of the prb exdc is " + weibull.getExceedenceProbability().length);
-					for (int kk = 0; kk < weibull.getExceedenceProbability().length; kk++)
-					{
-						ExceeProbcomp[kk][i] = weibull.getExceedenceProbability()[kk];
-						// log.debug("file "+i+"Exce probability "+
-						// ExceeProbcomp[kk][i]);
-					}
+					intervalsComp.set(i, fireintervalspersite);
 				} // end of if enoughIntComp
 				else
 				{
@@ -941,9 +864,10 @@ public class FHInterval {
 						// log.debug("the size climate2d is "+myReader.get(i).getClimate2d().get(k).get(j));
 						if (eventTypeToProcess.equals(EventTypeToProcess.FIRE_EVENT))
 						{
-							if (climateYear.indexOf(listYears.get(j)) != -1)
+							int yearIndex = cube.getYearIndex(i, listYears.get(j));
+							if (yearIndex != -1)
 							{
-								if (myReader.get(i).getClimate2d().get(k).get(climateYear.indexOf(listYears.get(j))) == 1)
+								if (myReader.get(i).getClimate2d().get(k).get(yearIndex) == 1)
 								{
 									// FyearperSampletemp.add((j + myReader.get(i).getFirstYear()));
 									FyearperSampletemp.add(listYears.get(j));
@@ -963,9 +887,10 @@ public class FHInterval {
 						// }
 						else if (eventTypeToProcess.equals(EventTypeToProcess.INJURY_EVENT))
 						{
-							if (climateYear.indexOf(listYears.get(j)) != -1)
+							int yearIndex = cube.getYearIndex(i, listYears.get(j));
+							if (yearIndex != -1)
 							{
-								if (myReader.get(i).getClimate2dII().get(k).get(climateYear.indexOf(listYears.get(j))) == 1)
+								if (myReader.get(i).getClimate2dII().get(k).get(yearIndex) == 1)
 								{
 									FyearperSampletemp.add(listYears.get(j));
 								}
@@ -977,9 +902,10 @@ public class FHInterval {
 						}
 						else if (eventTypeToProcess.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
 						{
-							if (climateYear.indexOf(listYears.get(j)) != -1)
+							int yearIndex = cube.getYearIndex(i, listYears.get(j));
+							if (yearIndex != -1)
 							{
-								if (myReader.get(i).getClimate2dIII().get(k).get(climateYear.indexOf(listYears.get(j))) == 1)
+								if (myReader.get(i).getClimate2dIII().get(k).get(yearIndex) == 1)
 								{
 									FyearperSampletemp.add(listYears.get(j));
 								}
@@ -1174,94 +1100,7 @@ public class FHInterval {
 					// log.debug("nomean \t\t nostd \t\t nokurt \t noskew \t\t nomedian");
 					// log.debug(twoPlace.format(mean)+"\t\t"+twoPlace.format(std)+"\t\t"+twoPlace.format(kurt)+"\t\t"+twoPlace.format(skew)+"\t\t"+twoPlace.format(median));
 					
-					Weibull weibull = new Weibull(fireintervalspersample);
-					
-					//
-					ArrayList<Double> weibullProb = weibull.getWeibullProbability(fireintervalspersample);
-					ArrayList<Double> siglonglowbound = new ArrayList<Double>();
-					ArrayList<Double> sigshortupbound = new ArrayList<Double>();
-					log.debug("the weibull probability of first element is " + weibullProb.get(0));
-					log.debug("the index  the size of the interval is " + weibullProb.indexOf(weibullProb.get(0)));
-					for (int ij = 0; ij < weibullProb.size() - 1; ij++)
-					{
-						if (weibullProb.get(ij) <= alphaLevel)
-						{
-							siglonglowbound.add(fireintervalspersample.get(ij));
-							
-						}
-						if (weibullProb.get(ij) >= (1 - alphaLevel))
-						{
-							sigshortupbound.add(fireintervalspersample.get(ij));
-							
-						}
-						
-					}
-					
-					//
-					
-					summarySample[10][i] = weibull.getScale();
-					log.debug("summarySample[10][] " + i + " " + summarySample[10][i]);
-					summarySample[11][i] = weibull.getShape();
-					log.debug("summarySample[11][] " + i + " " + summarySample[11][i]);
-					summarySample[12][i] = weibull.getMean();
-					summarySample[13][i] = weibull.getMedian();
-					summarySample[14][i] = weibull.getMode();
-					summarySample[15][i] = weibull.getSigma();
-					summarySample[16][i] = 1.0 / summarySample[13][i];
-					summarySample[17][i] = weibull.getSkew();
-					summarySample[18][i] = weibull.getExceedenceProbability2()[0];
-					summarySample[19][i] = weibull.getExceedenceProbability2()[1];
-					Collections.sort(sigshortupbound);
-					log.debug("siglonglowbound is " + siglonglowbound);
-					try
-					{
-						summarySample[20][i] = sigshortupbound.get(sigshortupbound.size() - 1);
-					}
-					catch (Exception e)
-					{
-						summarySample[20][i] = Double.NaN;
-					}
-					Collections.sort(siglonglowbound);
-					
-					try
-					{
-						summarySample[21][i] = siglonglowbound.get(0);
-					}
-					catch (Exception e)
-					{
-						summarySample[21][i] = Double.NaN;
-					}
-					log.debug("sigshortupbound is " + sigshortupbound);
-					
-					Collections.sort(fireintervalspersample);
-					
-					try
-					{
-						summarySample[8][i] = fireintervalspersample.get(0);
-					}
-					catch (Exception ex)
-					{
-						log.error("Index out of bounds exception caught: ");
-						log.error("    summarySample[8][i] = fireintervalspersample.get(0)");
-						ex.printStackTrace();
-					}
-					summarySample[9][i] = fireintervalspersample.get(fireintervalspersample.size() - 1);
-					// log.debug("shape \t\t scale \t\t median ");
-					// log.debug(twoPlace.format(test2.Weibull_Parameters(fireintervalspersample)[0])+"\t\t"+twoPlace.format(test2.Weibull_Parameters(fireintervalspersample)[1])+"\t\t"+twoPlace.format(test2.weibull_median(test1.Weibull_Parameters(fireintervalspersample))));
-					// log.debug("mean \t\t sigma \t\t mode \t\t skewness");
-					// log.debug(twoPlace.format(test1.weibull_mean(test2.Weibull_Parameters(fireintervalspersample)))+"\t\t"+twoPlace.format(test1.weibull_sigma(test2.Weibull_Parameters(fireintervalspersample)))+"\t\t"+twoPlace.format(test2.weibull_mode(test1.Weibull_Parameters(fireintervalspersample)))+"\t\t"+twoPlace.format(test1.weibull_skew(test2.Weibull_Parameters(fireintervalspersample))));
-					// log.debug("maxhazard \t\t lei \t\t uei ");
-					// log.debug(twoPlace.format(test2.maxhazard_int(test2.Weibull_Parameters(fireintervalspersample)))+"\t\t"+twoPlace.format(test2.weibull_lowuppexcint(test2.Weibull_Parameters(fireintervalspersample))[0])+"\t\t"+twoPlace.format(test2.weibull_lowuppexcint(test2.Weibull_Parameters(fireintervalspersample))[1]));
-					// log.debug("the size of YearWith Fires is "+YearsWithFires.size());
-					// log.debug("the size of the prb exdc is
-					// "+test2.weibull_Exprob(test2.Weibull_Parameters(fireintervalspersample)).length);
-					System.out.println("the size of the prb exdc sample  is " + weibull.getExceedenceProbability().length);
-					for (int kk = 0; kk < weibull.getExceedenceProbability().length; kk++)
-					{
-						ExceeProbsample[kk][i] = weibull.getExceedenceProbability()[kk];
-						log.debug("file " + i + " Exce probability " + ExceeProbsample[kk][i]);
-						// log.debug("the size is "+ExceeProbsample.length);
-					}
+					intervalsSamp.set(i, fireintervalspersample);
 				} // end of if at least 4 fireintervals
 				else
 				{
@@ -1270,6 +1109,18 @@ public class FHInterval {
 			} // end of if jRadioSample selected.
 				// log.debug("the size of exceeprobsample is "ExceeProbsample.length+" X "+ExceeProbsample[0].length);
 		} // end of i readering each file loop do loop (354-1185)
+		
+		/*
+		 * Fit the Weibull distributions for all the files in one batch now that their fire intervals are known
+		 */
+		if (analysisType.equals(AnalysisType.COMPOSITE))
+		{
+			addWeibullStatistics(intervalsComp, summaryComp, ExceeProbcomp);
+		}
+		if (analysisType.equals(AnalysisType.SAMPLE))
+		{
+			addWeibullStatistics(intervalsSamp, summarySample, ExceeProbsample);
+		}
 		/*
 		 * 
 		 */
@@ -1279,31 +1130,6 @@ public class FHInterval {
 		// listYears.get(j));
 		// }
 		// setCursor(Cursor.getDefaultCursor());
-		/*
-		 * create JFileChooser object to generate a browsing capabilities
-		 */
-		JFileChooser fileBrowse = new JFileChooser();
-		
-		fileBrowse = new JFileChooser(savePath.substring(0, savePath.lastIndexOf(File.separator)));
-		/*
-		 * set multiselect on (even though we don't need it)
-		 */
-		fileBrowse.setMultiSelectionEnabled(true);
-		/*
-		 * set file and folder directive
-		 */
-		fileBrowse.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
-		/*
-		 * set file type: coma delimited file csv
-		 */
-		//
-		FileFilter filter1 = new CSVFileFilter();
-		fileBrowse.setFileFilter(filter1);
-		/*
-		 * set dialog text: select the name and location of the matrix files
-		 */
-		fileBrowse.setDialogTitle("Select the name and location of the Stats Summary file:");
-		
 		/*
 		 * create the writer object for each of the files to be created
 		 */
@@ -1323,8 +1149,8 @@ public class FHInterval {
 		{
 			if (analysisType.equals(AnalysisType.COMPOSITE))
 			{
-				wr = new BufferedWriter(new FileWriter(summaryFile));
-				wrWDE = new BufferedWriter(new FileWriter(exceedenceFile));
+				wr = summaryTable.getWriter();
+				wrWDE = exceedenceTable.getWriter();
 				/*
 				 * write the heading to the files
 				 */
@@ -1333,7 +1159,7 @@ public class FHInterval {
 				buffer = buffer + "Composite Parameters" + delim;
 				for (int i = 0; i < inputFileArray.length; i++)
 				{
-					buffer = buffer + inputFileArray[i].getLabel() + delim;
+					buffer = buffer + inputFileArray[i].getLabel(labelType) + delim;
 				}
 				;
 				wr.write(buffer.substring(0, buffer.length() - 1) + System.getProperty("line.separator"));
@@ -1393,7 +1219,7 @@ public class FHInterval {
 				wrWDE.write("Exceedence Prob" + delim);
 				for (int i = 0; i < inputFileArray.length; i++)
 				{
-					buffer = buffer + inputFileArray[i].getLabel() + delim;
+					buffer = buffer + inputFileArray[i].getLabel(labelType) + delim;
 				}
 				wrWDE.write(buffer.substring(0, buffer.length() - 1) + System.getProperty("line.separator"));
 				buffer = "";
@@ -1423,15 +1249,15 @@ public class FHInterval {
 			} // end of if jRadioComp is selecte
 			if (analysisType.equals(AnalysisType.SAMPLE))
 			{
-				wrSample = new BufferedWriter(new FileWriter(summaryFile));
-				wrWDESample = new BufferedWriter(new FileWriter(exceedenceFile));
+				wrSample = summaryTable.getWriter();
+				wrWDESample = exceedenceTable.getWriter();
 				/*
 				 * write the heading to the files
 				 */
 				wrSample.write("Sample Parameters" + delim);
 				for (int i = 0; i < inputFileArray.length; i++)
 				{
-					wrSample.write(inputFileArray[i].getLabel() + delim);
+					wrSample.write(inputFileArray[i].getLabel(labelType) + delim);
 				}
 				wrSample.write(System.getProperty("line.separator"));
 				for (int j = 0; j < statsparam.length; j++)
@@ -1484,7 +1310,7 @@ public class FHInterval {
 				wrWDESample.write("Exceedence Prob" + delim);
 				for (int i = 0; i < inputFileArray.length; i++)
 				{
-					wrWDESample.write(inputFileArray[i].getLabel() + delim);
+					wrWDESample.write(inputFileArray[i].getLabel(labelType) + delim);
 				}
 				wrWDESample.write(System.getProperty("line.separator"));
 				for (int j = 0; j < fixvalt.length; j++)
@@ -1522,6 +1348,105 @@ public class FHInterval {
 		
 	}
 	
+	/**
+	 * Fit a Weibull distribution to the fire intervals of every file in one batch and fill in the Weibull rows of the summary and the
+	 * exceedence probabilities for each file.
+	 * 
+	 * @param intervals - fire intervals for each file, or null for files without enough intervals
+	 * @param summary
+	 * @param exceeProb
+	 */
+	private void addWeibullStatistics(ArrayList<ArrayList<Double>> intervals, double[][] summary, double[][] exceeProb) {
+		
+		ArrayList<Integer> fileIndices = new ArrayList<Integer>();
+		for (int i = 0; i < intervals.size(); i++)
+		{
+			if (intervals.get(i) != null)
+			{
+				fileIndices.add(i);
+			}
+		}
+		
+		double[][] data = new double[fileIndices.size()][];
+		for (int f = 0; f < data.length; f++)
+		{
+			ArrayList<Double> fireintervals = intervals.get(fileIndices.get(f));
+			data[f] = new double[fireintervals.size()];
+			for (int ik = 0; ik < data[f].length; ik++)
+			{
+				data[f][ik] = fireintervals.get(ik);
+			}
+		}
+		
+		Weibull[] fits = Weibull.fit(data);
+		
+		for (int f = 0; f < fits.length; f++)
+		{
+			int i = fileIndices.get(f);
+			ArrayList<Double> fireintervals = intervals.get(i);
+			Weibull weibull = fits[f];
+			
+			ArrayList<Double> weibullProb = weibull.getWeibullProbability(fireintervals);
+			ArrayList<Double> siglonglowbound = new ArrayList<Double>();
+			ArrayList<Double> sigshortupbound = new ArrayList<Double>();
+			log.debug("the weibull probability of first element is " + weibullProb.get(0));
+			for (int ij = 0; ij < weibullProb.size() - 1; ij++)
+			{
+				if (weibullProb.get(ij) <= alphaLevel)
+				{
+					siglonglowbound.add(fireintervals.get(ij));
+				}
+				if (weibullProb.get(ij) >= (1 - alphaLevel))
+				{
+					sigshortupbound.add(fireintervals.get(ij));
+				}
+			}
+			
+			summary[10][i] = weibull.getScale();
+			summary[11][i] = weibull.getShape();
+			summary[12][i] = weibull.getMean();
+			summary[13][i] = weibull.getMedian();
+			summary[14][i] = weibull.getMode();
+			summary[15][i] = weibull.getSigma();
+			summary[16][i] = 1.0 / summary[13][i];
+			summary[17][i] = weibull.getSkew();
+			double[] exceedenceInterval = weibull.getExceedenceProbability2();
+			summary[18][i] = exceedenceInterval[0];
+			summary[19][i] = exceedenceInterval[1];
+			Collections.sort(sigshortupbound);
+			log.debug("siglonglowbound is " + siglonglowbound);
+			try
+			{
+				summary[20][i] = sigshortupbound.get(sigshortupbound.size() - 1);
+			}
+			catch (Exception e)
+			{
+				summary[20][i] = Double.NaN;
+			}
+			Collections.sort(siglonglowbound);
+			
+			try
+			{
+				summary[21][i] = siglonglowbound.get(0);
+			}
+			catch (Exception e)
+			{
+				summary[21][i] = Double.NaN;
+			}
+			log.debug("sigshortupbound is " + sigshortupbound);
+			Collections.sort(fireintervals);
+			summary[8][i] = fireintervals.get(0);
+			summary[9][i] = fireintervals.get(fireintervals.size() - 1);
+			
+			double[] exceedenceProbability = weibull.getExceedenceProbability();
+			for (int kk = 0; kk < exceedenceProbability.length; kk++)
+			{
+				exceeProb[kk][i] = exceedenceProbability[kk];
+				log.debug("file " + i + " Exce probability " + exceeProb[kk][i]);
+			}
+		}
+	}
+	
 	public static ArrayList<Integer> generateFireIntervals(ArrayList<Integer> YearsWithFires) {
 	
 		ArrayList<Integer> fireIntervals = new ArrayList<Integer>();
@@ -17,21 +17,21 @@
  *************************************************************************************************/
 package org.fhaes.analysis;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.List;
 
-import javax.swing.JOptionPane;
-
+import org.fhaes.enums.AnalysisLabelType;
 import org.fhaes.enums.EventTypeToProcess;
 import org.fhaes.enums.FireFilterType;
 import org.fhaes.enums.NoDataLabel;
 import org.fhaes.fhfilereader.FHFile;
 import org.fhaes.fhfilereader.FHX2FileReader;
+import org.fhaes.fhfilereader.FHX2FileReaderCache;
+import org.fhaes.model.ResultTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +62,8 @@ public class FHMatrix {
 	private final Integer overlapRequired;
 	private final EventTypeToProcess eventType;
 	
+	private final AnalysisLabelType labelType;
+	
 	@SuppressWarnings("unused")
 	private Double noDataValue = -99.0;
 	
@@ -78,6 +80,20 @@ public class FHMatrix {
 	private File outputFileSJAC;
 	private File outputFileDSJAC;
 	
+	// In-memory results. These are only written to the output files above if they were specified by the caller.
+	private ResultTable treeTable;
+	private ResultTable ntpTable;
+	private ResultTable siteTable;
+	private ResultTable matrix11Table;
+	private ResultTable matrix10Table;
+	private ResultTable matrix01Table;
+	private ResultTable matrix00Table;
+	private ResultTable sumTable;
+	private ResultTable scohTable;
+	private ResultTable dscohTable;
+	private ResultTable sjacTable;
+	private ResultTable dsjacTable;
+	
 	private Boolean debugfile = true;
 	
 	Integer minFirstYear = new Integer(9999);
@@ -94,11 +110,14 @@ public class FHMatrix {
 	 * @param filterValue - composite filter value
 	 * @param yearOverlapThreshold - number of years that must overlap between two sites
 	 * @param noDataLabel - Label to use when comparison is not possible
+	 * @param labelType - type of label to identify the files by in the results
 	 */
 	public FHMatrix(FHFile[] inputFileArray, Integer startYear, Integer endYear, FireFilterType filterType,
-			EventTypeToProcess eventTypeToProcess, Double filterValue, Integer yearOverlapThreshold, NoDataLabel noDataLabel) {
+			EventTypeToProcess eventTypeToProcess, Double filterValue, Integer yearOverlapThreshold, NoDataLabel noDataLabel,
+			AnalysisLabelType labelType) {
 	
 		this.inputFileArray = inputFileArray;
+		this.labelType = labelType;
 		this.startYear = startYear;
 		this.endYear = endYear;
 		this.overlapRequired = yearOverlapThreshold;
@@ -160,15 +179,17 @@ public class FHMatrix {
 	 * @param fireEvent
 	 * @param fireInjury
 	 * @param filterValue
+	 * @param labelType
 	 * @throws Exception
 	 */
 	@Deprecated
 	public FHMatrix(FHFile[] inputFile, File outputFile, Integer startYear, Integer endYear, Boolean siteMatrix, Boolean site00,
 			Boolean site01, Boolean site10, Boolean site11, Boolean siteSum, Boolean binaryMatrix, Boolean ntpMatrix,
 			Boolean filterByNumber, Boolean filterByPercentage, Boolean scohSim, Boolean sjacSim, Boolean fireEvent, Boolean fireInjury,
-			Double filterValue) throws Exception {
+			Double filterValue, AnalysisLabelType labelType) throws Exception {
 	
 		this.inputFileArray = inputFile;
+		this.labelType = labelType;
 		this.outputFileTree = outputFile;
 		this.startYear = startYear;
 		this.endYear = endYear;
@@ -227,6 +248,8 @@ public class FHMatrix {
 	
 	/**
 	 * Run the actual FHMatrix analysis
+	 * 
+	 * @throws IllegalArgumentException if there are no input files or outputs, or the start year is after the end year
 	 */
 	@SuppressWarnings("deprecation")
 	private void runAnalysis() {
@@ -254,20 +277,20 @@ public class FHMatrix {
 				}
 				else
 				{
-					JOptionPane.showMessageDialog(null, "Trees cannot grow after they die :'(.", "Warning", JOptionPane.WARNING_MESSAGE);
-					return;
+					log.error("Start year " + startYear + " is after end year " + endYear);
+					throw new IllegalArgumentException("Trees cannot grow after they die :'(.");
 				}
 			}
 			else
 			{
-				JOptionPane.showMessageDialog(null, "At least one output file should be selected.", "Warning", JOptionPane.WARNING_MESSAGE);
-				return;
+				log.error("No matrix outputs selected");
+				throw new IllegalArgumentException("At least one output file should be selected.");
 			}
 		}
 		else
 		{
-			JOptionPane.showMessageDialog(null, "Select at least one file.", "Warning", JOptionPane.WARNING_MESSAGE);
-			return;
+			log.error("No input files specified");
+			throw new IllegalArgumentException("Select at least one file.");
 		}
 		
 		ArrayList<FHX2FileReader> myReader = new ArrayList<FHX2FileReader>();
@@ -284,7 +307,7 @@ public class FHMatrix {
 		
 		for (int i = 0; i < inputFileArray.length; i++)
 		{
-			myReader.add(new FHX2FileReader(inputFileArray[i]));
+			myReader.add(FHX2FileReaderCache.getReader(inputFileArray[i]));
 			System.out.println("read file: " + myReader.get(i).getName());
 			if (eventType.equals(EventTypeToProcess.FIRE_EVENT))
 			{
@@ -466,20 +489,23 @@ public class FHMatrix {
 		ArrayList<Integer> listYears = new ArrayList<Integer>();
 		for (int i = 0; i < maxLastYear - minFirstYear + 1; i++)
 			listYears.add(minFirstYear + i);
+		
+		/*
+		 * Align the data for all the files on the listYears so each year can be looked up directly
+		 */
+		YearAlignedEventCube cube = new YearAlignedEventCube(myReader, eventType, minFirstYear, maxLastYear);
 		/*
 		 * Declaration of all the array lists needed in the process
 		 */
 		ArrayList<ArrayList<Integer>> climateMatrix = new ArrayList<ArrayList<Integer>>();
 		ArrayList<ArrayList<Integer>> climateMatrixSite = new ArrayList<ArrayList<Integer>>();
 		ArrayList<ArrayList<Double>> filterMatrix = new ArrayList<ArrayList<Double>>();
-		ArrayList<Integer> climateVector = new ArrayList<Integer>();
+		int[] climateVector = null;
 		// ArrayList<ArrayList<Double>> climateVectorFilters = new ArrayList<ArrayList<Double>>();
-		ArrayList<ArrayList<Integer>> climateVector2 = new ArrayList<ArrayList<Integer>>();
-		ArrayList<ArrayList<Double>> climateVectorFilter2 = new ArrayList<ArrayList<Double>>();
+		List<List<Integer>> climateVector2 = new ArrayList<List<Integer>>();
 		ArrayList<Integer> climateVectorActual = null;
 		ArrayList<Integer> climateVectorActualSite = null;
 		ArrayList<Double> filterVectorActual = null;
-		ArrayList<Integer> climateYear = new ArrayList<Integer>();
 		int[][] temp = new int[listYears.size()][myReader.size()];
 		int[][] matrix11 = new int[myReader.size()][];
 		int[][] matrix10 = new int[myReader.size()][];
@@ -538,19 +564,16 @@ public class FHMatrix {
 				{
 					// System.out.println("I am fire");
 					climateVector2 = myReader.get(i).getClimate2d();
-					climateVectorFilter2 = myReader.get(i).getfilters2d();
 				}
 				if (eventType.equals(EventTypeToProcess.INJURY_EVENT))
 				{
 					// System.out.println("I am Injury");
 					climateVector2 = myReader.get(i).getClimate2dII();
-					climateVectorFilter2 = myReader.get(i).getfilters2dII();
 				}
 				if (eventType.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
 				{
 					// System.out.println("I am Injury");
 					climateVector2 = myReader.get(i).getClimate2dIII();
-					climateVectorFilter2 = myReader.get(i).getfilters2dIII();
 				}
 				// climateVector2 = myReader.get(i).getClimate2d();
 				// climateVectorFilter2 = myReader.get(i).getfilters2d();
@@ -563,21 +586,7 @@ public class FHMatrix {
 				/*
 				 * get matrix climate binary matrix by site (binary analysis)
 				 */
-				if (eventType.equals(EventTypeToProcess.FIRE_EVENT))
-				{
-					// System.out.println("I am fire");
-					climateVector = myReader.get(i).getClimate();
-				}
-				if (eventType.equals(EventTypeToProcess.INJURY_EVENT))
-				{
-					// System.out.println("I am Injury");
-					climateVector = myReader.get(i).getOtherInjuriesArray();
-				}
-				if (eventType.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
-				{
-					// System.out.println("I am fire");
-					climateVector = myReader.get(i).getFiresAndInjuriesArray();
-				}
+				climateVector = cube.getEvents(i);
 				// climateVector = myReader.get(i).getClimate();
 				// climateVectorFilters = myReader.get(i).getfilters2d();
 				// eeSystem.out.println("I got climateVector");
@@ -585,11 +594,6 @@ public class FHMatrix {
 				// eeSystem.out.println("size by "+climateVector.size()+" "+climateVector);
 			}
 			
-			/*
-			 * get the vector Year containing the vector of year of a given fhx file load it into the array list climateYear.
-			 */
-			
-			climateYear = myReader.get(i).getYear();
 			if (ntpMatrix || filterValue != 1)
 			{
 				/*
@@ -600,15 +604,16 @@ public class FHMatrix {
 				for (int ik = 0; ik < 3; ik++)
 				{
 					filterVectorActual = new ArrayList<Double>();
+					double[] filterValues = cube.getFilterValues(i, ik);
 					for (int ij = 0; ij < listYears.size(); ij++)
 					{
-						if (climateYear.indexOf(listYears.get(ij)) == -1)
+						if (!cube.hasYear(i, listYears.get(ij)))
 						{
 							filterVectorActual.add(-1.0);
 						}
 						else
 						{
-							filterVectorActual.add(new Double(climateVectorFilter2.get(ik).get(climateYear.indexOf(listYears.get(ij)))));
+							filterVectorActual.add(new Double(filterValues[ij]));
 						}
 						
 					}
@@ -627,14 +632,15 @@ public class FHMatrix {
 					climateVectorActual = new ArrayList<Integer>();
 					for (int j = 0; j < listYears.size(); j++)
 					{
-						if (climateYear.indexOf(listYears.get(j)) == -1)
+						int yearIndex = cube.getYearIndex(i, listYears.get(j));
+						if (yearIndex == -1)
 						{
 							climateVectorActual.add(-1);
 							
 						}
 						else
 						{
-							climateVectorActual.add(climateVector2.get(k).get(climateYear.indexOf(listYears.get(j))));
+							climateVectorActual.add(climateVector2.get(k).get(yearIndex));
 							
 						}
 					}
@@ -650,7 +656,7 @@ public class FHMatrix {
 				// System.out.println("DEBUG I WAS HERE");
 				for (int j = 0; j < listYears.size(); j++)
 				{
-					if (climateYear.indexOf(listYears.get(j)) == -1)
+					if (!cube.hasYear(i, listYears.get(j)))
 					{
 						climateVectorActualSite.add(-1);
 						temp[j][i] = -1;
@@ -665,18 +671,17 @@ public class FHMatrix {
 								// System.out.println("number of fires is selected is: "+
 								// firesFilter1+" "+climateVector.get(climateYear.indexOf(listYears.get(j))));
 								System.out.println("fire filter: " + firesFilter1 + " year is: " + listYears.get(j) + " fires: "
-										+ filterMatrix.get(3 * i).get(j) + " climatevector: "
-										+ climateVector.get(climateYear.indexOf(listYears.get(j))));
+										+ filterMatrix.get(3 * i).get(j) + " climatevector: " + climateVector[j]);
 								if ((filterMatrix.get(3 * i).get(j) < firesFilter1)
-										&& ((climateVector.get(climateYear.indexOf(listYears.get(j)))) != -1.0))
+										&& (climateVector[j] != -1.0))
 								{
 									climateVectorActualSite.add(0);
 									temp[j][i] = 0;
 								}
 								else
 								{
-									climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYears.get(j))));
-									temp[j][i] = climateVector.get(climateYear.indexOf(listYears.get(j))).intValue();
+									climateVectorActualSite.add(climateVector[j]);
+									temp[j][i] = climateVector[j];
 								}
 							}
 							if (filterByPercentage)
@@ -692,23 +697,23 @@ public class FHMatrix {
 								else
 								{
 									if ((filterMatrix.get(3 * i + 2).get(j) < firesFilter2)
-											&& ((climateVector.get(climateYear.indexOf(listYears.get(j)))) != -1.0))
+											&& (climateVector[j] != -1.0))
 									{
 										climateVectorActualSite.add(0);
 										temp[j][i] = 0;
 									}
 									else
 									{
-										climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYears.get(j))));
-										temp[j][i] = climateVector.get(climateYear.indexOf(listYears.get(j))).intValue();
+										climateVectorActualSite.add(climateVector[j]);
+										temp[j][i] = climateVector[j];
 									}
 								}
 							}
 						} // end of if filter not equal to 1
 						else
 						{
-							climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYears.get(j))));
-							temp[j][i] = climateVector.get(climateYear.indexOf(listYears.get(j))).intValue();
+							climateVectorActualSite.add(climateVector[j]);
+							temp[j][i] = climateVector[j];
 						}
 						// impoclimateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYears.get(j))));
 						// impotemp[j][i]=climateVector.get(climateYear.indexOf(listYears.get(j))).intValue();
@@ -731,12 +736,19 @@ public class FHMatrix {
 		if (site11 || site01 || site10 || site00 || siteSum || scohSim || sjacSim)
 		{
 			// eeSystem.out.println("DEBUG I WAS HERE in matrix creation");
+			/*
+			 * Count the years in which each pair of files are both burning, both recording, etc. This is done on bitsets of the years
+			 * so that many years are compared at once
+			 */
+			PairwiseSimilarity similarity = PairwiseSimilarity.fromYearBySeries(temp, myReader.size());
+			similarity.calculate();
+			matrix11 = similarity.getMatrix11();
+			matrix10 = similarity.getMatrix10();
+			matrix01 = similarity.getMatrix01();
+			matrix00 = similarity.getMatrix00();
+			
 			for (int r = 0; r < matrix11.length; r++)
 			{
-				matrix11[r] = new int[r + 1]; // Allocate a row
-				matrix10[r] = new int[r + 1];
-				matrix01[r] = new int[r + 1];
-				matrix00[r] = new int[r + 1];
 				matrixsum[r] = new int[r + 1];
 				//
 				matrixApDdL[r] = new double[r + 1];
@@ -744,39 +756,11 @@ public class FHMatrix {
 				matrixApCdL[r] = new double[r + 1];
 				matrixSCOHdeno[r] = new double[r + 1];
 				matrixSJACdeno[r] = new double[r + 1];
-				// matrixSCOH[r] = new double[r+1];
-				// matrixDSCOH[r] = new double[r+1];
 			}
 			for (int r = 0; r < myReader.size(); r++)
 			{
-				// matrix11[r] = new int[r+1]; // Allocate a row
 				for (int c = 0; c <= r; c++)
 				{
-					matrix11[r][c] = 0;
-					matrix01[r][c] = 0;
-					matrix10[r][c] = 0;
-					matrix00[r][c] = 0;
-					matrixsum[r][c] = 0;
-					
-					for (int i = 0; i < listYears.size(); i++)
-					{
-						if (temp[i][c] == 1 && temp[i][r] == 1)
-						{
-							matrix11[r][c] = matrix11[r][c] + 1;
-						}
-						else if (temp[i][c] == 1 && temp[i][r] == 0)
-						{
-							matrix10[r][c] = matrix10[r][c] + 1;
-						}
-						else if (temp[i][c] == 0 && temp[i][r] == 1)
-						{
-							matrix01[r][c] = matrix01[r][c] + 1;
-						}
-						else if (temp[i][c] == 0 && temp[i][r] == 0)
-						{
-							matrix00[r][c] = matrix00[r][c] + 1;
-						}
-					} // endofloop i
 					matrixsum[r][c] = matrix11[r][c] + matrix01[r][c] + matrix10[r][c] + matrix00[r][c];
 					matrixApDdL[r][c] = ((double) matrix11[r][c] + (double) matrix00[r][c]) / matrixsum[r][c];
 					matrixApBdL[r][c] = ((double) matrix11[r][c] + (double) matrix01[r][c]) / matrixsum[r][c];
@@ -855,98 +839,50 @@ public class FHMatrix {
 		// if (l <= 4
 		// || !(outputFile.getName().substring(l - 4, l).equals(".tmp"))) {
 		
-		try
+		/*
+		 * Create an in-memory table for each of the results requested
+		 */
+		if (ntpMatrix)
 		{
-			if (ntpMatrix && outputFileNTP == null)
-			{
-				// outputFileFilters = new
-				// File(outputFile.getAbsolutePath()+"NTP.tmp");
-				outputFileNTP = File.createTempFile("FHMatrix", "NTP.tmp");
-				outputFileNTP.deleteOnExit();
-			}
-			if (siteMatrix && outputFileSite == null)
-			{
-				// outputFileSite = new
-				// File(outputFile.getAbsolutePath()+"site.tmp");
-				outputFileSite = File.createTempFile("FHMatrix", "site.tmp");
-				outputFileSite.deleteOnExit();
-			}
-			if (site11 && outputFileM11 == null)
-			{
-				// outputFileM11 = new
-				// File(outputFile.getAbsolutePath()+"M11.tmp");
-				outputFileM11 = File.createTempFile("FHMatrix", "M11.tmp");
-				outputFileM11.deleteOnExit();
-			}
-			if (site10 && outputFileM10 == null)
-			{
-				// outputFileM10 = new
-				// File(outputFile.getAbsolutePath()+"M10.tmp");
-				outputFileM10 = File.createTempFile("FHMatrix", "M10.tmp");
-				outputFileM10.deleteOnExit();
-			}
-			if (site01 && outputFileM01 == null)
-			{
-				// outputFileM01 = new
-				// File(outputFile.getAbsolutePath()+"M01.tmp");
-				outputFileM01 = File.createTempFile("FHMatrix", "M01.tmp");
-				outputFileM01.deleteOnExit();
-			}
-			if (site00 && outputFileM00 == null)
-			{
-				// outputFileM00 = new
-				// File(outputFile.getAbsolutePath()+"M00.tmp");
-				outputFileM00 = File.createTempFile("FHMatrix", "M00.tmp");
-				outputFileM00.deleteOnExit();
-			}
-			if (siteSum && outputFileSum == null)
-			{
-				// outputFileSum = new
-				// File(outputFile.getAbsolutePath()+"Sum.tmp");
-				outputFileSum = File.createTempFile("FHMatrix", "Sum.tmp");
-				outputFileSum.deleteOnExit();
-			}
-			if (scohSim && outputFileSCOH == null)
-			{
-				// outputFileSCOH = new File(outputFile.getAbsolutePath() +
-				// "SCOH.tmp");
-				outputFileSCOH = File.createTempFile("FHMatrix", "SCOH.tmp");
-				outputFileSCOH.deleteOnExit();
-			}
-			if (scohSim && outputFileDSCOH == null)
-			{
-				// outputFileDSCOH = new File(outputFile.getAbsolutePath() +
-				// "DSCOH.tmp");
-				outputFileDSCOH = File.createTempFile("FHMatrix", "DSCOH.tmp");
-				outputFileDSCOH.deleteOnExit();
-			}
-			if (sjacSim && outputFileSJAC == null)
-			{
-				// outputFileSJAC = new File(outputFile.getAbsolutePath() +
-				// "SJAC.tmp");
-				outputFileSJAC = File.createTempFile("FHMatrix", "SJAC.tmp");
-				outputFileSJAC.deleteOnExit();
-			}
-			if (sjacSim && outputFileDSJAC == null)
-			{
-				// outputFileDSJAC = new File(outputFile.getAbsolutePath() +
-				// "DSJAC.tmp");
-				outputFileDSJAC = File.createTempFile("FHMatrix", "DSJAC.tmp");
-				outputFileDSJAC.deleteOnExit();
-			}
-			if (binaryMatrix && outputFileTree == null)
-			{
-				// outputFile = new File(outputFile.getAbsolutePath() +
-				// ".tmp");
-				outputFileTree = File.createTempFile("FHMatrix", ".tmp");
-				outputFileTree.deleteOnExit();
-			}
+			ntpTable = new ResultTable("FHMatrixNTP");
+		}
+		if (siteMatrix)
+		{
+			siteTable = new ResultTable("FHMatrixsite");
+		}
+		if (site11)
+		{
+			matrix11Table = new ResultTable("FHMatrixM11");
 		}
-		catch (IOException e)
+		if (site10)
 		{
-			log.error("Failed to create output file");
-			e.printStackTrace();
-			return;
+			matrix10Table = new ResultTable("FHMatrixM10");
+		}
+		if (site01)
+		{
+			matrix01Table = new ResultTable("FHMatrixM01");
+		}
+		if (site00)
+		{
+			matrix00Table = new ResultTable("FHMatrixM00");
+		}
+		if (siteSum)
+		{
+			sumTable = new ResultTable("FHMatrixSum");
+		}
+		if (scohSim)
+		{
+			scohTable = new ResultTable("FHMatrixSCOH");
+			dscohTable = new ResultTable("FHMatrixDSCOH");
+		}
+		if (sjacSim)
+		{
+			sjacTable = new ResultTable("FHMatrixSJAC");
+			dsjacTable = new ResultTable("FHMatrixDSJAC");
+		}
+		if (binaryMatrix)
+		{
+			treeTable = new ResultTable("FHMatrix");
 		}
 		// }
 		/*
@@ -955,11 +891,6 @@ public class FHMatrix {
 		Writer wr;
 		Writer wrfilters;
 		Writer wrSite;
-		Writer wrM11;
-		Writer wrM10;
-		Writer wrM01;
-		Writer wrM00;
-		Writer wrMSum;
 		Writer wrSCOH;
 		Writer wrDSCOH;
 		Writer wrSJAC;
@@ -981,7 +912,7 @@ public class FHMatrix {
 				/*
 				 * First create each file
 				 */
-				wr = new BufferedWriter(new FileWriter(outputFileTree));
+				wr = treeTable.getWriter();
 				/*
 				 * Maintain the format for each file the common years is the first column of the file.
 				 */
@@ -1002,11 +933,11 @@ public class FHMatrix {
 						
 						if ((i == inputFileArray.length - 1) && (k == myReader.get(i).getNumberOfSeries() - 1))
 						{
-							wr.write(inputFileArray[i].getLabel());
+							wr.write(inputFileArray[i].getLabel(labelType));
 						}
 						else
 						{
-							wr.write(inputFileArray[i].getLabel() + delim);
+							wr.write(inputFileArray[i].getLabel(labelType) + delim);
 						}
 						
 					}
@@ -1029,7 +960,7 @@ public class FHMatrix {
 					}
 					else
 					{
-						wr.write(inputFileArray[i].getLabel() + delim);
+						wr.write(inputFileArray[i].getLabel(labelType) + delim);
 					}
 				}
 				wr.write(System.getProperty("line.separator"));
@@ -1051,7 +982,7 @@ public class FHMatrix {
 			// elena add
 			if (ntpMatrix)
 			{
-				wrfilters = new BufferedWriter(new FileWriter(outputFileNTP));
+				wrfilters = ntpTable.getWriter();
 				wrfilters.write(" " + delim);
 				for (int i = 0; i < inputFileArray.length; i++)
 				{
@@ -1061,11 +992,11 @@ public class FHMatrix {
 						
 						if (k == 2 && (i == inputFileArray.length - 1))
 						{
-							wrfilters.write(inputFileArray[i].getLabel());
+							wrfilters.write(inputFileArray[i].getLabel(labelType));
 						}
 						else
 						{
-							wrfilters.write(inputFileArray[i].getLabel() + delim);
+							wrfilters.write(inputFileArray[i].getLabel(labelType) + delim);
 						}
 					}
 				}
@@ -1093,7 +1024,7 @@ public class FHMatrix {
 				 * First create each file
 				 */
 				// LatLonInfoArray mylatlonarray = new LatLonInfoArray();
-				wrSite = new BufferedWriter(new FileWriter(outputFileSite));
+				wrSite = siteTable.getWriter();
 				/*
 				 * some files have two lines of header.
 				 */
@@ -1104,11 +1035,11 @@ public class FHMatrix {
 				{
 					if (i == (inputFileArray.length - 1))
 					{
-						wrSite.write(inputFileArray[i].getLabel());
+						wrSite.write(inputFileArray[i].getLabel(labelType));
 					}
 					else
 					{
-						wrSite.write(inputFileArray[i].getLabel() + delim);
+						wrSite.write(inputFileArray[i].getLabel(labelType) + delim);
 					}
 					
 					// Save FHFile version of file to array
@@ -1172,50 +1103,7 @@ public class FHMatrix {
 			} // end if SiteMatrix
 			if (site11)
 			{
-				/*
-				 * First create each file
-				 */
-				// System.out.println("I am here");
-				// wrM11 = new BufferedWriter(new FileWriter(outputFileM11));
-				wrM11 = new BufferedWriter(new FileWriter(outputFileM11));
-				wrM11.write("    " + delim);
-				// write the fhx filenames to the header
-				for (int i = 0; i < inputFileArray.length; i++)
-				{
-					if (i == (inputFileArray.length - 1))
-					{
-						wrM11.write(inputFileArray[i].getLabel());
-					}
-					else
-					{
-						wrM11.write(inputFileArray[i].getLabel() + delim);
-					}
-				}
-				wrM11.write(System.getProperty("line.separator"));
-				for (int r = 0; r < matrix11.length; r++)
-				{
-					// wrM11.write(inputFile[r].getName() + delim);
-					
-					wrM11.write(inputFileArray[r].getLabel() + delim);
-					for (int c = 0; c < matrix11[r].length; c++)
-					{
-						
-						if (c == (matrix11.length - 1))
-						{
-							wrM11.write(matrix11[r][c]);
-						}
-						else
-						{
-							wrM11.write(matrix11[r][c] + delim);
-						}
-						// System.out.print(matrixSCOH[r][c]+"\t");
-					}
-					;
-					// System.out.println();
-					wrM11.write(System.getProperty("line.separator"));
-				}
-				// wrM11.write(System.getProperty("line.separator"));
-				wrM11.close();
+				addCountMatrixRows(matrix11Table, matrix11);
 			} // end if site11
 				// /elena add similarities
 			
@@ -1224,7 +1112,7 @@ public class FHMatrix {
 				/*
 				 * First create each file
 				 */
-				wrSCOH = new BufferedWriter(new FileWriter(outputFileSCOH));
+				wrSCOH = scohTable.getWriter();
 				wrSCOH.write("    " + delim);
 				// write the fhx filenames to the header
 				for (int i = 0; i < inputFileArray.length; i++)
@@ -1234,11 +1122,11 @@ public class FHMatrix {
 						if (i == (inputFileArray.length - 1))
 						{
 							// System.out.println("filename");
-							wrSCOH.write(inputFileArray[i].getLabel());
+							wrSCOH.write(inputFileArray[i].getLabel(labelType));
 						}
 						else
 						{
-							wrSCOH.write(inputFileArray[i].getLabel() + delim);
+							wrSCOH.write(inputFileArray[i].getLabel(labelType) + delim);
 						}
 					}
 					else
@@ -1246,19 +1134,19 @@ public class FHMatrix {
 						if (i == (inputFileArray.length - 1))
 						{
 							// System.out.println("sitecode");
-							wrSCOH.write(inputFileArray[i].getLabel());
+							wrSCOH.write(inputFileArray[i].getLabel(labelType));
 						}
 						else
 						{
 							// System.out.println("sitecode");
-							wrSCOH.write(inputFileArray[i].getLabel() + delim);
+							wrSCOH.write(inputFileArray[i].getLabel(labelType) + delim);
 						}
 						// System.out.println("sitecode");
-						// wrSCOH.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel()
+						// wrSCOH.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel(labelType)
 						// + delim);
 					}
 					// wrSCOH.write(inputFile[i].getName() + delim);
-					// wrSCOH.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel()
+					// wrSCOH.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel(labelType)
 					// + delim);
 				}
 				wrSCOH.write(System.getProperty("line.separator"));
@@ -1266,10 +1154,10 @@ public class FHMatrix {
 				{
 					
 					// System.out.println("sitecode");
-					wrSCOH.write(inputFileArray[r].getLabel() + delim);
+					wrSCOH.write(inputFileArray[r].getLabel(labelType) + delim);
 					
 					// wrSCOH.write(inputFile[r].getName() + delim);
-					// wrSCOH.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel()
+					// wrSCOH.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel(labelType)
 					// + delim);
 					for (int c = 0; c < matrix11.length; c++)
 					{
@@ -1296,7 +1184,7 @@ public class FHMatrix {
 				/*
 				 * First create each file
 				 */
-				wrDSCOH = new BufferedWriter(new FileWriter(outputFileDSCOH));
+				wrDSCOH = dscohTable.getWriter();
 				wrDSCOH.write("    " + delim);
 				// write the fhx filenames to the header
 				for (int i = 0; i < inputFileArray.length; i++)
@@ -1306,11 +1194,11 @@ public class FHMatrix {
 						if (i == (inputFileArray.length - 1))
 						{
 							// System.out.println("filename");
-							wrDSCOH.write(inputFileArray[i].getLabel());
+							wrDSCOH.write(inputFileArray[i].getLabel(labelType));
 						}
 						else
 						{
-							wrDSCOH.write(inputFileArray[i].getLabel() + delim);
+							wrDSCOH.write(inputFileArray[i].getLabel(labelType) + delim);
 						}
 					}
 					else
@@ -1318,19 +1206,19 @@ public class FHMatrix {
 						if (i == (inputFileArray.length - 1))
 						{
 							// System.out.println("sitecode");
-							wrDSCOH.write(inputFileArray[i].getLabel());
+							wrDSCOH.write(inputFileArray[i].getLabel(labelType));
 						}
 						else
 						{
 							// System.out.println("sitecode");
-							wrDSCOH.write(inputFileArray[i].getLabel() + delim);
+							wrDSCOH.write(inputFileArray[i].getLabel(labelType) + delim);
 						}
 						// System.out.println("sitecode");
-						// wrDSCOH.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel()
+						// wrDSCOH.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel(labelType)
 						// + delim);
 					}
 					// wrDSCOH.write(inputFile[i].getName() + delim);
-					// wrDSCOH.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel()
+					// wrDSCOH.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel(labelType)
 					// + delim);
 				}
 				wrDSCOH.write(System.getProperty("line.separator"));
@@ -1339,15 +1227,15 @@ public class FHMatrix {
 					if (debugfile)
 					{
 						// System.out.println("filename");
-						wrDSCOH.write(inputFileArray[r].getLabel() + delim);
+						wrDSCOH.write(inputFileArray[r].getLabel(labelType) + delim);
 					}
 					else
 					{
 						// System.out.println("sitecode");
-						wrDSCOH.write(inputFileArray[r].getLabel() + delim);
+						wrDSCOH.write(inputFileArray[r].getLabel(labelType) + delim);
 					}
 					// wrDSCOH.write(inputFile[r].getName() + delim);
-					// wrDSCOH.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel()
+					// wrDSCOH.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel(labelType)
 					// + delim);
 					for (int c = 0; c < matrix11.length; c++)
 					{
@@ -1374,25 +1262,25 @@ public class FHMatrix {
 				/*
 				 * First create each file
 				 */
-				wrSJAC = new BufferedWriter(new FileWriter(outputFileSJAC));
+				wrSJAC = sjacTable.getWriter();
 				wrSJAC.write("    " + delim);
 				// write the fhx filenames to the header
 				for (int i = 0; i < inputFileArray.length; i++)
 				{
 					// System.out.println("main(863) sitecode : " +
-					// mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel());
+					// mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel(labelType));
 					if (debugfile)
 					{
 						if (i == (inputFileArray.length - 1))
 						{
 							// System.out.println("filename");
-							wrSJAC.write(inputFileArray[i].getLabel());
+							wrSJAC.write(inputFileArray[i].getLabel(labelType));
 							
 						}
 						else
 						{
 							// System.out.println("filename");
-							wrSJAC.write(inputFileArray[i].getLabel() + delim);
+							wrSJAC.write(inputFileArray[i].getLabel(labelType) + delim);
 						}
 						
 					}
@@ -1401,16 +1289,16 @@ public class FHMatrix {
 						if (i == (inputFileArray.length - 1))
 						{
 							// System.out.println("sitecode");
-							wrSJAC.write(inputFileArray[i].getLabel());
+							wrSJAC.write(inputFileArray[i].getLabel(labelType));
 						}
 						else
 						{
 							// System.out.println("sitecode");
-							wrSJAC.write(inputFileArray[i].getLabel() + delim);
+							wrSJAC.write(inputFileArray[i].getLabel(labelType) + delim);
 						}
 					}
 					// wrSJAC.write(inputFile[i].getName() + delim);
-					// wrSJAC.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel()
+					// wrSJAC.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel(labelType)
 					// + delim);
 				}
 				wrSJAC.write(System.getProperty("line.separator"));
@@ -1419,9 +1307,9 @@ public class FHMatrix {
 					// wrSJAC.write(inputFile[r].getName() + delim);
 					
 					// System.out.println("sitecode");
-					wrSJAC.write(inputFileArray[r].getLabel() + delim);
+					wrSJAC.write(inputFileArray[r].getLabel(labelType) + delim);
 					
-					// wrSJAC.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel()
+					// wrSJAC.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel(labelType)
 					// + delim);
 					for (int c = 0; c < matrix11.length; c++)
 					{
@@ -1447,7 +1335,7 @@ public class FHMatrix {
 				/*
 				 * First create each file
 				 */
-				wrDSJAC = new BufferedWriter(new FileWriter(outputFileDSJAC));
+				wrDSJAC = dsjacTable.getWriter();
 				wrDSJAC.write("    " + delim);
 				// write the fhx filenames to the header
 				for (int i = 0; i < inputFileArray.length; i++)
@@ -1458,12 +1346,12 @@ public class FHMatrix {
 						if (i == (inputFileArray.length - 1))
 						{
 							// System.out.println("filename");
-							wrDSJAC.write(inputFileArray[i].getLabel());
+							wrDSJAC.write(inputFileArray[i].getLabel(labelType));
 						}
 						else
 						{
 							// System.out.println("filename");
-							wrDSJAC.write(inputFileArray[i].getLabel() + delim);
+							wrDSJAC.write(inputFileArray[i].getLabel(labelType) + delim);
 						}
 					}
 					else
@@ -1471,15 +1359,15 @@ public class FHMatrix {
 						if (i == (inputFileArray.length - 1))
 						{
 							// System.out.println("sitecode");
-							wrDSJAC.write(inputFileArray[i].getLabel());
+							wrDSJAC.write(inputFileArray[i].getLabel(labelType));
 						}
 						else
 						{
 							// System.out.println("sitecode");
-							wrDSJAC.write(inputFileArray[i].getLabel() + delim);
+							wrDSJAC.write(inputFileArray[i].getLabel(labelType) + delim);
 						}
 					}
-					// wrDSJAC.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel()
+					// wrDSJAC.write(mylatlonarray.searchByFilename(inputFile[i].getName()).getLabel(labelType)
 					// + delim);
 				}
 				wrDSJAC.write(System.getProperty("line.separator"));
@@ -1488,9 +1376,9 @@ public class FHMatrix {
 					// wrDSJAC.write(inputFile[r].getName() + delim);
 					
 					// System.out.println("sitecode");
-					wrDSJAC.write(inputFileArray[r].getLabel() + delim);
+					wrDSJAC.write(inputFileArray[r].getLabel(labelType) + delim);
 					
-					// wrDSJAC.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel()
+					// wrDSJAC.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel(labelType)
 					// + delim);
 					for (int c = 0; c < matrix11.length; c++)
 					{
@@ -1515,170 +1403,24 @@ public class FHMatrix {
 			// /elena end add similarities
 			if (site01)
 			{
-				/*
-				 * First create each file
-				 */
-				// System.out.println("I am here");
-				wrM01 = new BufferedWriter(new FileWriter(outputFileM01));
-				wrM01.write("    " + delim);
-				// write the fhx filenames to the header
-				for (int i = 0; i < inputFileArray.length; i++)
-				{
-					if (i == inputFileArray.length - 1)
-					{
-						wrM01.write(inputFileArray[i].getLabel());
-					}
-					else
-					{
-						wrM01.write(inputFileArray[i].getLabel() + delim);
-					}
-					
-				}
-				wrM01.write(System.getProperty("line.separator"));
-				for (int r = 0; r < matrix01.length; r++)
-				{
-					// wrM01.write(inputFile[r].getName() + delim);
-					if (debugfile)
-					{
-						// System.out.println("filename");
-						wrM01.write(inputFileArray[r].getLabel() + delim);
-					}
-					else
-					{
-						// System.out.println("sitecode");
-						wrM01.write(inputFileArray[r].getLabel() + delim);
-					}
-					// wrM01.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel()
-					// + delim);
-					for (int c = 0; c < matrix01[r].length; c++)
-					{
-						wrM01.write(matrix01[r][c] + delim);
-					}
-					wrM01.write(System.getProperty("line.separator"));
-				}
-				// wrM11.write(System.getProperty("line.separator"));
-				wrM01.close();
+				addCountMatrixRows(matrix01Table, matrix01);
 			} // end if site01
 			if (site10)
 			{
-				/*
-				 * First create each file
-				 */
-				// System.out.println("I am here");
-				wrM10 = new BufferedWriter(new FileWriter(outputFileM10));
-				wrM10.write("    " + delim);
-				// write the fhx filenames to the header
-				for (int i = 0; i < inputFileArray.length; i++)
-				{
-					if (i == inputFileArray.length - 1)
-					{
-						wrM10.write(inputFileArray[i].getLabel());
-					}
-					else
-					{
-						wrM10.write(inputFileArray[i].getLabel() + delim);
-					}
-				}
-				wrM10.write(System.getProperty("line.separator"));
-				for (int r = 0; r < matrix10.length; r++)
-				{
-					// wrM10.write(inputFile[r].getName() + delim);
-					
-					// System.out.println("sitecode");
-					wrM10.write(inputFileArray[r].getLabel() + delim);
-					
-					// wrM10.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel()
-					// + delim);
-					for (int c = 0; c < matrix10[r].length; c++)
-					{
-						wrM10.write(matrix10[r][c] + delim);
-					}
-					wrM10.write(System.getProperty("line.separator"));
-				}
-				// wrM11.write(System.getProperty("line.separator"));
-				wrM10.close();
+				addCountMatrixRows(matrix10Table, matrix10);
 			} // end if site10
 			if (site00)
 			{
-				/*
-				 * First create each file
-				 */
-				// System.out.println("I am here");
-				wrM00 = new BufferedWriter(new FileWriter(outputFileM00));
-				wrM00.write("    " + delim);
-				// write the fhx filenames to the header
-				for (int i = 0; i < inputFileArray.length; i++)
-				{
-					if (i == inputFileArray.length - 1)
-					{
-						wrM00.write(inputFileArray[i].getLabel());
-					}
-					else
-					{
-						wrM00.write(inputFileArray[i].getLabel() + delim);
-					}
-				}
-				wrM00.write(System.getProperty("line.separator"));
-				for (int r = 0; r < matrix00.length; r++)
-				{
-					// wrM00.write(inputFile[r].getName() + delim);
-					
-					// System.out.println("sitecode");
-					wrM00.write(inputFileArray[r].getLabel() + delim);
-					
-					// wrM00.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel()
-					// + delim);
-					for (int c = 0; c < matrix00[r].length; c++)
-					{
-						wrM00.write(matrix00[r][c] + delim);
-					}
-					wrM00.write(System.getProperty("line.separator"));
-				}
-				// wrM11.write(System.getProperty("line.separator"));
-				wrM00.close();
-			} // end if site11
+				addCountMatrixRows(matrix00Table, matrix00);
+			} // end if site00
 			if (siteSum)
 			{
-				/*
-				 * First create each file
-				 */
-				// System.out.println("I am here");
-				wrMSum = new BufferedWriter(new FileWriter(outputFileSum));
-				// wrMSum = new BufferedWriter(new FileWriter(outputFileSum));
-				wrMSum.write("    " + delim);
-				// write the fhx filenames to the header
-				for (int i = 0; i < inputFileArray.length; i++)
-				{
-					if (i == inputFileArray.length - 1)
-					{
-						wrMSum.write(inputFileArray[i].getLabel());
-					}
-					else
-					{
-						wrMSum.write(inputFileArray[i].getLabel() + delim);
-					}
-				}
-				wrMSum.write(System.getProperty("line.separator"));
-				for (int r = 0; r < matrixsum.length; r++)
-				{
-					// wrMSum.write(inputFile[r].getName() + delim);
-					
-					// System.out.println("sitecode");
-					wrMSum.write(inputFileArray[r].getLabel() + delim);
-					
-					// wrMSum.write(mylatlonarray.searchByFilename(inputFile[r].getName()).getLabel()
-					// + delim);
-					for (int c = 0; c < matrixsum[r].length; c++)
-					{
-						wrMSum.write(matrixsum[r][c] + delim);
-					}
-					wrMSum.write(System.getProperty("line.separator"));
-				}
-				// wrM11.write(System.getProperty("line.separator"));
-				wrMSum.close();
+				addCountMatrixRows(sumTable, matrixsum);
 			} // end if siteSum
 				// elenaend adding
 			
+			writeOutputFiles();
+			
 		} // end of Try
 		catch (IOException ex)
 		{
@@ -1690,64 +1432,191 @@ public class FHMatrix {
 		}
 	}
 	
+	/**
+	 * Add a lower triangular matrix of counts to a table as Integer cells. The header row holds the file labels and each row starts with
+	 * the label of its file and ends with an empty cell, matching the layout of the CSV files previously written.
+	 * 
+	 * @param table
+	 * @param matrix
+	 */
+	private void addCountMatrixRows(ResultTable table, int[][] matrix) {
+	
+		Object[] header = new Object[inputFileArray.length + 1];
+		header[0] = "    ";
+		for (int i = 0; i < inputFileArray.length; i++)
+		{
+			header[i + 1] = inputFileArray[i].getLabel(labelType);
+		}
+		table.addRow(header);
+		
+		for (int r = 0; r < matrix.length; r++)
+		{
+			Object[] row = new Object[matrix[r].length + 2];
+			row[0] = inputFileArray[r].getLabel(labelType);
+			for (int c = 0; c < matrix[r].length; c++)
+			{
+				row[c + 1] = matrix[r][c];
+			}
+			row[row.length - 1] = "";
+			table.addRow(row);
+		}
+	}
+	
+	/**
+	 * Write the in-memory results to the output files specified by the caller, if any.
+	 * 
+	 * @throws IOException
+	 */
+	private void writeOutputFiles() throws IOException {
+	
+		ResultTable[] tables = new ResultTable[] { treeTable, ntpTable, siteTable, matrix11Table, matrix10Table, matrix01Table,
+				matrix00Table, sumTable, scohTable, dscohTable, sjacTable, dsjacTable };
+		File[] files = new File[] { outputFileTree, outputFileNTP, outputFileSite, outputFileM11, outputFileM10, outputFileM01,
+				outputFileM00, outputFileSum, outputFileSCOH, outputFileDSCOH, outputFileSJAC, outputFileDSJAC };
+		
+		for (int i = 0; i < tables.length; i++)
+		{
+			if (tables[i] != null && files[i] != null)
+			{
+				tables[i].writeCSV(files[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Get the file for a result. If no output file was specified the table is written to a temporary file on first request.
+	 * 
+	 * @param table
+	 * @param outputFile
+	 * @return
+	 */
+	private File getResultFile(ResultTable table, File outputFile) {
+	
+		if (outputFile != null)
+			return outputFile;
+		if (table != null)
+			return table.getFile();
+		return null;
+	}
+	
 	public File getFileNTPResult() {
 	
-		return outputFileNTP;
+		return getResultFile(ntpTable, outputFileNTP);
+	}
+	
+	public ResultTable getNTPResultTable() {
+	
+		return ntpTable;
 	}
 	
 	public File getFileSiteResult() {
 	
-		return outputFileSite;
+		return getResultFile(siteTable, outputFileSite);
+	}
+	
+	public ResultTable getSiteResultTable() {
+	
+		return siteTable;
 	}
 	
 	public File getTreeSummaryFile() {
 	
-		return outputFileTree;
+		return getResultFile(treeTable, outputFileTree);
+	}
+	
+	public ResultTable getTreeSummaryTable() {
+	
+		return treeTable;
 	}
 	
 	public File getFileMatrix00Result() {
 	
-		return outputFileM00;
+		return getResultFile(matrix00Table, outputFileM00);
+	}
+	
+	public ResultTable getMatrix00ResultTable() {
+	
+		return matrix00Table;
 	}
 	
 	public File getFileMatrix01Result() {
 	
-		return outputFileM01;
+		return getResultFile(matrix01Table, outputFileM01);
+	}
+	
+	public ResultTable getMatrix01ResultTable() {
+	
+		return matrix01Table;
 	}
 	
 	public File getFileMatrix10Result() {
 	
-		return outputFileM10;
+		return getResultFile(matrix10Table, outputFileM10);
+	}
+	
+	public ResultTable getMatrix10ResultTable() {
+	
+		return matrix10Table;
 	}
 	
 	public File getFileMatrix11Result() {
 	
-		return outputFileM11;
+		return getResultFile(matrix11Table, outputFileM11);
+	}
+	
+	public ResultTable getMatrix11ResultTable() {
+	
+		return matrix11Table;
 	}
 	
 	public File getFileSumResult() {
 	
-		return outputFileSum;
+		return getResultFile(sumTable, outputFileSum);
+	}
+	
+	public ResultTable getSumResultTable() {
+	
+		return sumTable;
 	}
 	
 	public File getFileSCOHResult() {
 	
-		return outputFileSCOH;
+		return getResultFile(scohTable, outputFileSCOH);
+	}
+	
+	public ResultTable getSCOHResultTable() {
+	
+		return scohTable;
 	}
 	
 	public File getFileDSCOHResult() {
 	
-		return outputFileDSCOH;
+		return getResultFile(dscohTable, outputFileDSCOH);
+	}
+	
+	public ResultTable getDSCOHResultTable() {
+	
+		return dscohTable;
 	}
 	
 	public File getFileSJACResult() {
 	
-		return outputFileSJAC;
+		return getResultFile(sjacTable, outputFileSJAC);
+	}
+	
+	public ResultTable getSJACResultTable() {
+	
+		return sjacTable;
 	}
 	
 	public File getFileDSJACResult() {
 	
-		return outputFileDSJAC;
+		return getResultFile(dsjacTable, outputFileDSJAC);
+	}
+	
+	public ResultTable getDSJACResultTable() {
+	
+		return dsjacTable;
 	}
 	
 	public Integer getEarliestYearInOutput() {
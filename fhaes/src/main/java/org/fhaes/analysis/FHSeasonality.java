@@ -18,9 +18,7 @@
 package org.fhaes.analysis;
 
 import java.awt.Component;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.text.DecimalFormat;
@@ -31,10 +29,13 @@ import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.filechooser.FileFilter;
 
+import org.fhaes.enums.AnalysisLabelType;
 import org.fhaes.enums.EventTypeToProcess;
 import org.fhaes.fhfilereader.FHFile;
 import org.fhaes.fhfilereader.FHX2FileReader;
+import org.fhaes.fhfilereader.FHX2FileReaderCache;
 import org.fhaes.filefilter.CSVFileFilter;
+import org.fhaes.model.ResultTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,12 +65,77 @@ public class FHSeasonality {
 	 * @param jTextBeginningYear1 - first year in range to calculate
 	 * @param jTextEndingYear - end year in range to calculate
 	 * @param eventTypeToProcess - whether to do calculations on injuries or fires
+	 * @param labelType - type of label to identify the files by in the results
 	 */
 	public static void runAnalysis(Component parent, File outputFile, FHFile[] inputFile, Boolean jCheckdormant1, Boolean jCheckeewood1,
 			Boolean jCheckmewood1, Boolean jChecklewood1, Boolean jChecklatewood1, Boolean jCheckdormant2, Boolean jCheckeewood2,
 			Boolean jCheckmewood2, Boolean jChecklewood2, Boolean jChecklatewood2, int jTextBeginningYear1, int jTextEndingYear,
-			EventTypeToProcess eventTypeToProcess) {
+			EventTypeToProcess eventTypeToProcess, AnalysisLabelType labelType) {
+	
+		doAnalysis(parent, outputFile, true, inputFile, jCheckdormant1, jCheckeewood1, jCheckmewood1, jChecklewood1, jChecklatewood1,
+				jCheckdormant2, jCheckeewood2, jCheckmewood2, jChecklewood2, jChecklatewood2, jTextBeginningYear1, jTextEndingYear,
+				eventTypeToProcess, labelType);
+	}
+	
+	/**
+	 * Run the FHSeasonality analysis keeping the results in memory rather than writing them to a file
+	 * 
+	 * @param inputFile - the input filename
+	 * @param jCheckdormant1 - is dormant in first season
+	 * @param jCheckeewood1 - is early earlywood in first season
+	 * @param jCheckmewood1 - is middle earlywood in first season
+	 * @param jChecklewood1 - is late earlywood in first season
+	 * @param jChecklatewood1 - is latewood in first season
+	 * @param jCheckdormant2 - is dormant in second season
+	 * @param jCheckeewood2 - is early earlywood in second season
+	 * @param jCheckmewood2 - is middle earlywood in second season
+	 * @param jChecklewood2 - is late earlywood in second season
+	 * @param jChecklatewood2 - is latewood in second season
+	 * @param jTextBeginningYear1 - first year in range to calculate
+	 * @param jTextEndingYear - end year in range to calculate
+	 * @param eventTypeToProcess - whether to do calculations on injuries or fires
+	 * @param labelType - type of label to identify the files by in the results
+	 * @return table of results, or null if the analysis could not be run
+	 */
+	public static ResultTable runAnalysis(FHFile[] inputFile, Boolean jCheckdormant1, Boolean jCheckeewood1, Boolean jCheckmewood1,
+			Boolean jChecklewood1, Boolean jChecklatewood1, Boolean jCheckdormant2, Boolean jCheckeewood2, Boolean jCheckmewood2,
+			Boolean jChecklewood2, Boolean jChecklatewood2, int jTextBeginningYear1, int jTextEndingYear,
+			EventTypeToProcess eventTypeToProcess, AnalysisLabelType labelType) {
+	
+		return doAnalysis(null, null, false, inputFile, jCheckdormant1, jCheckeewood1, jCheckmewood1, jChecklewood1, jChecklatewood1,
+				jCheckdormant2, jCheckeewood2, jCheckmewood2, jChecklewood2, jChecklatewood2, jTextBeginningYear1, jTextEndingYear,
+				eventTypeToProcess, labelType);
+	}
+	
+	/**
+	 * Run the FHSeasonality analysis
+	 * 
+	 * @param parent - parent component for centering dialogs
+	 * @param outputFile - the output filename
+	 * @param saveToFile - whether to save the results to outputFile, asking the user for a filename if outputFile is null
+	 * @param inputFile - the input filename
+	 * @param jCheckdormant1 - is dormant in first season
+	 * @param jCheckeewood1 - is early earlywood in first season
+	 * @param jCheckmewood1 - is middle earlywood in first season
+	 * @param jChecklewood1 - is late earlywood in first season
+	 * @param jChecklatewood1 - is latewood in first season
+	 * @param jCheckdormant2 - is dormant in second season
+	 * @param jCheckeewood2 - is early earlywood in second season
+	 * @param jCheckmewood2 - is middle earlywood in second season
+	 * @param jChecklewood2 - is late earlywood in second season
+	 * @param jChecklatewood2 - is latewood in second season
+	 * @param jTextBeginningYear1 - first year in range to calculate
+	 * @param jTextEndingYear - end year in range to calculate
+	 * @param eventTypeToProcess - whether to do calculations on injuries or fires
+	 * @param labelType - type of label to identify the files by in the results
+	 * @return table of results, or null if the analysis could not be run
+	 */
+	private static ResultTable doAnalysis(Component parent, File outputFile, boolean saveToFile, FHFile[] inputFile,
+			Boolean jCheckdormant1, Boolean jCheckeewood1, Boolean jCheckmewood1, Boolean jChecklewood1, Boolean jChecklatewood1,
+			Boolean jCheckdormant2, Boolean jCheckeewood2, Boolean jCheckmewood2, Boolean jChecklewood2, Boolean jChecklatewood2,
+			int jTextBeginningYear1, int jTextEndingYear, EventTypeToProcess eventTypeToProcess, AnalysisLabelType labelType) {
 			
+		ResultTable table = null;
 		boolean run = runSanityChecks(inputFile, jCheckdormant1, jCheckeewood1, jCheckmewood1, jChecklewood1, jChecklatewood1,
 				jCheckdormant2, jCheckeewood2, jCheckmewood2, jChecklewood2, jChecklatewood2, jTextBeginningYear1, jTextEndingYear,
 				eventTypeToProcess);
@@ -191,7 +257,7 @@ public class FHSeasonality {
 			// Get first and last years for all files
 			for (int i = 0; i < inputFile.length; i++)
 			{
-				myReader.add(new FHX2FileReader(inputFile[i]));
+				myReader.add(FHX2FileReaderCache.getReader(inputFile[i]));
 				firstYears.add(myReader.get(i).getFirstYear());
 				lastYears.add(myReader.get(i).getLastYear());
 			}
@@ -685,10 +751,9 @@ public class FHSeasonality {
 			/*
 			 * create JFileChooser object to generate a browsing capabilities
 			 */
-			JFileChooser fileBrowse = new JFileChooser();
-			if (outputFile == null)
+			if (saveToFile && outputFile == null)
 			{
-				fileBrowse = new JFileChooser(savePath.substring(0, savePath.lastIndexOf(File.separator)));
+				JFileChooser fileBrowse = new JFileChooser(savePath.substring(0, savePath.lastIndexOf(File.separator)));
 				
 				// set multiselect on (even though we don't need it)
 				fileBrowse.setMultiSelectionEnabled(true);
@@ -731,6 +796,7 @@ public class FHSeasonality {
 			 */
 			Writer wr;
 			// Writer wrSTable;
+			table = new ResultTable("FHSeasonality");
 			
 			/*
 			 * set delimiter in this case we are using comas ","
@@ -742,7 +808,7 @@ public class FHSeasonality {
 			 */
 			try
 			{
-				wr = new BufferedWriter(new FileWriter(outputFile));
+				wr = table.getWriter();
 				
 				/*
 				 * write the heading to the files
@@ -751,7 +817,7 @@ public class FHSeasonality {
 				wr.write("Parameter" + delim);
 				for (int i = 0; i < inputFile.length; i++)
 				{
-					buffer = buffer + inputFile[i].getLabel() + delim;
+					buffer = buffer + inputFile[i].getLabel(labelType) + delim;
 				}
 				wr.write(buffer.substring(0, buffer.length() - 1) + System.getProperty("line.separator"));
 				buffer = "";
@@ -848,6 +914,11 @@ public class FHSeasonality {
 					
 				} // end of j loop for seasonality summary parameters
 				wr.close();
+				
+				if (saveToFile && outputFile != null)
+				{
+					table.writeCSV(outputFile);
+				}
 				//
 				//
 				// wrSTable = new BufferedWriter(new FileWriter(seasonTable));
@@ -888,6 +959,8 @@ public class FHSeasonality {
 			// "Eggs are not supposed to be green.\nSelect at least One file and At least one analysis before continuing.", "Warning",
 			// JOptionPane.WARNING_MESSAGE);
 		}
+		
+		return table;
 	}// end of if action perform for the run button
 	
 	/**
@@ -17,18 +17,16 @@
  *************************************************************************************************/
 package org.fhaes.analysis;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.fhaes.enums.EventTypeToProcess;
 import org.fhaes.fhfilereader.FHFile;
 import org.fhaes.fhfilereader.FHX2FileReader;
-import org.fhaes.preferences.App;
-import org.fhaes.preferences.FHAESPreferences.PrefKey;
+import org.fhaes.fhfilereader.FHX2FileReaderCache;
+import org.fhaes.model.ResultTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,15 +37,18 @@ public class FHSummary {
 	
 	private static final Logger log = LoggerFactory.getLogger(FHSummary.class);
 	private FHFile[] inputFileArray;
+	private EventTypeToProcess eventType;
 	
 	/**
 	 * Constructor for FHSummary
 	 * 
 	 * @param inputFileArray
+	 * @param eventType - type of events to list for each series
 	 */
-	public FHSummary(FHFile[] inputFileArray) {
+	public FHSummary(FHFile[] inputFileArray, EventTypeToProcess eventType) {
 	
 		this.inputFileArray = inputFileArray;
+		this.eventType = eventType;
 	}
 	
 	/**
@@ -57,31 +58,28 @@ public class FHSummary {
 	 */
 	public File getFilesSummaryAsCSVFile() {
 	
-		String str = getFilesSummaryAsString();
+		return getFilesSummaryAsTable().getFile();
+	}
+	
+	/**
+	 * Generate an in-memory table containing summary information for the files specified in the constructor
+	 * 
+	 * @return
+	 */
+	public ResultTable getFilesSummaryAsTable() {
+	
+		ResultTable table = new ResultTable("fhsummary");
 		
 		try
 		{
-			File temp = File.createTempFile("fhsummary", ".tmp");
-			temp.deleteOnExit();
-			
-			BufferedWriter wr = new BufferedWriter(new FileWriter(temp));
-			wr.write(str);
-			wr.close();
-			return temp;
-		}
-		catch (FileNotFoundException e)
-		{
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			table.getWriter().write(getFilesSummaryAsString());
 		}
 		catch (IOException e)
 		{
-			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
 		
-		return null;
-		
+		return table;
 	}
 	
 	/**
@@ -91,21 +89,20 @@ public class FHSummary {
 	 */
 	public String getFilesSummaryAsString() {
 	
-		EventTypeToProcess ettp = App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_AND_INJURY_EVENT);
 		StringBuilder string = new StringBuilder();
 		
 		string.append("Filename,Site name,Site code,Series name,Sampling date,Lat,Lon,State,Country,First year,Last year,Has pith,Has bark,");
-		if (ettp.equals(EventTypeToProcess.FIRE_EVENT))
+		if (eventType.equals(EventTypeToProcess.FIRE_EVENT))
 		{
 			string.append("Fire event years,");
 			string.append("Fire event year seasonality\n");
 		}
-		else if (ettp.equals(EventTypeToProcess.INJURY_EVENT))
+		else if (eventType.equals(EventTypeToProcess.INJURY_EVENT))
 		{
 			string.append("Injury event years,");
 			string.append("Injury event year seasonality\n");
 		}
-		else if (ettp.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
+		else if (eventType.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
 		{
 			string.append("Fire and injury event years,");
 			string.append("Fire and injury event year seasonality\n");
@@ -115,7 +112,7 @@ public class FHSummary {
 		{
 			try
 			{
-				FHX2FileReader fhx = new FHX2FileReader(file);
+				FHX2FileReader fhx = FHX2FileReaderCache.getReader(file);
 				
 				if (fhx.getNumberOfSeries() == 0)
 					continue;
@@ -126,7 +123,7 @@ public class FHSummary {
 				int[] outeryearbark = fhx.getBarkIndexPerTree();
 				int[] outeryear = fhx.getOutterMostperTree();
 				int firstyear = fhx.getFirstYear();
-				ArrayList<ArrayList<Integer>> eventdata = fhx.getEventDataArrays(ettp);
+				List<List<Integer>> eventdata = fhx.getEventDataArrays(eventType);
 				ArrayList<String> seasonalitydata = fhx.getData();
 				
 				for (int i = 0; i < fhx.getNumberOfSeries(); i++)
@@ -253,7 +250,7 @@ public class FHSummary {
 					string.append(", ");
 					if (fhx.hasFireEventsOrInjuries())
 					{
-						ArrayList<Integer> bb = eventdata.get(i);
+						List<Integer> bb = eventdata.get(i);
 						
 						for (int yrind = firstyearind; yrind < lastyearind; yrind++)
 						{
@@ -268,7 +265,7 @@ public class FHSummary {
 					string.append(", ");
 					if (fhx.hasFireEventsOrInjuries())
 					{
-						ArrayList<Integer> bb = eventdata.get(i);
+						List<Integer> bb = eventdata.get(i);
 						
 						for (int yrind = firstyearind; yrind < lastyearind; yrind++)
 						{
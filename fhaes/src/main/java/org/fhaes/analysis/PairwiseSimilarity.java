@@ -0,0 +1,325 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Elena Velasquez and Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.analysis;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * PairwiseSimilarity Class. Calculates the 2x2 contingency counts used by the similarity matrices (matrix 11, 10, 01 and 00) for every pair
+ * of series. Each series is encoded as two bitsets with one bit per year: one marking the years with an event and one marking the years
+ * that are recording but have no event. The counts for a pair are then the number of bits set in the AND of the relevant bitsets, which is
+ * calculated 64 years at a time with Long.bitCount(). Years with no data are in neither bitset so are ignored, as before.
+ * 
+ * <p>
+ * The matrices are lower triangular, so row r has r + 1 entries. Following the conventions of FHMatrix, matrix10[r][c] counts the years in
+ * which series c has an event and series r is recording without an event, and matrix01[r][c] the reverse. When there are enough pairs to
+ * make it worthwhile, blocks of rows are calculated concurrently.
+ * </p>
+ * 
+ * @author Elena Velasquez and Peter Brewer
+ */
+public class PairwiseSimilarity {
+	
+	private static final Logger log = LoggerFactory.getLogger(PairwiseSimilarity.class);
+	
+	/**
+	 * Number of rows calculated by each concurrent task
+	 */
+	private static final int ROWS_PER_BLOCK = 32;
+	
+	/**
+	 * Minimum number of 64-bit word comparisons before the calculation is split across threads
+	 */
+	private static final long PARALLEL_THRESHOLD = 1 << 18;
+	
+	private final int numberOfSeries;
+	private final int words;
+	private final long[][] events;
+	private final long[][] recorders;
+	
+	private int[][] matrix11;
+	private int[][] matrix10;
+	private int[][] matrix01;
+	private int[][] matrix00;
+	
+	/**
+	 * Create a new engine for the specified number of series and years. All years start as having no data.
+	 * 
+	 * @param numberOfSeries
+	 * @param numberOfYears
+	 */
+	public PairwiseSimilarity(int numberOfSeries, int numberOfYears) {
+	
+		this.numberOfSeries = numberOfSeries;
+		this.words = (numberOfYears + 63) >>> 6;
+		this.events = new long[numberOfSeries][words];
+		this.recorders = new long[numberOfSeries][words];
+	}
+	
+	/**
+	 * Create a new engine from a year x series array of event codes, as built by FHMatrix.
+	 * 
+	 * @param data - array of [year][series] codes where 1 = event, 0 = recording and anything else = no data
+	 * @param numberOfSeries
+	 * @return
+	 */
+	public static PairwiseSimilarity fromYearBySeries(int[][] data, int numberOfSeries) {
+	
+		PairwiseSimilarity engine = new PairwiseSimilarity(numberOfSeries, data.length);
+		for (int year = 0; year < data.length; year++)
+		{
+			for (int series = 0; series < numberOfSeries; series++)
+			{
+				engine.setValue(series, year, data[year][series]);
+			}
+		}
+		return engine;
+	}
+	
+	/**
+	 * Set the code for a series in a year.
+	 * 
+	 * @param series - index of the series
+	 * @param year - index of the year
+	 * @param code - 1 = event, 0 = recording and anything else = no data
+	 */
+	public void setValue(int series, int year, int code) {
+	
+		int word = year >>> 6;
+		long bit = 1L << (year & 63);
+		
+		events[series][word] &= ~bit;
+		recorders[series][word] &= ~bit;
+		
+		if (code == 1)
+		{
+			events[series][word] |= bit;
+		}
+		else if (code == 0)
+		{
+			recorders[series][word] |= bit;
+		}
+		
+		matrix11 = null;
+	}
+	
+	/**
+	 * Calculate the contingency matrices using as many threads as there are processors.
+	 */
+	public void calculate() {
+	
+		calculate(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Calculate the contingency matrices using up to the specified number of threads.
+	 * 
+	 * @param threads
+	 * @throws IllegalStateException if the calculation failed or the thread was interrupted, in which case no matrices are published
+	 */
+	public void calculate(int threads) {
+	
+		int[][] m11 = new int[numberOfSeries][];
+		int[][] m10 = new int[numberOfSeries][];
+		int[][] m01 = new int[numberOfSeries][];
+		int[][] m00 = new int[numberOfSeries][];
+		for (int r = 0; r < numberOfSeries; r++)
+		{
+			m11[r] = new int[r + 1];
+			m10[r] = new int[r + 1];
+			m01[r] = new int[r + 1];
+			m00[r] = new int[r + 1];
+		}
+		
+		long work = (long) numberOfSeries * (numberOfSeries + 1) / 2 * words;
+		
+		if (threads <= 1 || numberOfSeries <= ROWS_PER_BLOCK || work < PARALLEL_THRESHOLD)
+		{
+			calculateRows(0, numberOfSeries, m11, m10, m01, m00);
+		}
+		else
+		{
+			calculateConcurrently(threads, m11, m10, m01, m00);
+		}
+		
+		matrix11 = m11;
+		matrix10 = m10;
+		matrix01 = m01;
+		matrix00 = m00;
+	}
+	
+	/**
+	 * Split the rows into blocks and calculate each block on a thread pool. The later rows are longer, so the blocks are submitted
+	 * starting with the last to keep the threads evenly loaded.
+	 */
+	private void calculateConcurrently(int threads, final int[][] m11, final int[][] m10, final int[][] m01, final int[][] m00) {
+	
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int end = numberOfSeries; end > 0; end -= ROWS_PER_BLOCK)
+			{
+				final int blockEnd = end;
+				final int blockStart = Math.max(0, end - ROWS_PER_BLOCK);
+				futures.add(executor.submit(new Callable<Void>() {
+					
+					@Override
+					public Void call() {
+					
+						calculateRows(blockStart, blockEnd, m11, m10, m01, m00);
+						return null;
+					}
+				}));
+			}
+			
+			for (Future<Void> future : futures)
+			{
+				future.get();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			// Cancelled, so the partially filled matrices must not be published
+			log.debug("Interrupted while calculating similarity matrices");
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while calculating similarity matrices", e);
+		}
+		catch (ExecutionException e)
+		{
+			log.error("Error calculating similarity matrices");
+			e.printStackTrace();
+			throw new IllegalStateException("Error calculating similarity matrices", e.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Calculate the counts for rows from start (inclusive) to end (exclusive).
+	 */
+	private void calculateRows(int start, int end, int[][] m11, int[][] m10, int[][] m01, int[][] m00) {
+	
+		for (int r = start; r < end; r++)
+		{
+			if (Thread.currentThread().isInterrupted())
+			{
+				// Stop promptly when cancelled rather than finishing a block whose results will be discarded
+				throw new IllegalStateException("Interrupted while calculating similarity matrices");
+			}
+			
+			long[] eventsR = events[r];
+			long[] recordersR = recorders[r];
+			
+			for (int c = 0; c <= r; c++)
+			{
+				long[] eventsC = events[c];
+				long[] recordersC = recorders[c];
+				int n11 = 0;
+				int n10 = 0;
+				int n01 = 0;
+				int n00 = 0;
+				
+				for (int w = 0; w < words; w++)
+				{
+					n11 += Long.bitCount(eventsC[w] & eventsR[w]);
+					n10 += Long.bitCount(eventsC[w] & recordersR[w]);
+					n01 += Long.bitCount(recordersC[w] & eventsR[w]);
+					n00 += Long.bitCount(recordersC[w] & recordersR[w]);
+				}
+				
+				m11[r][c] = n11;
+				m10[r][c] = n10;
+				m01[r][c] = n01;
+				m00[r][c] = n00;
+			}
+		}
+	}
+	
+	/**
+	 * Get the number of series
+	 * 
+	 * @return
+	 */
+	public int getNumberOfSeries() {
+	
+		return numberOfSeries;
+	}
+	
+	/**
+	 * Get the lower triangular matrix of the number of years in which both series have an event.
+	 * 
+	 * @return
+	 */
+	public int[][] getMatrix11() {
+	
+		ensureCalculated();
+		return matrix11;
+	}
+	
+	/**
+	 * Get the lower triangular matrix of the number of years in which the column series has an event and the row series is recording
+	 * without an event.
+	 * 
+	 * @return
+	 */
+	public int[][] getMatrix10() {
+	
+		ensureCalculated();
+		return matrix10;
+	}
+	
+	/**
+	 * Get the lower triangular matrix of the number of years in which the column series is recording without an event and the row series
+	 * has an event.
+	 * 
+	 * @return
+	 */
+	public int[][] getMatrix01() {
+	
+		ensureCalculated();
+		return matrix01;
+	}
+	
+	/**
+	 * Get the lower triangular matrix of the number of years in which both series are recording without an event.
+	 * 
+	 * @return
+	 */
+	public int[][] getMatrix00() {
+	
+		ensureCalculated();
+		return matrix00;
+	}
+	
+	private void ensureCalculated() {
+	
+		if (matrix11 == null)
+			calculate();
+	}
+}
@@ -0,0 +1,296 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.analysis;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.fhaes.enums.EventTypeToProcess;
+import org.fhaes.fhfilereader.AbstractFireHistoryReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * YearAlignedEventCube Class. Holds the per year data of a number of fire history files aligned to a common range of years, so that the
+ * value for a file and year can be looked up directly rather than by searching the file's list of years. Each row is a primitive array
+ * indexed by (year - getFirstYear()) and is built from the reader the first time it is requested.
+ * 
+ * <p>
+ * Years that are outside of a file are given a value of -1 in the event and filter rows and 0 in the sample depth rows. Use hasYear() to
+ * tell these apart from years with no data. The rows are shared between callers so must not be modified.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class YearAlignedEventCube {
+	
+	private static final Logger log = LoggerFactory.getLogger(YearAlignedEventCube.class);
+	
+	private static final int NUMBER_OF_FILTERS = 3;
+	
+	private final List<? extends AbstractFireHistoryReader> readers;
+	private final EventTypeToProcess eventType;
+	private final int firstYear;
+	private final int numberOfYears;
+	private final int[] fileFirstYears;
+	private final int[] fileNumberOfYears;
+	
+	private final int[][] events;
+	private final int[][] sampleDepths;
+	private final int[][] recordingDepths;
+	private final double[][][] filters;
+	
+	/**
+	 * Constructor for YearAlignedEventCube
+	 * 
+	 * @param readers - readers for the files to include
+	 * @param eventType - type of events to use for the event, recording depth and filter rows
+	 * @param firstYear - first year of the common range
+	 * @param lastYear - last year of the common range
+	 */
+	public YearAlignedEventCube(List<? extends AbstractFireHistoryReader> readers, EventTypeToProcess eventType, int firstYear,
+			int lastYear) {
+		
+		this.readers = readers;
+		this.eventType = eventType;
+		this.firstYear = firstYear;
+		this.numberOfYears = Math.max(0, lastYear - firstYear + 1);
+		
+		fileFirstYears = new int[readers.size()];
+		fileNumberOfYears = new int[readers.size()];
+		for (int i = 0; i < readers.size(); i++)
+		{
+			fileFirstYears[i] = readers.get(i).getFirstYear();
+			fileNumberOfYears[i] = readers.get(i).getYearArray().size();
+		}
+		
+		events = new int[readers.size()][];
+		sampleDepths = new int[readers.size()][];
+		recordingDepths = new int[readers.size()][];
+		filters = new double[readers.size()][][];
+	}
+	
+	/**
+	 * Get the first year of the common range
+	 * 
+	 * @return
+	 */
+	public int getFirstYear() {
+	
+		return firstYear;
+	}
+	
+	/**
+	 * Get the last year of the common range
+	 * 
+	 * @return
+	 */
+	public int getLastYear() {
+	
+		return firstYear + numberOfYears - 1;
+	}
+	
+	/**
+	 * Get the number of years in the common range, and therefore the length of each row
+	 * 
+	 * @return
+	 */
+	public int getNumberOfYears() {
+	
+		return numberOfYears;
+	}
+	
+	/**
+	 * Get the number of files in the cube
+	 * 
+	 * @return
+	 */
+	public int getNumberOfFiles() {
+	
+		return readers.size();
+	}
+	
+	/**
+	 * Get the index of a year within the file's own year based arrays, or -1 if the year is not in the file. The year does not need to be
+	 * within the common range.
+	 * 
+	 * @param fileIndex
+	 * @param year
+	 * @return
+	 */
+	public int getYearIndex(int fileIndex, int year) {
+	
+		int index = year - fileFirstYears[fileIndex];
+		if (index < 0 || index >= fileNumberOfYears[fileIndex])
+			return -1;
+		return index;
+	}
+	
+	/**
+	 * Whether the specified year is contained within the file
+	 * 
+	 * @param fileIndex
+	 * @param year
+	 * @return
+	 */
+	public boolean hasYear(int fileIndex, int year) {
+	
+		return getYearIndex(fileIndex, year) != -1;
+	}
+	
+	/**
+	 * Get the event codes for a file, as returned by getFireEventsArray(), getOtherInjuriesArray() or getFiresAndInjuriesArray() depending
+	 * on the event type.
+	 * 
+	 * @param fileIndex
+	 * @return
+	 */
+	public synchronized int[] getEvents(int fileIndex) {
+	
+		if (events[fileIndex] == null)
+		{
+			AbstractFireHistoryReader reader = readers.get(fileIndex);
+			List<Integer> values = null;
+			
+			if (eventType.equals(EventTypeToProcess.FIRE_EVENT))
+			{
+				values = reader.getFireEventsArray();
+			}
+			else if (eventType.equals(EventTypeToProcess.INJURY_EVENT))
+			{
+				values = reader.getOtherInjuriesArray();
+			}
+			else if (eventType.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
+			{
+				values = reader.getFiresAndInjuriesArray();
+			}
+			else
+			{
+				log.error("Unsupported event type caught");
+			}
+			
+			int[] row = new int[numberOfYears];
+			Arrays.fill(row, -1);
+			if (values != null)
+			{
+				int offset = fileFirstYears[fileIndex] - firstYear;
+				for (int i = Math.max(0, -offset); i < values.size() && i + offset < numberOfYears; i++)
+				{
+					row[i + offset] = values.get(i);
+				}
+			}
+			events[fileIndex] = row;
+		}
+		
+		return events[fileIndex];
+	}
+	
+	/**
+	 * Get the number of samples in each year for a file
+	 * 
+	 * @param fileIndex
+	 * @return
+	 */
+	public synchronized int[] getSampleDepths(int fileIndex) {
+	
+		if (sampleDepths[fileIndex] == null)
+		{
+			sampleDepths[fileIndex] = align(fileIndex, readers.get(fileIndex).getSampleDepths());
+		}
+		
+		return sampleDepths[fileIndex];
+	}
+	
+	/**
+	 * Get the number of samples in recording status in each year for a file
+	 * 
+	 * @param fileIndex
+	 * @return
+	 */
+	public synchronized int[] getRecordingDepths(int fileIndex) {
+	
+		if (recordingDepths[fileIndex] == null)
+		{
+			recordingDepths[fileIndex] = align(fileIndex, readers.get(fileIndex).getRecordingDepths(eventType));
+		}
+		
+		return recordingDepths[fileIndex];
+	}
+	
+	/**
+	 * Get one of the filter values for a file, as returned by getFilterArrays(). The filters are:
+	 * <ul>
+	 * <li>0 = number of events</li>
+	 * <li>1 = number of samples</li>
+	 * <li>2 = percentage of samples scarred</li>
+	 * </ul>
+	 * 
+	 * @param fileIndex
+	 * @param filterIndex
+	 * @return
+	 */
+	public synchronized double[] getFilterValues(int fileIndex, int filterIndex) {
+	
+		if (filters[fileIndex] == null)
+		{
+			List<List<Double>> values = readers.get(fileIndex).getFilterArrays(eventType);
+			double[][] rows = new double[NUMBER_OF_FILTERS][numberOfYears];
+			int offset = fileFirstYears[fileIndex] - firstYear;
+			
+			for (int k = 0; k < NUMBER_OF_FILTERS; k++)
+			{
+				Arrays.fill(rows[k], -1.0);
+				if (values == null)
+					continue;
+				
+				List<Double> filter = values.get(k);
+				for (int i = Math.max(0, -offset); i < filter.size() && i + offset < numberOfYears; i++)
+				{
+					rows[k][i + offset] = filter.get(i);
+				}
+			}
+			filters[fileIndex] = rows;
+		}
+		
+		return filters[fileIndex][filterIndex];
+	}
+	
+	/**
+	 * Copy an array indexed by the file's own years into a row for the common range
+	 * 
+	 * @param fileIndex
+	 * @param values
+	 * @return
+	 */
+	private int[] align(int fileIndex, int[] values) {
+	
+		int[] row = new int[numberOfYears];
+		if (values == null)
+			return row;
+		
+		int offset = fileFirstYears[fileIndex] - firstYear;
+		int from = Math.max(0, -offset);
+		int to = Math.min(values.length, numberOfYears - offset);
+		if (to > from)
+		{
+			System.arraycopy(values, from, row, from + offset, to - from);
+		}
+		
+		return row;
+	}
+}
@@ -25,7 +25,6 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.swing.JFileChooser;
@@ -627,19 +626,13 @@ public class FileController {
 	}
 	
 	/**
-	 * TODO
+	 * Gets the summaries of the years in the current file.
 	 * 
 	 * @return
 	 */
 	public static List<YearSummary> getYearSummaryList() {
 	
-		int firstYear = IOController.getFile().getRequiredPart().getDataSetFirstYear();
-		int lastYear = IOController.getFile().getRequiredPart().getDataSetLastYear();
-		List<YearSummary> result = new ArrayList<YearSummary>(lastYear - firstYear);
-		for (int i = firstYear + 1; i < lastYear; i++)
-			if (i != 0)
-				result.add(new YearSummary(IOController.getFile().getRequiredPart(), i));
-		return result;
+		return IOController.getFile().getRequiredPart().getYearSummaryList();
 	}
 	
 	/**
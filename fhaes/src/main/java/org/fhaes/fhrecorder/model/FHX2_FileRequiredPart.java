@@ -29,6 +29,8 @@ import javax.swing.event.ChangeListener;
 import org.fhaes.fhrecorder.controller.FileController;
 import org.fhaes.fhrecorder.util.ErrorTrackerInterface;
 import org.fhaes.fhrecorder.util.SampleErrorModel;
+import org.fhaes.fhrecorder.util.YearSummary;
+import org.fhaes.fhrecorder.util.YearSummaryIndex;
 import org.fhaes.util.SharedConstants;
 
 /**
@@ -49,6 +51,7 @@ public class FHX2_FileRequiredPart implements Serializable, ChangeListener, Erro
 	private int idLength;
 	private int dataSetFirstYear;
 	private int dataSetLastYear;
+	private transient YearSummaryIndex yearSummaryIndex;
 	
 	/**
 	 * Default Constructor for FHX2_FileRequiredPart. FHX2 Format enforces minimum sample name to be three characters, list to hold the
@@ -176,7 +179,7 @@ public class FHX2_FileRequiredPart implements Serializable, ChangeListener, Erro
 	 */
 	public void deleteSample(int index) {
 		
-		sampleList.remove(index);
+		getYearSummaryIndex().invalidateSample(sampleList.remove(index));
 		fireSampleEvent();
 	}
 	
@@ -226,6 +229,29 @@ public class FHX2_FileRequiredPart implements Serializable, ChangeListener, Erro
 		return sampleList.get(sampleIndex).getEvent(eventIndex);
 	}
 	
+	/**
+	 * Gets the summaries of all the years strictly between the first and last years of the data set. The summaries are taken from an
+	 * index that is only updated for the samples that have changed since it was last used.
+	 * 
+	 * @return list of year summaries
+	 */
+	public List<YearSummary> getYearSummaryList() {
+		
+		return getYearSummaryIndex().getYearSummaryList();
+	}
+	
+	/**
+	 * Gets the index of year summaries for this file, creating it if necessary.
+	 * 
+	 * @return yearSummaryIndex
+	 */
+	private synchronized YearSummaryIndex getYearSummaryIndex() {
+		
+		if (yearSummaryIndex == null)
+			yearSummaryIndex = new YearSummaryIndex(this);
+		return yearSummaryIndex;
+	}
+	
 	/**
 	 * Calculates the appropriate length for the unique sample identifier.
 	 */
@@ -290,6 +316,8 @@ public class FHX2_FileRequiredPart implements Serializable, ChangeListener, Erro
 	@Override
 	public void stateChanged(ChangeEvent e) {
 		
+		if (e.getSource() instanceof FHX2_Sample)
+			getYearSummaryIndex().invalidateSample((FHX2_Sample) e.getSource());
 		fireSampleEvent();
 		FileController.setIsChangedSinceLastSave(true);
 	}
@@ -19,6 +19,7 @@ package org.fhaes.fhrecorder.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
 
 import javax.swing.event.ChangeListener;
@@ -57,6 +58,7 @@ public class FHX2_Sample implements Serializable, ErrorTrackerInterface {
 	private boolean bark;
 	private EventTable eventTable;
 	private RecordingTable recordingTable;
+	private transient YearIndex yearIndex;
 	private ArrayList<SampleErrorModel> errors = new ArrayList<SampleErrorModel>();
 	
 	/**
@@ -155,10 +157,10 @@ public class FHX2_Sample implements Serializable, ErrorTrackerInterface {
 	 */
 	public String toString(int inDatasetFirstYear, int inDatasetLastYear) {
 	
-		String tempString = "";
+		StringBuilder tempString = new StringBuilder(Math.max(0, inDatasetLastYear - inDatasetFirstYear + 1));
 		for (int i = inDatasetFirstYear; i <= inDatasetLastYear; i++)
-			tempString += charAt(i);
-		return tempString;
+			tempString.append(charAt(i));
+		return tempString.toString();
 	}
 	
 	/**
@@ -504,7 +506,7 @@ public class FHX2_Sample implements Serializable, ErrorTrackerInterface {
 	 */
 	public boolean eventYearAvailable(int year) {
 	
-		return (year != 0 && isYearInRecordings(year) && !eventTable.yearHasAnEvent(year));
+		return (year != 0 && isYearInRecordings(year) && !hasEventInYear(year));
 	}
 	
 	/**
@@ -515,10 +517,7 @@ public class FHX2_Sample implements Serializable, ErrorTrackerInterface {
 	 */
 	public boolean hasEventInYear(int year) {
 	
-		for (FHX2_Event evt : eventTable.getEvents())
-			if (evt.containsYear(year))
-				return true;
-		return false;
+		return getYearIndex().getEventType(year) != 0;
 	}
 	
 	/**
@@ -675,7 +674,7 @@ public class FHX2_Sample implements Serializable, ErrorTrackerInterface {
 	 */
 	public boolean isYearInRecordings(int year) {
 	
-		return recordingTable.isYearInRecordings(year);
+		return getYearIndex().isRecording(year);
 	}
 	
 	/**
@@ -703,19 +702,13 @@ public class FHX2_Sample implements Serializable, ErrorTrackerInterface {
 	private char charAt(int inYear) {
 	
 		char returnChar = '.';
-		for (int i = 0; i < recordingTable.getNumOfRecordings(); i++)
-			if (recordingTable.getRecording(i).containsYear(inYear))
-			{
-				returnChar = '|';
-				break;
-			}
+		YearIndex index = getYearIndex();
+		if (index.isRecording(inYear))
+			returnChar = '|';
 		
-		for (int i = 0; i < eventTable.getNumOfEvents(); i++)
-			if (eventTable.getEvent(i).getEventYear() == inYear)
-			{
-				returnChar = eventTable.getEvent(i).getEventType();
-				break;
-			}
+		char eventType = index.getEventType(inYear);
+		if (eventType != 0)
+			returnChar = eventType;
 		
 		// Maintenance request: Fixed General Errors 4, Sample without events does not save start and end year.
 		if (inYear == sampleFirstYear)
@@ -1030,6 +1023,112 @@ public class FHX2_Sample implements Serializable, ErrorTrackerInterface {
 		recordingTable.mergeOverlappingRecordings();
 	}
 	
+	// ********************************************************************************************************************
+	// Year Index Methods
+	// ********************************************************************************************************************
+	
+	/**
+	 * Discards the year index so that it is rebuilt the next time it is needed. This must be called whenever the events or recordings of
+	 * the sample are changed.
+	 */
+	public void invalidateYearIndex() {
+	
+		yearIndex = null;
+	}
+	
+	/**
+	 * Gets the year index of the events and recordings, building it if necessary.
+	 * 
+	 * @return yearIndex
+	 */
+	private YearIndex getYearIndex() {
+	
+		YearIndex index = yearIndex;
+		if (index == null)
+		{
+			index = new YearIndex(recordingTable.getRecordings(), eventTable.getEvents());
+			yearIndex = index;
+		}
+		return index;
+	}
+	
+	/**
+	 * Index of which years are covered by a recording and which years have an event, so that looking up a year does not require searching
+	 * through all the recordings and events. Where several events share a year, the first in the list is used, as when searching the list.
+	 */
+	private static class YearIndex {
+		
+		private final int firstYear;
+		private final boolean[] recording;
+		private final char[] eventType;
+		
+		private YearIndex(List<FHX2_Recording> recordings, List<FHX2_Event> events) {
+		
+			int minYear = Integer.MAX_VALUE;
+			int maxYear = Integer.MIN_VALUE;
+			for (FHX2_Recording range : recordings)
+			{
+				if (range.getStartYear() <= range.getEndYear())
+				{
+					minYear = Math.min(minYear, range.getStartYear());
+					maxYear = Math.max(maxYear, range.getEndYear());
+				}
+			}
+			for (FHX2_Event event : events)
+			{
+				if (event.getEventYear() != null)
+				{
+					minYear = Math.min(minYear, event.getEventYear());
+					maxYear = Math.max(maxYear, event.getEventYear());
+				}
+			}
+			
+			if (minYear > maxYear)
+			{
+				firstYear = 0;
+				recording = new boolean[0];
+				eventType = new char[0];
+				return;
+			}
+			
+			firstYear = minYear;
+			recording = new boolean[maxYear - minYear + 1];
+			eventType = new char[maxYear - minYear + 1];
+			
+			for (FHX2_Recording range : recordings)
+				for (int year = range.getStartYear(); year <= range.getEndYear(); year++)
+					recording[year - firstYear] = true;
+			
+			for (FHX2_Event event : events)
+				if (event.getEventYear() != null && eventType[event.getEventYear() - firstYear] == 0)
+					eventType[event.getEventYear() - firstYear] = event.getEventType();
+		}
+		
+		/**
+		 * Returns whether or not a year is in one of the recordings.
+		 * 
+		 * @param year
+		 * @return
+		 */
+		private boolean isRecording(int year) {
+		
+			int i = year - firstYear;
+			return i >= 0 && i < recording.length && recording[i];
+		}
+		
+		/**
+		 * Gets the type of the event in a year.
+		 * 
+		 * @param year
+		 * @return the event type, or 0 if there is no event in the year
+		 */
+		private char getEventType(int year) {
+		
+			int i = year - firstYear;
+			return i >= 0 && i < eventType.length ? eventType[i] : 0;
+		}
+	}
+	
 	// ********************************************************************************************************************
 	// Vector ChangeListener Methods
 	// ********************************************************************************************************************
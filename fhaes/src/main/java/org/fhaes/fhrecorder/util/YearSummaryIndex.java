@@ -0,0 +1,351 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Cody Calhoun, Anthony Messerschmidt, Seth Westphal, Scott Goble, and Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhrecorder.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.fhaes.fhrecorder.model.FHX2_Event;
+import org.fhaes.fhrecorder.model.FHX2_FileRequiredPart;
+import org.fhaes.fhrecorder.model.FHX2_Recording;
+import org.fhaes.fhrecorder.model.FHX2_Sample;
+
+/**
+ * YearSummaryIndex Class. Maintains the per-year totals that make up the YearSummary of every year in a file, so that the summaries do
+ * not have to be recalculated from every sample whenever the graphs or summary table are refreshed.
+ * 
+ * <p>
+ * The totals are the sum of the contributions of each sample. The index keeps a compact copy of the years, recordings and events of each
+ * sample it has added, and when it is brought up to date only the samples that no longer match their copy are removed and added again.
+ * Editing one sample therefore only touches the years covered by that sample. Samples that are added to or removed from the file are
+ * picked up in the same way.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class YearSummaryIndex {
+	
+	private static final int RECORDERS = 0;
+	private static final int SAMPLES = 1;
+	private static final int DORMANT_SEASON = 2;
+	private static final int EARLY_EARLYWOOD = 3;
+	private static final int MIDDLE_EARLYWOOD = 4;
+	private static final int LATE_EARLYWOOD = 5;
+	private static final int LATEWOOD = 6;
+	private static final int UNDETERMINED = 7;
+	private static final int NUM_FIELDS = 8;
+	
+	private final FHX2_FileRequiredPart file;
+	private final Map<FHX2_Sample, int[]> sampleData = new IdentityHashMap<FHX2_Sample, int[]>();
+	private int[][] totals = new int[NUM_FIELDS][0];
+	private int totalsFirstYear = 0;
+	
+	/**
+	 * Create a new index for the specified file.
+	 * 
+	 * @param file the file whose samples will be summarized.
+	 */
+	public YearSummaryIndex(FHX2_FileRequiredPart file) {
+	
+		this.file = file;
+	}
+	
+	/**
+	 * Gets the summaries of all the years strictly between the first and last years of the data set, skipping the year zero.
+	 * 
+	 * @return list of year summaries in year order.
+	 */
+	public synchronized List<YearSummary> getYearSummaryList() {
+	
+		update();
+		
+		int firstYear = file.getDataSetFirstYear();
+		int lastYear = file.getDataSetLastYear();
+		List<YearSummary> result = new ArrayList<YearSummary>(Math.max(0, lastYear - firstYear));
+		for (int i = firstYear + 1; i < lastYear; i++)
+			if (i != 0)
+				result.add(createYearSummary(i));
+		return result;
+	}
+	
+	/**
+	 * Gets the summary of a single year.
+	 * 
+	 * @param year the year to summarize.
+	 * @return the year summary.
+	 */
+	public synchronized YearSummary getYearSummary(int year) {
+	
+		update();
+		return createYearSummary(year);
+	}
+	
+	/**
+	 * Marks a sample as changed so that its contribution is recalculated the next time the index is used.
+	 * 
+	 * @param sample the sample that has changed.
+	 */
+	public synchronized void invalidateSample(FHX2_Sample sample) {
+	
+		int[] data = sampleData.remove(sample);
+		if (data != null)
+			apply(data, -1);
+	}
+	
+	/**
+	 * Brings the totals up to date with the samples currently in the file.
+	 */
+	private void update() {
+	
+		// Remove the contributions of samples that have been deleted from the file
+		if (sampleData.size() > 0)
+		{
+			Map<FHX2_Sample, Boolean> current = new IdentityHashMap<FHX2_Sample, Boolean>();
+			for (FHX2_Sample sample : file.getSampleList())
+				current.put(sample, Boolean.TRUE);
+			
+			Iterator<Map.Entry<FHX2_Sample, int[]>> it = sampleData.entrySet().iterator();
+			while (it.hasNext())
+			{
+				Map.Entry<FHX2_Sample, int[]> entry = it.next();
+				if (!current.containsKey(entry.getKey()))
+				{
+					apply(entry.getValue(), -1);
+					it.remove();
+				}
+			}
+		}
+		
+		// Replace the contributions of samples that are new or have changed
+		for (FHX2_Sample sample : file.getSampleList())
+		{
+			int[] data = sampleData.get(sample);
+			if (data != null && matches(data, sample))
+				continue;
+			
+			if (data != null)
+				apply(data, -1);
+			
+			data = createSampleData(sample);
+			apply(data, 1);
+			sampleData.put(sample, data);
+		}
+	}
+	
+	/**
+	 * Creates a compact copy of the information in a sample that contributes to the year summaries. The layout is the first and last
+	 * years, the number of recordings followed by the start and end year of each, then the number of events followed by the year and type
+	 * of each.
+	 * 
+	 * @param sample the sample to copy.
+	 * @return the copy.
+	 */
+	private static int[] createSampleData(FHX2_Sample sample) {
+	
+		ArrayList<FHX2_Recording> recordings = sample.getRecordings();
+		ArrayList<FHX2_Event> events = sample.getEvents();
+		int[] data = new int[4 + 2 * recordings.size() + 2 * events.size()];
+		
+		int pos = 0;
+		data[pos++] = sample.getSampleFirstYear();
+		data[pos++] = sample.getSampleLastYear();
+		data[pos++] = recordings.size();
+		for (FHX2_Recording range : recordings)
+		{
+			data[pos++] = range.getStartYear();
+			data[pos++] = range.getEndYear();
+		}
+		data[pos++] = events.size();
+		for (FHX2_Event event : events)
+		{
+			data[pos++] = event.getEventYear();
+			data[pos++] = event.getEventType();
+		}
+		return data;
+	}
+	
+	/**
+	 * Checks whether a sample still matches the copy made of it.
+	 * 
+	 * @param data the copy of the sample.
+	 * @param sample the sample.
+	 * @return true if nothing that contributes to the year summaries has changed, false otherwise.
+	 */
+	private static boolean matches(int[] data, FHX2_Sample sample) {
+	
+		ArrayList<FHX2_Recording> recordings = sample.getRecordings();
+		ArrayList<FHX2_Event> events = sample.getEvents();
+		if (data.length != 4 + 2 * recordings.size() + 2 * events.size())
+			return false;
+		
+		int pos = 0;
+		if (data[pos++] != sample.getSampleFirstYear() || data[pos++] != sample.getSampleLastYear() || data[pos++] != recordings.size())
+			return false;
+		for (FHX2_Recording range : recordings)
+		{
+			if (data[pos++] != range.getStartYear() || data[pos++] != range.getEndYear())
+				return false;
+		}
+		if (data[pos++] != events.size())
+			return false;
+		for (FHX2_Event event : events)
+		{
+			if (data[pos++] != event.getEventYear() || data[pos++] != event.getEventType())
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Adds or removes the contribution of a sample to the totals, counting in the same way as YearSummary(FHX2_FileRequiredPart, int).
+	 * 
+	 * @param data the copy of the sample.
+	 * @param sign 1 to add the sample, -1 to remove it.
+	 */
+	private void apply(int[] data, int sign) {
+	
+		int firstYear = data[0];
+		int lastYear = data[1];
+		int numRecordings = data[2];
+		int eventsPos = 3 + 2 * numRecordings;
+		int numEvents = data[eventsPos];
+		
+		// The sample counts in the years strictly between its first and last years
+		addToRange(SAMPLES, firstYear + 1, lastYear - 1, sign);
+		
+		// Each recording counts in every year it covers
+		for (int r = 0; r < numRecordings; r++)
+			addToRange(RECORDERS, data[3 + 2 * r], data[4 + 2 * r], sign);
+		
+		for (int e = 0; e < numEvents; e++)
+		{
+			int year = data[eventsPos + 1 + 2 * e];
+			char type = (char) data[eventsPos + 2 + 2 * e];
+			
+			// An event counts as a recorder, less any recordings that already counted this year
+			int recorders = 1;
+			for (int r = 0; r < numRecordings; r++)
+				if (year >= data[3 + 2 * r] && year <= data[4 + 2 * r])
+					recorders--;
+			addToRange(RECORDERS, year, year, sign * recorders);
+			
+			int field = getEventField(type);
+			if (field != -1)
+				addToRange(field, year, year, sign);
+		}
+	}
+	
+	/**
+	 * Gets the total that an event of the specified type counts towards.
+	 * 
+	 * @param type the event type.
+	 * @return the field index, or -1 if the event type is not counted.
+	 */
+	private static int getEventField(char type) {
+	
+		switch (type)
+		{
+			case 'D':
+			case 'd':
+				return DORMANT_SEASON;
+			case 'E':
+			case 'e':
+				return EARLY_EARLYWOOD;
+			case 'M':
+			case 'm':
+				return MIDDLE_EARLYWOOD;
+			case 'L':
+			case 'l':
+				return LATE_EARLYWOOD;
+			case 'A':
+			case 'a':
+				return LATEWOOD;
+			case 'U':
+			case 'u':
+				return UNDETERMINED;
+			default:
+				return -1;
+		}
+	}
+	
+	/**
+	 * Adds a value to a total for every year in a range, growing the totals arrays if necessary.
+	 * 
+	 * @param field the total to add to.
+	 * @param startYear the first year of the range.
+	 * @param endYear the last year of the range, inclusive.
+	 * @param value the value to add.
+	 */
+	private void addToRange(int field, int startYear, int endYear, int value) {
+	
+		if (startYear > endYear || value == 0)
+			return;
+		
+		ensureCapacity(startYear, endYear);
+		int[] values = totals[field];
+		for (int i = startYear - totalsFirstYear; i <= endYear - totalsFirstYear; i++)
+			values[i] += value;
+	}
+	
+	/**
+	 * Makes sure the totals arrays cover the specified range of years.
+	 * 
+	 * @param startYear
+	 * @param endYear
+	 */
+	private void ensureCapacity(int startYear, int endYear) {
+	
+		int length = totals[0].length;
+		if (length == 0)
+		{
+			totals = new int[NUM_FIELDS][endYear - startYear + 1];
+			totalsFirstYear = startYear;
+			return;
+		}
+		if (startYear >= totalsFirstYear && endYear < totalsFirstYear + length)
+			return;
+		
+		int newFirstYear = Math.min(startYear, totalsFirstYear);
+		int newLastYear = Math.max(endYear, totalsFirstYear + length - 1);
+		int[][] newTotals = new int[NUM_FIELDS][newLastYear - newFirstYear + 1];
+		for (int f = 0; f < NUM_FIELDS; f++)
+			System.arraycopy(totals[f], 0, newTotals[f], totalsFirstYear - newFirstYear, length);
+		
+		totals = newTotals;
+		totalsFirstYear = newFirstYear;
+	}
+	
+	/**
+	 * Creates a YearSummary from the totals for the specified year.
+	 * 
+	 * @param year
+	 * @return
+	 */
+	private YearSummary createYearSummary(int year) {
+	
+		int i = year - totalsFirstYear;
+		if (i < 0 || i >= totals[0].length)
+			return new YearSummary(year, 0, 0, 0, 0, 0, 0, 0, 0);
+		
+		return new YearSummary(year, totals[RECORDERS][i], totals[SAMPLES][i], totals[DORMANT_SEASON][i], totals[EARLY_EARLYWOOD][i],
+				totals[MIDDLE_EARLYWOOD][i], totals[LATE_EARLYWOOD][i], totals[LATEWOOD][i], totals[UNDETERMINED][i]);
+	}
+}
@@ -572,7 +572,7 @@ public class DataPanel extends JPanel implements ChangeListener, PropertyChangeL
 						FHX2_Recording rec = new FHX2_Recording();
 						rec.setStartYear(sample.getSampleFirstYear());
 						rec.setEndYear(sample.getSampleLastYear());
-						sample.getRecordings().add(rec);
+						sample.addRecording(rec);
 						SampleController.saveNewSample(sample);
 						importcount++;
 						
@@ -378,6 +378,9 @@ public class EventTable extends JTable {
 	 */
 	public void redrawTable() {
 		
+		// The events may have changed so the sample's index of them is out of date
+		sample.invalidateYearIndex();
+		
 		// First we remove all the rows in case something has changed
 		DefaultTableModel tableModel = (DefaultTableModel) getModel();
 		int rowCount = tableModel.getRowCount();
@@ -460,6 +463,7 @@ public class EventTable extends JTable {
 				{
 					events.get(row).setEventType(Character.toLowerCase(events.get(row).getEventType()));
 				}
+				sample.invalidateYearIndex();
 				super.setValueAt(value, r, c);
 			}
 			else if (col == Columns.EVENT_SEASON.getInt())
@@ -498,6 +502,7 @@ public class EventTable extends JTable {
 				{
 					events.get(row).setEventType(Character.toLowerCase(newEventType));
 				}
+				sample.invalidateYearIndex();
 				super.setValueAt(value, r, c);
 			}
 			else if (col == Columns.EVENT_YEAR.getInt())
@@ -525,6 +530,7 @@ public class EventTable extends JTable {
 				}
 				
 				events.get(row).setEventYear(eventYear);
+				sample.invalidateYearIndex();
 				super.setValueAt(Integer.toString(eventYear), r, c);
 				sortEvents();
 				
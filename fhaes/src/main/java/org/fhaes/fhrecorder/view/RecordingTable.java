@@ -358,6 +358,9 @@ public class RecordingTable extends JTable {
 	 */
 	public void redrawTable() {
 		
+		// The recordings may have changed so the sample's index of them is out of date
+		sample.invalidateYearIndex();
+		
 		// First remove all the rows
 		DefaultTableModel tableModel = (DefaultTableModel) getModel();
 		int rowCount = tableModel.getRowCount();
@@ -415,6 +418,7 @@ public class RecordingTable extends JTable {
 					startYear = recordings.get(row).getStartYear();
 				}
 				recordings.get(row).setStartYear(startYear);
+				sample.invalidateYearIndex();
 				super.setValueAt(Integer.toString(startYear), r, c);
 			}
 			else if (col == 1)
@@ -446,6 +450,7 @@ public class RecordingTable extends JTable {
 					endYear = recordings.get(row).getStartYear();
 				}
 				recordings.get(row).setEndYear(endYear);
+				sample.invalidateYearIndex();
 				super.setValueAt(Integer.toString(endYear), r, c);
 			}
 		}
@@ -26,11 +26,11 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.swing.JButton;
 import javax.swing.JDialog;
@@ -44,25 +44,23 @@ import javax.swing.table.DefaultTableModel;
 
 import net.miginfocom.swing.MigLayout;
 
+import org.fhaes.analysis.AnalysisParameters;
+import org.fhaes.analysis.AnalysisResultCache;
 import org.fhaes.analysis.FHInterval;
 import org.fhaes.analysis.FHMatrix;
 import org.fhaes.analysis.FHSeasonality;
 import org.fhaes.analysis.FHSummary;
-import org.fhaes.enums.AnalysisType;
-import org.fhaes.enums.EventTypeToProcess;
-import org.fhaes.enums.FireFilterType;
 import org.fhaes.enums.NoDataLabel;
-import org.fhaes.enums.SampleDepthFilterType;
 import org.fhaes.fhfilereader.FHFile;
+import org.fhaes.model.ResultTable;
 import org.fhaes.preferences.App;
-import org.fhaes.preferences.FHAESPreferences.PrefKey;
-import org.fhaes.util.TableUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * AnalysisProgressDialog Class. This is a dialog that shows progress for calculating results. The dialog runs in a background thread to
- * ensure the application stays responsive. At the moment the progress bar is indeterminate.
+ * ensure the application stays responsive. The seasonality, intervals, matrix and summary analyses are run concurrently. At the moment the
+ * progress bar is indeterminate.
  * 
  * @author Peter Brewer
  */
@@ -73,22 +71,22 @@ public class AnalysisProgressDialog extends JDialog implements PropertyChangeLis
 	private ArrayList<FHFile> fileList = new ArrayList<FHFile>();
 	private JProgressBar progressBar;
 	
-	private File generalFilesSummaryFile = null;
-	private File seasonalitySummaryFile = null;
-	private File intervalsExceedenceFile = null;
-	private File intervalsSummaryFile = null;
-	private File bin00File = null;
-	private File bin10File = null;
-	private File bin01File = null;
-	private File bin11File = null;
-	private File binSumFile = null;
-	private File fileDSCOH = null;
-	private File fileDSJAC = null;
-	private File fileSCOH = null;
-	private File fileSite = null;
-	private File fileSJAC = null;
-	private File fileNTP = null;
-	private File fileTree = null;
+	private ResultTable generalFilesSummaryTable = null;
+	private ResultTable seasonalitySummaryTable = null;
+	private ResultTable intervalsExceedenceTable = null;
+	private ResultTable intervalsSummaryTable = null;
+	private ResultTable bin00Table = null;
+	private ResultTable bin10Table = null;
+	private ResultTable bin01Table = null;
+	private ResultTable bin11Table = null;
+	private ResultTable binSumTable = null;
+	private ResultTable DSCOHTable = null;
+	private ResultTable DSJACTable = null;
+	private ResultTable SCOHTable = null;
+	private ResultTable siteTable = null;
+	private ResultTable SJACTable = null;
+	private ResultTable NTPTable = null;
+	private ResultTable treeTable = null;
 	
 	private DefaultTableModel generalFilesSummaryModel = null;
 	private DefaultTableModel seasonalitySummaryModel = null;
@@ -109,6 +107,9 @@ public class AnalysisProgressDialog extends JDialog implements PropertyChangeLis
 	
 	private FHMatrix fhm;
 	
+	// Snapshot of the analysis preferences taken when the dialog is created so that all the analyses in this run use the same settings
+	private final AnalysisParameters parameters = AnalysisParameters.fromPreferences(App.prefs);
+	
 	JLabel lblInfo;
 	private JPanel panel;
 	
@@ -134,7 +135,7 @@ public class AnalysisProgressDialog extends JDialog implements PropertyChangeLis
 		progressBar.setStringPainted(false);
 		
 		progressBar.setVisible(true);
-		progressBar.setMaximum(110);
+		progressBar.setMaximum(100);
 		progressBar.setValue(0);
 		progressBar.setIndeterminate(true);
 		
@@ -175,10 +176,28 @@ public class AnalysisProgressDialog extends JDialog implements PropertyChangeLis
 		return fileList;
 	}
 	
+	/**
+	 * Get the analysis preferences that this run of the analyses used.
+	 * 
+	 * @return
+	 */
+	public AnalysisParameters getParameters() {
+	
+		return parameters;
+	}
+	
 	class Task extends SwingWorker<Void, Void> {
 		
+		// Indices of the analysis stages. Their shares of the progress bar (5, 15, 55 and 25) add up to 100, the most SwingWorker allows
+		private static final int SEASONALITY = 0;
+		private static final int INTERVALS = 1;
+		private static final int MATRIX = 2;
+		private static final int SUMMARY = 3;
+		private final int[] stageProgress = new int[4];
+		
 		/*
-		 * Main task. Executed in background thread.
+		 * Main task. Executed in background thread. The analyses are independent of one another so they are run concurrently, each in its
+		 * own try/catch so that a failure in one does not prevent the others from completing.
 		 */
 		@Override
 		public Void doInBackground() {
@@ -186,34 +205,126 @@ public class AnalysisProgressDialog extends JDialog implements PropertyChangeLis
 			if (fileList == null || fileList.size() == 0)
 				return null;
 			
-			FHFile[] array = fileList.toArray(new FHFile[fileList.size()]);
+			final FHFile[] array = fileList.toArray(new FHFile[fileList.size()]);
 			
-			// Run seasonality analysis
 			setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 			App.mainFrame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 			setProgress(0);
-			lblInfo.setText("Calculating seasonality...");
+			lblInfo.setText("Calculating seasonality, intervals, matrices and summary...");
+			
+			ExecutorService executor = Executors.newFixedThreadPool(stageProgress.length);
+			ArrayList<Future<?>> stages = new ArrayList<Future<?>>();
+			
+			stages.add(executor.submit(new Runnable() {
+				
+				@Override
+				public void run() {
+				
+					runSeasonality(array);
+				}
+			}));
+			
+			stages.add(executor.submit(new Runnable() {
+				
+				@Override
+				public void run() {
+				
+					runIntervals(array);
+				}
+			}));
+			
+			stages.add(executor.submit(new Runnable() {
+				
+				@Override
+				public void run() {
+				
+					runMatrix(array);
+				}
+			}));
+			
+			stages.add(executor.submit(new Runnable() {
+				
+				@Override
+				public void run() {
+				
+					runSummary(array);
+				}
+			}));
+			
 			try
 			{
+				for (Future<?> stage : stages)
+				{
+					stage.get();
+				}
+			}
+			catch (InterruptedException e)
+			{
+				log.debug("Analysis cancelled");
+			}
+			catch (ExecutionException e)
+			{
+				log.error("Error caught when running analyses");
+				e.printStackTrace();
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+			
+			setProgress(100);
+			
+			lblInfo.setText("Done...");
+			return null;
+		}
+		
+		/**
+		 * Record the progress of a single stage and update the overall progress with the total across all stages.
+		 * 
+		 * @param stage
+		 * @param value
+		 */
+		private void setStageProgress(int stage, int value) {
+		
+			int total = 0;
+			synchronized (stageProgress)
+			{
+				stageProgress[stage] = value;
+				for (int p : stageProgress)
+				{
+					total += p;
+				}
+			}
+			setProgress(Math.min(total, 100));
+		}
+		
+		/**
+		 * Run seasonality analysis. Accounts for 5 units of the progress bar.
+		 * 
+		 * @param array
+		 */
+		private void runSeasonality(FHFile[] array) {
+		
+			try
+			{
+				String key = AnalysisResultCache.getKey("FHSeasonality", array, parameters.getLabelType(), parameters.isFirstGroupDormant(),
+						parameters.isFirstGroupEarlyEarly(), parameters.isFirstGroupMiddleEarly(), parameters.isFirstGroupLateEarly(),
+						parameters.isFirstGroupLate(), parameters.isSecondGroupDormant(), parameters.isSecondGroupEarlyEarly(),
+						parameters.isSecondGroupMiddleEarly(), parameters.isSecondGroupLateEarly(), parameters.isSecondGroupLate(),
+						parameters.getFirstYear(), parameters.getLastYear(), parameters.getEventType());
+				seasonalitySummaryTable = AnalysisResultCache.get(key, ResultTable.class);
 				
-				seasonalitySummaryFile = File.createTempFile("FHSeasonality", ".tmp");
-				seasonalitySummaryFile.deleteOnExit();
-				
-				FHSeasonality.runAnalysis(null, seasonalitySummaryFile, array,
-						App.prefs.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_DORMANT, true),
-						App.prefs.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_EARLY_EARLY, true),
-						App.prefs.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_MIDDLE_EARLY, false),
-						App.prefs.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_LATE_EARLY, false),
-						App.prefs.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_LATE, false),
-						App.prefs.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_DORMANT, false),
-						App.prefs.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_EARLY_EARLY, false),
-						App.prefs.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_MIDDLE_EARLY, true),
-						App.prefs.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_LATE_EARLY, true),
-						App.prefs.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_LATE, true),
-						App.prefs.getIntPref(PrefKey.RANGE_FIRST_YEAR, 0), App.prefs.getIntPref(PrefKey.RANGE_LAST_YEAR, 0),
-						App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_EVENT));
+				if (seasonalitySummaryTable == null)
+				{
+					seasonalitySummaryTable = FHSeasonality.runAnalysis(array, parameters.isFirstGroupDormant(),
+							parameters.isFirstGroupEarlyEarly(), parameters.isFirstGroupMiddleEarly(), parameters.isFirstGroupLateEarly(),
+							parameters.isFirstGroupLate(), parameters.isSecondGroupDormant(), parameters.isSecondGroupEarlyEarly(),
+							parameters.isSecondGroupMiddleEarly(), parameters.isSecondGroupLateEarly(), parameters.isSecondGroupLate(),
+							parameters.getFirstYear(), parameters.getLastYear(), parameters.getEventType(), parameters.getLabelType());
+					AnalysisResultCache.put(key, seasonalitySummaryTable);
+				}
 				
-				seasonalitySummaryModel = getTableModelFromCSV(seasonalitySummaryFile);
+				seasonalitySummaryModel = seasonalitySummaryTable.getTableModel();
 				
 			}
 			catch (Exception e)
@@ -224,26 +335,38 @@ public class AnalysisProgressDialog extends JDialog implements PropertyChangeLis
 				e.printStackTrace();
 			}
 			
-			// Run Intervals analysis
-			setProgress(5);
-			lblInfo.setText("Calculating intervals...");
+			setStageProgress(SEASONALITY, 5);
+		}
+		
+		/**
+		 * Run intervals analysis. Accounts for 15 units of the progress bar.
+		 * 
+		 * @param array
+		 */
+		private void runIntervals(FHFile[] array) {
+		
 			try
 			{
-				FHInterval fhint = new FHInterval(array, App.prefs.getAnalysisTypePref(PrefKey.INTERVALS_ANALYSIS_TYPE,
-						AnalysisType.COMPOSITE), App.prefs.getIntPref(PrefKey.RANGE_FIRST_YEAR, 0), App.prefs.getIntPref(
-						PrefKey.RANGE_LAST_YEAR, 0), App.prefs.getFireFilterTypePref(PrefKey.COMPOSITE_FILTER_TYPE,
-						FireFilterType.NUMBER_OF_EVENTS), (double) App.prefs.getIntPref(PrefKey.COMPOSITE_FILTER_VALUE, 1),
-						App.prefs.getBooleanPref(PrefKey.INTERVALS_INCLUDE_OTHER_INJURIES, false), App.prefs.getEventTypePref(
-								PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_EVENT), App.prefs.getDoublePref(
-								PrefKey.INTERVALS_ALPHA_LEVEL, 0.125), App.prefs.getSampleDepthFilterTypePref(
-								PrefKey.COMPOSITE_SAMPLE_DEPTH_TYPE, SampleDepthFilterType.MIN_NUM_SAMPLES), App.prefs.getDoublePref(
-								PrefKey.COMPOSITE_MIN_SAMPLES, 1.0));
-				setProgress(10);
-				intervalsExceedenceFile = fhint.getExceedence();
-				intervalsExceedenceModel = getTableModelFromCSV(intervalsExceedenceFile);
-				setProgress(15);
-				intervalsSummaryFile = fhint.getSummary();
-				intervalsSummaryModel = getTableModelFromCSV(intervalsSummaryFile);
+				String key = AnalysisResultCache.getKey("FHInterval", array, parameters.getLabelType(), parameters.getAnalysisType(),
+						parameters.getFirstYear(), parameters.getLastYear(), parameters.getFilterType(), parameters.getFilterValue(),
+						parameters.isIncludeIncomplete(), parameters.getEventType(), parameters.getAlphaLevel(),
+						parameters.getSampleDepthType(), parameters.getSampleDepthValue());
+				FHInterval fhint = AnalysisResultCache.get(key, FHInterval.class);
+				
+				if (fhint == null)
+				{
+					fhint = new FHInterval(array, parameters.getAnalysisType(), parameters.getFirstYear(), parameters.getLastYear(),
+							parameters.getFilterType(), parameters.getFilterValue(), parameters.isIncludeIncomplete(),
+							parameters.getEventType(), parameters.getAlphaLevel(), parameters.getSampleDepthType(),
+							parameters.getSampleDepthValue(), parameters.getLabelType());
+					AnalysisResultCache.put(key, fhint);
+				}
+				setStageProgress(INTERVALS, 5);
+				intervalsExceedenceTable = fhint.getExceedenceTable();
+				intervalsExceedenceModel = intervalsExceedenceTable.getTableModel();
+				setStageProgress(INTERVALS, 10);
+				intervalsSummaryTable = fhint.getSummaryTable();
+				intervalsSummaryModel = intervalsSummaryTable.getTableModel();
 				
 			}
 			catch (Exception e)
@@ -255,94 +378,114 @@ public class AnalysisProgressDialog extends JDialog implements PropertyChangeLis
 				
 			}
 			
-			// Run Matrix analysis
-			setProgress(20);
-			
-			// But only if there is more than 1 input files.
-			// if (array.length > 1)
-			// {
-			
-			lblInfo.setText("Calculating matrices...");
+			setStageProgress(INTERVALS, 15);
+		}
+		
+		/**
+		 * Run matrix analysis. Accounts for 55 units of the progress bar.
+		 * 
+		 * @param array
+		 */
+		private void runMatrix(FHFile[] array) {
+		
 			try
 			{
-				fhm = new FHMatrix(array, App.prefs.getIntPref(PrefKey.RANGE_FIRST_YEAR, 0), App.prefs.getIntPref(PrefKey.RANGE_LAST_YEAR,
-						0), App.prefs.getFireFilterTypePref(PrefKey.COMPOSITE_FILTER_TYPE, FireFilterType.NUMBER_OF_EVENTS),
-						App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_EVENT),
-						(double) App.prefs.getIntPref(PrefKey.COMPOSITE_FILTER_VALUE, 1), App.prefs.getIntPref(
-								PrefKey.RANGE_OVERLAP_REQUIRED, 25), NoDataLabel.MINUS_99);
+				String key = AnalysisResultCache.getKey("FHMatrix", array, parameters.getLabelType(), parameters.getFirstYear(),
+						parameters.getLastYear(), parameters.getFilterType(), parameters.getEventType(), parameters.getFilterValue(),
+						parameters.getOverlapRequired(), NoDataLabel.MINUS_99);
+				fhm = AnalysisResultCache.get(key, FHMatrix.class);
 				
-				binSumFile = fhm.getFileSumResult();
-				binSumModel = getTableModelFromCSV(binSumFile);
-				setProgress(25);
+				if (fhm == null)
+				{
+					fhm = new FHMatrix(array, parameters.getFirstYear(), parameters.getLastYear(), parameters.getFilterType(),
+							parameters.getEventType(), parameters.getFilterValue(), parameters.getOverlapRequired(), NoDataLabel.MINUS_99,
+							parameters.getLabelType());
+					AnalysisResultCache.put(key, fhm);
+				}
+				
+				binSumTable = fhm.getSumResultTable();
+				binSumModel = binSumTable.getTableModel();
+				setStageProgress(MATRIX, 5);
 				
 				if (array.length > 1)
 				{
 					// These are only relevant with more than one input file
 					
-					bin00File = fhm.getFileMatrix00Result();
-					bin00Model = getTableModelFromCSV(bin00File);
-					setProgress(30);
+					bin00Table = fhm.getMatrix00ResultTable();
+					bin00Model = bin00Table.getTableModel();
+					setStageProgress(MATRIX, 10);
 					
-					bin10File = fhm.getFileMatrix10Result();
-					bin10Model = getTableModelFromCSV(bin10File);
-					setProgress(35);
+					bin10Table = fhm.getMatrix10ResultTable();
+					bin10Model = bin10Table.getTableModel();
+					setStageProgress(MATRIX, 15);
 					
-					bin01File = fhm.getFileMatrix01Result();
-					bin01Model = getTableModelFromCSV(bin01File);
-					setProgress(40);
+					bin01Table = fhm.getMatrix01ResultTable();
+					bin01Model = bin01Table.getTableModel();
+					setStageProgress(MATRIX, 20);
 					
-					bin11File = fhm.getFileMatrix11Result();
-					bin11Model = getTableModelFromCSV(bin11File);
-					setProgress(45);
+					bin11Table = fhm.getMatrix11ResultTable();
+					bin11Model = bin11Table.getTableModel();
+					setStageProgress(MATRIX, 25);
 					
-					fileDSCOH = fhm.getFileDSCOHResult();
-					DSCOHModel = getTableModelFromCSV(fileDSCOH);
-					setProgress(50);
+					DSCOHTable = fhm.getDSCOHResultTable();
+					DSCOHModel = DSCOHTable.getTableModel();
+					setStageProgress(MATRIX, 30);
 					
-					fileDSJAC = fhm.getFileDSJACResult();
-					DSJACModel = getTableModelFromCSV(fileDSJAC);
-					setProgress(55);
+					DSJACTable = fhm.getDSJACResultTable();
+					DSJACModel = DSJACTable.getTableModel();
+					setStageProgress(MATRIX, 35);
 					
-					fileSCOH = fhm.getFileSCOHResult();
-					SCOHModel = getTableModelFromCSV(fileSCOH);
-					setProgress(60);
+					SCOHTable = fhm.getSCOHResultTable();
+					SCOHModel = SCOHTable.getTableModel();
+					setStageProgress(MATRIX, 40);
 					
-					fileSJAC = fhm.getFileSJACResult();
-					SJACModel = getTableModelFromCSV(fileSJAC);
-					setProgress(65);
+					SJACTable = fhm.getSJACResultTable();
+					SJACModel = SJACTable.getTableModel();
+					setStageProgress(MATRIX, 45);
 				}
 				
-				fileSite = fhm.getFileSiteResult();
-				SiteModel = getTableModelFromCSV(fileSite);
-				setProgress(70);
+				siteTable = fhm.getSiteResultTable();
+				SiteModel = siteTable.getTableModel();
+				setStageProgress(MATRIX, 50);
 				
-				fileNTP = fhm.getFileNTPResult();
-				NTPModel = getTableModelFromCSV(fileNTP);
-				setProgress(75);
+				NTPTable = fhm.getNTPResultTable();
+				NTPModel = NTPTable.getTableModel();
+				setStageProgress(MATRIX, 53);
 				
-				fileTree = fhm.getTreeSummaryFile();
-				TreeModel = getTableModelFromCSV(fileTree);
-				setProgress(80);
+				treeTable = fhm.getTreeSummaryTable();
+				TreeModel = treeTable.getTableModel();
+				setStageProgress(MATRIX, 55);
 				
 			}
 			catch (Exception e)
 			{
+				if (isCancelled())
+				{
+					log.debug("Matrix analysis cancelled");
+					return;
+				}
 				log.error("Error caught when running FHMatrix");
 				JOptionPane.showMessageDialog(App.mainFrame, "Error running matrix analysis.  Please check logs and inform developers",
 						"Error", JOptionPane.ERROR_MESSAGE);
 				e.printStackTrace();
 			}
-			// }
-			setProgress(100);
 			
-			// Run summary analysis
-			lblInfo.setText("Calculating summary...");
+			setStageProgress(MATRIX, 55);
+		}
+		
+		/**
+		 * Run summary analysis. Accounts for 25 units of the progress bar.
+		 * 
+		 * @param array
+		 */
+		private void runSummary(FHFile[] array) {
+		
 			try
 			{
-				FHSummary fhsum = new FHSummary(array);
+				FHSummary fhsum = new FHSummary(array, parameters.getEventType());
 				
-				generalFilesSummaryFile = fhsum.getFilesSummaryAsCSVFile();
-				generalFilesSummaryModel = getTableModelFromCSV(generalFilesSummaryFile);
+				generalFilesSummaryTable = fhsum.getFilesSummaryAsTable();
+				generalFilesSummaryModel = generalFilesSummaryTable.getTableModel();
 				
 			}
 			catch (Exception e)
@@ -353,10 +496,8 @@ public class AnalysisProgressDialog extends JDialog implements PropertyChangeLis
 						"Error", JOptionPane.ERROR_MESSAGE);
 				
 			}
-			setProgress(110);
 			
-			lblInfo.setText("Done...");
-			return null;
+			setStageProgress(SUMMARY, 25);
 		}
 		
 		/*
@@ -372,61 +513,39 @@ public class AnalysisProgressDialog extends JDialog implements PropertyChangeLis
 		}
 	}
 	
-	private DefaultTableModel getTableModelFromCSV(File f) {
-	
-		FileReader reader;
-		try
-		{
-			
-			reader = new FileReader(f);
-			
-			BufferedReader br = new BufferedReader(reader);
-			DefaultTableModel model = TableUtil.createTableModel(br, null);
-			
-			return model;
-			
-		}
-		catch (FileNotFoundException e)
-		{
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		return null;
-	}
-	
-	public File getSeasonalityFile() {
+	public ResultTable getSeasonalityTable() {
 	
-		return seasonalitySummaryFile;
+		return seasonalitySummaryTable;
 	}
 	
-	public File getIntervalsSummaryFile() {
+	public ResultTable getIntervalsSummaryTable() {
 	
-		return this.intervalsSummaryFile;
+		return this.intervalsSummaryTable;
 	}
 	
-	public File getIntervalsExceedenceFile() {
+	public ResultTable getIntervalsExceedenceTable() {
 	
-		return this.intervalsExceedenceFile;
+		return this.intervalsExceedenceTable;
 	}
 	
-	public File getBin00File() {
+	public ResultTable getBin00Table() {
 	
-		return this.bin00File;
+		return this.bin00Table;
 	}
 	
-	public File getBin10File() {
+	public ResultTable getBin10Table() {
 	
-		return this.bin10File;
+		return this.bin10Table;
 	}
 	
-	public File getBin01File() {
+	public ResultTable getBin01Table() {
 	
-		return this.bin01File;
+		return this.bin01Table;
 	}
 	
-	public File getBin11File() {
+	public ResultTable getBin11Table() {
 	
-		return this.bin11File;
+		return this.bin11Table;
 	}
 	
 	public FHMatrix getFHMatrixClass() {
@@ -434,49 +553,49 @@ public class AnalysisProgressDialog extends JDialog implements PropertyChangeLis
 		return this.fhm;
 	}
 	
-	public File getBinSumFile() {
+	public ResultTable getBinSumTable() {
 	
-		return this.binSumFile;
+		return this.binSumTable;
 	}
 	
-	public File getDSCOHFile() {
+	public ResultTable getDSCOHTable() {
 	
-		return this.fileDSCOH;
+		return this.DSCOHTable;
 	}
 	
-	public File getSCOHFile() {
+	public ResultTable getSCOHTable() {
 	
-		return this.fileSCOH;
+		return this.SCOHTable;
 	}
 	
-	public File getDSJACFile() {
+	public ResultTable getDSJACTable() {
 	
-		return this.fileDSJAC;
+		return this.DSJACTable;
 	}
 	
-	public File getSJACFile() {
+	public ResultTable getSJACTable() {
 	
-		return this.fileSJAC;
+		return this.SJACTable;
 	}
 	
-	public File getSiteSummaryFile() {
+	public ResultTable getSiteSummaryTable() {
 	
-		return this.fileSite;
+		return this.siteTable;
 	}
 	
-	public File getNTPFile() {
+	public ResultTable getNTPTable() {
 	
-		return this.fileNTP;
+		return this.NTPTable;
 	}
 	
-	public File getGeneralSummaryFile() {
+	public ResultTable getGeneralSummaryTable() {
 	
-		return this.generalFilesSummaryFile;
+		return this.generalFilesSummaryTable;
 	}
 	
-	public File getTreeSummaryFile() {
+	public ResultTable getTreeSummaryTable() {
 	
-		return this.fileTree;
+		return this.treeTable;
 	}
 	
 	public DefaultTableModel getSeasonalitySummaryModel() {
@@ -32,6 +32,7 @@ import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Date;
@@ -76,6 +77,7 @@ import org.fhaes.enums.FireFilterType;
 import org.fhaes.filefilter.CSVFileFilter;
 import org.fhaes.model.FHAESCategoryTreeNode;
 import org.fhaes.model.FHAESResultTreeNode;
+import org.fhaes.model.ResultTable;
 import org.fhaes.preferences.App;
 import org.fhaes.preferences.FHAESPreferences.PrefKey;
 import org.fhaes.util.Builder;
@@ -165,22 +167,22 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 	private DefaultTableModel singleEventSummaryModel = null;
 	private FHMatrix fhm;
 	
-	protected File seasonalitySummaryFile = null;
-	protected File intervalsExceedenceFile = null;
-	protected File intervalsSummaryFile = null;
-	protected File bin00File = null;
-	protected File bin10File = null;
-	protected File bin01File = null;
-	protected File bin11File = null;
-	protected File binSumFile = null;
-	protected File DSCOHFile = null;
-	protected File DSJACFile = null;
-	protected File SCOHFile = null;
-	protected File siteSummaryFile = null;
-	protected File SJACFile = null;
-	protected File NTPFile = null;
-	protected File treeSummaryFile = null;
-	protected File generalSummaryFile = null;
+	protected ResultTable seasonalitySummaryTable = null;
+	protected ResultTable intervalsExceedenceTable = null;
+	protected ResultTable intervalsSummaryTable = null;
+	protected ResultTable bin00Table = null;
+	protected ResultTable bin10Table = null;
+	protected ResultTable bin01Table = null;
+	protected ResultTable bin11Table = null;
+	protected ResultTable binSumTable = null;
+	protected ResultTable DSCOHTable = null;
+	protected ResultTable DSJACTable = null;
+	protected ResultTable SCOHTable = null;
+	protected ResultTable siteSummaryTable = null;
+	protected ResultTable SJACTable = null;
+	protected ResultTable NTPTable = null;
+	protected ResultTable treeSummaryTable = null;
+	protected ResultTable generalSummaryTable = null;
 	protected File singleFileSummaryFile = null;
 	protected File singleEventSummaryFile = null;
 	
@@ -652,7 +654,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(SJACFile, new CSVFileFilter());
+				saveFileToDisk(SJACTable, new CSVFileFilter());
 			}
 		});
 		
@@ -664,7 +666,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(SCOHFile, new CSVFileFilter());
+				saveFileToDisk(SCOHTable, new CSVFileFilter());
 			}
 		});
 		
@@ -676,7 +678,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(DSJACFile, new CSVFileFilter());
+				saveFileToDisk(DSJACTable, new CSVFileFilter());
 			}
 		});
 		
@@ -688,7 +690,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(DSCOHFile, new CSVFileFilter());
+				saveFileToDisk(DSCOHTable, new CSVFileFilter());
 			}
 		});
 		
@@ -700,7 +702,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(intervalsSummaryFile, new CSVFileFilter());
+				saveFileToDisk(intervalsSummaryTable, new CSVFileFilter());
 			}
 		});
 		
@@ -712,7 +714,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(intervalsExceedenceFile, new CSVFileFilter());
+				saveFileToDisk(intervalsExceedenceTable, new CSVFileFilter());
 			}
 		});
 		
@@ -724,7 +726,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(seasonalitySummaryFile, new CSVFileFilter());
+				saveFileToDisk(seasonalitySummaryTable, new CSVFileFilter());
 			}
 		});
 		
@@ -736,7 +738,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(bin00File, new CSVFileFilter());
+				saveFileToDisk(bin00Table, new CSVFileFilter());
 			}
 		});
 		
@@ -748,7 +750,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(bin01File, new CSVFileFilter());
+				saveFileToDisk(bin01Table, new CSVFileFilter());
 			}
 		});
 		
@@ -760,7 +762,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(bin10File, new CSVFileFilter());
+				saveFileToDisk(bin10Table, new CSVFileFilter());
 			}
 		});
 		
@@ -772,7 +774,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(bin11File, new CSVFileFilter());
+				saveFileToDisk(bin11Table, new CSVFileFilter());
 			}
 		});
 		
@@ -784,7 +786,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(binSumFile, new CSVFileFilter());
+				saveFileToDisk(binSumTable, new CSVFileFilter());
 			}
 			
 		});
@@ -796,7 +798,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(siteSummaryFile, new CSVFileFilter());
+				saveFileToDisk(siteSummaryTable, new CSVFileFilter());
 			}
 		});
 		itemBinSiteSummary.addAction(new FHAESAction("Export to shapefile", "formatshp.png") {
@@ -819,7 +821,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(treeSummaryFile, new CSVFileFilter());
+				saveFileToDisk(treeSummaryTable, new CSVFileFilter());
 			}
 		});
 		
@@ -831,7 +833,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(NTPFile, new CSVFileFilter());
+				saveFileToDisk(NTPTable, new CSVFileFilter());
 			}
 		});
 		
@@ -843,7 +845,7 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			@Override
 			public void actionPerformed(ActionEvent event) {
 			
-				saveFileToDisk(generalSummaryFile, new CSVFileFilter());
+				saveFileToDisk(generalSummaryTable, new CSVFileFilter());
 			}
 			
 		});
@@ -1076,6 +1078,48 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 		}
 	}
 	
+	/**
+	 * Save a results table to disk as a CSV file, asking the user for a filename. Add the selected FileFilter to the save dialog box.
+	 * 
+	 * @param tableToSave
+	 * @param filter
+	 */
+	private void saveFileToDisk(ResultTable tableToSave, FileFilter filter) {
+	
+		if (tableToSave == null)
+			return;
+		
+		File outfile = IOUtil.getOutputFile(filter);
+		
+		if (outfile == null)
+			return;
+		
+		if (outfile.exists())
+		{
+			Object[] options = { "Overwrite", "No", "Cancel" };
+			int response = JOptionPane.showOptionDialog(App.mainFrame, "This file already exists.  Are you sure you want to overwrite?",
+					"Confirm", JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE, null, // do not use a custom Icon
+					options, // the titles of buttons
+					options[0]); // default button title
+			
+			if (response != JOptionPane.YES_OPTION)
+			{
+				return;
+			}
+			
+		}
+		
+		try
+		{
+			tableToSave.writeCSV(outfile);
+		}
+		catch (IOException e)
+		{
+			JOptionPane.showMessageDialog(App.mainFrame, "Error saving file:\n" + e.getMessage());
+			e.printStackTrace();
+		}
+	}
+	
 	/**
 	 * Simple popup menu class for nodes in the results tree.
 	 */
@@ -1653,22 +1697,22 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 			ZipOutputStream zos = new ZipOutputStream(fos);
 			
 			addToZipFile(getParamsAsFile(), "Parameters.csv", zos);
-			addToZipFile(this.generalSummaryFile, "General summary.csv", zos);
-			addToZipFile(this.intervalsSummaryFile, "Intervals summary.csv", zos);
-			addToZipFile(this.intervalsExceedenceFile, "Intervals exceedence.csv", zos);
-			addToZipFile(this.seasonalitySummaryFile, "Seasonality summary.csv", zos);
-			addToZipFile(this.siteSummaryFile, "Binary site summary.csv", zos);
-			addToZipFile(this.treeSummaryFile, "Binary tree summary.csv", zos);
-			addToZipFile(this.NTPFile, "NTP matrix.csv", zos);
-			addToZipFile(this.bin00File, "Matrix A.csv", zos);
-			addToZipFile(this.bin01File, "Matrix B.csv", zos);
-			addToZipFile(this.bin10File, "Matrix C.csv", zos);
-			addToZipFile(this.bin11File, "Matrix D.csv", zos);
-			addToZipFile(this.binSumFile, "Matrix L.csv", zos);
-			addToZipFile(this.SJACFile, "JACCARD similarity.csv", zos);
-			addToZipFile(this.SCOHFile, "COHEN similarity.csv", zos);
-			addToZipFile(this.DSJACFile, "JACCARD dissimilarity.csv", zos);
-			addToZipFile(this.DSCOHFile, "COHEN dissimilarity.csv", zos);
+			addToZipFile(this.generalSummaryTable, "General summary.csv", zos);
+			addToZipFile(this.intervalsSummaryTable, "Intervals summary.csv", zos);
+			addToZipFile(this.intervalsExceedenceTable, "Intervals exceedence.csv", zos);
+			addToZipFile(this.seasonalitySummaryTable, "Seasonality summary.csv", zos);
+			addToZipFile(this.siteSummaryTable, "Binary site summary.csv", zos);
+			addToZipFile(this.treeSummaryTable, "Binary tree summary.csv", zos);
+			addToZipFile(this.NTPTable, "NTP matrix.csv", zos);
+			addToZipFile(this.bin00Table, "Matrix A.csv", zos);
+			addToZipFile(this.bin01Table, "Matrix B.csv", zos);
+			addToZipFile(this.bin10Table, "Matrix C.csv", zos);
+			addToZipFile(this.bin11Table, "Matrix D.csv", zos);
+			addToZipFile(this.binSumTable, "Matrix L.csv", zos);
+			addToZipFile(this.SJACTable, "JACCARD similarity.csv", zos);
+			addToZipFile(this.SCOHTable, "COHEN similarity.csv", zos);
+			addToZipFile(this.DSJACTable, "JACCARD dissimilarity.csv", zos);
+			addToZipFile(this.DSCOHTable, "COHEN dissimilarity.csv", zos);
 			addToZipFile(this.singleFileSummaryFile, "Single file summary.csv", zos);
 			addToZipFile(this.singleEventSummaryFile, "Single file event summary.csv", zos);
 			
@@ -1720,6 +1764,30 @@ public class AnalysisResultsPanel extends JPanel implements TreeSelectionListene
 		fis.close();
 	}
 	
+	/**
+	 * Add a results table to a zip file as a CSV file
+	 * 
+	 * @param table
+	 * @param filename
+	 * @param zos
+	 * @throws IOException
+	 */
+	public static void addToZipFile(ResultTable table, String filename, ZipOutputStream zos) throws IOException {
+	
+		if (table == null)
+			return;
+		
+		ZipEntry zipEntry = new ZipEntry(filename);
+		zos.putNextEntry(zipEntry);
+		
+		// Don't close the writer as that would close the zip stream too
+		Writer writer = new BufferedWriter(new OutputStreamWriter(zos));
+		table.writeCSV(writer);
+		writer.flush();
+		
+		zos.closeEntry();
+	}
+	
 	/**
 	 * Save the current analyses results to a multi-tabbed Excel file
 	 * 
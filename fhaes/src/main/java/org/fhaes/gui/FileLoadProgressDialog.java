@@ -28,6 +28,12 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.JButton;
 import javax.swing.JDialog;
@@ -40,12 +46,16 @@ import javax.swing.border.LineBorder;
 import org.fhaes.fhfilereader.FHFile;
 import org.fhaes.preferences.App;
 import org.fhaes.preferences.FHAESPreferences.PrefKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import net.miginfocom.swing.MigLayout;
 
 /**
  * FileLoadProgressDialog Class. This is a dialog that shows progress for loading multiple files. The dialog runs in a background thread to
- * ensure the application stays responsive.
+ * ensure the application stays responsive. Files are parsed in parallel by a pool of worker threads, the size of which is set by the
+ * FILE_LOAD_THREAD_COUNT preference (defaulting to the number of available processors). Files are always returned in the order they were
+ * requested.
  * 
  * @author Peter Brewer
  */
@@ -53,6 +63,8 @@ public class FileLoadProgressDialog extends JDialog implements PropertyChangeLis
 	
 	private static final long serialVersionUID = 1L;
 	
+	private static final Logger log = LoggerFactory.getLogger(FileLoadProgressDialog.class);
+	
 	private File[] files;
 	private ArrayList<FHFile> fileList = new ArrayList<FHFile>();
 	private JProgressBar progressBar;
@@ -119,13 +131,32 @@ public class FileLoadProgressDialog extends JDialog implements PropertyChangeLis
 	}
 	
 	/**
-	 * TODO
+	 * Get the files that have been loaded, in the order they were requested. If loading was cancelled this contains the files that had been
+	 * loaded up until that point.
 	 * 
 	 * @return
 	 */
 	public ArrayList<FHFile> getFileList() {
 		
-		return fileList;
+		synchronized (fileList)
+		{
+			return new ArrayList<FHFile>(fileList);
+		}
+	}
+	
+	/**
+	 * Get the number of threads to use when loading files.
+	 * 
+	 * @return
+	 */
+	private static int getThreadCount() {
+		
+		int threads = App.prefs.getIntPref(PrefKey.FILE_LOAD_THREAD_COUNT, 0);
+		
+		if (threads < 1)
+			threads = Runtime.getRuntime().availableProcessors();
+			
+		return threads;
 	}
 	
 	class Task extends SwingWorker<Void, Void> {
@@ -141,15 +172,75 @@ public class FileLoadProgressDialog extends JDialog implements PropertyChangeLis
 			
 			setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 			
-			for (int i = 0; i < files.length; i++)
+			int threads = Math.min(getThreadCount(), files.length);
+			log.debug("Loading " + files.length + " files using " + threads + " threads");
+			
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			CompletionService<Integer> completionService = new ExecutorCompletionService<Integer>(executor);
+			final FHFile[] loaded = new FHFile[files.length];
+			boolean[] finished = new boolean[files.length];
+			int nextToAdd = 0;
+			
+			try
 			{
+				for (int i = 0; i < files.length; i++)
+				{
+					final int index = i;
+					completionService.submit(new Callable<Integer>() {
+						
+						@Override
+						public Integer call() throws Exception {
+							
+							if (isCancelled())
+								return index;
+								
+							try
+							{
+								loaded[index] = new FHFile(files[index]);
+							}
+							catch (Exception e)
+							{
+								log.error("Failed to load file " + files[index].getName());
+								e.printStackTrace();
+							}
+							return index;
+						}
+					});
+				}
 				
-				FHFile fhf = new FHFile(files[i]);
-				fileList.add(fhf);
-				Double prg = (double) (((double) i / (double) files.length) * 100);
-				
-				setProgress(prg.intValue());
+				for (int i = 0; i < files.length; i++)
+				{
+					finished[completionService.take().get()] = true;
+					
+					// Add the files to the list in the original order, as soon as all earlier files are done
+					synchronized (fileList)
+					{
+						while (nextToAdd < files.length && finished[nextToAdd])
+						{
+							if (loaded[nextToAdd] != null)
+								fileList.add(loaded[nextToAdd]);
+							nextToAdd++;
+						}
+					}
+					
+					Double prg = (double) (((double) (i + 1) / (double) files.length) * 100);
+					setProgress(prg.intValue());
+				}
+			}
+			catch (InterruptedException e)
+			{
+				log.debug("File loading cancelled");
 			}
+			catch (ExecutionException e)
+			{
+				log.error("File loading aborted");
+				e.printStackTrace();
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+			
 			// Set lastPathVisited
 			App.prefs.setPref(PrefKey.PREF_LAST_READ_FOLDER, files[0].getParent());
 			
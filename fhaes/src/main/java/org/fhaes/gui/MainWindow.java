@@ -77,9 +77,9 @@ import org.fhaes.enums.FeedbackMessageType;
 import org.fhaes.exceptions.CompositeFileException;
 import org.fhaes.feedback.FeedbackMessagePanel;
 import org.fhaes.feedback.FeedbackPreferenceManager;
-import org.fhaes.feedback.FeedbackPreferenceManager.FeedbackDictionary;
 import org.fhaes.fhfilereader.FHCategoryReader;
 import org.fhaes.fhfilereader.FHFile;
+import org.fhaes.fhfilereader.FHFileParseCache;
 import org.fhaes.fhrecorder.controller.FileController;
 import org.fhaes.fhrecorder.view.FireHistoryRecorder;
 import org.fhaes.fhsamplesize.view.FHSampleSize;
@@ -159,6 +159,7 @@ public class MainWindow implements PrefsListener {
 	private ReportPanel reportPanel;
 	private FileListModel fileListModel;
 	private FileDropTargetListener fhxFileList;
+	private FHFileListCellRenderer fhxFileListCellRenderer;
 	private FeedbackMessagePanel feedbackMessagePanel;
 	
 	// Declare FHAES actions
@@ -193,6 +194,8 @@ public class MainWindow implements PrefsListener {
 	private FHAESAction actionShowQuickLaunch;
 	protected FHAESAction actionPrefChangeShowQuickLaunch;
 	private FHAESAction actionPrefChangeAutoLoadCategories;
+	private FHAESAction actionPrefChangeParseCache;
+	private FHAESAction actionClearParseCache;
 	private FHAESAction actionResetAllFeedbackMessagePrefs;
 	public static ChartActions chartActions;
 	
@@ -604,42 +607,13 @@ public class MainWindow implements PrefsListener {
 			
 			if (outputDirectory != null)
 			{
-				try
-				{
-					for (int i = 0; i < fileListModel.getSize(); i++)
-					{
-						reportPanel.setFile(fileListModel.getElementAt(i));
-						reportPanel.setFocusToChartTab();
-						
-						String fileNameWithoutExtension = fileListModel.getElementAt(i).getFileNameWithoutExtension();
-						File outputFile = new File(outputDirectory + File.separator + fileNameWithoutExtension);
-						
-						if (fc.getFileFilter().getDescription().equals(pdff.getDescription()))
-						{
-							log.debug("Adding pdf extension to output file name");
-							outputFile = new File(outputFile.getAbsolutePath() + ".pdf");
-						}
-						else if (fc.getFileFilter().getDescription().equals(pngf.getDescription()))
-						{
-							log.debug("Adding png extension to output file name");
-							outputFile = new File(outputFile.getAbsolutePath() + ".png");
-						}
-						else if (fc.getFileFilter().getDescription().equals(svgf.getDescription()))
-						{
-							log.debug("Adding svg extension to output file name");
-							outputFile = new File(outputFile.getAbsolutePath() + ".svg");
-						}
-						
-						reportPanel.panelChart.doBulkExport(fc.getFileFilter(), pdff, pngf, svgf, outputFile);
-					}
-					
-					MainWindow.getInstance().getFeedbackMessagePanel().updateFeedbackMessage(FeedbackMessageType.INFO,
-							FeedbackDisplayProtocol.AUTO_HIDE, FeedbackDictionary.NEOFHCHART_BULK_EXPORT_MESSAGE.toString());
-				}
-				catch (Exception ex)
+				ArrayList<FHFile> files = new ArrayList<FHFile>();
+				for (int i = 0; i < fileListModel.getSize(); i++)
 				{
-					ex.printStackTrace();
+					files.add(fileListModel.getElementAt(i));
 				}
+				
+				reportPanel.panelChart.doBulkExport(fc.getFileFilter(), pdff, pngf, svgf, files, new File(outputDirectory));
 			}
 		}
 	}
@@ -1095,29 +1069,32 @@ public class MainWindow implements PrefsListener {
 	@Override
 	public void prefChanged(PrefsEvent e) {
 		
-		log.debug("Preference change for key " + e.getPref() + " picked up by MainWindow");
-		boolean doSetFileOperation = true;
+		log.debug("Preference change for keys " + e.getPrefs() + " picked up by MainWindow");
 		
-		if (e.getPref().equals(PrefKey.EVENT_TYPE_TO_PROCESS))
+		if (e.contains(PrefKey.EVENT_TYPE_TO_PROCESS))
 		{
 			// Repaint file list if event type has changed as icons will need updating
 			repaintFileList();
 		}
-		else if (e.getPref().equals(PrefKey.RECENT_DOCUMENT_LIST))
+		
+		if (e.contains(PrefKey.RECENT_DOCUMENT_LIST))
 		{
 			// Update the document list menu
 			updateRecentDocsMenu();
-			
-			// Also mark the setFile operation to false since it does not need to be performed
-			doSetFileOperation = false;
 		}
-		else if (e.getPref().equals(PrefKey.PREF_LAST_READ_FOLDER) || e.getPref().equals(PrefKey.SCREEN_BOUNDS_X)
-				|| e.getPref().equals(PrefKey.SCREEN_BOUNDS_Y) || e.getPref().equals(PrefKey.SCREEN_WIDTH)
-				|| e.getPref().equals(PrefKey.SCREEN_HEIGHT) || e.getPref().equals(PrefKey.SCREEN_MAXIMIZED)
-				|| e.getPref().equals(PrefKey.COMPOSITE_SAMPLE_DEPTH_TYPE))
+		
+		// The setFile operation only needs to be performed if at least one of the changes affects the reports
+		boolean doSetFileOperation = false;
+		for (PrefKey key : e.getPrefs())
 		{
-			// Handle these prefKey change by marking the setFile operation to false
-			doSetFileOperation = false;
+			if (!key.equals(PrefKey.RECENT_DOCUMENT_LIST) && !key.equals(PrefKey.PREF_LAST_READ_FOLDER)
+					&& !key.equals(PrefKey.SCREEN_BOUNDS_X) && !key.equals(PrefKey.SCREEN_BOUNDS_Y) && !key.equals(PrefKey.SCREEN_WIDTH)
+					&& !key.equals(PrefKey.SCREEN_HEIGHT) && !key.equals(PrefKey.SCREEN_MAXIMIZED)
+					&& !key.equals(PrefKey.COMPOSITE_SAMPLE_DEPTH_TYPE))
+			{
+				doSetFileOperation = true;
+				break;
+			}
 		}
 		
 		if (this.fhxFileList.getSelectedIndex() != INDEX_REPRESENTING_NO_FILES && doSetFileOperation)
@@ -1166,6 +1143,12 @@ public class MainWindow implements PrefsListener {
 		
 		log.debug("Repainting file list");
 		
+		// The event type may have changed so make sure the renderer is using the current value
+		if (fhxFileListCellRenderer != null)
+		{
+			fhxFileListCellRenderer.refreshPreferences();
+		}
+		
 		this.fhxFileList.repaint(this.fhxFileList.getCellBounds(0, this.fileListModel.getSize() - 1));
 	}
 	
@@ -1475,7 +1458,8 @@ public class MainWindow implements PrefsListener {
 		fhxFileList = new FileDropTargetListener();
 		fhxFileList.setModel(fileListModel);
 		fhxFileList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
-		fhxFileList.setCellRenderer(new FHFileListCellRenderer());
+		fhxFileListCellRenderer = new FHFileListCellRenderer();
+		fhxFileList.setCellRenderer(fhxFileListCellRenderer);
 		fhxFileList.addListSelectionListener(new ListSelectionListener() {
 			
 			@Override
@@ -2370,6 +2354,30 @@ public class MainWindow implements PrefsListener {
 		};
 		actionPrefChangeAutoLoadCategories.putValue(Action.SELECTED_KEY, App.prefs.getBooleanPref(PrefKey.AUTO_LOAD_CATEGORIES, true));
 		
+		this.actionPrefChangeParseCache = new FHAESAction("Cache file checking results", "gear.png") {
+			
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public void actionPerformed(ActionEvent event) {
+				
+				boolean val = (Boolean) getValue(Action.SELECTED_KEY);
+				App.prefs.setBooleanPref(PrefKey.PARSE_CACHE_ENABLED, val);
+			}
+		};
+		actionPrefChangeParseCache.putValue(Action.SELECTED_KEY, App.prefs.getBooleanPref(PrefKey.PARSE_CACHE_ENABLED, true));
+		
+		this.actionClearParseCache = new FHAESAction("Clear file checking cache", "edit_clear.png") {
+			
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public void actionPerformed(ActionEvent event) {
+				
+				FHFileParseCache.clear();
+			}
+		};
+		
 		this.actionResetAllFeedbackMessagePrefs = new FHAESAction("Reset all feedback message preferences", "reset.png") {
 			
 			private static final long serialVersionUID = 1L;
@@ -2560,6 +2568,8 @@ public class MainWindow implements PrefsListener {
 		
 		mnPreferences.add(new FHAESCheckBoxMenuItem(actionPrefChangeShowQuickLaunch));
 		mnPreferences.add(new FHAESCheckBoxMenuItem(actionPrefChangeAutoLoadCategories));
+		mnPreferences.add(new FHAESCheckBoxMenuItem(actionPrefChangeParseCache));
+		mnPreferences.add(new FHAESMenuItem(actionClearParseCache));
 		mnPreferences.add(new FHAESMenuItem(actionSetCharsetPrefs));
 		mnPreferences.addSeparator();
 		mnPreferences.add(new FHAESMenuItem(actionResetAllFeedbackMessagePrefs));
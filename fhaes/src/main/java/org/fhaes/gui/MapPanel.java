@@ -36,8 +36,11 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import org.fhaes.components.JToolBarButton;
+import org.fhaes.enums.AnalysisLabelType;
 import org.fhaes.fhfilereader.FHFile;
 import org.fhaes.model.FHFileGroup;
+import org.fhaes.preferences.App;
+import org.fhaes.preferences.FHAESPreferences.PrefKey;
 import org.fhaes.util.ColorPalette;
 import org.fhaes.util.FHAESMapMarker;
 import org.fhaes.util.Platform;
@@ -118,6 +121,7 @@ public class MapPanel extends JPanel implements JMapViewerEventListener {
 			return;
 			
 		ColorPalette palette = new ColorPalette();
+		AnalysisLabelType labelType = App.prefs.getAnalysisLabelTypePref(PrefKey.ANALYSIS_LABEL_TYPE, AnalysisLabelType.INPUT_FILENAME);
 		
 		for (FHFileGroup group : groups)
 		{
@@ -126,7 +130,7 @@ public class MapPanel extends JPanel implements JMapViewerEventListener {
 			{
 				Double lat = file.getFirstLatitudeDbl();
 				Double lon = file.getFirstLongitudeDbl();
-				String label = group.getName() + " - " + file.getLabel();
+				String label = group.getName() + " - " + file.getLabel(labelType);
 				
 				if (lat != null && lon != null)
 				{
@@ -148,11 +152,14 @@ public class MapPanel extends JPanel implements JMapViewerEventListener {
 		int failedParseCount = 0;
 		if (files != null)
 		{
+			AnalysisLabelType labelType = App.prefs.getAnalysisLabelTypePref(PrefKey.ANALYSIS_LABEL_TYPE,
+					AnalysisLabelType.INPUT_FILENAME);
+			
 			for (FHFile file : files)
 			{
 				Double lat = file.getFirstLatitudeDbl();
 				Double lon = file.getFirstLongitudeDbl();
-				String label = file.getLabel();
+				String label = file.getLabel(labelType);
 				
 				if (lat != null && lon != null)
 				{
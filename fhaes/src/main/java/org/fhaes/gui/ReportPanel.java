@@ -40,6 +40,7 @@ import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultHighlighter;
 import javax.swing.text.DefaultHighlighter.DefaultHighlightPainter;
 
+import org.fhaes.analysis.AnalysisParameters;
 import org.fhaes.analysis.FHDescriptiveStats;
 import org.fhaes.enums.EventTypeToProcess;
 import org.fhaes.fhfilereader.FHFile;
@@ -95,6 +96,7 @@ public class ReportPanel extends JPanel implements PrefsListener {
 	// Declare local variables
 	private ArrayList<FHFile> fhxFiles;
 	private FHFile fhxFile;
+	private AnalysisParameters analysisParameters;
 	
 	/**
 	 * Create the panel.
@@ -238,15 +240,15 @@ public class ReportPanel extends JPanel implements PrefsListener {
 		{
 			// Only run the descriptive stats if the other analyses are available
 			// This is necessary because we need to make sure the user has specified what EventTypeToProcess
-			if (panelResults.areAnalysesRunAndCurrent())
+			if (panelResults.areAnalysesRunAndCurrent() && analysisParameters != null)
 			{
 				log.debug("Populating descriptive stats");
-				panelResults.setSingleFileSummaryModel(FHDescriptiveStats.getSingleFileSummaryTableModel(fhxFile));
-				panelResults.singleFileSummaryFile = FHDescriptiveStats.getSingleFileSummaryAsFile(fhxFile, null);
-				panelResults.setSingleEventSummaryModel(FHDescriptiveStats.getEventSummaryTableModel(fhxFile,
-						App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_AND_INJURY_EVENT)));
-				panelResults.singleEventSummaryFile = FHDescriptiveStats.getEventSummaryAsFile(fhxFile, null,
-						App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_AND_INJURY_EVENT));
+				// Use the same event type as the analyses that are being shown
+				EventTypeToProcess eventType = analysisParameters.getEventType();
+				panelResults.setSingleFileSummaryModel(FHDescriptiveStats.getSingleFileSummaryTableModel(fhxFile, eventType));
+				panelResults.singleFileSummaryFile = FHDescriptiveStats.getSingleFileSummaryAsFile(fhxFile, null, eventType);
+				panelResults.setSingleEventSummaryModel(FHDescriptiveStats.getEventSummaryTableModel(fhxFile, eventType));
+				panelResults.singleEventSummaryFile = FHDescriptiveStats.getEventSummaryAsFile(fhxFile, null, eventType);
 			}
 			
 		}
@@ -506,6 +508,7 @@ public class ReportPanel extends JPanel implements PrefsListener {
 		 */
 		
 		AnalysisProgressDialog dialog = new AnalysisProgressDialog(tabbedPane, fhxFiles);
+		analysisParameters = dialog.getParameters();
 		panelResults.setSeasonalityModel(dialog.getSeasonalitySummaryModel());
 		panelResults.setIntervalsSummaryModel(dialog.getIntervalsSummaryModel());
 		panelResults.setIntervalsExceedenceModel(dialog.getIntervalsExceedenceModel());
@@ -523,36 +526,27 @@ public class ReportPanel extends JPanel implements PrefsListener {
 		panelResults.setNTPModel(dialog.getNTPModel());
 		panelResults.setGeneralSummaryModel(dialog.getGeneralSummaryModel());
 		
-		panelResults.seasonalitySummaryFile = dialog.getSeasonalityFile();
-		panelResults.intervalsSummaryFile = dialog.getIntervalsSummaryFile();
-		panelResults.intervalsExceedenceFile = dialog.getIntervalsExceedenceFile();
-		panelResults.bin00File = dialog.getBin00File();
-		panelResults.bin01File = dialog.getBin01File();
-		panelResults.bin10File = dialog.getBin10File();
-		panelResults.bin11File = dialog.getBin11File();
-		panelResults.binSumFile = dialog.getBinSumFile();
-		panelResults.SCOHFile = dialog.getSCOHFile();
-		panelResults.DSCOHFile = dialog.getDSCOHFile();
-		panelResults.SJACFile = dialog.getSJACFile();
-		panelResults.DSJACFile = dialog.getDSJACFile();
-		panelResults.treeSummaryFile = dialog.getTreeSummaryFile();
-		panelResults.siteSummaryFile = dialog.getSiteSummaryFile();
-		panelResults.NTPFile = dialog.getNTPFile();
-		panelResults.generalSummaryFile = dialog.getGeneralSummaryFile();
+		panelResults.seasonalitySummaryTable = dialog.getSeasonalityTable();
+		panelResults.intervalsSummaryTable = dialog.getIntervalsSummaryTable();
+		panelResults.intervalsExceedenceTable = dialog.getIntervalsExceedenceTable();
+		panelResults.bin00Table = dialog.getBin00Table();
+		panelResults.bin01Table = dialog.getBin01Table();
+		panelResults.bin10Table = dialog.getBin10Table();
+		panelResults.bin11Table = dialog.getBin11Table();
+		panelResults.binSumTable = dialog.getBinSumTable();
+		panelResults.SCOHTable = dialog.getSCOHTable();
+		panelResults.DSCOHTable = dialog.getDSCOHTable();
+		panelResults.SJACTable = dialog.getSJACTable();
+		panelResults.DSJACTable = dialog.getDSJACTable();
+		panelResults.treeSummaryTable = dialog.getTreeSummaryTable();
+		panelResults.siteSummaryTable = dialog.getSiteSummaryTable();
+		panelResults.NTPTable = dialog.getNTPTable();
+		panelResults.generalSummaryTable = dialog.getGeneralSummaryTable();
 		
 		panelResults.setFHMatrix(dialog.getFHMatrixClass());
 		
 		this.populateSingleFileReports();
 		
-		try
-		{
-			log.debug("NTPFile " + dialog.getNTPFile().getAbsoluteFile());
-		}
-		catch (Exception e)
-		{
-			log.error("failed to get NTP");
-		}
-		
 		panelResults.setNTPModel(dialog.getNTPModel());
 		panelResults.setSiteSummaryModel(dialog.getSiteModel());
 		
@@ -568,17 +562,25 @@ public class ReportPanel extends JPanel implements PrefsListener {
 	public void prefChanged(PrefsEvent e) {
 	
 		log.debug("Pref change picked up by ReportPanel");
-		PrefKey key = e.getPref();
-		
-		String keystring = key.name();
 		
-		log.debug("Pref keystring : " + keystring);
-		
-		if (keystring.startsWith("SEASONALITY") || keystring.startsWith("MATRIX") || keystring.startsWith("INTERVAL")
-				|| keystring.startsWith("RANGE") || keystring.startsWith("ANALYSIS_LABEL_TYPE"))
+		for (PrefKey key : e.getPrefs())
 		{
-			log.debug("ReportPanel redoing analyses as preferences have changed");
-			// populateMultiFileReports(false);
+			String keystring = key.name();
+			
+			log.debug("Pref keystring : " + keystring);
+			
+			if (keystring.startsWith("SEASONALITY") || keystring.startsWith("MATRIX") || keystring.startsWith("INTERVAL")
+					|| keystring.startsWith("RANGE") || keystring.startsWith("ANALYSIS_LABEL_TYPE"))
+			{
+				// The results being shown no longer match the preferences so mark them as stale. They are recalculated when the user next
+				// runs the analyses, when combinations of files and parameters seen before are returned from the AnalysisResultCache.
+				if (panelResults.areAnalysesRunAndCurrent() && analysisParameters != null)
+				{
+					log.debug("ReportPanel marking analyses as stale as preferences have changed");
+					panelResults.showRunAnalysisTab();
+				}
+				return;
+			}
 		}
 	}
 	
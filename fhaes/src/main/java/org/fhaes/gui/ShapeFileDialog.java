@@ -22,13 +22,9 @@ import java.awt.Component;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.Serializable;
-import java.net.MalformedURLException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -53,26 +49,22 @@ import javax.swing.filechooser.FileFilter;
 
 import net.miginfocom.swing.MigLayout;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.codehaus.plexus.util.FileUtils;
 import org.fhaes.analysis.FHMatrix;
 import org.fhaes.enums.FeedbackDisplayProtocol;
 import org.fhaes.enums.FeedbackMessageType;
 import org.fhaes.filefilter.SHPFileFilter;
+import org.fhaes.model.ResultTable;
 import org.fhaes.model.SortedListModel;
 import org.fhaes.preferences.App;
 import org.fhaes.preferences.FHAESPreferences.PrefKey;
 import org.fhaes.preferences.wrappers.RadioButtonWrapper;
 import org.fhaes.util.Builder;
 import org.geotools.data.DefaultTransaction;
+import org.geotools.data.FeatureWriter;
 import org.geotools.data.Transaction;
-import org.geotools.data.collection.ListFeatureCollection;
 import org.geotools.data.shapefile.ShapefileDataStore;
 import org.geotools.data.shapefile.ShapefileDataStoreFactory;
-import org.geotools.data.simple.SimpleFeatureCollection;
-import org.geotools.data.simple.SimpleFeatureSource;
-import org.geotools.data.simple.SimpleFeatureStore;
-import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.geometry.jts.JTSFactoryFinder;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
@@ -429,15 +421,10 @@ public class ShapeFileDialog extends JDialog implements ActionListener, Document
 					doProcessingStyle2();
 				}
 			}
-			catch (MalformedURLException e)
-			{
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
 			catch (IOException e)
 			{
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+				log.error("Unable to export shapefile", e);
+				JOptionPane.showMessageDialog(this, "Unable to export shapefile:\n" + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
 			}
 			dispose();
 		}
@@ -469,305 +456,360 @@ public class ShapeFileDialog extends JDialog implements ActionListener, Document
 		}
 	}
 	
+	/**
+	 * Export a shapefile with one feature for each site, with an attribute for each of the selected years.
+	 * 
+	 * @throws IOException
+	 */
 	@SuppressWarnings("unchecked")
 	private void doProcessing() throws IOException {
 	
-		/*
-		 * We use the DataUtilities class to create a FeatureType that will describe the data in our shapefile.
-		 * 
-		 * See also the createFeatureType method below for another, more flexible approach.
-		 */
-		final SimpleFeatureType TYPE = createFeatureType(selectedYearsModel.getAllElements());
-		
-		List<SimpleFeature> features = new ArrayList<SimpleFeature>();
+		writeSiteShapefile(fhm.getSiteResultTable(), selectedYearsModel.getAllElements(), new File(txtFilename.getText()));
+	}
+	
+	/**
+	 * Export a shapefile with a feature for each selected year at each site.
+	 * 
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	private void doProcessingStyle2() throws IOException {
+	
+		writeSiteYearShapefile(fhm.getSiteResultTable(), selectedYearsModel.getAllElements(), getOutputFile());
+	}
+	
+	/**
+	 * Write a shapefile with one feature for each site in the site matrix, with an attribute for each of the specified years. The rows of
+	 * the site matrix are read once, keeping just the values for the specified years, and the features are then streamed to the shapefile.
+	 * 
+	 * @param siteTable - site matrix from FHMatrix with the site names, longitudes and latitudes followed by a row for each year
+	 * @param years - years to include, in the order of their attributes
+	 * @param file - shapefile to create
+	 * @throws IOException if the shapefile could not be written or a row of the site matrix is missing a value or has a value that is not
+	 *             a number
+	 */
+	static void writeSiteShapefile(ResultTable siteTable, List<Integer> years, File file) throws IOException {
+	
+		final SimpleFeatureType TYPE = createFeatureType(years);
+		Map<Integer, Integer> yearsToInclude = getYearsToInclude(years);
 		
 		/*
 		 * GeometryFactory will be used to create the geometry attribute of each feature (a Point object for the location)
 		 */
 		GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory(null);
 		
-		BufferedReader reader = null;
-		try
+		String[] names = null;
+		double[] longitudes = null;
+		double[] latitudes = null;
+		Integer[][] values = null;
+		
+		int linecount = -1;
+		for (int row = 0; row < siteTable.getRowCount(); row++)
 		{
-			reader = new BufferedReader(new FileReader(fhm.getFileSiteResult()));
-			
-			/* First line of the data file is the header */
-			String line = reader.readLine();
-			String tokens2[] = line.split("\\,");
-			Integer colcount = tokens2.length;
-			reader.close();
-			
-			ArrayList yearsToInclude = new ArrayList();
-			
-			for (int i = 0; i < lstSelectedYears.getModel().getSize(); i++)
+			String[] cells = siteTable.getRow(row);
+			if (isBlankRow(cells))
 			{
-				yearsToInclude.add(lstSelectedYears.getModel().getElementAt(i));
+				continue;
 			}
+			linecount++;
 			
-			for (int col = 1; col < colcount; col++)
+			if (linecount == 0)
 			{
-				reader = new BufferedReader(new FileReader(fhm.getFileSiteResult()));
-				int linecount = -1;
-				SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(TYPE);
-				String name = "";
-				double latitude = 0;
-				double longitude = 0;
-				Point point;
-				Integer year = 0;
-				for (line = reader.readLine(); line != null; line = reader.readLine())
-				{
-					linecount++;
-					
-					if (line.trim().length() > 0)
-					{ // skip blank lines
-						String tokens[] = line.split("\\,");
-						
-						if (linecount == 0)
-						{
-							name = tokens[col].trim();
-						}
-						else if (linecount == 1)
-						{
-							longitude = Double.parseDouble(tokens[col]);
-						}
-						else if (linecount == 2)
-						{
-							latitude = Double.parseDouble(tokens[col]);
-							/* Longitude (= x coord) first ! */
-							point = geometryFactory.createPoint(new Coordinate(longitude, latitude));
-							featureBuilder.add(point);
-							featureBuilder.add(name);
-						}
-						else
-						{
-							year = Integer.parseInt(tokens[0]);
-							if (ArrayUtils.contains(yearsToInclude.toArray(new Integer[yearsToInclude.size()]), year))
-							{
-								featureBuilder.add(Integer.parseInt(tokens[col].trim()));
-							}
-							else
-							{
-								log.debug("Not storing info for year = " + year);
-							}
-							
-						}
-					}
-				}
-				SimpleFeature feature = featureBuilder.buildFeature(null);
-				features.add(feature);
-				reader.close();
+				/* First row of the site matrix is the header containing the site names */
+				names = parseNames(cells);
+				values = new Integer[names.length][years.size()];
 			}
-		}
-		catch (NumberFormatException e)
-		{
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		catch (IOException e)
-		{
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		finally
-		{
-			try
+			else if (linecount == 1)
 			{
-				reader.close();
+				longitudes = parseCoordinates(cells, row, names.length);
 			}
-			catch (IOException e)
+			else if (linecount == 2)
 			{
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+				latitudes = parseCoordinates(cells, row, names.length);
+			}
+			else
+			{
+				Integer year = parseInteger(cells, row, 0);
+				Integer index = yearsToInclude.get(year);
+				if (index == null)
+				{
+					log.debug("Not storing info for year = " + year);
+					continue;
+				}
+				
+				for (int col = 1; col <= names.length; col++)
+				{
+					values[col - 1][index] = parseInteger(cells, row, col);
+				}
 			}
 		}
 		
-		/*
-		 * Get an output file name and create the new shapefile
-		 */
-		File newFile = new File(txtFilename.getText());
-		
-		ShapefileDataStoreFactory dataStoreFactory = new ShapefileDataStoreFactory();
-		
-		Map<String, Serializable> params = new HashMap<String, Serializable>();
-		params.put("url", newFile.toURI().toURL());
-		params.put("create spatial index", Boolean.TRUE);
+		if (latitudes == null)
+		{
+			throw new IOException("Site matrix does not contain site locations");
+		}
 		
-		ShapefileDataStore newDataStore = (ShapefileDataStore) dataStoreFactory.createNewDataStore(params);
+		ShapefileDataStore newDataStore = createShapefile(file, TYPE);
 		
-		/*
-		 * TYPE is used as a template to describe the file contents
-		 */
-		newDataStore.createSchema(TYPE);
 		/*
 		 * Write the features to the shapefile
 		 */
 		Transaction transaction = new DefaultTransaction("create");
-		
-		String typeName = newDataStore.getTypeNames()[0];
-		SimpleFeatureSource featureSource = newDataStore.getFeatureSource(typeName);
-		SimpleFeatureType SHAPE_TYPE = featureSource.getSchema();
-		/*
-		 * The Shapefile format has a couple limitations: - "the_geom" is always first, and used for the geometry attribute name -
-		 * "the_geom" must be of type Point, MultiPoint, MuiltiLineString, MultiPolygon - Attribute names are limited in length - Not all
-		 * data types are supported (example Timestamp represented as Date)
-		 * 
-		 * Each data store has different limitations so check the resulting SimpleFeatureType.
-		 */
-		System.out.println("SHAPE:" + SHAPE_TYPE);
-		
-		if (featureSource instanceof SimpleFeatureStore)
+		FeatureWriter<SimpleFeatureType, SimpleFeature> writer = newDataStore.getFeatureWriterAppend(newDataStore.getTypeNames()[0],
+				transaction);
+		try
 		{
-			SimpleFeatureStore featureStore = (SimpleFeatureStore) featureSource;
-			/*
-			 * SimpleFeatureStore has a method to add features from a SimpleFeatureCollection object, so we use the ListFeatureCollection
-			 * class to wrap our list of features.
-			 */
-			SimpleFeatureCollection collection = new ListFeatureCollection(TYPE, features);
-			featureStore.setTransaction(transaction);
-			try
-			{
-				featureStore.addFeatures(collection);
-				transaction.commit();
-			}
-			catch (Exception problem)
-			{
-				problem.printStackTrace();
-				transaction.rollback();
-			}
-			finally
+			for (int site = 0; site < names.length; site++)
 			{
-				transaction.close();
+				Object[] attributes = new Object[2 + years.size()];
+				
+				/* Longitude (= x coord) first ! */
+				attributes[0] = geometryFactory.createPoint(new Coordinate(longitudes[site], latitudes[site]));
+				attributes[1] = names[site];
+				System.arraycopy(values[site], 0, attributes, 2, years.size());
+				
+				writeFeature(writer, attributes);
 			}
+			transaction.commit();
 		}
-		else
+		catch (IOException problem)
 		{
-			System.out.println(typeName + " does not support read/write access");
-			
+			transaction.rollback();
+			throw problem;
+		}
+		finally
+		{
+			writer.close();
+			transaction.close();
+			newDataStore.dispose();
 		}
-		
 	}
 	
-	@SuppressWarnings("unchecked")
-	private void doProcessingStyle2() throws IOException {
+	/**
+	 * Write a shapefile with a feature for each of the specified years at each site in the site matrix. Features are written to the
+	 * shapefile as each row of the site matrix is read.
+	 * 
+	 * @param siteTable - site matrix from FHMatrix with the site names, longitudes and latitudes followed by a row for each year
+	 * @param years - years to include
+	 * @param file - shapefile to create
+	 * @throws IOException if the shapefile could not be written or a row of the site matrix is missing a value or has a value that is not
+	 *             a number
+	 */
+	static void writeSiteYearShapefile(ResultTable siteTable, List<Integer> years, File file) throws IOException {
 	
-		/*
-		 * We use the DataUtilities class to create a FeatureType that will describe the data in our shapefile.
-		 * 
-		 * See also the createFeatureType method below for another, more flexible approach.
-		 */
 		final SimpleFeatureType TYPE2 = createStyle2FeatureType();
-		
-		List<SimpleFeature> features = new ArrayList<SimpleFeature>();
+		Map<Integer, Integer> yearsToInclude = getYearsToInclude(years);
 		
 		/*
 		 * GeometryFactory will be used to create the geometry attribute of each feature (a Point object for the location)
 		 */
 		GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory(null);
 		
-		BufferedReader reader = null;
+		ShapefileDataStore newDataStore = createShapefile(file, TYPE2);
+		
+		/*
+		 * Write the features to the shapefile
+		 */
+		Transaction transaction = new DefaultTransaction("create");
+		FeatureWriter<SimpleFeatureType, SimpleFeature> writer = newDataStore.getFeatureWriterAppend(newDataStore.getTypeNames()[0],
+				transaction);
 		try
 		{
-			reader = new BufferedReader(new FileReader(fhm.getFileSiteResult()));
-			
-			/* First line of the data file is the header */
-			String line = reader.readLine();
-			String tokens2[] = line.split("\\,");
-			Integer colcount = tokens2.length;
-			reader.close();
-			
-			ArrayList yearsToInclude = new ArrayList();
-			
-			for (int i = 0; i < lstSelectedYears.getModel().getSize(); i++)
-			{
-				yearsToInclude.add(lstSelectedYears.getModel().getElementAt(i));
-			}
+			String[] names = null;
+			double[] longitudes = null;
+			Point[] points = null;
 			
-			for (int col = 1; col < colcount; col++)
+			int linecount = -1;
+			for (int row = 0; row < siteTable.getRowCount(); row++)
 			{
-				reader = new BufferedReader(new FileReader(fhm.getFileSiteResult()));
-				int linecount = -1;
-				SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(TYPE2);
-				String name = "";
-				double latitude = 0;
-				double longitude = 0;
-				Point point = null;
-				Integer year = 0;
-				for (line = reader.readLine(); line != null; line = reader.readLine())
+				String[] cells = siteTable.getRow(row);
+				if (isBlankRow(cells))
 				{
-					linecount++;
-					
-					if (line.trim().length() > 0)
-					{ // skip blank lines
-						String tokens[] = line.split("\\,");
-						
-						if (linecount == 0)
-						{
-							name = tokens[col].trim();
-						}
-						else if (linecount == 1)
-						{
-							longitude = Double.parseDouble(tokens[col]);
-						}
-						else if (linecount == 2)
-						{
-							latitude = Double.parseDouble(tokens[col]);
-							/* Longitude (= x coord) first ! */
-							point = geometryFactory.createPoint(new Coordinate(longitude, latitude));
-						}
-						else
-						{
-							year = Integer.parseInt(tokens[0]);
-							if (ArrayUtils.contains(yearsToInclude.toArray(new Integer[yearsToInclude.size()]), year))
-							{
-								featureBuilder.add(point);
-								featureBuilder.add(name);
-								featureBuilder.add(year);
-								featureBuilder.add(Integer.parseInt(tokens[col].trim()));
-								SimpleFeature feature = featureBuilder.buildFeature(null);
-								features.add(feature);
-								featureBuilder = new SimpleFeatureBuilder(TYPE2);
-							}
-							else
-							{
-								log.debug("Not storing info for year = " + year);
-							}
-							
-						}
+					continue;
+				}
+				linecount++;
+				
+				if (linecount == 0)
+				{
+					/* First row of the site matrix is the header containing the site names */
+					names = parseNames(cells);
+				}
+				else if (linecount == 1)
+				{
+					longitudes = parseCoordinates(cells, row, names.length);
+				}
+				else if (linecount == 2)
+				{
+					double[] latitudes = parseCoordinates(cells, row, names.length);
+					points = new Point[names.length];
+					for (int site = 0; site < names.length; site++)
+					{
+						/* Longitude (= x coord) first ! */
+						points[site] = geometryFactory.createPoint(new Coordinate(longitudes[site], latitudes[site]));
+					}
+				}
+				else
+				{
+					Integer year = parseInteger(cells, row, 0);
+					if (!yearsToInclude.containsKey(year))
+					{
+						log.debug("Not storing info for year = " + year);
+						continue;
 					}
 					
+					for (int col = 1; col <= names.length; col++)
+					{
+						writeFeature(writer, new Object[] { points[col - 1], names[col - 1], year, parseInteger(cells, row, col) });
+					}
 				}
-				
-				reader.close();
 			}
+			transaction.commit();
 		}
-		catch (NumberFormatException e)
+		catch (IOException problem)
 		{
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			transaction.rollback();
+			throw problem;
 		}
-		catch (IOException e)
+		finally
 		{
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			writer.close();
+			transaction.close();
+			newDataStore.dispose();
 		}
-		finally
+	}
+	
+	/**
+	 * Map the specified years to their position in the list.
+	 * 
+	 * @param years
+	 * @return
+	 */
+	private static Map<Integer, Integer> getYearsToInclude(List<Integer> years) {
+	
+		Map<Integer, Integer> yearsToInclude = new HashMap<Integer, Integer>();
+		
+		for (int i = 0; i < years.size(); i++)
+		{
+			yearsToInclude.put(years.get(i), i);
+		}
+		
+		return yearsToInclude;
+	}
+	
+	/**
+	 * Whether a row of the site matrix is blank.
+	 * 
+	 * @param cells
+	 * @return
+	 */
+	private static boolean isBlankRow(String[] cells) {
+	
+		return cells.length == 1 && cells[0].trim().length() == 0;
+	}
+	
+	/**
+	 * Parse the site names from the header row of the site matrix.
+	 * 
+	 * @param cells
+	 * @return
+	 */
+	private static String[] parseNames(String[] cells) {
+	
+		String[] names = new String[cells.length - 1];
+		for (int col = 1; col < cells.length; col++)
+		{
+			names[col - 1] = cells[col].trim();
+		}
+		return names;
+	}
+	
+	/**
+	 * Parse a row of longitudes or latitudes from the site matrix.
+	 * 
+	 * @param cells
+	 * @param row
+	 * @param siteCount
+	 * @return
+	 * @throws IOException if a coordinate is missing or is not a number
+	 */
+	private static double[] parseCoordinates(String[] cells, int row, int siteCount) throws IOException {
+	
+		double[] coordinates = new double[siteCount];
+		for (int col = 1; col <= siteCount; col++)
 		{
 			try
 			{
-				reader.close();
+				coordinates[col - 1] = Double.parseDouble(getCell(cells, row, col));
 			}
-			catch (IOException e)
+			catch (NumberFormatException e)
 			{
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+				throw new IOException(describeCell(row, col) + " is not a number: '" + cells[col].trim() + "'", e);
 			}
 		}
-		
-		/*
-		 * Get an output file name and create the new shapefile
-		 */
-		File newFile = getOutputFile();
-		
+		return coordinates;
+	}
+	
+	/**
+	 * Parse an integer from a cell of the site matrix.
+	 * 
+	 * @param cells
+	 * @param row
+	 * @param col
+	 * @return
+	 * @throws IOException if the value is missing or is not an integer
+	 */
+	private static int parseInteger(String[] cells, int row, int col) throws IOException {
+	
+		try
+		{
+			return Integer.parseInt(getCell(cells, row, col));
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IOException(describeCell(row, col) + " is not a whole number: '" + cells[col].trim() + "'", e);
+		}
+	}
+	
+	/**
+	 * Get the trimmed value of a cell of the site matrix.
+	 * 
+	 * @param cells
+	 * @param row
+	 * @param col
+	 * @return
+	 * @throws IOException if the row is too short to contain the cell
+	 */
+	private static String getCell(String[] cells, int row, int col) throws IOException {
+	
+		if (col >= cells.length)
+		{
+			throw new IOException(describeCell(row, col) + " is missing");
+		}
+		return cells[col].trim();
+	}
+	
+	/**
+	 * Describe the position of a cell of the site matrix for error messages, numbering rows and columns from 1.
+	 * 
+	 * @param row
+	 * @param col
+	 * @return
+	 */
+	private static String describeCell(int row, int col) {
+	
+		return "Site matrix row " + (row + 1) + ", column " + (col + 1);
+	}
+	
+	/**
+	 * Create a new shapefile with the specified feature type.
+	 * 
+	 * @param newFile
+	 * @param type
+	 * @return
+	 * @throws IOException
+	 */
+	private static ShapefileDataStore createShapefile(File newFile, SimpleFeatureType type) throws IOException {
+	
 		ShapefileDataStoreFactory dataStoreFactory = new ShapefileDataStoreFactory();
 		
 		Map<String, Serializable> params = new HashMap<String, Serializable>();
@@ -777,17 +819,10 @@ public class ShapeFileDialog extends JDialog implements ActionListener, Document
 		ShapefileDataStore newDataStore = (ShapefileDataStore) dataStoreFactory.createNewDataStore(params);
 		
 		/*
-		 * TYPE is used as a template to describe the file contents
-		 */
-		newDataStore.createSchema(TYPE2);
-		/*
-		 * Write the features to the shapefile
+		 * The type is used as a template to describe the file contents
 		 */
-		Transaction transaction = new DefaultTransaction("create");
+		newDataStore.createSchema(type);
 		
-		String typeName = newDataStore.getTypeNames()[0];
-		SimpleFeatureSource featureSource = newDataStore.getFeatureSource(typeName);
-		SimpleFeatureType SHAPE_TYPE = featureSource.getSchema();
 		/*
 		 * The Shapefile format has a couple limitations: - "the_geom" is always first, and used for the geometry attribute name -
 		 * "the_geom" must be of type Point, MultiPoint, MuiltiLineString, MultiPolygon - Attribute names are limited in length - Not all
@@ -795,38 +830,23 @@ public class ShapeFileDialog extends JDialog implements ActionListener, Document
 		 * 
 		 * Each data store has different limitations so check the resulting SimpleFeatureType.
 		 */
-		System.out.println("SHAPE:" + SHAPE_TYPE);
-		
-		if (featureSource instanceof SimpleFeatureStore)
-		{
-			SimpleFeatureStore featureStore = (SimpleFeatureStore) featureSource;
-			/*
-			 * SimpleFeatureStore has a method to add features from a SimpleFeatureCollection object, so we use the ListFeatureCollection
-			 * class to wrap our list of features.
-			 */
-			SimpleFeatureCollection collection = new ListFeatureCollection(TYPE2, features);
-			featureStore.setTransaction(transaction);
-			try
-			{
-				featureStore.addFeatures(collection);
-				transaction.commit();
-			}
-			catch (Exception problem)
-			{
-				problem.printStackTrace();
-				transaction.rollback();
-			}
-			finally
-			{
-				transaction.close();
-			}
-		}
-		else
-		{
-			System.out.println(typeName + " does not support read/write access");
-			
-		}
+		log.debug("SHAPE:" + newDataStore.getSchema());
 		
+		return newDataStore;
+	}
+	
+	/**
+	 * Append a feature with the specified attributes, in the order of the feature type, to the shapefile.
+	 * 
+	 * @param writer
+	 * @param attributes
+	 * @throws IOException
+	 */
+	private static void writeFeature(FeatureWriter<SimpleFeatureType, SimpleFeature> writer, Object[] attributes) throws IOException {
+	
+		SimpleFeature feature = writer.next();
+		feature.setAttributes(attributes);
+		writer.write();
 	}
 	
 	/**
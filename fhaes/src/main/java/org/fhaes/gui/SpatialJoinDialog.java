@@ -380,9 +380,9 @@ public class SpatialJoinDialog extends JDialog implements PrefsListener, ActionL
 	@Override
 	public void prefChanged(PrefsEvent e) {
 	
-		log.debug("Preference change for key " + e.getPref() + " picked up by SpatialJoinDialog");
+		log.debug("Preference change for keys " + e.getPrefs() + " picked up by SpatialJoinDialog");
 		
-		if (e.getPref().equals(PrefKey.COMPOSITE_DISTANCE_THRESHOLD_KM))
+		if (e.contains(PrefKey.COMPOSITE_DISTANCE_THRESHOLD_KM))
 		{
 			fhc.process();
 			setGroups();
@@ -23,10 +23,12 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.JButton;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
 import javax.swing.SwingWorker;
@@ -36,6 +38,8 @@ import net.miginfocom.swing.MigLayout;
 
 import org.fhaes.preferences.App;
 import org.fhaes.preferences.FHAESPreferences.PrefKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * JSEAProgressDialog Class. This is a dialog that shows progress for loading multiple files. The dialog runs in a background thread to
@@ -46,6 +50,7 @@ import org.fhaes.preferences.FHAESPreferences.PrefKey;
 public class JSEAProgressDialog extends JDialog implements PropertyChangeListener {
 	
 	private static final long serialVersionUID = 1L;
+	private static final Logger log = LoggerFactory.getLogger(JSEAProgressDialog.class);
 	
 	private JProgressBar progressBar;
 	private JSEAFrame jseaframe;
@@ -111,6 +116,9 @@ public class JSEAProgressDialog extends JDialog implements PropertyChangeListene
 		
 			jseaframe.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 			
+			// Clear the previous results so that they are not shown if this run fails
+			jseaframe.jsea = null;
+			
 			jseaframe.jsea = new JSEAStatsFunctions(App.prefs.getPref(PrefKey.JSEA_CHART_TITLE, "Chart Title"), App.prefs.getPref(
 					PrefKey.JSEA_YAXIS_LABEL, "Y Axis label"), App.prefs.getIntPref(PrefKey.JSEA_SEED_NUMBER, 30188), App.prefs.getIntPref(
 					PrefKey.JSEA_LAGS_PRIOR_TO_EVENT, 6), App.prefs.getIntPref(PrefKey.JSEA_LAGS_AFTER_EVENT, 4), App.prefs.getIntPref(
@@ -133,6 +141,28 @@ public class JSEAProgressDialog extends JDialog implements PropertyChangeListene
 		
 			jseaframe.setCursor(null); // turn off the wait cursor
 			finish();
+			
+			// The cancel button calls done() while the task is still running, in which case there is nothing to report
+			if (!isDone() || isCancelled())
+				return;
+			
+			try
+			{
+				get();
+			}
+			catch (InterruptedException e)
+			{
+				jseaframe.jsea = null;
+			}
+			catch (ExecutionException e)
+			{
+				log.error("Error caught when running jSEA analysis");
+				e.getCause().printStackTrace();
+				jseaframe.jsea = null;
+				JOptionPane.showMessageDialog(jseaframe,
+						"An error was caught while running the analysis.\nPlease check the logs for further information", "Error",
+						JOptionPane.ERROR_MESSAGE);
+			}
 		}
 	}
 	
@@ -0,0 +1,238 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Elena Velasquez and Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.jsea;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math.stat.StatUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JSEASimulation Class. Runs the Monte Carlo simulations for the superposed epoch analysis. Each simulation draws a random year for every
+ * key event, and then calculates the mean chronology value at each lag of the event window, using only the events that contributed to the
+ * same lag in the actual event windows.
+ * 
+ * <p>
+ * The simulations are split into fixed size blocks which are run concurrently. Each block has its own random number generator seeded from
+ * the run seed and the block number, so a run with a given seed gives the same results however many threads are used. The first block is
+ * seeded with the run seed itself, so runs that fit within a single block draw exactly the same years as a single generator would.
+ * </p>
+ * 
+ * @author Elena Velasquez and Peter Brewer
+ */
+public class JSEASimulation {
+	
+	private static final Logger log = LoggerFactory.getLogger(JSEASimulation.class);
+	
+	/**
+	 * Number of simulations run by each block. This must not depend on the number of threads otherwise results would not be reproducible.
+	 */
+	private static final int SIMULATIONS_PER_BLOCK = 2000;
+	
+	private final double[] chronologyByYear;
+	private final int firstYear;
+	private final int[] lowestYear;
+	private final int[] yearRange;
+	private final int[][] eventWindowPattern;
+	private final int yearsPriorToEvent;
+	private final int lengthOfWindow;
+	
+	/**
+	 * Create a new simulation engine.
+	 * 
+	 * @param chronologyByYear - chronology values indexed by year minus firstYear
+	 * @param firstYear - year of the first entry in chronologyByYear
+	 * @param lowestYear - for each event, the lowest year that can be drawn
+	 * @param yearRange - for each event, the number of years that can be drawn from starting at lowestYear
+	 * @param eventWindowPattern - array of [lag][event] with 1 where the event contributes to the lag in the actual event windows
+	 * @param yearsPriorToEvent - number of lags before the event
+	 */
+	public JSEASimulation(double[] chronologyByYear, int firstYear, int[] lowestYear, int[] yearRange, int[][] eventWindowPattern,
+			int yearsPriorToEvent) {
+		
+		this.chronologyByYear = chronologyByYear;
+		this.firstYear = firstYear;
+		this.lowestYear = lowestYear;
+		this.yearRange = yearRange;
+		this.eventWindowPattern = eventWindowPattern;
+		this.yearsPriorToEvent = yearsPriorToEvent;
+		this.lengthOfWindow = eventWindowPattern.length;
+	}
+	
+	/**
+	 * Run the simulations using as many threads as there are processors.
+	 * 
+	 * @param numberOfSimulations
+	 * @param seed
+	 * @return array of [lag][simulation] containing the mean of the simulated event window for each lag
+	 */
+	public double[][] run(int numberOfSimulations, long seed) {
+	
+		return run(numberOfSimulations, seed, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Run the simulations using up to the specified number of threads.
+	 * 
+	 * @param numberOfSimulations
+	 * @param seed
+	 * @param threads
+	 * @return array of [lag][simulation] containing the mean of the simulated event window for each lag
+	 * @throws IllegalStateException if any of the simulations failed or the thread was interrupted
+	 */
+	public double[][] run(int numberOfSimulations, final long seed, int threads) {
+	
+		final double[][] meanByWindowSim = new double[lengthOfWindow][numberOfSimulations];
+		int blocks = (numberOfSimulations + SIMULATIONS_PER_BLOCK - 1) / SIMULATIONS_PER_BLOCK;
+		
+		if (threads <= 1 || blocks <= 1)
+		{
+			try
+			{
+				for (int block = 0; block < blocks; block++)
+				{
+					runBlock(block, seed, meanByWindowSim);
+				}
+			}
+			catch (RuntimeException e)
+			{
+				// Fail in the same way as when the blocks are run concurrently
+				log.error("Error running simulations");
+				throw new IllegalStateException("Error running simulations", e);
+			}
+			return meanByWindowSim;
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, blocks));
+		ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>();
+		try
+		{
+			for (int block = 0; block < blocks; block++)
+			{
+				final int thisBlock = block;
+				futures.add(executor.submit(new Callable<Void>() {
+					
+					@Override
+					public Void call() {
+					
+						runBlock(thisBlock, seed, meanByWindowSim);
+						return null;
+					}
+				}));
+			}
+			
+			for (Future<Void> future : futures)
+			{
+				future.get();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			log.error("Interrupted while running simulations");
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while running simulations", e);
+		}
+		catch (ExecutionException e)
+		{
+			// Any blocks that failed or did not run would be left as zeros, so the results must not be used
+			log.error("Error running simulations");
+			e.printStackTrace();
+			throw new IllegalStateException("Error running simulations", e.getCause());
+		}
+		finally
+		{
+			for (Future<Void> future : futures)
+			{
+				future.cancel(true);
+			}
+			executor.shutdownNow();
+		}
+		
+		return meanByWindowSim;
+	}
+	
+	/**
+	 * Run one block of simulations, storing the results in the block's columns of meanByWindowSim.
+	 * 
+	 * @param block
+	 * @param seed
+	 * @param meanByWindowSim
+	 */
+	private void runBlock(int block, long seed, double[][] meanByWindowSim) {
+	
+		int numberOfSimulations = meanByWindowSim.length > 0 ? meanByWindowSim[0].length : 0;
+		int first = block * SIMULATIONS_PER_BLOCK;
+		int last = Math.min(first + SIMULATIONS_PER_BLOCK, numberOfSimulations);
+		
+		Random random = new Random(getBlockSeed(seed, block));
+		int numberOfEvents = lowestYear.length;
+		int[] eventYearSimulation = new int[numberOfEvents];
+		double[] window = new double[numberOfEvents];
+		
+		for (int sim = first; sim < last; sim++)
+		{
+			for (int i = 0; i < numberOfEvents; i++)
+			{
+				eventYearSimulation[i] = lowestYear[i] + random.nextInt(yearRange[i]);
+			}
+			Arrays.sort(eventYearSimulation);
+			
+			for (int k = 0; k < lengthOfWindow; k++)
+			{
+				int offset = k - yearsPriorToEvent - firstYear;
+				int[] pattern = eventWindowPattern[k];
+				int count = 0;
+				for (int i = 0; i < numberOfEvents; i++)
+				{
+					if (pattern[i] == 1)
+					{
+						window[count++] = chronologyByYear[eventYearSimulation[i] + offset];
+					}
+				}
+				meanByWindowSim[k][sim] = count > 0 ? StatUtils.mean(window, 0, count) : Double.NaN;
+			}
+		}
+	}
+	
+	/**
+	 * Get the seed for a block. The first block uses the run seed unchanged, the others are spread out with the SplitMix64 finalizer so
+	 * that neighbouring blocks get unrelated generators.
+	 * 
+	 * @param seed
+	 * @param block
+	 * @return
+	 */
+	private static long getBlockSeed(long seed, int block) {
+	
+		if (block == 0)
+			return seed;
+		
+		long z = seed + block * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -25,7 +25,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Random;
 
 import org.apache.commons.math.stat.StatUtils;
 import org.apache.commons.math.stat.descriptive.DescriptiveStatistics;
@@ -135,6 +134,8 @@ public class JSEAStatsFunctions {
 	Integer[] yearsActual;
 	// Integer[] keyEvents;
 	Double[] chronoActual;
+	double[] chronologyByYear;
+	int chronologyFirstYear;
 	// Integer[] keyEventsAdjt;
 	
 	ArrayList<BarChartParametersModel> chartList = new ArrayList<BarChartParametersModel>();
@@ -145,8 +146,6 @@ public class JSEAStatsFunctions {
 	ArrayList<Integer> keventsinadj;
 	ArrayList<Integer> keventsinadjyeprior;
 	ArrayList<Integer> keventsinadjyeafter;
-	ArrayList<Double> test;
-	ArrayList<Double> simulationtest;
 	ArrayList<Integer> segmentByears;
 	ArrayList<Integer> segmentLyears;
 	
@@ -381,6 +380,12 @@ public class JSEAStatsFunctions {
 		}
 		meanSensitivity = meanSensitivity / (dchronoActual.length - 1);
 		
+		/*
+		 * Index the chronology by year so values can be looked up directly rather than searching chronologyYears
+		 */
+		
+		buildChronologyByYear();
+		
 		/*
 		 * Obtain and display the general statistical information on the whole climate series.
 		 */
@@ -569,8 +574,8 @@ public class JSEAStatsFunctions {
 					
 					for (int i = beginingYearAdj; i < lastYearAdj + 1; i++)
 					{
-						statsAdj.addValue(chronoActual[chronologyYears.indexOf(i)].doubleValue());
-						chronoAdj[i - beginingYearAdj] = chronoActual[chronologyYears.indexOf(i)].doubleValue();
+						statsAdj.addValue(chronologyByYear[i - chronologyFirstYear]);
+						chronoAdj[i - beginingYearAdj] = chronologyByYear[i - chronologyFirstYear];
 					}
 					;
 					
@@ -635,17 +640,18 @@ public class JSEAStatsFunctions {
 					eventWindowsAct = new double[lengthOfWindow][];
 					eventWindowPattern = new int[lengthOfWindow][];
 					Simnumdates = new int[lengthOfWindow];
-					test = new ArrayList<Double>();
 					for (int k = 0; k < lengthOfWindow; k++)
 					{
 						eventWindowPattern[k] = new int[keventsinadj.size()];
 						int kWindow = k - yearsPriorToEvent.intValue();
+						double[] window = new double[keventsinadj.size()];
+						int count = 0;
 						for (int i = 0; i < keventsinadj.size(); i++)
 						{
 							if ((beginingYearAdj <= (keventsinadj.get(i).intValue() + kWindow))
 									&& ((keventsinadj.get(i).intValue() + kWindow) <= lastYearAdj))
 							{
-								test.add(chronologyActual.get(chronologyYears.indexOf(keventsinadj.get(i).intValue() + kWindow)));
+								window[count++] = chronologyByYear[keventsinadj.get(i).intValue() + kWindow - chronologyFirstYear];
 								eventWindowPattern[k][i] = 1;
 							}
 							else
@@ -653,13 +659,8 @@ public class JSEAStatsFunctions {
 								eventWindowPattern[k][i] = 0;
 							}
 						}
-						Simnumdates[k] = test.size();
-						eventWindowsAct[k] = new double[test.size()]; // new line
-						for (int ij = 0; ij < test.size(); ij++)
-						{
-							eventWindowsAct[k][ij] = test.get(ij).doubleValue();
-						}
-						test.clear();
+						Simnumdates[k] = count;
+						eventWindowsAct[k] = Arrays.copyOf(window, count);
 						meanByWindow[k] = StatUtils.mean(eventWindowsAct[k]);
 						varianceByWindow[k] = StatUtils.variance(eventWindowsAct[k]);
 						standardDevByWindow[k] = Math.sqrt(varianceByWindow[k]);
@@ -696,67 +697,35 @@ public class JSEAStatsFunctions {
 					// start the simulations: by selecting events.size() number of random
 					// years
 					
-					Random myrand = new Random();
-					myrand.setSeed(seedNumber);
+					/*
+					 * Work out the range of years that can be drawn for each event. These are the same for every simulation
+					 */
 					
-					double[][] meanByWindowSim = new double[lengthOfWindow][this.numberOfSimulations];
-					int[] eventYearSimulation = new int[keventsinadj.size()];// changed
-																				// keventsinadj.size()
-																				// by temp
-					double[][] eventWindowsSims = new double[lengthOfWindow][];
-					simulationtest = new ArrayList<Double>();
+					int[] lowestYear = new int[keventsinadj.size()];
+					int[] yearRange = new int[keventsinadj.size()];
+					for (int i = 0; i < keventsinadj.size(); i++)
+					{
+						// Here add the two if statement for include and exclude so the
+						// range of the selection of years
+						if (includeIncompleteEpochs)
+						{
+							lowestYear[i] = beginingYearAdj + keventsinadjyeprior.get(i).intValue();
+							yearRange[i] = (lastYearAdj - keventsinadjyeafter.get(i).intValue()) - lowestYear[i] + 1;
+						}
+						else
+						{
+							lowestYear[i] = beginingYearAdj + 6;
+							yearRange[i] = (lastYearAdj - 4) - lowestYear[i] + 1;
+						}
+					}
 					
 					/*
 					 * Simulation Start
 					 */
 					System.out.println("Before Simulation Time " + (System.currentTimeMillis() - begintime) / 1000F);
-					for (int ii = 0; ii < this.numberOfSimulations; ii++)
-					{
-						for (int i = 0; i < keventsinadj.size(); i++)
-						{
-							// Here add the two if statement for include and exclude so the
-							// range of the selection of years
-							if (includeIncompleteEpochs)
-							{
-								eventYearSimulation[i] = (beginingYearAdj + keventsinadjyeprior.get(i).intValue())
-										+ myrand.nextInt((lastYearAdj - keventsinadjyeafter.get(i).intValue())
-												- (beginingYearAdj + keventsinadjyeprior.get(i).intValue()) + 1);
-							}
-							if (!includeIncompleteEpochs)
-							{
-								eventYearSimulation[i] = (beginingYearAdj + 6)
-										+ myrand.nextInt((lastYearAdj - 4) - (beginingYearAdj + 6) + 1);
-							}
-							
-						} // end i loop
-						Arrays.sort(eventYearSimulation);
-						// System.out.println("after selection of key events in sim " + ii + " time " + (System.currentTimeMillis() -
-						// start) / 1000F);
-						/*
-						 * Once the events have been simulated build the two sised matrix (lengthOfWindow) by events.size()
-						 */
-						
-						for (int k = 0; k < lengthOfWindow; k++)
-						{
-							eventWindowsSims[k] = new double[keventsinadj.size()];// new line
-							int kWindow = k - yearsPriorToEvent.intValue();
-							for (int i = 0; i < keventsinadj.size(); i++)
-							{
-								if (eventWindowPattern[k][i] == 1)
-								{
-									simulationtest.add(chronologyActual.get(chronologyYears.indexOf(eventYearSimulation[i] + kWindow)));
-								}
-							} // i loop
-							eventWindowsSims[k] = new double[simulationtest.size()]; // new
-																						// line
-							for (int ij = 0; ij < simulationtest.size(); ij++)
-							{
-								eventWindowsSims[k][ij] = simulationtest.get(ij).doubleValue();
-							} // edn ij loop
-							simulationtest.clear();
-							meanByWindowSim[k][ii] = StatUtils.mean(eventWindowsSims[k]);
-						} // end k loop numberofsimulation loop
-					} // end simulatrion loop
+					JSEASimulation simulation = new JSEASimulation(chronologyByYear, chronologyFirstYear, lowestYear, yearRange,
+							eventWindowPattern, yearsPriorToEvent.intValue());
+					double[][] meanByWindowSim = simulation.run(this.numberOfSimulations, seedNumber);
 					
 					System.out.println("I am done with simulation");
 					
@@ -1367,6 +1336,29 @@ public class JSEAStatsFunctions {
 	}// end of epoch function
 	
 	// this method is the new print report method
+	/**
+	 * Build an array of the chronology values indexed by year minus chronologyFirstYear. Years missing from the chronology are set to NaN.
+	 * If a year appears more than once the first value is used, as chronologyYears.indexOf() would.
+	 */
+	private void buildChronologyByYear() {
+	
+		int minYear = Integer.MAX_VALUE;
+		int maxYear = Integer.MIN_VALUE;
+		for (int i = 0; i < yearsActual.length; i++)
+		{
+			minYear = Math.min(minYear, yearsActual[i].intValue());
+			maxYear = Math.max(maxYear, yearsActual[i].intValue());
+		}
+		
+		chronologyFirstYear = minYear;
+		chronologyByYear = new double[yearsActual.length > 0 ? maxYear - minYear + 1 : 0];
+		Arrays.fill(chronologyByYear, Double.NaN);
+		for (int i = yearsActual.length - 1; i >= 0; i--)
+		{
+			chronologyByYear[yearsActual[i].intValue() - minYear] = dchronoActual[i];
+		}
+	}
+	
 	public String getReportText() {
 	
 		return report;
@@ -37,6 +37,25 @@ public class FHFileListCellRenderer extends DefaultListCellRenderer {
 	
 	private static final long serialVersionUID = 1L;
 	
+	private EventTypeToProcess eventType;
+	
+	/**
+	 * Create a renderer for the event type currently set in the preferences.
+	 */
+	public FHFileListCellRenderer() {
+	
+		refreshPreferences();
+	}
+	
+	/**
+	 * Read the event type from the preferences again. The preference is only read here rather than for each cell so that painting a long
+	 * list of files does not touch the preference store, so this must be called whenever the preference may have changed.
+	 */
+	public void refreshPreferences() {
+	
+		eventType = App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_EVENT);
+	}
+	
 	/**
 	 * Controls the rendering behavior of the FHFileList elements.
 	 */
@@ -69,8 +88,6 @@ public class FHFileListCellRenderer extends DefaultListCellRenderer {
 		// Set icon
 		if (file.isValidFHXFile())
 		{
-			EventTypeToProcess eventType = App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_EVENT);
-			
 			this.setIcon(Builder.getImageIcon("good.png"));
 			
 			// override good icon with warning if missing events
@@ -19,13 +19,37 @@ package org.fhaes.model;
 
 import java.util.Comparator;
 
+import org.fhaes.enums.EventTypeToProcess;
 import org.fhaes.fhfilereader.FHFile;
+import org.fhaes.preferences.App;
+import org.fhaes.preferences.FHAESPreferences.PrefKey;
 
 /**
  * FHFileValidityComparator Class.
  */
 public class FHFileValidityComparator implements Comparator<FHFile> {
 	
+	private final EventTypeToProcess eventType;
+	
+	/**
+	 * Create a comparator for the event type currently set in the preferences. The preference is read just once rather than for each
+	 * comparison.
+	 */
+	public FHFileValidityComparator() {
+	
+		this(App.prefs.getEventTypePref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.FIRE_EVENT));
+	}
+	
+	/**
+	 * Create a comparator for the specified event type.
+	 * 
+	 * @param eventType
+	 */
+	public FHFileValidityComparator(EventTypeToProcess eventType) {
+	
+		this.eventType = eventType;
+	}
+	
 	/**
 	 * TODO
 	 */
@@ -49,7 +73,7 @@ public class FHFileValidityComparator implements Comparator<FHFile> {
 		
 		int order = 0;
 		
-		if (f.getErrorMessage() == null)
+		if (f.getErrorMessage(eventType) == null)
 		{
 			order = 0;
 		}
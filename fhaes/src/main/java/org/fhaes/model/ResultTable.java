@@ -0,0 +1,436 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.model;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ResultTable Class. An in-memory table of analysis results. Rows of typed values, such as Integer and Double cells, are added with
+ * addRow() and are kept as they are, so getTableModel() hands the values themselves to the GUI and they are only formatted as text when the
+ * table is serialized with writeCSV().
+ * 
+ * <p>
+ * Analyses whose output relies on formatting each cell as text, such as rounding with a DecimalFormat, can instead write through the Writer
+ * returned by getWriter() exactly as they would write a CSV file. The text is split into rows of String cells as it is written rather
+ * than being sent to disk.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class ResultTable {
+	
+	private static final Logger log = LoggerFactory.getLogger(ResultTable.class);
+	
+	private final String name;
+	private final char delimiter;
+	private final ArrayList<Object[]> rows = new ArrayList<Object[]>();
+	private final ArrayList<String> currentRow = new ArrayList<String>();
+	private final StringBuilder currentCell = new StringBuilder();
+	private String lineSeparator = null;
+	private boolean pendingCR = false;
+	private File file = null;
+	private final Writer writer = new TableWriter();
+	
+	/**
+	 * Create a new empty comma delimited table.
+	 * 
+	 * @param name - name used as the prefix for the temporary file if one is requested with getFile()
+	 */
+	public ResultTable(String name) {
+	
+		this(name, ',');
+	}
+	
+	/**
+	 * Create a new empty table.
+	 * 
+	 * @param name - name used as the prefix for the temporary file if one is requested with getFile()
+	 * @param delimiter - character separating the cells in each row
+	 */
+	public ResultTable(String name, char delimiter) {
+	
+		this.name = name;
+		this.delimiter = delimiter;
+	}
+	
+	/**
+	 * Add a row of values to the table. The first row added is the header row. Cells are written to CSV with String.valueOf(), and null
+	 * cells are left empty.
+	 * 
+	 * @param cells
+	 * @throws IllegalStateException if a row written through getWriter() has not been finished with a line separator
+	 */
+	public void addRow(Object... cells) {
+	
+		synchronized (writer)
+		{
+			if (hasPartialRow())
+				throw new IllegalStateException("Cannot add a row while a row written through getWriter() is unfinished");
+			
+			rows.add(cells.clone());
+		}
+	}
+	
+	/**
+	 * Get a Writer that adds the text written to it to this table. Text is split into cells on the delimiter and into rows on line
+	 * separators.
+	 * 
+	 * @return
+	 */
+	public Writer getWriter() {
+	
+		return writer;
+	}
+	
+	/**
+	 * Get the number of rows in the table including the header row.
+	 * 
+	 * @return
+	 */
+	public int getRowCount() {
+	
+		synchronized (writer)
+		{
+			return rows.size() + (hasPartialRow() ? 1 : 0);
+		}
+	}
+	
+	/**
+	 * Get the total number of characters in the cells of the table when formatted as text. This is used as an estimate of the memory the
+	 * table holds.
+	 * 
+	 * @return
+	 */
+	public long getCharacterCount() {
+	
+		synchronized (writer)
+		{
+			long count = 0;
+			for (Object[] row : rows)
+			{
+				for (Object cell : row)
+				{
+					count += format(cell).length();
+				}
+			}
+			if (hasPartialRow())
+			{
+				for (String cell : currentRow)
+				{
+					count += cell.length();
+				}
+				count += currentCell.length();
+			}
+			return count;
+		}
+	}
+	
+	/**
+	 * Get a table model of the results. The first row is used as the column headers. Typed cells are given to the model as they are, while
+	 * for text cells the whitespace surrounding the delimiters is removed in the same way as TableUtil.createTableModel() does when reading
+	 * a CSV file.
+	 * 
+	 * @return
+	 */
+	public ReadOnlyDefaultTableModel getTableModel() {
+	
+		synchronized (writer)
+		{
+			Vector<Vector<Object>> data = new Vector<Vector<Object>>(rows.size() + 1);
+			for (Object[] row : rows)
+			{
+				data.add(toTableRow(row));
+			}
+			if (hasPartialRow())
+			{
+				data.add(toTableRow(getPartialRow()));
+			}
+			
+			Vector<Object> headers = data.size() > 0 ? data.remove(0) : new Vector<Object>();
+			return new ReadOnlyDefaultTableModel(data, headers);
+		}
+	}
+	
+	/**
+	 * Get the cells of a row of the table as text, where row 0 is the header row. Typed cells are formatted as they are by writeCSV(), and
+	 * whitespace surrounding the delimiters is removed in the same way as getTableModel() does.
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public String[] getRow(int index) {
+	
+		synchronized (writer)
+		{
+			if (index == rows.size() && hasPartialRow())
+			{
+				return toText(trimCells(getPartialRow()));
+			}
+			return toText(trimCells(rows.get(index)));
+		}
+	}
+	
+	/**
+	 * Serialize the table as delimited text to the specified Writer. The Writer is not closed.
+	 * 
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeCSV(Writer out) throws IOException {
+	
+		synchronized (writer)
+		{
+			String sep = lineSeparator != null ? lineSeparator : System.getProperty("line.separator");
+			for (Object[] row : rows)
+			{
+				writeRow(out, row);
+				out.write(sep);
+			}
+			if (hasPartialRow())
+			{
+				writeRow(out, getPartialRow());
+			}
+			out.flush();
+		}
+	}
+	
+	/**
+	 * Serialize the table as delimited text to the specified file.
+	 * 
+	 * @param outputFile
+	 * @throws IOException
+	 */
+	public void writeCSV(File outputFile) throws IOException {
+	
+		Writer out = new BufferedWriter(new FileWriter(outputFile));
+		try
+		{
+			writeCSV(out);
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+	
+	/**
+	 * Get a temporary CSV file containing this table. The file is only written the first time it is requested. This is intended for code
+	 * that needs a file on disk; exporting should use writeCSV() instead.
+	 * 
+	 * @return
+	 */
+	public File getFile() {
+	
+		synchronized (writer)
+		{
+			if (file == null)
+			{
+				try
+				{
+					File temp = File.createTempFile(name, ".tmp");
+					temp.deleteOnExit();
+					writeCSV(temp);
+					file = temp;
+				}
+				catch (IOException e)
+				{
+					log.error("Failed to write results table to temporary file");
+					e.printStackTrace();
+				}
+			}
+			return file;
+		}
+	}
+	
+	private boolean hasPartialRow() {
+	
+		return currentRow.size() > 0 || currentCell.length() > 0;
+	}
+	
+	private String[] getPartialRow() {
+	
+		String[] row = new String[currentRow.size() + 1];
+		currentRow.toArray(row);
+		row[row.length - 1] = currentCell.toString();
+		return row;
+	}
+	
+	private void writeRow(Writer out, Object[] row) throws IOException {
+	
+		for (int c = 0; c < row.length; c++)
+		{
+			if (c > 0)
+				out.write(delimiter);
+			out.write(format(row[c]));
+		}
+	}
+	
+	/**
+	 * Format a cell as text for writing to CSV.
+	 * 
+	 * @param cell
+	 * @return
+	 */
+	private static String format(Object cell) {
+	
+		return cell == null ? "" : String.valueOf(cell);
+	}
+	
+	/**
+	 * Format each of the cells of a row as text.
+	 * 
+	 * @param row
+	 * @return
+	 */
+	private static String[] toText(Object[] row) {
+	
+		String[] cells = new String[row.length];
+		for (int c = 0; c < row.length; c++)
+		{
+			cells[c] = format(row[c]);
+		}
+		return cells;
+	}
+	
+	/**
+	 * Convert a row of raw cells into a table row, stripping whitespace next to the delimiters from the text cells.
+	 * 
+	 * @param row
+	 * @return
+	 */
+	private static Vector<Object> toTableRow(Object[] row) {
+	
+		return new Vector<Object>(Arrays.asList(trimCells(row)));
+	}
+	
+	/**
+	 * Strip the whitespace next to the delimiters from the text cells of a row. Typed cells are left as they are.
+	 * 
+	 * @param row
+	 * @return
+	 */
+	private static Object[] trimCells(Object[] row) {
+	
+		Object[] cells = new Object[row.length];
+		for (int c = 0; c < row.length; c++)
+		{
+			if (!(row[c] instanceof String))
+			{
+				cells[c] = row[c];
+				continue;
+			}
+			
+			String cell = (String) row[c];
+			int start = 0;
+			int end = cell.length();
+			if (c > 0)
+			{
+				while (start < end && isSpace(cell.charAt(start)))
+					start++;
+			}
+			if (c < row.length - 1)
+			{
+				while (end > start && isSpace(cell.charAt(end - 1)))
+					end--;
+			}
+			cells[c] = cell.substring(start, end);
+		}
+		return cells;
+	}
+	
+	/**
+	 * Whether the character is whitespace as matched by \s in a regular expression.
+	 * 
+	 * @param c
+	 * @return
+	 */
+	private static boolean isSpace(char c) {
+	
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+	
+	/**
+	 * Writer that splits the text into cells and rows as it arrives.
+	 */
+	private class TableWriter extends Writer {
+		
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+		
+			synchronized (this)
+			{
+				for (int i = off; i < off + len; i++)
+				{
+					char c = cbuf[i];
+					
+					if (pendingCR)
+					{
+						pendingCR = false;
+						if (c == '\n')
+						{
+							lineSeparator = "\r\n";
+							continue;
+						}
+					}
+					
+					if (c == delimiter)
+					{
+						currentRow.add(currentCell.toString());
+						currentCell.setLength(0);
+					}
+					else if (c == '\n' || c == '\r')
+					{
+						if (lineSeparator == null)
+						{
+							lineSeparator = String.valueOf(c);
+						}
+						pendingCR = c == '\r';
+						currentRow.add(currentCell.toString());
+						currentCell.setLength(0);
+						rows.add(currentRow.toArray(new String[currentRow.size()]));
+						currentRow.clear();
+					}
+					else
+					{
+						currentCell.append(c);
+					}
+				}
+			}
+		}
+		
+		@Override
+		public void flush() throws IOException {
+		
+		}
+		
+		@Override
+		public void close() throws IOException {
+		
+		}
+	}
+}
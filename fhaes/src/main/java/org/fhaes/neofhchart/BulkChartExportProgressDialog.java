@@ -0,0 +1,194 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.neofhchart;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+import javax.swing.border.LineBorder;
+
+import org.fhaes.enums.FeedbackDisplayProtocol;
+import org.fhaes.enums.FeedbackMessageType;
+import org.fhaes.feedback.FeedbackPreferenceManager.FeedbackDictionary;
+import org.fhaes.gui.MainWindow;
+
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * BulkChartExportProgressDialog Class. Shows progress while a BulkChartExporter runs in a background thread, and allows the export to be
+ * cancelled. Once the export has finished the outcome is shown in the feedback message panel.
+ * 
+ * @author Peter Brewer
+ */
+public class BulkChartExportProgressDialog extends JDialog implements PropertyChangeListener {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final BulkChartExporter exporter;
+	private JProgressBar progressBar;
+	private int exported = 0;
+	
+	/**
+	 * Run the exporter, showing a modal progress dialog until it has finished.
+	 * 
+	 * @param parent
+	 * @param exporter
+	 */
+	public BulkChartExportProgressDialog(Component parent, BulkChartExporter exporter) {
+	
+		this.exporter = exporter;
+		
+		final Task task = new Task();
+		getContentPane().setLayout(new BorderLayout(0, 0));
+		
+		JPanel panel = new JPanel();
+		panel.setBorder(new LineBorder(new Color(0, 0, 0)));
+		getContentPane().add(panel);
+		panel.setLayout(new MigLayout("", "[66.00,grow][]", "[][]"));
+		
+		progressBar = new JProgressBar();
+		panel.add(progressBar, "cell 0 0 2 1,growx");
+		progressBar.setStringPainted(true);
+		
+		progressBar.setVisible(true);
+		progressBar.setMaximum(100);
+		progressBar.setValue(0);
+		
+		JLabel lblInfo = new JLabel("Exporting charts.  Please wait...");
+		panel.add(lblInfo, "cell 0 1");
+		lblInfo.setFont(new Font("Dialog", Font.PLAIN, 10));
+		
+		JButton btnCancel = new JButton("X");
+		btnCancel.setFocusable(false);
+		panel.add(btnCancel, "cell 1 1");
+		btnCancel.addActionListener(new ActionListener() {
+			
+			@Override
+			public void actionPerformed(ActionEvent e) {
+			
+				BulkChartExportProgressDialog.this.exporter.cancel();
+			}
+		});
+		
+		btnCancel.setFont(new Font("Dialog", Font.PLAIN, 8));
+		
+		this.setUndecorated(true);
+		this.setModal(true);
+		this.pack();
+		
+		task.addPropertyChangeListener(this);
+		task.execute();
+		
+		this.setLocationRelativeTo(parent);
+		this.setVisible(true);
+	}
+	
+	class Task extends SwingWorker<Void, Void> {
+		
+		/*
+		 * Main task. Executed in background thread.
+		 */
+		@Override
+		public Void doInBackground() {
+		
+			setProgress(0);
+			
+			setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+			
+			// Pass the exporter's progress on to the dialog through the worker so it is delivered on the EDT
+			exporter.addPropertyChangeListener(new PropertyChangeListener() {
+				
+				@Override
+				public void propertyChange(PropertyChangeEvent evt) {
+				
+					if ("progress".equals(evt.getPropertyName()))
+					{
+						setProgress((Integer) evt.getNewValue());
+					}
+				}
+			});
+			
+			exported = exporter.run();
+			
+			return null;
+		}
+		
+		/*
+		 * Executed in event dispatching thread
+		 */
+		@Override
+		public void done() {
+		
+			setCursor(null); // turn off the wait cursor
+			finish();
+		}
+	}
+	
+	/**
+	 * Update the progress bar.
+	 */
+	@Override
+	public void propertyChange(PropertyChangeEvent evt) {
+	
+		if ("progress" == evt.getPropertyName())
+		{
+			int progress = (Integer) evt.getNewValue();
+			progressBar.setValue(progress);
+		}
+	}
+	
+	/**
+	 * Close the dialog and report the outcome of the export.
+	 */
+	private void finish() {
+	
+		this.setVisible(false);
+		
+		int failed = exporter.getErrors().size();
+		
+		if (failed > 0)
+		{
+			MainWindow.getInstance().getFeedbackMessagePanel().updateFeedbackMessage(FeedbackMessageType.ERROR,
+					FeedbackDisplayProtocol.MANUAL_HIDE, "Unable to export " + failed + " chart(s).  See "
+							+ exporter.getErrorLogFile().getAbsolutePath() + " for details.");
+		}
+		else if (exporter.isCancelled())
+		{
+			MainWindow.getInstance().getFeedbackMessagePanel().updateFeedbackMessage(FeedbackMessageType.INFO,
+					FeedbackDisplayProtocol.AUTO_HIDE, "Bulk chart export cancelled after " + exported + " chart(s).");
+		}
+		else
+		{
+			MainWindow.getInstance().getFeedbackMessagePanel().updateFeedbackMessage(FeedbackMessageType.INFO,
+					FeedbackDisplayProtocol.AUTO_HIDE, FeedbackDictionary.NEOFHCHART_BULK_EXPORT_MESSAGE.toString());
+		}
+	}
+}
@@ -0,0 +1,362 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.neofhchart;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.fhaes.fhfilereader.AbstractFireHistoryReader;
+import org.fhaes.fhfilereader.FHFile;
+import org.fhaes.neofhchart.svg.FireChartSVG;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BulkChartExporter Class. Exports a fire history chart for each of a list of files. The charts are built and transcoded by a fixed size
+ * pool of worker threads, so at most one chart per thread is held in memory at a time, and each worker reuses its own ChartExporter. No GUI
+ * classes are used so this can be run off the EDT or headless.
+ * 
+ * <p>
+ * Progress is reported to PropertyChangeListeners as a "progress" property from 0 to 100, in the same way as a SwingWorker. The export can
+ * be cancelled from another thread, in which case files that have not been started are skipped. A file that cannot be exported does not
+ * stop the others; the errors are available from getErrors() and are written to a log file in the output folder.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class BulkChartExporter {
+	
+	private static final Logger log = LoggerFactory.getLogger(BulkChartExporter.class);
+	
+	public static final String ERROR_LOG_FILENAME = "chart-export-errors.txt";
+	
+	/**
+	 * The formats charts can be exported to.
+	 */
+	public enum ExportFormat {
+		SVG("svg"), PNG("png"), PDF("pdf");
+		
+		private final String extension;
+		
+		private ExportFormat(String extension) {
+		
+			this.extension = extension;
+		}
+		
+		public String getExtension() {
+		
+			return extension;
+		}
+	}
+	
+	private final List<FHFile> files;
+	private final File outputFolder;
+	private final ExportFormat format;
+	private final int threads;
+	private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+	private final Map<FHFile, Exception> errors = new LinkedHashMap<FHFile, Exception>();
+	private final Map<FHFile, File> outputFiles = new HashMap<FHFile, File>();
+	private volatile boolean cancelled = false;
+	private volatile int progress = 0;
+	
+	/**
+	 * Create a new exporter.
+	 * 
+	 * @param files - files to export charts for
+	 * @param outputFolder - folder to write the charts to
+	 * @param format - format to export the charts in
+	 * @param threads - number of charts to build and export at once
+	 */
+	public BulkChartExporter(List<FHFile> files, File outputFolder, ExportFormat format, int threads) {
+	
+		this.files = new ArrayList<FHFile>(files);
+		this.outputFolder = outputFolder;
+		this.format = format;
+		this.threads = Math.max(1, Math.min(threads, this.files.size()));
+		
+		// Choose the output files up front so that files with the same name in different input folders do not overwrite each other's charts
+		Set<String> usedNames = new HashSet<String>();
+		for (FHFile file : this.files)
+		{
+			if (outputFiles.containsKey(file))
+				continue;
+			
+			String name = file.getFileNameWithoutExtension();
+			String uniqueName = name;
+			for (int i = 2; !usedNames.add(uniqueName.toLowerCase()); i++)
+			{
+				uniqueName = name + "_" + i;
+			}
+			outputFiles.put(file, new File(outputFolder, uniqueName + "." + format.getExtension()));
+		}
+	}
+	
+	/**
+	 * Get the file a chart will be exported to. This is the name of the FHX file with the extension of the export format. If more than one
+	 * of the files has the same name, the second and later ones have a numeric suffix added, e.g. site_2.png.
+	 * 
+	 * @param file
+	 * @return the output file, or null if the file is not one of those being exported
+	 */
+	public File getOutputFile(FHFile file) {
+	
+		return outputFiles.get(file);
+	}
+	
+	/**
+	 * Export the charts, blocking until they are all done or the export is cancelled.
+	 * 
+	 * @return the number of charts successfully exported
+	 */
+	public int run() {
+	
+		log.debug("Exporting " + files.size() + " charts as " + format + " using " + threads + " threads");
+		
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CompletionService<Boolean> completionService = new ExecutorCompletionService<Boolean>(executor);
+		
+		// Each worker thread keeps its own exporter so that its transcoder is reused from one chart to the next
+		final ThreadLocal<ChartExporter> exporters = new ThreadLocal<ChartExporter>() {
+		
+			@Override
+			protected ChartExporter initialValue() {
+			
+				return new ChartExporter();
+			}
+		};
+		
+		int exported = 0;
+		try
+		{
+			for (final FHFile file : files)
+			{
+				completionService.submit(new Callable<Boolean>() {
+					
+					@Override
+					public Boolean call() {
+					
+						if (cancelled)
+							return false;
+						
+						try
+						{
+							exportChart(file, exporters.get());
+							return true;
+						}
+						catch (Exception e)
+						{
+							log.error("Failed to export chart for " + file.getName());
+							e.printStackTrace();
+							addError(file, e);
+							return false;
+						}
+					}
+				});
+			}
+			
+			for (int i = 0; i < files.size(); i++)
+			{
+				if (completionService.take().get())
+					exported++;
+				
+				setProgress((int) (((double) (i + 1) / files.size()) * 100));
+			}
+		}
+		catch (InterruptedException e)
+		{
+			log.debug("Chart export interrupted");
+			cancelled = true;
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e)
+		{
+			log.error("Chart export aborted");
+			e.printStackTrace();
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		
+		writeErrorLog();
+		
+		return exported;
+	}
+	
+	/**
+	 * Build and export the chart for a single file.
+	 * 
+	 * @param file
+	 * @param exporter
+	 * @throws Exception
+	 */
+	private void exportChart(FHFile file, ChartExporter exporter) throws Exception {
+	
+		AbstractFireHistoryReader reader = file.getFireHistoryReader();
+		if (reader == null)
+			throw new IOException("Unable to read file");
+		
+		FireChartSVG chart = new FireChartSVG(reader);
+		try
+		{
+			File outputFile = getOutputFile(file);
+			
+			if (format.equals(ExportFormat.PDF))
+			{
+				exporter.exportPDF(chart, outputFile, null);
+			}
+			else if (format.equals(ExportFormat.PNG))
+			{
+				exporter.exportPNG(chart, outputFile, chart.getTotalWidth(), chart.getTotalHeight());
+			}
+			else
+			{
+				exporter.exportSVG(chart, outputFile);
+			}
+		}
+		finally
+		{
+			chart.dispose();
+		}
+	}
+	
+	/**
+	 * Write the errors, if there were any, to the error log in the output folder.
+	 */
+	private void writeErrorLog() {
+	
+		Map<FHFile, Exception> failures = getErrors();
+		if (failures.isEmpty())
+			return;
+		
+		try
+		{
+			Writer writer = new BufferedWriter(new FileWriter(getErrorLogFile()));
+			try
+			{
+				for (Map.Entry<FHFile, Exception> entry : failures.entrySet())
+				{
+					writer.write(entry.getKey().getAbsolutePath() + "\t" + entry.getValue() + System.lineSeparator());
+				}
+			}
+			finally
+			{
+				writer.close();
+			}
+		}
+		catch (IOException e)
+		{
+			log.error("Unable to write chart export error log");
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Cancel the export. Charts that are already being exported are finished but no more are started.
+	 */
+	public void cancel() {
+	
+		cancelled = true;
+	}
+	
+	/**
+	 * Whether the export has been cancelled.
+	 * 
+	 * @return
+	 */
+	public boolean isCancelled() {
+	
+		return cancelled;
+	}
+	
+	/**
+	 * Get the files that could not be exported, and the reason why, in the order they failed.
+	 * 
+	 * @return
+	 */
+	public Map<FHFile, Exception> getErrors() {
+	
+		synchronized (errors)
+		{
+			return new LinkedHashMap<FHFile, Exception>(errors);
+		}
+	}
+	
+	/**
+	 * Get the log file the errors are written to.
+	 * 
+	 * @return
+	 */
+	public File getErrorLogFile() {
+	
+		return new File(outputFolder, ERROR_LOG_FILENAME);
+	}
+	
+	private void addError(FHFile file, Exception e) {
+	
+		synchronized (errors)
+		{
+			errors.put(file, e);
+		}
+	}
+	
+	/**
+	 * Get the percentage of charts completed.
+	 * 
+	 * @return
+	 */
+	public int getProgress() {
+	
+		return progress;
+	}
+	
+	private void setProgress(int progress) {
+	
+		int oldProgress = this.progress;
+		this.progress = progress;
+		changeSupport.firePropertyChange("progress", oldProgress, progress);
+	}
+	
+	public void addPropertyChangeListener(PropertyChangeListener listener) {
+	
+		changeSupport.addPropertyChangeListener(listener);
+	}
+	
+	public void removePropertyChangeListener(PropertyChangeListener listener) {
+	
+		changeSupport.removePropertyChangeListener(listener);
+	}
+}
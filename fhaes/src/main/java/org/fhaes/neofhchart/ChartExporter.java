@@ -0,0 +1,183 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.neofhchart;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.print.PageFormat;
+import java.awt.print.Paper;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.apache.batik.transcoder.TranscoderException;
+import org.apache.batik.transcoder.TranscoderInput;
+import org.apache.batik.transcoder.TranscoderOutput;
+import org.apache.batik.transcoder.image.PNGTranscoder;
+import org.apache.batik.transcoder.print.PrintTranscoder;
+import org.fhaes.neofhchart.svg.FireChartSVG;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.ImgTemplate;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfTemplate;
+import com.itextpdf.text.pdf.PdfWriter;
+
+/**
+ * ChartExporter Class. Writes a FireChartSVG to disk as an SVG file, PNG image or PDF document. This is used by the export dialogs and by
+ * BulkChartExporter. No GUI classes are used so charts can be exported off the EDT and when running headless.
+ * 
+ * <p>
+ * The PNG transcoder is kept and reused for each chart exported, so an exporter must only be used by one thread at a time. Batik's
+ * PrintTranscoder keeps hold of the documents it has printed, so a new one is needed for each PDF.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class ChartExporter {
+	
+	private final PNGTranscoder pngTranscoder = new PNGTranscoder();
+	
+	/**
+	 * Save the chart as an SVG file.
+	 * 
+	 * @param chart
+	 * @param outputFile
+	 * @throws IOException
+	 * @throws TransformerException
+	 */
+	public void exportSVG(FireChartSVG chart, File outputFile) throws IOException, TransformerException {
+	
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile));
+		try
+		{
+			Transformer t = TransformerFactory.newInstance().newTransformer();
+			t.setOutputProperty(OutputKeys.METHOD, "xml");
+			t.setOutputProperty(OutputKeys.INDENT, "yes");
+			t.transform(new DOMSource(chart.getSVGDocument()), new StreamResult(new OutputStreamWriter(out, "UTF-8")));
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+	
+	/**
+	 * Save the chart as a PNG image of the specified size in pixels.
+	 * 
+	 * @param chart
+	 * @param outputFile
+	 * @param width
+	 * @param height
+	 * @throws IOException
+	 * @throws TranscoderException
+	 */
+	public void exportPNG(FireChartSVG chart, File outputFile, float width, float height) throws IOException, TranscoderException {
+	
+		pngTranscoder.addTranscodingHint(PNGTranscoder.KEY_WIDTH, width);
+		pngTranscoder.addTranscodingHint(PNGTranscoder.KEY_HEIGHT, height);
+		pngTranscoder.addTranscodingHint(PNGTranscoder.KEY_BACKGROUND_COLOR, Color.WHITE);
+		
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile));
+		try
+		{
+			chart.setVisibilityOfNoExportElements(false);
+			pngTranscoder.transcode(new TranscoderInput(chart.getSVGDocument()), new TranscoderOutput(out));
+			out.flush();
+		}
+		finally
+		{
+			chart.setVisibilityOfNoExportElements(true);
+			out.close();
+		}
+	}
+	
+	/**
+	 * Save the chart as a single page PDF document.
+	 * 
+	 * @param chart
+	 * @param outputFile
+	 * @param pageSize - size of the page, or null to make the page the same size as the chart
+	 * @throws IOException
+	 * @throws DocumentException
+	 */
+	public void exportPDF(FireChartSVG chart, File outputFile, Rectangle pageSize) throws IOException, DocumentException {
+	
+		if (pageSize == null)
+		{
+			pageSize = new Rectangle(chart.getTotalWidth(), chart.getTotalHeight());
+		}
+		
+		Document document = new Document(pageSize, 10, 10, 10, 10);
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile));
+		
+		try
+		{
+			chart.setVisibilityOfNoExportElements(false);
+			
+			PdfWriter writer = PdfWriter.getInstance(document, out);
+			document.open();
+			
+			int width = (int) document.getPageSize().getWidth();
+			int height = (int) document.getPageSize().getHeight();
+			
+			PdfContentByte cb = writer.getDirectContent();
+			PdfTemplate template = cb.createTemplate(width, height);
+			
+			@SuppressWarnings("deprecation")
+			Graphics2D g2 = template.createGraphics(width, height);
+			
+			PrintTranscoder prm = new PrintTranscoder();
+			TranscoderInput ti = new TranscoderInput(chart.getSVGDocument());
+			prm.transcode(ti, null);
+			
+			PageFormat pg = new PageFormat();
+			Paper pp = new Paper();
+			pp.setSize(width, height);
+			pp.setImageableArea(0, 0, width, height);
+			pg.setPaper(pp);
+			prm.print(g2, pg, 0);
+			g2.dispose();
+			
+			ImgTemplate img = new ImgTemplate(template);
+			document.add(img);
+		}
+		finally
+		{
+			chart.setVisibilityOfNoExportElements(true);
+			
+			if (document.isOpen())
+			{
+				document.close();
+			}
+			out.close();
+		}
+	}
+}
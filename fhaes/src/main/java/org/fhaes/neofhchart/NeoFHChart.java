@@ -24,7 +24,9 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import javax.swing.Action;
 import javax.swing.ActionMap;
@@ -43,6 +45,7 @@ import org.fhaes.fhfilereader.FHFile;
 import org.fhaes.filefilter.PDFFilter;
 import org.fhaes.filefilter.PNGFilter;
 import org.fhaes.filefilter.SVGFilter;
+import org.fhaes.neofhchart.BulkChartExporter.ExportFormat;
 import org.fhaes.neofhchart.svg.FireChartSVG;
 import org.fhaes.preferences.App;
 import org.fhaes.preferences.FHAESPreferences.PrefKey;
@@ -293,28 +296,35 @@ public class NeoFHChart extends JPanel implements PrefsListener {
 	}
 	
 	/**
-	 * Bulk exports charts for all currently loaded files as PDF documents, PNG images, or SVG files.
+	 * Bulk exports charts for the specified files as PDF documents, PNG images, or SVG files. The charts are built and exported in the
+	 * background by a BulkChartExporter while a progress dialog is shown.
 	 * 
 	 * @param selectedFilter
 	 * @param pdff
 	 * @param pngf
 	 * @param svgf
-	 * @param outputFile
+	 * @param files
+	 * @param outputFolder
 	 */
-	public void doBulkExport(FileFilter selectedFilter, PDFFilter pdff, PNGFilter pngf, SVGFilter svgf, File outputFile) {
+	public void doBulkExport(FileFilter selectedFilter, PDFFilter pdff, PNGFilter pngf, SVGFilter svgf, List<FHFile> files,
+			File outputFolder) {
 		
+		ExportFormat format;
 		if (selectedFilter.equals(pdff))
 		{
-			new PDFExportOptionsDialog(currentChart, outputFile, true);
+			format = ExportFormat.PDF;
 		}
 		else if (selectedFilter.equals(pngf))
 		{
-			new PNGExportOptionsDialog(currentChart, outputFile, true);
+			format = ExportFormat.PNG;
 		}
-		else if (selectedFilter.equals(svgf))
+		else
 		{
-			currentChart.saveSVGToDisk(outputFile);
+			format = ExportFormat.SVG;
 		}
+		
+		BulkChartExporter exporter = new BulkChartExporter(files, outputFolder, format, Runtime.getRuntime().availableProcessors());
+		new BulkChartExportProgressDialog(App.mainFrame, exporter);
 	}
 	
 	/**
@@ -325,18 +335,46 @@ public class NeoFHChart extends JPanel implements PrefsListener {
 		
 		if (currentChart != null)
 		{
-			if (e.getPref().getValue().toLowerCase().startsWith("chart"))
+			final List<PrefKey> chartKeys = new ArrayList<PrefKey>();
+			for (PrefKey key : e.getPrefs())
+			{
+				if (key.getValue().toLowerCase().startsWith("chart"))
+				{
+					chartKeys.add(key);
+				}
+			}
+			
+			if (!chartKeys.isEmpty())
 			{
 				// currentChart.positionChartGroupersAndDrawTimeAxis();
-				log.debug("Preference change for key " + e.getPref() + " picked up by NeoFHChart");
+				log.debug("Preference change for keys " + chartKeys + " picked up by NeoFHChart");
 				
 				App.prefs.setSilentMode(false);
-				redrawChart();
+				updateChart(chartKeys);
 				App.prefs.setSilentMode(false);
 			}
 		}
 	}
 	
+	/**
+	 * Update the parts of the chart affected by a change to the specified preferences.
+	 * 
+	 * @param keys
+	 */
+	private void updateChart(final List<PrefKey> keys) {
+		
+		Runnable r = new Runnable() {
+			
+			@Override
+			public void run() {
+				
+				currentChart.applyPreferenceChanges(keys);
+			}
+		};
+		
+		svgCanvas.getUpdateManager().getUpdateRunnableQueue().invokeLater(r);
+	}
+	
 	/**
 	 * Force redraw of chart
 	 */
@@ -21,13 +21,9 @@ import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.FlowLayout;
 import java.awt.Font;
-import java.awt.Graphics2D;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.print.PageFormat;
-import java.awt.print.Paper;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 
 import javax.swing.BorderFactory;
@@ -42,8 +38,6 @@ import javax.swing.JRadioButton;
 import javax.swing.ListCellRenderer;
 import javax.swing.border.EmptyBorder;
 
-import org.apache.batik.transcoder.TranscoderInput;
-import org.apache.batik.transcoder.print.PrintTranscoder;
 import org.fhaes.enums.FeedbackDisplayProtocol;
 import org.fhaes.enums.FeedbackMessageType;
 import org.fhaes.feedback.FeedbackPreferenceManager.FeedbackDictionary;
@@ -54,14 +48,9 @@ import org.fhaes.util.Builder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
-import com.itextpdf.text.ImgTemplate;
 import com.itextpdf.text.PageSize;
 import com.itextpdf.text.Rectangle;
-import com.itextpdf.text.pdf.PdfContentByte;
-import com.itextpdf.text.pdf.PdfTemplate;
-import com.itextpdf.text.pdf.PdfWriter;
 
 import net.miginfocom.swing.MigLayout;
 
@@ -269,56 +258,21 @@ public class PDFExportOptionsDialog extends JDialog implements ActionListener {
 		if (currentChart != null)
 		{
 			log.debug("Exporting to PDF...");
-			Document document = null;
+			Rectangle rect = null;
 			
 			if (cboPaperSize.getSelectedItem() instanceof Rectangle)
 			{
-				Rectangle rect = (Rectangle) cboPaperSize.getSelectedItem();
+				rect = (Rectangle) cboPaperSize.getSelectedItem();
 				
 				if (radLandscape.isSelected())
 				{
 					rect = rect.rotate();
 				}
-				
-				document = new Document(rect, 10, 10, 10, 10);
-			}
-			else
-			{
-				Rectangle rect = new Rectangle(currentChart.getTotalWidth(), currentChart.getTotalHeight());
-				document = new Document(rect, 10, 10, 10, 10);
 			}
 			
 			try
 			{
-				currentChart.setVisibilityOfNoExportElements(false);
-				
-				PdfWriter writer = PdfWriter.getInstance(document, new FileOutputStream(outputFile.getAbsolutePath()));
-				document.open();
-				
-				int width = (int) document.getPageSize().getWidth();
-				int height = (int) document.getPageSize().getHeight();
-				
-				PdfContentByte cb = writer.getDirectContent();
-				PdfTemplate template = cb.createTemplate(width, height);
-				
-				@SuppressWarnings("deprecation")
-				Graphics2D g2 = template.createGraphics(width, height);
-				
-				PrintTranscoder prm = new PrintTranscoder();
-				TranscoderInput ti = new TranscoderInput(currentChart.getSVGDocument());
-				prm.transcode(ti, null);
-				
-				PageFormat pg = new PageFormat();
-				Paper pp = new Paper();
-				pp.setSize(width, height);
-				pp.setImageableArea(0, 0, width, height);
-				pg.setPaper(pp);
-				prm.print(g2, pg, 0);
-				g2.dispose();
-				
-				ImgTemplate img = new ImgTemplate(template);
-				document.add(img);
-				
+				new ChartExporter().exportPDF(currentChart, outputFile, rect);
 				completedSuccessfully = true;
 			}
 			catch (DocumentException e)
@@ -329,12 +283,6 @@ public class PDFExportOptionsDialog extends JDialog implements ActionListener {
 			{
 				System.err.println(e);
 			}
-			finally
-			{
-				currentChart.setVisibilityOfNoExportElements(true);
-			}
-			
-			document.close();
 		}
 		
 		return completedSuccessfully;
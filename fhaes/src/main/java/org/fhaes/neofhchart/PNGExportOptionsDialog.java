@@ -18,13 +18,10 @@
 package org.fhaes.neofhchart;
 
 import java.awt.BorderLayout;
-import java.awt.Color;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStream;
 
 import javax.swing.JButton;
 import javax.swing.JComponent;
@@ -42,9 +39,6 @@ import javax.swing.text.DefaultFormatter;
 
 import net.miginfocom.swing.MigLayout;
 
-import org.apache.batik.transcoder.TranscoderInput;
-import org.apache.batik.transcoder.TranscoderOutput;
-import org.apache.batik.transcoder.image.PNGTranscoder;
 import org.fhaes.enums.FeedbackDisplayProtocol;
 import org.fhaes.enums.FeedbackMessageType;
 import org.fhaes.feedback.FeedbackPreferenceManager.FeedbackDictionary;
@@ -253,17 +247,8 @@ public class PNGExportOptionsDialog extends JDialog implements ActionListener {
 			
 			try
 			{
-				currentChart.setVisibilityOfNoExportElements(false);
-				
-				PNGTranscoder t = new PNGTranscoder();
 				float width = Double.valueOf((int) this.spnWidth.getValue()).floatValue();
 				float height = Double.valueOf((int) this.spnHeight.getValue()).floatValue();
-				
-				t.addTranscodingHint(PNGTranscoder.KEY_WIDTH, width);
-				t.addTranscodingHint(PNGTranscoder.KEY_HEIGHT, height);
-				t.addTranscodingHint(PNGTranscoder.KEY_BACKGROUND_COLOR, Color.WHITE);
-				
-				TranscoderInput input = new TranscoderInput(currentChart.getSVGDocument());
 				String path = outputFile.getAbsolutePath();
 				
 				if (!path.toLowerCase().endsWith(".png"))
@@ -271,13 +256,7 @@ public class PNGExportOptionsDialog extends JDialog implements ActionListener {
 					path = path + ".png";
 				}
 				
-				OutputStream png_ostream = new FileOutputStream(path);
-				TranscoderOutput output = new TranscoderOutput(png_ostream);
-				t.transcode(input, output);
-				png_ostream.flush();
-				png_ostream.close();
-				currentChart.setVisibilityOfNoExportElements(true);
-				// svgCanvas.setDocument(currentChart.doc);
+				new ChartExporter().exportPNG(currentChart, new File(path), width, height);
 				
 				completedSuccessfully = true;
 			}
@@ -25,9 +25,11 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Scanner;
 
@@ -109,6 +111,12 @@ public class FireChartSVG {
 	private SeriesSortType lastTypeSortedBy = SeriesSortType.NAME;
 	private ArrayList<FHSeriesSVG> seriesSVGList = new ArrayList<>();
 	
+	// The series groups of the chronology plot for each series, and the category labels currently added to them. These are kept so that
+	// the series can be moved or hidden by changing the existing elements rather than rebuilding the chronology plot. Series titles are
+	// not always unique so the groups are keyed on the series objects themselves
+	private final Map<FHSeriesSVG, Element> seriesGroups = new IdentityHashMap<>();
+	private final ArrayList<Element> categoryLabels = new ArrayList<>();
+	
 	// Declare builder objects
 	private final CompositePlotElementBuilder compositePlotEB;
 	private final LegendElementBuilder legendEB;
@@ -117,7 +125,8 @@ public class FireChartSVG {
 	private final SeriesElementBuilder seriesEB;
 	private final TimeAxisElementBuilder timeAxisEB;
 	
-	// Java <-> ECMAScript interop used for message passing with ECMAScript. Note not thread-safe
+	// Java <-> ECMAScript interop used for message passing with ECMAScript. Access to the counter and map is synchronized on the class
+	// so that charts can be built on several threads at once
 	private static int chartCounter = 0;
 	private static int lineGensym = 0; // only used in drawRect -- I just need a unique id
 	private static Map<Integer, FireChartSVG> chart_map;
@@ -140,14 +149,17 @@ public class FireChartSVG {
 		timeAxisEB = new TimeAxisElementBuilder(this);
 		
 		// Assign number for message passing from ECMAscript
-		chartNum = chartCounter;
-		chartCounter++;
-		
-		if (chart_map == null)
+		synchronized (FireChartSVG.class)
 		{
-			chart_map = new HashMap<>();
+			chartNum = chartCounter;
+			chartCounter++;
+			
+			if (chart_map == null)
+			{
+				chart_map = new HashMap<>();
+			}
+			chart_map.put(chartNum, this);
 		}
-		chart_map.put(chartNum, this);
 		
 		reader = f;
 		ArrayList<FHSeriesSVG> seriesToAdd = FireChartUtil.seriesListToSeriesSVGList(f.getSeriesList());
@@ -248,9 +260,6 @@ public class FireChartSVG {
 		
 		// Finish up the initialization
 		buildElements();
-		positionSeriesLines();
-		positionChartGroupersAndDrawTimeAxis();
-		sortSeriesAccordingToPreference();
 	};
 	
 	/**
@@ -299,11 +308,23 @@ public class FireChartSVG {
 	 * @param id
 	 * @return
 	 */
-	public static FireChartSVG getChart(Integer id) {
+	public static synchronized FireChartSVG getChart(Integer id) {
 		
 		return chart_map.get(id);
 	}
 	
+	/**
+	 * Release this chart from the map used for message passing from ECMAscript so that it can be garbage collected. This should be called
+	 * once a chart that is not being displayed, e.g. one built for exporting, is finished with.
+	 */
+	public void dispose() {
+		
+		synchronized (FireChartSVG.class)
+		{
+			chart_map.remove(chartNum);
+		}
+	}
+	
 	/**
 	 * This function returns the up-to-date list of series.
 	 * 
@@ -524,7 +545,9 @@ public class FireChartSVG {
 				
 				try
 				{
-					seriesSVGList.set(i - 1, new FHSeriesSVG(series, series.getSequenceInFile()));
+					FHSeriesSVG movedSeries = new FHSeriesSVG(series, series.getSequenceInFile());
+					seriesSVGList.set(i - 1, movedSeries);
+					seriesGroups.put(movedSeries, seriesGroups.remove(series));
 				}
 				catch (Exception e)
 				{
@@ -532,9 +555,10 @@ public class FireChartSVG {
 				}
 				
 				i--;
-				positionSeriesLines();
 			}
 			while (i > 0 && !seriesSVGList.get(i + 1).isVisible());
+			
+			positionSeriesLines();
 		}
 	}
 	
@@ -561,7 +585,9 @@ public class FireChartSVG {
 				
 				try
 				{
-					seriesSVGList.set(i + 1, new FHSeriesSVG(series, series.getSequenceInFile()));
+					FHSeriesSVG movedSeries = new FHSeriesSVG(series, series.getSequenceInFile());
+					seriesSVGList.set(i + 1, movedSeries);
+					seriesGroups.put(movedSeries, seriesGroups.remove(series));
 				}
 				catch (Exception e)
 				{
@@ -569,14 +595,16 @@ public class FireChartSVG {
 				}
 				
 				i++;
-				positionSeriesLines();
 			}
 			while (i < seriesSVGList.size() - 1 && !seriesSVGList.get(i - 1).isVisible());
+			
+			positionSeriesLines();
 		}
 	}
 	
 	/**
-	 * Handles the positioning of the series lines on the chart.
+	 * Handles the positioning of the series lines on the chart. The existing series groups are moved and hidden as necessary, so this is
+	 * much cheaper than rebuilding the chronology plot.
 	 */
 	private void positionSeriesLines() {
 		
@@ -586,13 +614,20 @@ public class FireChartSVG {
 		// Reset the amount of padding necessary for category groupings
 		categoryGroupPadding = 0;
 		
+		// Remove the category labels from the last time the series were positioned
+		for (Element label_text_g : categoryLabels)
+		{
+			label_text_g.getParentNode().removeChild(label_text_g);
+		}
+		categoryLabels.clear();
+		
 		// Define a string for keeping track of the category groups
 		ArrayList<String> categoryGroupsProcessed = new ArrayList<>();
 		
 		for (int i = 0; i < seriesSVGList.size(); i++)
 		{
 			FHSeries seriesSVG = seriesSVGList.get(i);
-			Element series_group = doc.getElementById("series_group_" + seriesSVG.getTitle());
+			Element series_group = seriesGroups.get(seriesSVG);
 			String visibility_string = seriesSVGList.get(i).isVisible() ? "inline" : "none";
 			
 			if (seriesSVGList.get(i).isVisible())
@@ -622,6 +657,7 @@ public class FireChartSVG {
 							label_text_g.appendChild(seriesEB.getCategoryLabelTextElement(currentCategoryGroup, Color.BLACK));
 						}
 						series_group.appendChild(label_text_g);
+						categoryLabels.add(label_text_g);
 						
 						// Handle the padding of category groups depending on whether the label is shown
 						if (App.prefs.getBooleanPref(PrefKey.CHART_SHOW_CATEGORY_LABELS, true))
@@ -637,7 +673,7 @@ public class FireChartSVG {
 					}
 				}
 				
-				series_group.setAttributeNS(null, "transform",
+				setAttributeIfChanged(series_group, "transform",
 						"translate(0," + Integer.toString(((i - hidden) * series_spacing_and_height) + categoryGroupPadding) + ")");
 			}
 			else
@@ -645,7 +681,23 @@ public class FireChartSVG {
 				hidden++;
 			}
 			
-			series_group.setAttributeNS(null, "display", visibility_string);
+			setAttributeIfChanged(series_group, "display", visibility_string);
+		}
+	}
+	
+	/**
+	 * Sets an attribute only if its value has changed. Each change to the document makes Batik update the rendering, so this avoids
+	 * unnecessary work when most of the series stay where they are.
+	 * 
+	 * @param e
+	 * @param name
+	 * @param value
+	 */
+	private static void setAttributeIfChanged(Element e, String name, String value) {
+		
+		if (!value.equals(e.getAttributeNS(null, name)))
+		{
+			e.setAttributeNS(null, name, value);
 		}
 	}
 	
@@ -755,7 +807,217 @@ public class FireChartSVG {
 			annote_g.appendChild(canvas);
 		}
 		
-		// Rebuild the chart title
+		rebuildChartTitle();
+		rebuildIndexPlot();
+		
+		// Clear out the chronology plot so that sorting the series rebuilds it
+		Element chrono_plot_g = doc.getElementById("chrono_plot_g");
+		deleteAllChildren(chrono_plot_g);
+		seriesGroups.clear();
+		categoryLabels.clear();
+		sortSeriesAccordingToPreference();
+		
+		rebuildCompositePlot();
+		rebuildLegend();
+		
+		positionChartGroupersAndDrawTimeAxis();
+	}
+	
+	/**
+	 * Update the chart after the specified preference has changed. Only the parts of the chart that depend on the preference are changed,
+	 * falling back to rebuilding the whole chart with buildElements() for preferences that are not listed here.
+	 * 
+	 * @param key
+	 */
+	public void applyPreferenceChange(PrefKey key) {
+		
+		if (!applyPartialPreferenceChange(key))
+		{
+			buildElements();
+		}
+	}
+	
+	/**
+	 * Update the chart after several preferences have changed together. If any of them requires the whole chart to be rebuilt then this is
+	 * only done once, after the other changes have been applied.
+	 * 
+	 * @param keys
+	 */
+	public void applyPreferenceChanges(Collection<PrefKey> keys) {
+		
+		boolean rebuildAll = false;
+		for (PrefKey key : keys)
+		{
+			if (!applyPartialPreferenceChange(key))
+			{
+				rebuildAll = true;
+			}
+		}
+		
+		if (rebuildAll)
+		{
+			buildElements();
+		}
+	}
+	
+	/**
+	 * Update the parts of the chart that depend on the specified preference.
+	 * 
+	 * @param key
+	 * @return false if the preference affects the whole chart, in which case nothing has been changed and buildElements() is required
+	 */
+	private boolean applyPartialPreferenceChange(PrefKey key) {
+		
+		switch (key)
+		{
+			case CHART_LAST_EXPORT_FOLDER:
+			case CHART_REMEMBER_CHART_PREFS_AFTER_RESTART:
+				// Not drawn on the chart
+				break;
+			
+			case CHART_SORT_BY_PREFERENCE:
+				// Charts are usually sorted before the preference is stored, in which case there is nothing to do
+				if (!App.prefs.getPref(PrefKey.CHART_SORT_BY_PREFERENCE, SeriesSortType.NAME.toString()).equals(lastTypeSortedBy.toString()))
+				{
+					sortSeriesAccordingToPreference();
+				}
+				break;
+			
+			case CHART_CHRONOLOGY_PLOT_SPACING:
+				positionSeriesLines();
+				positionChartGroupersAndDrawTimeAxis();
+				break;
+			
+			case CHART_SHOW_CHRONOLOGY_PLOT:
+				setChronologyPlotVisibility();
+				break;
+			
+			case CHART_SHOW_CHRONOLOGY_PLOT_LABELS:
+				setSeriesLabelsVisibility();
+				break;
+			
+			case CHART_AUTOMATICALLY_COLORIZE_LABELS:
+			case CHART_SHOW_CATEGORY_LABELS:
+			case CHART_CATEGORY_LABEL_FONT_SIZE:
+			case CHART_CATEGORY_LABEL_JUSTIFICATION:
+				// Category labels are added when the series are positioned
+				positionSeriesLines();
+				positionChartGroupersAndDrawTimeAxis();
+				break;
+			
+			case CHART_SHOW_PITH_SYMBOL:
+			case CHART_SHOW_BARK_SYMBOL:
+			case CHART_SHOW_INNER_RING_SYMBOL:
+			case CHART_SHOW_OUTER_RING_SYMBOL:
+			case CHART_CHRONOLOGY_PLOT_LABEL_FONT_SIZE:
+			case CHART_AUTOMATICALLY_COLORIZE_SERIES:
+			case CHART_SHOW_CATEGORY_GROUPS:
+				rebuildChronologyPlot();
+				break;
+			
+			case CHART_SHOW_FIRE_EVENT_SYMBOL:
+			case CHART_SHOW_INJURY_SYMBOL:
+				rebuildLegend();
+				rebuildChronologyPlot();
+				break;
+			
+			case CHART_SHOW_CHART_TITLE:
+			case CHART_TITLE_FONT_SIZE:
+			case CHART_TITLE_USE_DEFAULT_NAME:
+			case CHART_TITLE_OVERRIDE_VALUE:
+				rebuildChartTitle();
+				rebuildIndexPlot();
+				positionChartGroupersAndDrawTimeAxis();
+				break;
+			
+			case CHART_SHOW_INDEX_PLOT:
+			case CHART_INDEX_PLOT_HEIGHT:
+			case CHART_INDEX_PERCENT_SCARRED_LINE_WIDTH:
+			case CHART_SHOW_SAMPLE_DEPTH:
+			case CHART_SHOW_PERCENT_SCARRED:
+			case CHART_SHOW_DEPTH_THRESHOLD:
+			case CHART_DEPTH_THRESHOLD_VALUE:
+			case CHART_SAMPLE_OR_RECORDER_DEPTH_COLOR:
+			case CHART_RECORDER_DEPTH_COLOR:
+			case CHART_PERCENT_SCARRED_COLOR:
+			case CHART_DEPTH_THRESHOLD_COLOR:
+			case CHART_AXIS_Y1_LABEL:
+			case CHART_AXIS_Y1_FONT_SIZE:
+			case CHART_AXIS_Y2_LABEL:
+			case CHART_AXIS_Y2_FONT_SIZE:
+				rebuildIndexPlot();
+				positionChartGroupersAndDrawTimeAxis();
+				break;
+			
+			case CHART_SHOW_COMPOSITE_PLOT:
+				setCompositePlotVisibility();
+				break;
+			
+			case CHART_COMPOSITE_HEIGHT:
+			case CHART_SHOW_COMPOSITE_YEAR_LABELS:
+			case CHART_COMPOSITE_YEAR_LABEL_FONT_SIZE:
+			case CHART_COMPOSITE_YEAR_LABEL_BUFFER:
+			case CHART_COMPOSITE_YEAR_LABELS_TWO_DIGIT:
+			case CHART_COMPOSITE_LABEL_TEXT:
+			case CHART_COMPOSITE_PLOT_LABEL_FONT_SIZE:
+			case CHART_COMPOSITE_LABEL_ALIGNMENT:
+				rebuildCompositePlot();
+				positionChartGroupersAndDrawTimeAxis();
+				break;
+			
+			case CHART_COMPOSITE_FILTER_TYPE:
+			case CHART_COMPOSITE_FILTER_VALUE:
+			case CHART_COMPOSITE_MIN_NUM_SAMPLES:
+			case CHART_COMPOSITE_SAMPLE_DEPTH_TYPE:
+				rebuildCompositePlot();
+				rebuildLegend();
+				positionChartGroupersAndDrawTimeAxis();
+				break;
+			
+			case CHART_COMPOSITE_EVENT_TYPE:
+				rebuildIndexPlot();
+				rebuildCompositePlot();
+				rebuildLegend();
+				positionChartGroupersAndDrawTimeAxis();
+				break;
+			
+			case CHART_SHOW_LEGEND:
+			case CHART_SHOW_FILTER_IN_LEGEND:
+				rebuildLegend();
+				positionChartGroupersAndDrawTimeAxis();
+				break;
+			
+			case CHART_TIMELINE_FONT_SIZE:
+			case CHART_VERTICAL_GUIDES:
+			case CHART_VERTICAL_GUIDE_COLOR:
+			case CHART_VERTICAL_GUIDE_STYLE:
+			case CHART_VERTICAL_GUIDE_WEIGHT:
+			case CHART_XAXIS_MAJOR_TICKS:
+			case CHART_XAXIS_MINOR_TICKS:
+			case CHART_XAXIS_MAJOR_TICK_SPACING:
+			case CHART_XAXIS_MINOR_TICK_SPACING:
+			case CHART_HIGHLIGHT_YEARS:
+			case CHART_HIGHLIGHT_YEARS_ARRAY:
+			case CHART_HIGHLIGHT_YEARS_COLOR:
+			case CHART_HIGHLIGHT_YEARS_WEIGHT:
+			case CHART_HIGHLIGHT_YEAR_STYLE:
+				// The time axis is redrawn whenever the chart is positioned
+				positionChartGroupersAndDrawTimeAxis();
+				break;
+			
+			default:
+				// Preferences such as the font and the range of years change every part of the chart
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Replaces the chart title with one generated from the current preferences.
+	 */
+	private void rebuildChartTitle() {
+		
 		Element chart_title_g = doc.getElementById("chart_title_g");
 		deleteAllChildren(chart_title_g);
 		if (App.prefs.getBooleanPref(PrefKey.CHART_TITLE_USE_DEFAULT_NAME, true))
@@ -783,28 +1045,36 @@ public class FireChartSVG {
 		{
 			chart_title_g.setAttributeNS(null, "display", "none");
 		}
+	}
+	
+	/**
+	 * Replaces the index plot with a freshly generated index plot.
+	 */
+	private void rebuildIndexPlot() {
 		
-		// Rebuild the index plot
 		Element index_plot_g = doc.getElementById("index_plot_g");
 		deleteAllChildren(index_plot_g);
 		index_plot_g.appendChild(getIndexPlot());
+	}
+	
+	/**
+	 * Replaces the composite plot with a freshly generated composite plot.
+	 */
+	private void rebuildCompositePlot() {
 		
-		sortSeriesAccordingToPreference();
-		
-		// Rebuild the chronology plot
-		rebuildChronologyPlot();
-		
-		// Rebuild the composite plot
 		Element comp_plot_g = doc.getElementById("comp_plot_g");
 		deleteAllChildren(comp_plot_g);
 		comp_plot_g.appendChild(getCompositePlot());
+	}
+	
+	/**
+	 * Replaces the legend with a freshly generated legend.
+	 */
+	private void rebuildLegend() {
 		
-		// Rebuild the legend
 		Element legend_g = doc.getElementById("legend_g");
 		deleteAllChildren(legend_g);
 		legend_g.appendChild(getLegend());
-		
-		positionChartGroupersAndDrawTimeAxis();
 	}
 	
 	/**
@@ -1063,6 +1333,7 @@ public class FireChartSVG {
 			
 			Element series_group = doc.createElementNS(svgNS, "g");
 			series_group.setAttributeNS(null, "id", "series_group_" + seriesSVG.getTitle());
+			seriesGroups.put(seriesSVG, series_group);
 			
 			// Add in the series group, which has the lines and ticks
 			Element series_line = buildSingleSeriesLine(seriesSVG);
@@ -1942,6 +2213,8 @@ public class FireChartSVG {
 		
 		Element chrono_plot_g = doc.getElementById("chrono_plot_g");
 		deleteAllChildren(chrono_plot_g);
+		seriesGroups.clear();
+		categoryLabels.clear();
 		chrono_plot_g.appendChild(getChronologyPlot());
 		positionSeriesLines();
 		positionChartGroupersAndDrawTimeAxis();
@@ -2036,6 +2309,10 @@ public class FireChartSVG {
 		
 		boolean isSeriesLabelVisible = App.prefs.getBooleanPref(PrefKey.CHART_SHOW_CHRONOLOGY_PLOT_LABELS, true);
 		
+		// The up/down buttons are not shown when grouping series by category
+		boolean isMoveButtonVisible = isSeriesLabelVisible
+				&& !(lastTypeSortedBy == SeriesSortType.CATEGORY && App.prefs.getBooleanPref(PrefKey.CHART_SHOW_CATEGORY_GROUPS, true));
+		
 		for (FHSeriesSVG seriesSVG : seriesSVGList)
 		{
 			Element ser = doc.getElementById("series_label_" + seriesSVG.getTitle());
@@ -2049,7 +2326,7 @@ public class FireChartSVG {
 		{
 			Element upButton = doc.getElementById("up_button" + i);
 			Element downButton = doc.getElementById("down_button" + i);
-			if (isSeriesLabelVisible)
+			if (isMoveButtonVisible)
 			{
 				upButton.setAttributeNS(null, "display", "inline");
 				downButton.setAttributeNS(null, "display", "inline");
@@ -2247,6 +2524,28 @@ public class FireChartSVG {
 		}
 	}
 	
+	/**
+	 * Records the order the series have been sorted in, then updates the chronology plot to show the new order. The series groups are moved
+	 * into place if they have already been built, but grouping by category colours and labels the series according to their position so in
+	 * that case the chronology plot is rebuilt.
+	 * 
+	 * @param sortType
+	 */
+	private void applySeriesOrder(SeriesSortType sortType) {
+		
+		SeriesSortType previousSortType = lastTypeSortedBy;
+		lastTypeSortedBy = sortType;
+		
+		if (seriesGroups.isEmpty() || previousSortType == SeriesSortType.CATEGORY || sortType == SeriesSortType.CATEGORY)
+		{
+			rebuildChronologyPlot();
+		}
+		else
+		{
+			positionSeriesLines();
+		}
+	}
+	
 	/**
 	 * Sorts the series according to the sort by preference.
 	 */
@@ -2295,8 +2594,7 @@ public class FireChartSVG {
 		};
 		
 		Collections.sort(seriesSVGList, comparator);
-		lastTypeSortedBy = SeriesSortType.NAME;
-		rebuildChronologyPlot();
+		applySeriesOrder(SeriesSortType.NAME);
 		
 		log.debug("Finished sorting chart series by name");
 	}
@@ -2320,8 +2618,7 @@ public class FireChartSVG {
 		};
 		
 		Collections.sort(seriesSVGList, comparator);
-		lastTypeSortedBy = SeriesSortType.CATEGORY;
-		rebuildChronologyPlot();
+		applySeriesOrder(SeriesSortType.CATEGORY);
 		
 		log.debug("Finished sorting chart series by category");
 	}
@@ -2358,8 +2655,7 @@ public class FireChartSVG {
 		};
 		
 		Collections.sort(seriesSVGList, comparator);
-		lastTypeSortedBy = SeriesSortType.FIRST_FIRE_YEAR;
-		rebuildChronologyPlot();
+		applySeriesOrder(SeriesSortType.FIRST_FIRE_YEAR);
 		
 		log.debug("Finished sorting chart series by first fire year");
 	}
@@ -2379,8 +2675,7 @@ public class FireChartSVG {
 		};
 		
 		Collections.sort(seriesSVGList, comparator);
-		lastTypeSortedBy = SeriesSortType.SAMPLE_START_YEAR;
-		rebuildChronologyPlot();
+		applySeriesOrder(SeriesSortType.SAMPLE_START_YEAR);
 		
 		log.debug("Finished sorting chart series by series start year");
 	}
@@ -2400,8 +2695,7 @@ public class FireChartSVG {
 		};
 		
 		Collections.sort(seriesSVGList, comparator);
-		lastTypeSortedBy = SeriesSortType.SAMPLE_END_YEAR;
-		rebuildChronologyPlot();
+		applySeriesOrder(SeriesSortType.SAMPLE_END_YEAR);
 		
 		log.debug("Finished sorting chart series by series end year");
 	}
@@ -2424,8 +2718,7 @@ public class FireChartSVG {
 		};
 		
 		Collections.sort(seriesSVGList, comparator);
-		lastTypeSortedBy = SeriesSortType.AS_IN_FILE;
-		rebuildChronologyPlot();
+		applySeriesOrder(SeriesSortType.AS_IN_FILE);
 		
 		log.debug("Finished sorting chart series by position in file");
 	}
@@ -20,12 +20,10 @@ package org.fhaes.neofhchart.svg;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 
-import javax.swing.JComponent;
-import javax.swing.JLabel;
-import javax.swing.JPanel;
-
 import org.fhaes.model.FHSeries;
 import org.fhaes.neofhchart.FHSeriesSVG;
 import org.fhaes.preferences.App;
@@ -45,6 +43,10 @@ public class FireChartUtil {
 	private static final Color MS_OFFICE_PURPLE = new Color(128, 100, 162);
 	private static final Color MS_OFFICE_RED = new Color(192, 80, 77);
 	
+	// Graphics used for measuring text. This gives the same metrics as a Swing component but means charts can be built off the EDT and
+	// when running headless
+	private static final Graphics2D MEASURING_GRAPHICS = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+	
 	/**
 	 * Converts an array list of FHseries objects to an array list of FHSeriesSVG objects.
 	 * 
@@ -159,8 +161,7 @@ public class FireChartUtil {
 	protected static Integer getStringHeight(int fontStyle, int fontSize, String text) {
 		
 		Font font = new Font(App.prefs.getPref(PrefKey.CHART_FONT_FAMILY, "Verdana"), fontStyle, fontSize);
-		JComponent graphics = new JPanel();
-		FontMetrics metrics = graphics.getFontMetrics(font);
+		FontMetrics metrics = getFontMetrics(font);
 		
 		return metrics.getMaxAscent();
 	}
@@ -177,12 +178,25 @@ public class FireChartUtil {
 	protected static Integer getStringWidth(int fontStyle, int fontSize, String text) {
 		
 		Font font = new Font(App.prefs.getPref(PrefKey.CHART_FONT_FAMILY, "Verdana"), fontStyle, fontSize);
-		JComponent graphics = new JLabel(text);
-		FontMetrics metrics = graphics.getFontMetrics(font);
+		FontMetrics metrics = getFontMetrics(font);
 		
 		return metrics.stringWidth(text);
 	}
 	
+	/**
+	 * Get the metrics for the specified font. This may be called from any thread.
+	 * 
+	 * @param font
+	 * @return font metrics
+	 */
+	private static FontMetrics getFontMetrics(Font font) {
+		
+		synchronized (MEASURING_GRAPHICS)
+		{
+			return MEASURING_GRAPHICS.getFontMetrics(font);
+		}
+	}
+	
 	/**
 	 * Performs the inverse of yearsToPixels.
 	 * 
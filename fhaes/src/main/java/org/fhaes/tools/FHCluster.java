@@ -18,17 +18,31 @@
 package org.fhaes.tools;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.fhaes.fhfilereader.FHFile;
 import org.fhaes.model.FHFileGroup;
 import org.fhaes.preferences.App;
 import org.fhaes.preferences.FHAESPreferences.PrefKey;
 import org.geotools.referencing.GeodeticCalculator;
+import org.opengis.referencing.datum.Ellipsoid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * FHCluster Class. Combine files into groups based upon the distance threshold specified in the preferences.
+ * FHCluster Class. Combine files into groups based upon the distance threshold specified in the preferences. Any two files that are within
+ * the threshold distance of each other end up in the same group, so a group can extend well beyond the threshold if it is made up of a
+ * chain of nearby sites.
+ * 
+ * <p>
+ * To avoid comparing every file with every other file, the sites are placed in a grid of cubes the size of the threshold distance using
+ * their earth-centred (x,y,z) coordinates. The straight line between two sites is never longer than the distance over the ellipsoid, so
+ * only sites in neighbouring cubes can be within the threshold, and the orthodromic distance only needs to be calculated for these. Groups
+ * are merged using a union-find structure, so large numbers of sites are clustered in close to linear time.
+ * </p>
  * 
  * @author Peter Brewer
  */
@@ -36,6 +50,11 @@ public class FHCluster {
 	
 	private static final Logger log = LoggerFactory.getLogger(FHCluster.class);
 	
+	// Smallest size of the grid cubes in metres. This keeps the cube indices small enough to pack into a single long key
+	private static final double MIN_CELL_SIZE = 1000;
+	private static final int CELL_INDEX_BITS = 21;
+	private static final long CELL_INDEX_MASK = (1L << CELL_INDEX_BITS) - 1;
+	
 	private ArrayList<FHFile> filesToProcess;
 	private ArrayList<ArrayList<FHFile>> groups;
 	private ArrayList<FHFile> filesWithNoCoords;
@@ -48,7 +67,7 @@ public class FHCluster {
 	 */
 	public FHCluster(ArrayList<FHFile> files) {
 		
-		if (filesToProcess == null || filesToProcess.size() == 0)
+		if (files == null || files.size() == 0)
 		{
 			log.error("No files to process");
 			return;
@@ -84,153 +103,189 @@ public class FHCluster {
 			return;
 		}
 		
-		ArrayList<FHFile> group1 = new ArrayList<FHFile>();
-		
-		// Seed the groups with the first suitable file
+		// Gather the files that have a location, skipping any that are listed more than once
+		ArrayList<FHFile> located = new ArrayList<FHFile>();
+		HashSet<FHFile> seen = new HashSet<FHFile>();
 		for (FHFile file : filesToProcess)
 		{
-			if (file.getFirstLatitudeDbl() != null && file.getFirstLongitudeDbl() != null)
+			if (file == null || !seen.add(file))
 			{
-				group1.add(file);
-				break;
+				continue;
 			}
-		}
-		groups.add(group1);
-		
-		for (FHFile file : filesToProcess)
-		{
-			searchGroupsForMatch(file);
-		}
-		
-		recurseRefineGroups(0);
-	}
-	
-	/**
-	 * Check through the groups to see if any are closer than the threshold.
-	 * 
-	 * @param depth
-	 * @return
-	 */
-	private Boolean recurseRefineGroups(int depth) {
-		
-		depth++;
-		
-		if (depth > 50)
-		{
-			log.error("Infinite recursion detected.  Bailing out");
-			return false;
+			
+			if (file.getFirstLatitudeDbl() == null || file.getFirstLongitudeDbl() == null)
+			{
+				log.warn("File " + file.getName() + " has no location information so skipping");
+				filesWithNoCoords.add(file);
+				continue;
+			}
+			
+			located.add(file);
 		}
 		
-		if (groups.size() == 1)
-		{
-			log.info("One one group so no need to refine further");
-			return false;
-		}
+		double threshold = distanceThreshold * 1000;
+		double cellSize = Math.max(threshold, MIN_CELL_SIZE);
 		
 		GeodeticCalculator gc = new GeodeticCalculator();
+		Ellipsoid ellipsoid = gc.getEllipsoid();
 		
-		for (int i = 0; i < groups.size(); i++)
+		int[] parent = new int[located.size()];
+		int[] size = new int[located.size()];
+		HashMap<Long, ArrayList<Integer>> grid = new HashMap<Long, ArrayList<Integer>>();
+		
+		for (int i = 0; i < located.size(); i++)
 		{
-			ArrayList<FHFile> focusedgroup = groups.get(i);
+			FHFile file = located.get(i);
+			parent[i] = i;
+			size[i] = 1;
+			
+			double[] xyz = toEarthCentred(ellipsoid, file.getFirstLatitudeDbl(), file.getFirstLongitudeDbl());
+			int cx = (int) Math.floor(xyz[0] / cellSize);
+			int cy = (int) Math.floor(xyz[1] / cellSize);
+			int cz = (int) Math.floor(xyz[2] / cellSize);
 			
-			for (int j = 0; j < groups.size(); j++)
+			gc.setStartingGeographicPoint(file.getFirstLongitudeDbl(), file.getFirstLatitudeDbl());
+			
+			// Compare with the files already placed in this and the neighbouring cubes
+			for (int dx = -1; dx <= 1; dx++)
 			{
-				if (j == i)
-					continue;
-				ArrayList<FHFile> searchgroup = groups.get(j);
-				
-				for (FHFile f1 : focusedgroup)
+				for (int dy = -1; dy <= 1; dy++)
 				{
-					gc.setStartingGeographicPoint(f1.getFirstLongitudeDbl(), f1.getFirstLatitudeDbl());
-					
-					for (FHFile f2 : searchgroup)
+					for (int dz = -1; dz <= 1; dz++)
 					{
-						gc.setDestinationGeographicPoint(f2.getFirstLongitudeDbl(), f2.getFirstLatitudeDbl());
-						Double distance = gc.getOrthodromicDistance();
-						if (distance <= distanceThreshold * 1000)
+						ArrayList<Integer> cell = grid.get(getCellKey(cx + dx, cy + dy, cz + dz));
+						if (cell == null)
+							continue;
+						
+						for (Integer j : cell)
 						{
-							// Merge groups i and j
-							ArrayList<FHFile> mergedgroups = new ArrayList<FHFile>();
-							ArrayList<ArrayList<FHFile>> newgroups = new ArrayList<ArrayList<FHFile>>();
-							mergedgroups.addAll(focusedgroup);
-							mergedgroups.addAll(searchgroup);
-							newgroups.add(mergedgroups);
-							for (int k = 0; k < groups.size(); k++)
-							{
-								ArrayList<FHFile> othergroup = groups.get(k);
-								if (k != i && k != j)
-								{
-									newgroups.add(othergroup);
-								}
-							}
+							// No need to measure the distance if the files are already in the same group
+							if (find(parent, i) == find(parent, j))
+								continue;
 							
-							groups = newgroups;
+							FHFile f = located.get(j);
+							gc.setDestinationGeographicPoint(f.getFirstLongitudeDbl(), f.getFirstLatitudeDbl());
 							
-							recurseRefineGroups(depth);
-							return true;
+							Double distance = gc.getOrthodromicDistance();
+							log.debug("Distance between " + file.getName() + " and " + f.getName() + " is " + distance.intValue() + "m");
+							
+							if (distance <= threshold)
+							{
+								union(parent, size, i, j);
+							}
 						}
 					}
 				}
-				
 			}
 			
+			Long key = getCellKey(cx, cy, cz);
+			ArrayList<Integer> cell = grid.get(key);
+			if (cell == null)
+			{
+				cell = new ArrayList<Integer>();
+				grid.put(key, cell);
+			}
+			cell.add(i);
+		}
+		
+		// Build the groups, keeping both the groups and the files within them in the order the files were given
+		Map<Integer, ArrayList<FHFile>> groupsByRoot = new LinkedHashMap<Integer, ArrayList<FHFile>>();
+		for (int i = 0; i < located.size(); i++)
+		{
+			int root = find(parent, i);
+			ArrayList<FHFile> group = groupsByRoot.get(root);
+			if (group == null)
+			{
+				group = new ArrayList<FHFile>();
+				groupsByRoot.put(root, group);
+			}
+			group.add(located.get(i));
 		}
+		groups.addAll(groupsByRoot.values());
+		
+		log.debug("Clustered " + located.size() + " located files into " + groups.size() + " groups");
+	}
+	
+	/**
+	 * Convert a latitude and longitude in decimal degrees into earth-centred, earth-fixed coordinates in metres.
+	 * 
+	 * @param ellipsoid
+	 * @param latitude
+	 * @param longitude
+	 * @return array of x, y and z
+	 */
+	private static double[] toEarthCentred(Ellipsoid ellipsoid, double latitude, double longitude) {
+		
+		double a = ellipsoid.getSemiMajorAxis();
+		double b = ellipsoid.getSemiMinorAxis();
+		double e2 = 1 - (b * b) / (a * a);
+		
+		double lat = Math.toRadians(latitude);
+		double lon = Math.toRadians(longitude);
+		double sinLat = Math.sin(lat);
+		double cosLat = Math.cos(lat);
 		
-		return false;
+		// Radius of curvature in the prime vertical
+		double n = a / Math.sqrt(1 - e2 * sinLat * sinLat);
+		
+		return new double[] { n * cosLat * Math.cos(lon), n * cosLat * Math.sin(lon), n * (1 - e2) * sinLat };
 	}
 	
 	/**
-	 * Search through the existing groups to see if the specified file is close enough to group, otherwise place it in it's own group.
+	 * Pack the indices of a grid cube into a single key.
 	 * 
-	 * @param file
+	 * @param x
+	 * @param y
+	 * @param z
 	 * @return
 	 */
-	private Boolean searchGroupsForMatch(FHFile file) {
+	private static Long getCellKey(int x, int y, int z) {
 		
-		if (file == null)
-		{
-			return false;
-		}
+		return ((x & CELL_INDEX_MASK) << (2 * CELL_INDEX_BITS)) | ((y & CELL_INDEX_MASK) << CELL_INDEX_BITS) | (z & CELL_INDEX_MASK);
+	}
+	
+	/**
+	 * Find the representative of the group containing the specified file, halving the path to it as we go.
+	 * 
+	 * @param parent
+	 * @param i
+	 * @return
+	 */
+	private static int find(int[] parent, int i) {
 		
-		if (file.getFirstLatitudeDbl() == null || file.getFirstLongitudeDbl() == null)
+		while (parent[i] != i)
 		{
-			log.warn("File " + file.getName() + " has no location information so skipping");
-			filesWithNoCoords.add(file);
-			return false;
+			parent[i] = parent[parent[i]];
+			i = parent[i];
 		}
+		return i;
+	}
+	
+	/**
+	 * Merge the groups containing the two specified files, attaching the smaller group to the larger.
+	 * 
+	 * @param parent
+	 * @param size
+	 * @param i
+	 * @param j
+	 */
+	private static void union(int[] parent, int[] size, int i, int j) {
 		
-		GeodeticCalculator gc = new GeodeticCalculator();
-		gc.setStartingGeographicPoint(file.getFirstLongitudeDbl(), file.getFirstLatitudeDbl());
+		int rootI = find(parent, i);
+		int rootJ = find(parent, j);
 		
-		for (ArrayList<FHFile> group : groups)
+		if (rootI == rootJ)
+			return;
+		
+		if (size[rootI] < size[rootJ])
 		{
-			for (FHFile f : group)
-			{
-				if (f.equals(file))
-				{
-					
-					log.error("Found file in group already so skipping");
-					return true;
-				}
-				
-				gc.setDestinationGeographicPoint(f.getFirstLongitudeDbl(), f.getFirstLatitudeDbl());
-				
-				Double distance = gc.getOrthodromicDistance();
-				log.debug("Distance between " + file.getName() + " and " + f.getName() + " is " + distance.intValue() + "m");
-				
-				if (distance <= distanceThreshold * 1000)
-				{
-					group.add(file);
-					return true;
-				}
-			}
+			int tmp = rootI;
+			rootI = rootJ;
+			rootJ = tmp;
 		}
 		
-		// No matches found so create a new group for the file
-		ArrayList<FHFile> newgroup = new ArrayList<FHFile>();
-		newgroup.add(file);
-		groups.add(newgroup);
-		return true;
+		parent[rootJ] = rootI;
+		size[rootI] += size[rootJ];
 	}
 	
 	/**
@@ -23,6 +23,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -32,11 +33,13 @@ import javax.swing.JOptionPane;
 import javax.swing.filechooser.FileFilter;
 
 import org.codehaus.plexus.util.FileUtils;
+import org.fhaes.analysis.YearAlignedEventCube;
 import org.fhaes.enums.EventTypeToProcess;
 import org.fhaes.enums.FireFilterType;
 import org.fhaes.enums.SampleDepthFilterType;
 import org.fhaes.fhfilereader.FHFile;
 import org.fhaes.fhfilereader.FHX2FileReader;
+import org.fhaes.fhfilereader.FHX2FileReaderCache;
 import org.fhaes.filefilter.FHXFileFilter;
 import org.fhaes.filefilter.TXTFileFilter;
 import org.fhaes.preferences.App;
@@ -295,14 +298,16 @@ public class FHOperations {
 		for (int i = 0; i < inputFileArray.length; i++)
 		{
 			FHFile f = inputFileArray[i];
-			myReader.add(new FHX2FileReader(f));
+			myReader.add(FHX2FileReaderCache.getReader(f));
 			log.debug("first fire year : " + myReader.get(i).getFirstFireYear().intValue() + " minfirstyearcomp"
 					+ minFirstYearComp.intValue());
-			Arrays.sort(myReader.get(i).getStartYearIndexPerSample());
-			startCompYear.add(myReader.get(i).getStartYearIndexPerSample()[0] + myReader.get(i).getFirstYear().intValue());
+			// Sort a copy as the reader is shared with other analyses
+			int[] startYearIndices = myReader.get(i).getStartYearIndexPerSample().clone();
+			Arrays.sort(startYearIndices);
+			startCompYear.add(startYearIndices[0] + myReader.get(i).getFirstYear().intValue());
 			firstYears.add(myReader.get(i).getFirstYear());
-			tempstartcomp = myReader.get(i).getStartYearIndexPerSample()[0] + myReader.get(i).getFirstYear().intValue();
-			log.debug("start composite year: " + myReader.get(i).getStartYearIndexPerSample()[0] + " fy "
+			tempstartcomp = startYearIndices[0] + myReader.get(i).getFirstYear().intValue();
+			log.debug("start composite year: " + startYearIndices[0] + " fy "
 					+ myReader.get(i).getFirstYear().intValue() + " final " + tempstartcomp);
 			lastYears.add(myReader.get(i).getLastYear());
 			SeriesNameLengthJoin.add(myReader.get(i).getLengthOfSeriesName());
@@ -318,21 +323,21 @@ public class FHOperations {
 				// myReader.get(i).makefilters2d();
 				if (startYear.equals(0))
 				{
-					if ((myReader.get(i).getStartYearIndexPerSample()[0] + myReader.get(i).getFirstYear().intValue()) < minFirstYearComp)
+					if ((startYearIndices[0] + myReader.get(i).getFirstYear().intValue()) < minFirstYearComp)
 					{
-						minFirstYearComp = (myReader.get(i).getStartYearIndexPerSample()[0] + myReader.get(i).getFirstYear().intValue());
+						minFirstYearComp = (startYearIndices[0] + myReader.get(i).getFirstYear().intValue());
 						log.debug("the minFirstYearComp is: " + minFirstYearComp);
 					}
 				}
 				else
 				{
-					if (startYear > (myReader.get(i).getStartYearIndexPerSample()[0] + myReader.get(i).getFirstYear().intValue()))
+					if (startYear > (startYearIndices[0] + myReader.get(i).getFirstYear().intValue()))
 					{
 						minFirstYearComp = startYear;
 					}
 					else
 					{
-						minFirstYearComp = (myReader.get(i).getStartYearIndexPerSample()[0] + myReader.get(i).getFirstYear().intValue());
+						minFirstYearComp = (startYearIndices[0] + myReader.get(i).getFirstYear().intValue());
 					}
 				}
 				
@@ -406,6 +411,7 @@ public class FHOperations {
 		{
 			listYears.add(minFirstYear + i);
 		}
+		YearAlignedEventCube cube = new YearAlignedEventCube(myReader, eventTypeToProcess, minFirstYear, maxLastYear);
 		
 		/*
 		 * Declaration of all the array lists needed in the process
@@ -434,14 +440,14 @@ public class FHOperations {
 				joinStringTemp = "";
 				for (int k = 0; k < myReader.size(); k++)
 				{
-					if (myReader.get(k).getYearArray().indexOf(listYears.get(j)) == -1)
+					int yearIndex = cube.getYearIndex(k, listYears.get(j));
+					if (yearIndex == -1)
 					{
 						joinStringTemp = joinStringTemp + dotsTemp.substring(0, myReader.get(k).getNumberOfSeries());
 					}
 					else
 					{
-						joinStringTemp = joinStringTemp
-								+ myReader.get(k).getData().get(myReader.get(k).getYearArray().indexOf(listYears.get(j)));
+						joinStringTemp = joinStringTemp + myReader.get(k).getData().get(yearIndex);
 					}
 				} // end k loop
 				JoinMatrix.add(joinStringTemp);
@@ -491,13 +497,11 @@ public class FHOperations {
 		ArrayList<ArrayList<Integer>> test = new ArrayList<ArrayList<Integer>>();
 		ArrayList<ArrayList<Integer>> climateMatrixSite = new ArrayList<ArrayList<Integer>>();
 		ArrayList<ArrayList<Double>> filterMatrix = new ArrayList<ArrayList<Double>>();
-		ArrayList<Integer> climateVector = new ArrayList<Integer>();
-		ArrayList<ArrayList<Double>> climateVectorFilter2 = new ArrayList<ArrayList<Double>>();
+		int[] climateVector = null;
 		ArrayList<Integer> climateVectorActualSite = null;
 		ArrayList<Double> filterVectorActual = null;
 		ArrayList<Integer> minSampleFilter = null;
 		ArrayList<Double> percentOfRecordingfilter = null;
-		ArrayList<Integer> climateYear = new ArrayList<Integer>();
 		
 		ArrayList<ArrayList<Character>> nameLine = new ArrayList<ArrayList<Character>>();
 		
@@ -553,6 +557,7 @@ public class FHOperations {
 			{
 				listYearsComp.add(minFirstYearComp + i);
 			}
+			YearAlignedEventCube compositeCube = new YearAlignedEventCube(myReader, eventTypeToProcess, minFirstYearComp, maxLastYearComp);
 			/*
 			 * start processing each file individually: The analysis can be done by either tree (non-binary) or by site (binary). by tree
 			 * the box selected is: jCheckTree. by site the box selected is:
@@ -560,18 +565,16 @@ public class FHOperations {
 			for (int i = 0; i < myReader.size(); i++)
 			{
 				
-				climateYear = myReader.get(i).getYearArray();
-				
 				// Create filter based on min number of samples/recorder samples
 				int[] depths = null;
 				if (sampleDepthFilterType.equals(SampleDepthFilterType.MIN_NUM_SAMPLES))
 				{
-					depths = myReader.get(i).getSampleDepths();
+					depths = compositeCube.getSampleDepths(i);
 					log.debug("MIN_NUM_SAMPLES ");
 				}
 				else if (sampleDepthFilterType.equals(SampleDepthFilterType.MIN_NUM_RECORDER_SAMPLES))
 				{
-					depths = myReader.get(i).getRecordingDepths(eventTypeToProcess);
+					depths = compositeCube.getRecordingDepths(i);
 					log.debug(" MIN_NUM_RECORDER_SAMPLES");
 				}
 				else
@@ -582,7 +585,7 @@ public class FHOperations {
 				minSampleFilter = new ArrayList<Integer>();
 				for (int ij = 0; ij < listYearsComp.size(); ij++)
 				{
-					if (climateYear.indexOf(listYearsComp.get(ij)) == -1)
+					if (!compositeCube.hasYear(i, listYearsComp.get(ij)))
 					{
 						minSampleFilter.add(-1);
 					}
@@ -590,7 +593,7 @@ public class FHOperations {
 					{
 						// log.debug("the sample depth is "
 						// + myReader.get(i).getSampleDepths()[climateYear.indexOf(listYearsComp.get(ij))]);
-						minSampleFilter.add(new Integer(depths[climateYear.indexOf(listYearsComp.get(ij))]));
+						minSampleFilter.add(new Integer(depths[ij]));
 					}
 					// log.debug(" " + minSampleFilter.get(ij));
 				}
@@ -604,8 +607,6 @@ public class FHOperations {
 					 * (total lower case letter plus bars counting only after a fire) percent of scared trees total fires/total trees
 					 */
 					
-					climateVectorFilter2 = myReader.get(i).getFilterArrays(eventTypeToProcess);
-					
 					/*
 					 * if by tree analysis is selected create two matrices (array list) 1. filterMatrix containing the three filter vectors
 					 * only in between common years (so using the listYearComp array list subset of the years vector) 2. climateMatrix 2
@@ -614,22 +615,21 @@ public class FHOperations {
 					if (fireFilterType.equals(FireFilterType.PERCENTAGE_OF_RECORDING))
 					{
 						percentOfRecordingfilter = new ArrayList<Double>();
+						double[] numberOfEvents = compositeCube.getFilterValues(i, 0);
+						int[] recordingDepths = compositeCube.getRecordingDepths(i);
 						
 						for (int ij = 0; ij < listYearsComp.size(); ij++)
 						{
 							
-							if (climateYear.indexOf(listYearsComp.get(ij)) == -1)
+							if (!compositeCube.hasYear(i, listYearsComp.get(ij)))
 							{
 								percentOfRecordingfilter.add(-1.0);
 							}
 							else
 							{
-								if (myReader.get(i).getRecordingDepths(eventTypeToProcess)[climateYear.indexOf(listYearsComp.get(ij))] != 0)
+								if (recordingDepths[ij] != 0)
 								{
-									percentOfRecordingfilter.add(new Double(climateVectorFilter2.get(0).get(
-											climateYear.indexOf(listYearsComp.get(ij)))
-											/ myReader.get(i).getRecordingDepths(eventTypeToProcess)[climateYear.indexOf(listYearsComp
-													.get(ij))]));
+									percentOfRecordingfilter.add(new Double(numberOfEvents[ij] / recordingDepths[ij]));
 								}
 								else
 								{
@@ -645,20 +645,20 @@ public class FHOperations {
 						{
 							log.debug("filter number is: " + ik);
 							filterVectorActual = new ArrayList<Double>();
+							double[] filterValues = compositeCube.getFilterValues(i, ik);
 							for (int ij = 0; ij < listYearsComp.size(); ij++)
 							{ // log.debug(" climateYear.indexOf(listYearsComp.get(j))" +
 								// climateYear.indexOf(listYearsComp.get(ij)));
 								// if(ik==0){log.debug("number of fires
 								// "+climateVectorFilter2.get(0).get(climateYear.indexOf(listYearsComp.get(ij)))+" year
 								// "+listYearsComp.get(ij));}
-								if (climateYear.indexOf(listYearsComp.get(ij)) == -1)
+								if (!compositeCube.hasYear(i, listYearsComp.get(ij)))
 								{
 									filterVectorActual.add(-1.0);
 								}
 								else
 								{
-									filterVectorActual.add(new Double(climateVectorFilter2.get(ik).get(
-											climateYear.indexOf(listYearsComp.get(ij)))));
+									filterVectorActual.add(new Double(filterValues[ij]));
 								}
 								if (ik == 2)
 								{
@@ -677,23 +677,7 @@ public class FHOperations {
 				 * get matrix climate binary matrix by site (binary analysis)
 				 */
 				
-				if (eventTypeToProcess.equals(EventTypeToProcess.FIRE_EVENT))
-				{
-					climateVector = myReader.get(i).getFireEventsArray();
-				}
-				else if (eventTypeToProcess.equals(EventTypeToProcess.INJURY_EVENT))
-				{
-					climateVector = myReader.get(i).getOtherInjuriesArray();
-				}
-				else if (eventTypeToProcess.equals(EventTypeToProcess.FIRE_AND_INJURY_EVENT))
-				{
-					climateVector = myReader.get(i).getFiresAndInjuriesArray();
-				}
-				else
-				{
-					log.error("Unsupported EventTypeToProcess");
-					return;
-				}
+				climateVector = compositeCube.getEvents(i);
 				
 				// log.debug("the climateyear first is: " + climateYear.get(0)+ " listYearsComp.get(0) "
 				// +climateYear.indexOf(listYearsComp.get(0)));
@@ -702,7 +686,7 @@ public class FHOperations {
 				for (int j = 0; j < listYearsComp.size(); j++)
 				{
 					
-					if (climateYear.indexOf(listYearsComp.get(j)) == -1)
+					if (!compositeCube.hasYear(i, listYearsComp.get(j)))
 					{
 						climateVectorActualSite.add(-1);
 					}
@@ -723,16 +707,15 @@ public class FHOperations {
 									// +" fires: "+filterMatrix.get(3*i).get(j)+" climatevector:
 									// "+climateVector.get(climateYear.indexOf(listYears.get(j))));
 									log.debug("fire filter: " + firesFilter1 + " year is: " + listYearsComp.get(j) + " fires: "
-											+ filterMatrix.get(3 * i).get(j) + " climatevector: "
-											+ climateVector.get(climateYear.indexOf(listYearsComp.get(j))));
+											+ filterMatrix.get(3 * i).get(j) + " climatevector: " + climateVector[j]);
 									if ((filterMatrix.get(3 * i).get(j) < firesFilter1)
-											&& (climateVector.get(climateYear.indexOf(listYearsComp.get(j)))) != -1.0)
+											&& climateVector[j] != -1.0)
 									{
 										climateVectorActualSite.add(0);
 									}
 									else
 									{
-										climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYearsComp.get(j))));
+										climateVectorActualSite.add(climateVector[j]);
 									}
 								}
 								else if (fireFilterType.equals(FireFilterType.PERCENTAGE_OF_ALL_TREES))
@@ -747,13 +730,13 @@ public class FHOperations {
 									else
 									{
 										if ((filterMatrix.get(3 * i + 2).get(j) < firesFilter2)
-												&& ((climateVector.get(climateYear.indexOf(listYearsComp.get(j)))) != -1.0))
+												&& (climateVector[j] != -1.0))
 										{
 											climateVectorActualSite.add(0);
 										}
 										else
 										{
-											climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYearsComp.get(j))));
+											climateVectorActualSite.add(climateVector[j]);
 										}
 									}
 								}
@@ -772,13 +755,13 @@ public class FHOperations {
 									else
 									{
 										if ((percentOfRecordingfilter.get(j) < firesFilter2)
-												&& ((climateVector.get(climateYear.indexOf(listYearsComp.get(j)))) != -1.0))
+												&& (climateVector[j] != -1.0))
 										{
 											climateVectorActualSite.add(0);
 										}
 										else
 										{
-											climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYearsComp.get(j))));
+											climateVectorActualSite.add(climateVector[j]);
 										}
 									}
 									
@@ -790,7 +773,7 @@ public class FHOperations {
 							} // end of if filter not equal to 1
 							else
 							{
-								climateVectorActualSite.add(climateVector.get(climateYear.indexOf(listYearsComp.get(j))));
+								climateVectorActualSite.add(climateVector[j]);
 								// climateVectorActualSite.add(0);
 								// log.debug("j is " + j + "numberof fires is "
 								// + climateVector.get(climateYear.indexOf(listYearsComp.get(j))));
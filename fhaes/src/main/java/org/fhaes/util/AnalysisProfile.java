@@ -0,0 +1,238 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.fhaes.preferences.FHAESPreferences.PrefKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AnalysisProfile Class. A set of analysis parameters read from a properties file, for use when the analyses are run without the GUI. The
+ * keys are the names of the PrefKeys that hold the same parameters in the preferences, for example:
+ * 
+ * <pre>
+ * EVENT_TYPE_TO_PROCESS = FIRE_EVENT
+ * COMPOSITE_FILTER_TYPE = NUMBER_OF_EVENTS
+ * COMPOSITE_FILTER_VALUE = 2
+ * SSIZ_SIMULATION_COUNT = 1000
+ * </pre>
+ * 
+ * <p>
+ * Parameters that are missing from the profile, or that cannot be understood, take the default value passed to the getter. Unlike
+ * FHAESPreferences, nothing is ever written back, so running a profile does not change the user's preferences.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class AnalysisProfile {
+	
+	private static final Logger log = LoggerFactory.getLogger(AnalysisProfile.class);
+	
+	private final Properties properties;
+	
+	/**
+	 * Create an empty profile in which every parameter takes its default value.
+	 */
+	public AnalysisProfile() {
+	
+		this(new Properties());
+	}
+	
+	/**
+	 * Create a profile from the specified properties.
+	 * 
+	 * @param properties
+	 * @throws IllegalArgumentException if the year range is invalid
+	 */
+	public AnalysisProfile(Properties properties) {
+	
+		this.properties = properties;
+		validateYearRange();
+	}
+	
+	/**
+	 * Check that the year range is one the GUI would accept, i.e. the first year is not after the last year. Zero for both means all
+	 * years.
+	 * 
+	 * @throws IllegalArgumentException if the range is invalid
+	 */
+	private void validateYearRange() {
+	
+		int firstYear = getIntPref(PrefKey.RANGE_FIRST_YEAR, 0);
+		int lastYear = getIntPref(PrefKey.RANGE_LAST_YEAR, 0);
+		
+		if (firstYear > lastYear)
+		{
+			throw new IllegalArgumentException("Invalid year range " + firstYear + " - " + lastYear + ".  " + PrefKey.RANGE_FIRST_YEAR.name()
+					+ " must not be after " + PrefKey.RANGE_LAST_YEAR.name() + ", or both must be 0 for all years");
+		}
+	}
+	
+	/**
+	 * Read a profile from a properties file.
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException if the file cannot be read or the year range is invalid
+	 */
+	public static AnalysisProfile load(File file) throws IOException {
+	
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream(file);
+		try
+		{
+			properties.load(in);
+		}
+		finally
+		{
+			in.close();
+		}
+		
+		for (String name : properties.stringPropertyNames())
+		{
+			try
+			{
+				PrefKey.valueOf(name);
+			}
+			catch (IllegalArgumentException e)
+			{
+				log.warn("Ignoring unknown parameter '" + name + "' in profile " + file.getName());
+			}
+		}
+		
+		try
+		{
+			return new AnalysisProfile(properties);
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new IOException("Invalid profile " + file.getName() + ": " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Get the value of a parameter as a string.
+	 * 
+	 * @param key
+	 * @param defaultValue
+	 * @return
+	 */
+	public String getPref(PrefKey key, String defaultValue) {
+	
+		String value = properties.getProperty(key.name());
+		if (value == null || value.trim().length() == 0)
+			return defaultValue;
+		
+		return value.trim();
+	}
+	
+	/**
+	 * Get the value of a parameter as an int.
+	 * 
+	 * @param key
+	 * @param defaultValue
+	 * @return
+	 */
+	public int getIntPref(PrefKey key, int defaultValue) {
+	
+		String value = getPref(key, null);
+		if (value == null)
+			return defaultValue;
+		
+		try
+		{
+			return Integer.parseInt(value);
+		}
+		catch (NumberFormatException e)
+		{
+			log.warn("Invalid integer '" + value + "' for " + key.name() + " so using default of " + defaultValue);
+			return defaultValue;
+		}
+	}
+	
+	/**
+	 * Get the value of a parameter as a double.
+	 * 
+	 * @param key
+	 * @param defaultValue
+	 * @return
+	 */
+	public double getDoublePref(PrefKey key, double defaultValue) {
+	
+		String value = getPref(key, null);
+		if (value == null)
+			return defaultValue;
+		
+		try
+		{
+			return Double.parseDouble(value);
+		}
+		catch (NumberFormatException e)
+		{
+			log.warn("Invalid number '" + value + "' for " + key.name() + " so using default of " + defaultValue);
+			return defaultValue;
+		}
+	}
+	
+	/**
+	 * Get the value of a parameter as a boolean.
+	 * 
+	 * @param key
+	 * @param defaultValue
+	 * @return
+	 */
+	public boolean getBooleanPref(PrefKey key, boolean defaultValue) {
+	
+		String value = getPref(key, null);
+		if (value == null)
+			return defaultValue;
+		
+		return Boolean.parseBoolean(value);
+	}
+	
+	/**
+	 * Get the value of a parameter as one of the values of an enum, given by its name e.g. FIRE_EVENT.
+	 * 
+	 * @param key
+	 * @param type
+	 * @param defaultValue
+	 * @return
+	 */
+	public <E extends Enum<E>> E getEnumPref(PrefKey key, Class<E> type, E defaultValue) {
+	
+		String value = getPref(key, null);
+		if (value == null)
+			return defaultValue;
+		
+		try
+		{
+			return Enum.valueOf(type, value);
+		}
+		catch (IllegalArgumentException e)
+		{
+			log.warn("Invalid value '" + value + "' for " + key.name() + " so using default of " + defaultValue);
+			return defaultValue;
+		}
+	}
+}
@@ -0,0 +1,690 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FilenameUtils;
+import org.fhaes.analysis.FHDescriptiveStatsResults;
+import org.fhaes.analysis.FHInterval;
+import org.fhaes.analysis.FHMatrix;
+import org.fhaes.analysis.FHSeasonality;
+import org.fhaes.enums.AnalysisLabelType;
+import org.fhaes.enums.AnalysisType;
+import org.fhaes.enums.EventTypeToProcess;
+import org.fhaes.enums.FireFilterType;
+import org.fhaes.enums.NoDataLabel;
+import org.fhaes.enums.ResamplingType;
+import org.fhaes.enums.SampleDepthFilterType;
+import org.fhaes.fhfilereader.FHFile;
+import org.fhaes.fhfilereader.FHX2FileReader;
+import org.fhaes.fhfilereader.FHX2FileReaderCache;
+import org.fhaes.fhsamplesize.controller.SSIZController;
+import org.fhaes.fhsamplesize.model.AnalysisResultsCollector;
+import org.fhaes.fhsamplesize.model.AnalysisResultsModel;
+import org.fhaes.fhsamplesize.model.SSIZAnalysisModel;
+import org.fhaes.model.ResultTable;
+import org.fhaes.preferences.App;
+import org.fhaes.preferences.FHAESPreferences.PrefKey;
+import org.fhaes.segmentation.SegmentModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BatchAnalysisRunner Class. Runs the FHAES analyses over a large number of FHX files without the GUI, for instance as a nightly job on a
+ * server with no display. The analysis parameters are taken from an AnalysisProfile rather than the user's preferences.
+ * 
+ * <p>
+ * Each file is analyzed on its own by a pool of worker threads. As soon as a file is finished its results are written as CSV files to a
+ * folder of its own within the output folder, and a line is added to batch-summary.csv recording whether each analysis succeeded. Progress
+ * and throughput are reported on the console as the files complete. No windows or dialogs are opened, so the runner works with
+ * java.awt.headless=true on a machine with no display. Some Swing classes are still loaded through the shared analysis and preference
+ * code (App, FHAESPreferences and FHSeasonality), so the Swing libraries of the JRE must be present.
+ * </p>
+ * 
+ * <p>
+ * Usage:
+ * </p>
+ * 
+ * <pre>
+ * BatchAnalysisRunner [-profile file] [-threads n] [-analyses list] -output folder input...
+ * </pre>
+ * 
+ * <p>
+ * Each input may be an FHX file, a folder which is searched (including sub-folders) for files with an .fhx extension, or a file list in
+ * the form @listfile containing one path per line. The list of analyses is comma separated and defaults to all of them.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class BatchAnalysisRunner {
+	
+	private static final Logger log = LoggerFactory.getLogger(BatchAnalysisRunner.class);
+	
+	/**
+	 * Number of files between progress reports
+	 */
+	private static final int REPORT_INTERVAL = 100;
+	
+	private static final String SUMMARY_FILENAME = "batch-summary.csv";
+	
+	/**
+	 * The analyses that can be run by the batch runner.
+	 */
+	public enum BatchAnalysis {
+		INTERVALS, MATRIX, SEASONALITY, DESCRIPTIVE, SSIZ;
+	}
+	
+	private final AnalysisProfile profile;
+	private final File outputFolder;
+	private final Set<BatchAnalysis> analyses;
+	private final int threads;
+	
+	/**
+	 * Create a new batch runner.
+	 * 
+	 * @param profile - parameters for the analyses
+	 * @param outputFolder - folder to write the results to
+	 * @param analyses - the analyses to run on each file
+	 * @param threads - number of files to analyze at once
+	 */
+	public BatchAnalysisRunner(AnalysisProfile profile, File outputFolder, Set<BatchAnalysis> analyses, int threads) {
+	
+		this.profile = profile;
+		this.outputFolder = outputFolder;
+		this.analyses = EnumSet.copyOf(analyses);
+		this.threads = Math.max(1, threads);
+	}
+	
+	/**
+	 * Run the analyses on every file, writing the results as each file is completed.
+	 * 
+	 * @param files
+	 * @return the number of files for which one or more analyses failed
+	 * @throws IOException if the output folder or summary cannot be written
+	 */
+	public int run(List<File> files) throws IOException {
+	
+		if (!outputFolder.isDirectory() && !outputFolder.mkdirs())
+			throw new IOException("Unable to create output folder " + outputFolder.getAbsolutePath());
+		
+		// Choose the result folders up front so that files with the same name in different input folders do not collide
+		List<File> resultFolders = new ArrayList<File>(files.size());
+		Set<String> usedNames = new HashSet<String>();
+		for (File file : files)
+		{
+			String name = FilenameUtils.getBaseName(file.getName());
+			String uniqueName = name;
+			for (int i = 2; !usedNames.add(uniqueName.toLowerCase()); i++)
+			{
+				uniqueName = name + "_" + i;
+			}
+			resultFolders.add(new File(outputFolder, uniqueName));
+		}
+		
+		long startTime = System.currentTimeMillis();
+		int completed = 0;
+		int failed = 0;
+		
+		Writer summary = new BufferedWriter(new FileWriter(new File(outputFolder, SUMMARY_FILENAME)));
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			summary.write("File,Results,Status,Failed analyses,Milliseconds\n");
+			
+			CompletionService<FileResult> completionService = new ExecutorCompletionService<FileResult>(executor);
+			for (int i = 0; i < files.size(); i++)
+			{
+				final File file = files.get(i);
+				final File resultFolder = resultFolders.get(i);
+				completionService.submit(new Callable<FileResult>() {
+					
+					@Override
+					public FileResult call() {
+					
+						return analyzeFile(file, resultFolder);
+					}
+				});
+			}
+			
+			// Stream the outcome of each file to the summary as it completes
+			for (int i = 0; i < files.size(); i++)
+			{
+				FileResult result = completionService.take().get();
+				completed++;
+				if (!result.isSuccessful())
+					failed++;
+				
+				summary.write(result.toCSV());
+				summary.flush();
+				
+				if (completed % REPORT_INTERVAL == 0 || completed == files.size())
+				{
+					reportProgress(completed, files.size(), failed, startTime);
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			log.error("Interrupted while running batch analysis");
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e)
+		{
+			log.error("Error running batch analysis");
+			e.printStackTrace();
+		}
+		finally
+		{
+			executor.shutdownNow();
+			summary.close();
+		}
+		
+		return failed + (files.size() - completed);
+	}
+	
+	/**
+	 * Print the number of files completed so far and the rate at which they are being analyzed.
+	 * 
+	 * @param completed
+	 * @param total
+	 * @param failed
+	 * @param startTime
+	 */
+	private static void reportProgress(int completed, int total, int failed, long startTime) {
+	
+		double seconds = Math.max(1, System.currentTimeMillis() - startTime) / 1000.0;
+		System.out.println(String.format("Analyzed %d of %d files (%d with errors) in %.1fs - %.2f files/s", completed, total, failed,
+				seconds, completed / seconds));
+	}
+	
+	/**
+	 * Run the requested analyses on a single file and write the results to the specified folder. Each analysis is run independently so a
+	 * failure in one does not prevent the others from completing.
+	 * 
+	 * @param file
+	 * @param resultFolder
+	 * @return
+	 */
+	private FileResult analyzeFile(File file, File resultFolder) {
+	
+		long startTime = System.currentTimeMillis();
+		FileResult result = new FileResult(file, resultFolder);
+		
+		FHFile fhfile = new FHFile(file);
+		if (!fhfile.isValidFHXFile())
+		{
+			log.error("Skipping invalid file " + file.getAbsolutePath());
+			result.setInvalid();
+			result.setMilliseconds(System.currentTimeMillis() - startTime);
+			return result;
+		}
+		
+		if (!resultFolder.isDirectory() && !resultFolder.mkdirs())
+		{
+			log.error("Unable to create results folder " + resultFolder.getAbsolutePath());
+			result.setInvalid();
+			result.setMilliseconds(System.currentTimeMillis() - startTime);
+			return result;
+		}
+		
+		FHFile[] array = new FHFile[] { fhfile };
+		for (BatchAnalysis analysis : analyses)
+		{
+			try
+			{
+				switch (analysis)
+				{
+					case INTERVALS:
+						runIntervals(array, resultFolder);
+						break;
+					case MATRIX:
+						runMatrix(array, resultFolder);
+						break;
+					case SEASONALITY:
+						runSeasonality(array, resultFolder);
+						break;
+					case DESCRIPTIVE:
+						runDescriptiveStats(fhfile, resultFolder);
+						break;
+					case SSIZ:
+						runSampleSize(fhfile, resultFolder);
+						break;
+				}
+			}
+			catch (Exception e)
+			{
+				log.error("Error running " + analysis + " analysis on " + file.getName());
+				e.printStackTrace();
+				result.addFailure(analysis);
+			}
+		}
+		
+		result.setMilliseconds(System.currentTimeMillis() - startTime);
+		return result;
+	}
+	
+	/**
+	 * Get the event type to analyze.
+	 * 
+	 * @return
+	 */
+	private EventTypeToProcess getEventType() {
+	
+		return profile.getEnumPref(PrefKey.EVENT_TYPE_TO_PROCESS, EventTypeToProcess.class, EventTypeToProcess.FIRE_EVENT);
+	}
+	
+	/**
+	 * Get the type of label to identify the files by in the results.
+	 * 
+	 * @return
+	 */
+	private AnalysisLabelType getLabelType() {
+	
+		return profile.getEnumPref(PrefKey.ANALYSIS_LABEL_TYPE, AnalysisLabelType.class, AnalysisLabelType.INPUT_FILENAME);
+	}
+	
+	/**
+	 * Run intervals analysis with the same parameters as AnalysisProgressDialog.
+	 * 
+	 * @param array
+	 * @param resultFolder
+	 * @throws IOException
+	 */
+	private void runIntervals(FHFile[] array, File resultFolder) throws IOException {
+	
+		FHInterval fhint = new FHInterval(array, profile.getEnumPref(PrefKey.INTERVALS_ANALYSIS_TYPE, AnalysisType.class,
+				AnalysisType.COMPOSITE), profile.getIntPref(PrefKey.RANGE_FIRST_YEAR, 0), profile.getIntPref(PrefKey.RANGE_LAST_YEAR, 0),
+				profile.getEnumPref(PrefKey.COMPOSITE_FILTER_TYPE, FireFilterType.class, FireFilterType.NUMBER_OF_EVENTS),
+				(double) profile.getIntPref(PrefKey.COMPOSITE_FILTER_VALUE, 1), profile.getBooleanPref(
+						PrefKey.INTERVALS_INCLUDE_OTHER_INJURIES, false), getEventType(), profile.getDoublePref(
+						PrefKey.INTERVALS_ALPHA_LEVEL, 0.125), profile.getEnumPref(PrefKey.COMPOSITE_SAMPLE_DEPTH_TYPE,
+						SampleDepthFilterType.class, SampleDepthFilterType.MIN_NUM_SAMPLES), profile.getDoublePref(
+						PrefKey.COMPOSITE_MIN_SAMPLES, 1.0), getLabelType());
+		
+		writeTable(fhint.getExceedenceTable(), resultFolder, "intervals-exceedence.csv");
+		writeTable(fhint.getSummaryTable(), resultFolder, "intervals-summary.csv");
+	}
+	
+	/**
+	 * Run matrix analysis with the same parameters as AnalysisProgressDialog. Only the tables that are relevant to a single file are
+	 * written.
+	 * 
+	 * @param array
+	 * @param resultFolder
+	 * @throws IOException
+	 */
+	private void runMatrix(FHFile[] array, File resultFolder) throws IOException {
+	
+		FHMatrix fhm = new FHMatrix(array, profile.getIntPref(PrefKey.RANGE_FIRST_YEAR, 0), profile.getIntPref(PrefKey.RANGE_LAST_YEAR, 0),
+				profile.getEnumPref(PrefKey.COMPOSITE_FILTER_TYPE, FireFilterType.class, FireFilterType.NUMBER_OF_EVENTS), getEventType(),
+				(double) profile.getIntPref(PrefKey.COMPOSITE_FILTER_VALUE, 1), profile.getIntPref(PrefKey.RANGE_OVERLAP_REQUIRED, 25),
+				NoDataLabel.MINUS_99, getLabelType());
+		
+		writeTable(fhm.getSumResultTable(), resultFolder, "matrix-bin-sum.csv");
+		writeTable(fhm.getSiteResultTable(), resultFolder, "matrix-site-summary.csv");
+		writeTable(fhm.getNTPResultTable(), resultFolder, "matrix-ntp.csv");
+		writeTable(fhm.getTreeSummaryTable(), resultFolder, "matrix-tree-summary.csv");
+	}
+	
+	/**
+	 * Run seasonality analysis with the same parameters as AnalysisProgressDialog.
+	 * 
+	 * @param array
+	 * @param resultFolder
+	 * @throws IOException
+	 */
+	private void runSeasonality(FHFile[] array, File resultFolder) throws IOException {
+	
+		ResultTable table = FHSeasonality.runAnalysis(array, profile.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_DORMANT, true),
+				profile.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_EARLY_EARLY, true),
+				profile.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_MIDDLE_EARLY, false),
+				profile.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_LATE_EARLY, false),
+				profile.getBooleanPref(PrefKey.SEASONALITY_FIRST_GROUP_LATE, false),
+				profile.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_DORMANT, false),
+				profile.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_EARLY_EARLY, false),
+				profile.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_MIDDLE_EARLY, true),
+				profile.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_LATE_EARLY, true),
+				profile.getBooleanPref(PrefKey.SEASONALITY_SECOND_GROUP_LATE, true), profile.getIntPref(PrefKey.RANGE_FIRST_YEAR, 0),
+				profile.getIntPref(PrefKey.RANGE_LAST_YEAR, 0), getEventType(), getLabelType());
+		
+		writeTable(table, resultFolder, "seasonality.csv");
+	}
+	
+	/**
+	 * Write the descriptive statistics for a file.
+	 * 
+	 * @param fhfile
+	 * @param resultFolder
+	 * @throws IOException
+	 */
+	private void runDescriptiveStats(FHFile fhfile, File resultFolder) throws IOException {
+	
+		writeTable(FHDescriptiveStatsResults.getSingleFileSummaryTable(fhfile, getEventType()), resultFolder, "descriptive-summary.csv");
+		writeTable(FHDescriptiveStatsResults.getEventSummaryTable(fhfile, getEventType()), resultFolder, "descriptive-event-summary.csv");
+	}
+	
+	/**
+	 * Run the sample size analysis over the full span of a file, using the same parameters as the FHSampleSize dialog.
+	 * 
+	 * @param fhfile
+	 * @param resultFolder
+	 * @throws Exception
+	 */
+	private void runSampleSize(FHFile fhfile, File resultFolder) throws Exception {
+	
+		FHX2FileReader reader = FHX2FileReaderCache.getReader(fhfile);
+		
+		SSIZAnalysisModel model = new SSIZAnalysisModel(profile.getIntPref(PrefKey.SSIZ_SEED_NUMBER, 30188), reader, getEventType());
+		model.setNumSimulationsToRun(profile.getIntPref(PrefKey.SSIZ_SIMULATION_COUNT, 1000));
+		model.setResamplingType(profile.getEnumPref(PrefKey.SSIZ_RESAMPLING_TYPE, ResamplingType.class, ResamplingType.WITH_REPLACEMENT));
+		model.setThresholdType(profile.getEnumPref(PrefKey.COMPOSITE_FILTER_TYPE_WITH_ALL_TREES, FireFilterType.class,
+				FireFilterType.NUMBER_OF_EVENTS));
+		model.setThresholdValueGT(profile.getIntPref(PrefKey.COMPOSITE_FILTER_VALUE, 1));
+		
+		// Do this before restricting to common years (otherwise common year restriction may have no effect)
+		if (profile.getBooleanPref(PrefKey.SSIZ_CHK_EXCLUDE_SERIES_WITH_NO_EVENTS, false))
+			SSIZController.restrictAnalysisToSeriesWithEvents(model);
+		
+		if (profile.getBooleanPref(PrefKey.SSIZ_CHK_COMMON_YEARS, false))
+			SSIZController.restrictAnalysisToCommonYears(model);
+		
+		model.setSegmentArray(new ArrayList<SegmentModel>());
+		SSIZController.doPreRunSetup(model);
+		
+		// The pool is already busy with other files, so the simulations for this file are run in this thread
+		AnalysisResultsCollector results = new AnalysisResultsCollector(model.getSegments());
+		for (int segmentIndex = 0; segmentIndex < model.getSegments().size(); segmentIndex++)
+		{
+			Double centuryMultiplier = SSIZController.getCenturyMultiplier(model, model.getSegments().get(segmentIndex));
+			for (List<Callable<double[]>> blocks : SSIZController.createAnalysisTasks(model, segmentIndex, centuryMultiplier, results))
+			{
+				for (Callable<double[]> block : blocks)
+				{
+					block.call();
+				}
+			}
+			results.completeSegment(model.getSegments().get(segmentIndex), 1);
+		}
+		
+		ResultTable table = new ResultTable("SSIZ");
+		table.addRow("N", "Seg Start", "Seg End", "Mean", "Median", "CI 95", "CI 99", "Weibull Mean", "Weibull Median", "Weibull CI95",
+				"Weibull CI99");
+		for (AnalysisResultsModel res : results.getAnalysisResults())
+		{
+			table.addRow(res.getNumberOfSamples(), res.getSegment().getFirstYear(), res.getSegment().getLastYear(), res.getMean(),
+					res.getMedian(), res.getConfidenceInterval95(), res.getConfidenceInterval99(), res.getWeibullMean(),
+					res.getWeibullMedian(), res.getWeibullConfidenceInterval95Lower(), res.getWeibullConfidenceInterval99());
+		}
+		
+		writeTable(table, resultFolder, "ssiz.csv");
+	}
+	
+	/**
+	 * Write a table of results to a CSV file in the results folder.
+	 * 
+	 * @param table
+	 * @param resultFolder
+	 * @param filename
+	 * @throws IOException
+	 */
+	private static void writeTable(ResultTable table, File resultFolder, String filename) throws IOException {
+	
+		if (table == null)
+			throw new IOException("No results were produced for " + filename);
+		
+		table.writeCSV(new File(resultFolder, filename));
+	}
+	
+	/**
+	 * Expand the inputs given on the command line into a sorted list of files. Folders are searched recursively for .fhx files and inputs
+	 * starting with @ are read as lists of paths, one per line.
+	 * 
+	 * @param inputs
+	 * @return
+	 * @throws IOException
+	 */
+	public static List<File> collectInputFiles(List<String> inputs) throws IOException {
+	
+		List<File> files = new ArrayList<File>();
+		for (String input : inputs)
+		{
+			if (input.startsWith("@"))
+			{
+				BufferedReader reader = new BufferedReader(new FileReader(input.substring(1)));
+				try
+				{
+					String line;
+					while ((line = reader.readLine()) != null)
+					{
+						if (line.trim().length() > 0)
+							addInputFile(files, new File(line.trim()));
+					}
+				}
+				finally
+				{
+					reader.close();
+				}
+			}
+			else
+			{
+				addInputFile(files, new File(input));
+			}
+		}
+		return files;
+	}
+	
+	/**
+	 * Add a file, or the .fhx files within a folder, to the list of input files.
+	 * 
+	 * @param files
+	 * @param input
+	 */
+	private static void addInputFile(List<File> files, File input) {
+	
+		if (!input.isDirectory())
+		{
+			files.add(input);
+			return;
+		}
+		
+		File[] children = input.listFiles();
+		if (children == null)
+			return;
+		
+		Arrays.sort(children);
+		for (File child : children)
+		{
+			if (child.isDirectory())
+			{
+				addInputFile(files, child);
+			}
+			else if (FilenameUtils.isExtension(child.getName().toLowerCase(), "fhx"))
+			{
+				files.add(child);
+			}
+		}
+	}
+	
+	/**
+	 * Print usage instructions.
+	 */
+	private static void printUsage() {
+	
+		System.out.println("Usage: BatchAnalysisRunner [-profile file] [-threads n] [-analyses list] -output folder input...");
+		System.out.println();
+		System.out.println("  -profile   properties file of analysis parameters keyed by preference name");
+		System.out.println("  -threads   number of files to analyze at once (default is the number of processors)");
+		System.out.println("  -analyses  comma separated list from " + Arrays.toString(BatchAnalysis.values()) + " (default is all)");
+		System.out.println("  -output    folder to write the results to");
+		System.out.println("  input      FHX file, folder to search for FHX files, or @file containing a list of paths");
+	}
+	
+	/**
+	 * Command line entry point.
+	 * 
+	 * @param args
+	 */
+	public static void main(String[] args) {
+	
+		// Make sure nothing tries to open a window, even if a display happens to be available
+		System.setProperty("java.awt.headless", "true");
+		
+		File profileFile = null;
+		File outputFolder = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		Set<BatchAnalysis> analyses = EnumSet.allOf(BatchAnalysis.class);
+		List<String> inputs = new ArrayList<String>();
+		
+		try
+		{
+			for (int i = 0; i < args.length; i++)
+			{
+				if (args[i].equals("-profile") && i + 1 < args.length)
+				{
+					profileFile = new File(args[++i]);
+				}
+				else if (args[i].equals("-output") && i + 1 < args.length)
+				{
+					outputFolder = new File(args[++i]);
+				}
+				else if (args[i].equals("-threads") && i + 1 < args.length)
+				{
+					threads = Integer.parseInt(args[++i]);
+				}
+				else if (args[i].equals("-analyses") && i + 1 < args.length)
+				{
+					analyses = EnumSet.noneOf(BatchAnalysis.class);
+					for (String name : args[++i].split(","))
+					{
+						analyses.add(BatchAnalysis.valueOf(name.trim().toUpperCase()));
+					}
+				}
+				else if (args[i].startsWith("-"))
+				{
+					throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+				else
+				{
+					inputs.add(args[i]);
+				}
+			}
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.out.println(e.getMessage());
+			printUsage();
+			System.exit(2);
+		}
+		
+		if (outputFolder == null || inputs.isEmpty() || analyses.isEmpty())
+		{
+			printUsage();
+			System.exit(2);
+		}
+		
+		try
+		{
+			App.initHeadless();
+			
+			AnalysisProfile profile = profileFile != null ? AnalysisProfile.load(profileFile) : new AnalysisProfile();
+			List<File> files = collectInputFiles(inputs);
+			System.out.println("Analyzing " + files.size() + " files using " + threads + " threads");
+			
+			int failed = new BatchAnalysisRunner(profile, outputFolder, analyses, threads).run(files);
+			System.exit(failed == 0 ? 0 : 1);
+		}
+		catch (IOException e)
+		{
+			log.error("Batch analysis failed");
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * FileResult Class. The outcome of analyzing a single file.
+	 */
+	private static class FileResult {
+		
+		private final File file;
+		private final File resultFolder;
+		private final List<BatchAnalysis> failures = new ArrayList<BatchAnalysis>();
+		private boolean invalid = false;
+		private long milliseconds;
+		
+		FileResult(File file, File resultFolder) {
+		
+			this.file = file;
+			this.resultFolder = resultFolder;
+		}
+		
+		void addFailure(BatchAnalysis analysis) {
+		
+			failures.add(analysis);
+		}
+		
+		void setInvalid() {
+		
+			invalid = true;
+		}
+		
+		void setMilliseconds(long milliseconds) {
+		
+			this.milliseconds = milliseconds;
+		}
+		
+		boolean isSuccessful() {
+		
+			return !invalid && failures.isEmpty();
+		}
+		
+		String toCSV() {
+		
+			String status = invalid ? "Invalid" : (failures.isEmpty() ? "OK" : "Errors");
+			StringBuilder failed = new StringBuilder();
+			for (BatchAnalysis analysis : failures)
+			{
+				if (failed.length() > 0)
+					failed.append(' ');
+				failed.append(analysis);
+			}
+			
+			return file.getAbsolutePath().replace(",", "_") + "," + resultFolder.getName() + "," + status + "," + failed + ","
+					+ milliseconds + "\n";
+		}
+	}
+}
@@ -0,0 +1,289 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.analysis;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.fhaes.enums.AnalysisLabelType;
+import org.fhaes.enums.EventTypeToProcess;
+import org.fhaes.enums.FireFilterType;
+import org.fhaes.enums.NoDataLabel;
+import org.fhaes.fhfilereader.FHFile;
+import org.fhaes.fhfilereader.FHFileParseCache;
+import org.fhaes.model.ResultTable;
+import org.fhaes.preferences.App;
+
+/**
+ * AnalysisResultCacheTest Class. Checks that a result returned from the cache is the same as calculating it again, that the key changes
+ * whenever the files or parameters that the results depend on change, and that the cache stays within its size limit.
+ */
+public class AnalysisResultCacheTest extends TestCase {
+	
+	private static final int FIRST_YEAR = 1700;
+	private static final int NUMBER_OF_YEARS = 120;
+	
+	private File folder;
+	private File originalParseCacheFolder;
+	private int originalMaxEntries;
+	private long originalMaxCharacters;
+	
+	@Override
+	protected void setUp() throws IOException {
+	
+		// No frame as the tests may be run headless
+		App.init(null);
+		
+		folder = File.createTempFile("AnalysisResultCacheTest", "");
+		folder.delete();
+		folder.mkdir();
+		
+		// Keep the results of checking the test files out of the user's parse cache
+		originalParseCacheFolder = FHFileParseCache.getCacheFolder();
+		FHFileParseCache.setCacheFolder(new File(folder, "parsecache"));
+		
+		originalMaxEntries = AnalysisResultCache.getMaxEntries();
+		originalMaxCharacters = AnalysisResultCache.getMaxCharacters();
+		AnalysisResultCache.clear();
+	}
+	
+	@Override
+	protected void tearDown() {
+	
+		AnalysisResultCache.setMaxEntries(originalMaxEntries);
+		AnalysisResultCache.setMaxCharacters(originalMaxCharacters);
+		AnalysisResultCache.clear();
+		
+		FHFileParseCache.clear();
+		FHFileParseCache.setCacheFolder(originalParseCacheFolder);
+		delete(folder);
+	}
+	
+	private static void delete(File file) {
+	
+		File[] children = file.listFiles();
+		if (children != null)
+		{
+			for (File child : children)
+			{
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+	
+	/**
+	 * Write an FHX2 file of random series. Each series records throughout the years of the file with an occasional fire or injury
+	 * event.
+	 * 
+	 * @param name
+	 * @param seed
+	 * @return
+	 * @throws IOException
+	 */
+	private File writeFile(String name, long seed) throws IOException {
+	
+		Random random = new Random(seed);
+		int numberOfSeries = 4;
+		
+		File file = new File(folder, name);
+		Writer wr = new FileWriter(file);
+		try
+		{
+			wr.write("FHX2 FORMAT\n" + FIRST_YEAR + " " + numberOfSeries + " 1\nABCD\n\n");
+			for (int y = 0; y < NUMBER_OF_YEARS; y++)
+			{
+				StringBuilder row = new StringBuilder();
+				for (int s = 0; s < numberOfSeries; s++)
+				{
+					int r = random.nextInt(40);
+					row.append(y == 0 ? '[' : y == NUMBER_OF_YEARS - 1 ? ']' : r == 0 ? 'U' : r == 1 ? 'u' : '|');
+				}
+				wr.write(row + " " + (FIRST_YEAR + y) + "\n");
+			}
+		}
+		finally
+		{
+			wr.close();
+		}
+		return file;
+	}
+	
+	/**
+	 * Load the files fresh from disk, as happens when the user reopens them.
+	 * 
+	 * @param files
+	 * @return
+	 */
+	private static FHFile[] load(File... files) {
+	
+		FHFile[] array = new FHFile[files.length];
+		for (int i = 0; i < files.length; i++)
+		{
+			array[i] = new FHFile(files[i]);
+			assertTrue(array[i].isValidFHXFile());
+		}
+		return array;
+	}
+	
+	private static String getMatrixKey(FHFile[] array, Double filterValue) {
+	
+		return AnalysisResultCache.getKey("FHMatrix", array, AnalysisLabelType.INPUT_FILENAME, FIRST_YEAR, FIRST_YEAR + NUMBER_OF_YEARS - 1,
+				FireFilterType.NUMBER_OF_EVENTS, EventTypeToProcess.FIRE_AND_INJURY_EVENT, filterValue, 25, NoDataLabel.MINUS_99);
+	}
+	
+	private static FHMatrix runMatrix(FHFile[] array, Double filterValue) {
+	
+		return new FHMatrix(array, FIRST_YEAR, FIRST_YEAR + NUMBER_OF_YEARS - 1, FireFilterType.NUMBER_OF_EVENTS,
+				EventTypeToProcess.FIRE_AND_INJURY_EVENT, filterValue, 25, NoDataLabel.MINUS_99, AnalysisLabelType.INPUT_FILENAME);
+	}
+	
+	private static String toCSV(ResultTable table) throws IOException {
+	
+		StringWriter wr = new StringWriter();
+		table.writeCSV(wr);
+		return wr.toString();
+	}
+	
+	/**
+	 * Assert that two matrix analyses produced the same tables.
+	 * 
+	 * @param expected
+	 * @param actual
+	 * @throws IOException
+	 */
+	private static void assertSameMatrix(FHMatrix expected, FHMatrix actual) throws IOException {
+	
+		assertEquals(toCSV(expected.getSiteResultTable()), toCSV(actual.getSiteResultTable()));
+		assertEquals(toCSV(expected.getSumResultTable()), toCSV(actual.getSumResultTable()));
+		assertEquals(toCSV(expected.getSJACResultTable()), toCSV(actual.getSJACResultTable()));
+	}
+	
+	public void testCachedResultMatchesRecalculation() throws IOException {
+	
+		File[] files = new File[] { writeFile("a.fhx", 1), writeFile("b.fhx", 2), writeFile("c.fhx", 3) };
+		
+		FHFile[] array = load(files);
+		String key = getMatrixKey(array, 1.0);
+		assertNull(AnalysisResultCache.get(key, FHMatrix.class));
+		AnalysisResultCache.put(key, runMatrix(array, 1.0));
+		
+		// Reopening the same files gives the same key, and the cached result is what would have been calculated
+		FHFile[] reloaded = load(files);
+		String reloadedKey = getMatrixKey(reloaded, 1.0);
+		assertEquals(key, reloadedKey);
+		
+		FHMatrix cached = AnalysisResultCache.get(reloadedKey, FHMatrix.class);
+		assertNotNull(cached);
+		assertSameMatrix(runMatrix(reloaded, 1.0), cached);
+		assertEquals(1, AnalysisResultCache.getHitCount());
+		assertEquals(1, AnalysisResultCache.getMissCount());
+	}
+	
+	public void testEditedFileChangesKey() throws IOException {
+	
+		File[] files = new File[] { writeFile("a.fhx", 1), writeFile("b.fhx", 2) };
+		FHFile[] array = load(files);
+		String key = getMatrixKey(array, 1.0);
+		
+		// Rewrite the second file with different events but the same name, saved a little later as the readers are cached by file time
+		long modified = files[1].lastModified();
+		writeFile("b.fhx", 4);
+		files[1].setLastModified(modified + 2000);
+		FHFile[] edited = load(files);
+		String editedKey = getMatrixKey(edited, 1.0);
+		assertFalse(key.equals(editedKey));
+	}
+	
+	public void testKeyDependsOnFilesAndParameters() throws IOException {
+	
+		File a = writeFile("a.fhx", 1);
+		File b = writeFile("b.fhx", 2);
+		File renamed = writeFile("renamed.fhx", 2);
+		FHFile[] array = load(a, b);
+		String key = getMatrixKey(array, 1.0);
+		
+		assertEquals(key, getMatrixKey(load(a, b), 1.0));
+		assertFalse(key.equals(getMatrixKey(array, 2.0)));
+		assertFalse(key.equals(getMatrixKey(load(b, a), 1.0)));
+		assertFalse(key.equals(getMatrixKey(load(a), 1.0)));
+		
+		// Same content under another name is labelled differently in the results
+		assertFalse(key.equals(getMatrixKey(load(a, renamed), 1.0)));
+		
+		// Different analyses with the same parameters never share results
+		assertFalse(AnalysisResultCache.getKey("FHMatrix", array, AnalysisLabelType.INPUT_FILENAME, 1).equals(
+				AnalysisResultCache.getKey("FHInterval", array, AnalysisLabelType.INPUT_FILENAME, 1)));
+	}
+	
+	public void testLeastRecentlyUsedEviction() {
+	
+		AnalysisResultCache.setMaxEntries(3);
+		AnalysisResultCache.put("a", "A");
+		AnalysisResultCache.put("b", "B");
+		AnalysisResultCache.put("c", "C");
+		
+		// Using a makes b the least recently used
+		assertEquals("A", AnalysisResultCache.get("a", String.class));
+		AnalysisResultCache.put("d", "D");
+		assertEquals(3, AnalysisResultCache.size());
+		assertNull(AnalysisResultCache.get("b", String.class));
+		assertEquals("A", AnalysisResultCache.get("a", String.class));
+		assertEquals("C", AnalysisResultCache.get("c", String.class));
+		assertEquals("D", AnalysisResultCache.get("d", String.class));
+	}
+	
+	public void testSizeEviction() {
+	
+		AnalysisResultCache.setMaxCharacters(10);
+		AnalysisResultCache.put("a", "AAAA");
+		AnalysisResultCache.put("b", "BBBB");
+		assertEquals(8, AnalysisResultCache.getTotalCharacters());
+		
+		// Adding c takes the total over the limit so the least recently used result is dropped, even though there is room for more entries
+		AnalysisResultCache.put("c", "CCCC");
+		assertEquals(2, AnalysisResultCache.size());
+		assertEquals(8, AnalysisResultCache.getTotalCharacters());
+		assertNull(AnalysisResultCache.get("a", String.class));
+		
+		// Replacing a result does not count its size twice
+		AnalysisResultCache.put("c", "CC");
+		assertEquals(6, AnalysisResultCache.getTotalCharacters());
+	}
+	
+	public void testOversizedResultLeavesCacheAlone() {
+	
+		AnalysisResultCache.setMaxCharacters(10);
+		AnalysisResultCache.put("a", "AAAA");
+		AnalysisResultCache.put("b", "BBBB");
+		
+		// A result larger than the whole limit is not cached and does not push out the results already cached
+		AnalysisResultCache.put("c", "CCCCCCCCCCCC");
+		assertNull(AnalysisResultCache.get("c", String.class));
+		assertEquals(2, AnalysisResultCache.size());
+		assertEquals(8, AnalysisResultCache.getTotalCharacters());
+		assertEquals("AAAA", AnalysisResultCache.get("a", String.class));
+		assertEquals("BBBB", AnalysisResultCache.get("b", String.class));
+	}
+}
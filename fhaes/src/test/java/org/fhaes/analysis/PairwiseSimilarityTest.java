@@ -0,0 +1,171 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Elena Velasquez and Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.analysis;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * PairwiseSimilarityTest Class. Checks the bitset contingency counts against a direct count over the years of every pair of series, which
+ * is how FHMatrix calculated them before PairwiseSimilarity was introduced.
+ */
+public class PairwiseSimilarityTest extends TestCase {
+	
+	/**
+	 * Codes for a year: 1 = event, 0 = recording and -1 = no data
+	 */
+	private static final int[] CODES = new int[] { 1, 0, -1 };
+	
+	/**
+	 * Build a random [year][series] array. Each series only has data for a random range of years so that pairs overlap by varying amounts.
+	 * 
+	 * @param random
+	 * @param numberOfYears
+	 * @param numberOfSeries
+	 * @return
+	 */
+	private static int[][] randomData(Random random, int numberOfYears, int numberOfSeries) {
+	
+		int[][] data = new int[numberOfYears][numberOfSeries];
+		for (int s = 0; s < numberOfSeries; s++)
+		{
+			int first = numberOfYears > 0 ? random.nextInt(numberOfYears) : 0;
+			int last = numberOfYears > 0 ? first + random.nextInt(numberOfYears - first) : -1;
+			for (int y = 0; y < numberOfYears; y++)
+			{
+				data[y][s] = y >= first && y <= last ? CODES[random.nextInt(CODES.length)] : -1;
+			}
+		}
+		return data;
+	}
+	
+	/**
+	 * Count the years in which series c has code cCode and series r has code rCode.
+	 */
+	private static int count(int[][] data, int r, int c, int rCode, int cCode) {
+	
+		int n = 0;
+		for (int y = 0; y < data.length; y++)
+		{
+			if (data[y][r] == rCode && data[y][c] == cCode)
+				n++;
+		}
+		return n;
+	}
+	
+	/**
+	 * Assert that the engine gives the same counts as counting every pair year by year.
+	 * 
+	 * @param data
+	 * @param numberOfSeries
+	 * @param engine
+	 */
+	private static void assertMatchesBruteForce(int[][] data, int numberOfSeries, PairwiseSimilarity engine) {
+	
+		int[][] m11 = engine.getMatrix11();
+		int[][] m10 = engine.getMatrix10();
+		int[][] m01 = engine.getMatrix01();
+		int[][] m00 = engine.getMatrix00();
+		
+		assertEquals(numberOfSeries, m11.length);
+		for (int r = 0; r < numberOfSeries; r++)
+		{
+			assertEquals(r + 1, m11[r].length);
+			for (int c = 0; c <= r; c++)
+			{
+				String pair = data.length + " years, pair " + r + "," + c;
+				assertEquals(pair, count(data, r, c, 1, 1), m11[r][c]);
+				assertEquals(pair, count(data, r, c, 0, 1), m10[r][c]);
+				assertEquals(pair, count(data, r, c, 1, 0), m01[r][c]);
+				assertEquals(pair, count(data, r, c, 0, 0), m00[r][c]);
+			}
+		}
+	}
+	
+	public void testWordBoundaries() {
+	
+		Random random = new Random(1);
+		int[] lengths = new int[] { 1, 63, 64, 65, 127, 128, 129, 191, 192, 193 };
+		for (int numberOfYears : lengths)
+		{
+			int[][] data = randomData(random, numberOfYears, 6);
+			PairwiseSimilarity engine = PairwiseSimilarity.fromYearBySeries(data, 6);
+			engine.calculate(1);
+			assertMatchesBruteForce(data, 6, engine);
+		}
+	}
+	
+	public void testSetValueReplacesPreviousCode() {
+	
+		PairwiseSimilarity engine = new PairwiseSimilarity(2, 70);
+		engine.setValue(0, 65, 1);
+		engine.setValue(1, 65, 1);
+		assertEquals(1, engine.getMatrix11()[1][0]);
+		
+		// Changing a value after calculating must recalculate the counts. Column series 0 now has an event while row series 1 is
+		// recording.
+		engine.setValue(1, 65, 0);
+		assertEquals(0, engine.getMatrix11()[1][0]);
+		assertEquals(1, engine.getMatrix10()[1][0]);
+		assertEquals(0, engine.getMatrix01()[1][0]);
+		
+		engine.setValue(1, 65, -99);
+		assertEquals(0, engine.getMatrix10()[1][0]);
+	}
+	
+	public void testConcurrentCalculation() {
+	
+		// Large enough for the work to be split into blocks across threads
+		int numberOfYears = 1500;
+		int numberOfSeries = 200;
+		int[][] data = randomData(new Random(4), numberOfYears, numberOfSeries);
+		
+		PairwiseSimilarity engine = PairwiseSimilarity.fromYearBySeries(data, numberOfSeries);
+		engine.calculate(4);
+		assertMatchesBruteForce(data, numberOfSeries, engine);
+	}
+	
+	public void testInterruptedCalculationIsAbandoned() {
+	
+		int numberOfSeries = 200;
+		int[][] data = randomData(new Random(5), 1500, numberOfSeries);
+		
+		for (int threads : new int[] { 1, 4 })
+		{
+			PairwiseSimilarity engine = PairwiseSimilarity.fromYearBySeries(data, numberOfSeries);
+			Thread.currentThread().interrupt();
+			try
+			{
+				engine.calculate(threads);
+				fail("Expected the calculation to be abandoned");
+			}
+			catch (IllegalStateException e)
+			{
+				// Expected
+			}
+			finally
+			{
+				assertTrue(Thread.interrupted());
+			}
+			
+			// Nothing was published so the matrices are calculated afresh when next requested
+			assertMatchesBruteForce(data, numberOfSeries, engine);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.analysis;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.fhaes.enums.EventTypeToProcess;
+import org.fhaes.fhfilereader.FHX2FileReader;
+import org.fhaes.preferences.App;
+
+/**
+ * YearAlignedEventCubeTest Class. Checks the cube against looking each year up in the reader's own year array.
+ */
+public class YearAlignedEventCubeTest extends TestCase {
+	
+	private static final String CODES = "||.U|D|u.d|";
+	
+	private final ArrayList<File> tempFiles = new ArrayList<File>();
+	
+	@Override
+	protected void setUp() {
+	
+		// No frame as the tests may be run headless
+		App.init(null);
+	}
+	
+	@Override
+	protected void tearDown() {
+	
+		for (File file : tempFiles)
+		{
+			file.delete();
+		}
+	}
+	
+	/**
+	 * Write and read back an FHX2 file with two series, the second of which starts ten years after the first.
+	 * 
+	 * @param firstYear
+	 * @param numberOfYears
+	 * @return
+	 * @throws IOException
+	 */
+	private FHX2FileReader createReader(int firstYear, int numberOfYears) throws IOException {
+	
+		File file = File.createTempFile("YearAlignedEventCubeTest", ".fhx");
+		tempFiles.add(file);
+		Writer wr = new FileWriter(file);
+		try
+		{
+			wr.write("FHX2 FORMAT\n" + firstYear + " 2 1\nAB\n\n");
+			for (int y = 0; y < numberOfYears; y++)
+			{
+				char first = y == 0 ? '[' : y == numberOfYears - 1 ? ']' : CODES.charAt(y % CODES.length());
+				char second = y < 10 ? '.' : y == 10 ? '{' : y == numberOfYears - 1 ? '}' : CODES.charAt((y * 7) % CODES.length());
+				wr.write("" + first + second + " " + (firstYear + y) + "\n");
+			}
+		}
+		finally
+		{
+			wr.close();
+		}
+		return new FHX2FileReader(file);
+	}
+	
+	/**
+	 * Assert that every row of the cube matches looking each year up in the reader.
+	 * 
+	 * @param readers
+	 * @param eventType
+	 * @param firstYear
+	 * @param lastYear
+	 */
+	private static void assertMatchesReaders(List<FHX2FileReader> readers, EventTypeToProcess eventType, int firstYear, int lastYear) {
+	
+		YearAlignedEventCube cube = new YearAlignedEventCube(readers, eventType, firstYear, lastYear);
+		assertEquals(lastYear - firstYear + 1, cube.getNumberOfYears());
+		
+		for (int f = 0; f < readers.size(); f++)
+		{
+			FHX2FileReader reader = readers.get(f);
+			List<Integer> years = reader.getYearArray();
+			List<Integer> events = reader.getFiresAndInjuriesArray();
+			if (eventType.equals(EventTypeToProcess.FIRE_EVENT))
+			{
+				events = reader.getFireEventsArray();
+			}
+			else if (eventType.equals(EventTypeToProcess.INJURY_EVENT))
+			{
+				events = reader.getOtherInjuriesArray();
+			}
+			int[] recordingDepths = reader.getRecordingDepths(eventType);
+			List<List<Double>> filters = reader.getFilterArrays(eventType);
+			
+			for (int i = 0; i < cube.getNumberOfYears(); i++)
+			{
+				int year = firstYear + i;
+				int index = years.indexOf(year);
+				String message = "File " + f + " year " + year + " " + eventType;
+				
+				assertEquals(message, index, cube.getYearIndex(f, year));
+				assertEquals(message, index == -1 ? -1 : events.get(index).intValue(), cube.getEvents(f)[i]);
+				assertEquals(message, index == -1 ? 0 : reader.getSampleDepths()[index], cube.getSampleDepths(f)[i]);
+				assertEquals(message, index == -1 ? 0 : recordingDepths[index], cube.getRecordingDepths(f)[i]);
+				assertEquals(message, index == -1 ? -1.0 : filters.get(2).get(index), cube.getFilterValues(f, 2)[i], 0.0);
+			}
+		}
+	}
+	
+	public void testFilesOffsetFromRange() throws IOException {
+	
+		// Files starting before the range, ending after it, both, exactly on it, one year either side and entirely outside it
+		List<FHX2FileReader> readers = new ArrayList<FHX2FileReader>();
+		readers.add(createReader(1650, 100));
+		readers.add(createReader(1750, 100));
+		readers.add(createReader(1690, 130));
+		readers.add(createReader(1700, 101));
+		readers.add(createReader(1699, 103));
+		readers.add(createReader(1500, 50));
+		
+		for (EventTypeToProcess eventType : EventTypeToProcess.values())
+		{
+			assertMatchesReaders(readers, eventType, 1700, 1800);
+		}
+	}
+	
+	public void testEmptyRange() throws IOException {
+	
+		List<FHX2FileReader> readers = new ArrayList<FHX2FileReader>();
+		readers.add(createReader(1700, 20));
+		
+		YearAlignedEventCube cube = new YearAlignedEventCube(readers, EventTypeToProcess.FIRE_EVENT, 1710, 1709);
+		assertEquals(0, cube.getNumberOfYears());
+		assertEquals(0, cube.getEvents(0).length);
+		
+		// Years in the file can still be looked up outside the range
+		assertEquals(5, cube.getYearIndex(0, 1705));
+	}
+}
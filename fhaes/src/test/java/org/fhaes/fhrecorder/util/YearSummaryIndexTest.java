@@ -0,0 +1,202 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.fhrecorder.util;
+
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.fhaes.fhrecorder.model.FHX2_Event;
+import org.fhaes.fhrecorder.model.FHX2_FileRequiredPart;
+import org.fhaes.fhrecorder.model.FHX2_Recording;
+import org.fhaes.fhrecorder.model.FHX2_Sample;
+
+/**
+ * YearSummaryIndexTest Class. Checks the incrementally maintained totals against YearSummary(FHX2_FileRequiredPart, int), which counts
+ * every sample for each year and is how the summaries were calculated before the index was introduced.
+ * 
+ * <p>
+ * The samples are edited through their event and recording lists directly so that the tests do not need the FHRecorder GUI controllers.
+ * </p>
+ */
+public class YearSummaryIndexTest extends TestCase {
+	
+	private static final char[] EVENT_TYPES = new char[] { 'D', 'E', 'M', 'L', 'A', 'U', 'd', 'e', 'm', 'l', 'a', 'u' };
+	
+	/**
+	 * Create a sample with random recordings and events within its range of years.
+	 * 
+	 * @param random
+	 * @param firstYear
+	 * @param lastYear
+	 * @return
+	 */
+	private static FHX2_Sample createSample(Random random, int firstYear, int lastYear) {
+	
+		FHX2_Sample sample = new FHX2_Sample(firstYear, lastYear);
+		int length = lastYear - firstYear + 1;
+		
+		int numRecordings = random.nextInt(3);
+		for (int r = 0; r < numRecordings; r++)
+		{
+			int start = firstYear + random.nextInt(length);
+			int end = start + random.nextInt(lastYear - start + 1);
+			sample.getRecordings().add(new FHX2_Recording(start, end));
+		}
+		
+		int numEvents = random.nextInt(6);
+		for (int e = 0; e < numEvents; e++)
+		{
+			sample.getEvents().add(new FHX2_Event(EVENT_TYPES[random.nextInt(EVENT_TYPES.length)], firstYear + random.nextInt(length)));
+		}
+		return sample;
+	}
+	
+	/**
+	 * Create a file of random samples between the specified years.
+	 * 
+	 * @param random
+	 * @param numberOfSamples
+	 * @param firstYear
+	 * @param lastYear
+	 * @return
+	 */
+	private static FHX2_FileRequiredPart createFile(Random random, int numberOfSamples, int firstYear, int lastYear) {
+	
+		FHX2_FileRequiredPart file = new FHX2_FileRequiredPart();
+		for (int s = 0; s < numberOfSamples; s++)
+		{
+			int sampleFirstYear = firstYear + random.nextInt(lastYear - firstYear + 1);
+			int sampleLastYear = sampleFirstYear + random.nextInt(lastYear - sampleFirstYear + 1);
+			file.getSampleList().add(createSample(random, sampleFirstYear, sampleLastYear));
+		}
+		file.setDataSetFirstYear(firstYear);
+		file.setDataSetLastYear(lastYear);
+		return file;
+	}
+	
+	/**
+	 * Assert that two summaries hold the same counts.
+	 * 
+	 * @param expected
+	 * @param actual
+	 */
+	private static void assertSameSummary(YearSummary expected, YearSummary actual) {
+	
+		String year = "Year " + expected.getYear();
+		assertEquals(year, expected.getYear(), actual.getYear());
+		assertEquals(year, expected.getNumRecorders(), actual.getNumRecorders());
+		assertEquals(year, expected.getNumSamples(), actual.getNumSamples());
+		assertEquals(year, expected.getNumDormantSeason(), actual.getNumDormantSeason());
+		assertEquals(year, expected.getNumEarlyEarlywood(), actual.getNumEarlyEarlywood());
+		assertEquals(year, expected.getNumMiddleEarlywood(), actual.getNumMiddleEarlywood());
+		assertEquals(year, expected.getNumLateEarlywood(), actual.getNumLateEarlywood());
+		assertEquals(year, expected.getNumLatewood(), actual.getNumLatewood());
+		assertEquals(year, expected.getNumUndetermined(), actual.getNumUndetermined());
+	}
+	
+	/**
+	 * Assert that the index gives the same summaries as counting every sample, both for the summary list and for single years either side
+	 * of the data set.
+	 * 
+	 * @param file
+	 * @param index
+	 */
+	private static void assertMatchesFile(FHX2_FileRequiredPart file, YearSummaryIndex index) {
+	
+		int firstYear = file.getDataSetFirstYear();
+		int lastYear = file.getDataSetLastYear();
+		
+		List<YearSummary> summaries = index.getYearSummaryList();
+		int i = 0;
+		for (int year = firstYear + 1; year < lastYear; year++)
+		{
+			if (year == 0)
+				continue;
+			assertSameSummary(new YearSummary(file, year), summaries.get(i++));
+		}
+		assertEquals(i, summaries.size());
+		
+		for (int year = firstYear - 5; year <= lastYear + 5; year++)
+		{
+			assertSameSummary(new YearSummary(file, year), index.getYearSummary(year));
+		}
+	}
+	
+	public void testMatchesYearSummary() {
+	
+		Random random = new Random(1);
+		for (int n = 0; n < 20; n++)
+		{
+			FHX2_FileRequiredPart file = createFile(random, 1 + random.nextInt(10), 1500, 1500 + random.nextInt(200));
+			assertMatchesFile(file, new YearSummaryIndex(file));
+		}
+		
+		// There is no year zero
+		FHX2_FileRequiredPart file = createFile(random, 5, -30, 30);
+		assertMatchesFile(file, new YearSummaryIndex(file));
+	}
+	
+	public void testSingleYearSample() {
+	
+		// A sample whose first and last years are the same only counts as a recorder for its events
+		FHX2_FileRequiredPart file = new FHX2_FileRequiredPart();
+		FHX2_Sample sample = new FHX2_Sample(1750, 1750);
+		sample.getEvents().add(new FHX2_Event('U', 1750));
+		file.getSampleList().add(sample);
+		file.setDataSetFirstYear(1749);
+		file.setDataSetLastYear(1751);
+		
+		YearSummaryIndex index = new YearSummaryIndex(file);
+		assertMatchesFile(file, index);
+		assertEquals(1, index.getYearSummary(1750).getNumRecorders());
+		assertEquals(0, index.getYearSummary(1750).getNumSamples());
+	}
+	
+	public void testEditsAreTracked() {
+	
+		Random random = new Random(3);
+		FHX2_FileRequiredPart file = createFile(random, 8, 1600, 1800);
+		YearSummaryIndex index = new YearSummaryIndex(file);
+		assertMatchesFile(file, index);
+		
+		// Change an event type and a recording without telling the index
+		FHX2_Sample sample = file.getSampleList().get(0);
+		sample.getEvents().add(new FHX2_Event('D', sample.getSampleFirstYear()));
+		sample.getEvents().get(0).setEventType('a');
+		sample.getRecordings().add(new FHX2_Recording(sample.getSampleFirstYear(), sample.getSampleLastYear()));
+		assertMatchesFile(file, index);
+		
+		// Empty a sample and replace it with another, letting the index know about the old one
+		FHX2_Sample other = file.getSampleList().get(1);
+		other.getRecordings().clear();
+		other.getEvents().clear();
+		file.getSampleList().set(1, createSample(random, 1650, 1700));
+		index.invalidateSample(other);
+		assertMatchesFile(file, index);
+		
+		// Remove a sample and add samples outside the years the index has seen so far
+		file.getSampleList().remove(2);
+		file.getSampleList().add(createSample(random, 1400, 1450));
+		file.getSampleList().add(createSample(random, 1900, 1950));
+		file.setDataSetFirstYear(1400);
+		file.setDataSetLastYear(1950);
+		assertMatchesFile(file, index);
+	}
+}
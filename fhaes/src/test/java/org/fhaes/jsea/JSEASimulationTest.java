@@ -0,0 +1,94 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Elena Velasquez and Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.jsea;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * JSEASimulationTest Class. Checks that the simulations are reproducible whatever the number of threads, and that a failure in any block
+ * is reported rather than leaving its simulations as zeros.
+ */
+public class JSEASimulationTest extends TestCase {
+	
+	private static final int FIRST_YEAR = 1700;
+	private static final int YEARS_PRIOR = 2;
+	private static final int LENGTH_OF_WINDOW = 5;
+	private static final int NUMBER_OF_EVENTS = 4;
+	
+	/**
+	 * Create a simulation over a chronology of the specified length. Events are drawn from the years that leave room for the whole window
+	 * within a 100 year chronology, so a shorter chronology makes the simulations fail.
+	 * 
+	 * @param chronologyLength
+	 * @return
+	 */
+	private static JSEASimulation createSimulation(int chronologyLength) {
+	
+		double[] chronology = new double[chronologyLength];
+		for (int i = 0; i < chronology.length; i++)
+		{
+			chronology[i] = Math.sin(i);
+		}
+		
+		int[] lowestYear = new int[NUMBER_OF_EVENTS];
+		int[] yearRange = new int[NUMBER_OF_EVENTS];
+		Arrays.fill(lowestYear, FIRST_YEAR + YEARS_PRIOR);
+		Arrays.fill(yearRange, 100 - LENGTH_OF_WINDOW);
+		
+		int[][] pattern = new int[LENGTH_OF_WINDOW][NUMBER_OF_EVENTS];
+		for (int[] lag : pattern)
+		{
+			Arrays.fill(lag, 1);
+		}
+		
+		return new JSEASimulation(chronology, FIRST_YEAR, lowestYear, yearRange, pattern, YEARS_PRIOR);
+	}
+	
+	public void testResultsDoNotDependOnThreads() {
+	
+		// More than one block of simulations so that the concurrent path is used
+		double[][] single = createSimulation(100).run(5000, 30188, 1);
+		double[][] concurrent = createSimulation(100).run(5000, 30188, 4);
+		
+		assertEquals(LENGTH_OF_WINDOW, concurrent.length);
+		for (int k = 0; k < LENGTH_OF_WINDOW; k++)
+		{
+			assertTrue("Lag " + k, Arrays.equals(single[k], concurrent[k]));
+		}
+	}
+	
+	public void testFailureIsReported() {
+	
+		// One block on one thread and several blocks on several threads fail in the same way
+		int[][] runs = new int[][] { { 100, 1 }, { 5000, 4 } };
+		for (int[] run : runs)
+		{
+			try
+			{
+				createSimulation(10).run(run[0], 30188, run[1]);
+				fail("Expected the simulations to fail on " + run[1] + " threads");
+			}
+			catch (IllegalStateException e)
+			{
+				assertTrue(e.getCause() instanceof ArrayIndexOutOfBoundsException);
+			}
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import javax.swing.table.DefaultTableModel;
+
+import junit.framework.TestCase;
+
+import org.fhaes.util.TableUtil;
+
+/**
+ * ResultTableTest Class. Checks that the in-memory ResultTable gives the same table as writing the results to a CSV file and reading them
+ * back with TableUtil, which is what the analyses did before the tables were kept in memory.
+ */
+public class ResultTableTest extends TestCase {
+	
+	private static final String UNIX_TABLE = "Year, Site A ,Site B\n1701,1, 0\n 1702 ,-99,1\n1703,,\n";
+	private static final String WINDOWS_TABLE = "Year,Site A,Site B\r\n1701,1,0\r\n1702,-99,1\r\n";
+	
+	/**
+	 * Write the text to a new table in a single call.
+	 * 
+	 * @param text
+	 * @return
+	 * @throws IOException
+	 */
+	private static ResultTable createTable(String text) throws IOException {
+	
+		ResultTable table = new ResultTable("ResultTableTest");
+		Writer wr = table.getWriter();
+		wr.write(text);
+		wr.close();
+		return table;
+	}
+	
+	/**
+	 * Assert that two table models have the same headers and cells.
+	 * 
+	 * @param expected
+	 * @param actual
+	 */
+	private static void assertSameModel(DefaultTableModel expected, DefaultTableModel actual) {
+	
+		assertEquals(expected.getColumnCount(), actual.getColumnCount());
+		assertEquals(expected.getRowCount(), actual.getRowCount());
+		for (int c = 0; c < expected.getColumnCount(); c++)
+		{
+			assertEquals(expected.getColumnName(c), actual.getColumnName(c));
+		}
+		for (int r = 0; r < expected.getRowCount(); r++)
+		{
+			for (int c = 0; c < expected.getColumnCount(); c++)
+			{
+				assertEquals("Row " + r + " column " + c, expected.getValueAt(r, c), actual.getValueAt(r, c));
+			}
+		}
+	}
+	
+	public void testTableModelMatchesCSVParser() throws IOException {
+	
+		assertSameModel(TableUtil.createTableModel(new StringReader(UNIX_TABLE), null), createTable(UNIX_TABLE).getTableModel());
+		assertSameModel(TableUtil.createTableModel(new StringReader(WINDOWS_TABLE), null), createTable(WINDOWS_TABLE).getTableModel());
+	}
+	
+	public void testWritingInPiecesMatchesSingleWrite() throws IOException {
+	
+		// Write one character at a time so that cells and CR LF pairs are split across calls
+		ResultTable table = new ResultTable("ResultTableTest");
+		Writer wr = table.getWriter();
+		for (int i = 0; i < WINDOWS_TABLE.length(); i++)
+		{
+			wr.write(WINDOWS_TABLE.charAt(i));
+		}
+		
+		assertEquals(3, table.getRowCount());
+		assertSameModel(createTable(WINDOWS_TABLE).getTableModel(), table.getTableModel());
+		
+		StringWriter out = new StringWriter();
+		table.writeCSV(out);
+		assertEquals(WINDOWS_TABLE, out.toString());
+	}
+	
+	public void testGetFile() throws IOException {
+	
+		ResultTable table = createTable(UNIX_TABLE);
+		File file = table.getFile();
+		
+		assertNotNull(file);
+		assertEquals(UNIX_TABLE, new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset()));
+		
+		// The file is only written once
+		assertSame(file, table.getFile());
+	}
+	
+	public void testTypedRows() throws IOException {
+	
+		ResultTable table = new ResultTable("ResultTableTest");
+		table.addRow("Year", "Count", "Mean");
+		table.addRow(1701, 3, 0.5);
+		table.addRow(1702, 0, null);
+		
+		// The model is given the values themselves rather than their text
+		DefaultTableModel model = table.getTableModel();
+		assertEquals(3, model.getColumnCount());
+		assertEquals(2, model.getRowCount());
+		assertEquals("Mean", model.getColumnName(2));
+		assertEquals(Integer.valueOf(1701), model.getValueAt(0, 0));
+		assertEquals(Double.valueOf(0.5), model.getValueAt(0, 2));
+		assertNull(model.getValueAt(1, 2));
+		
+		// They are only formatted when serialized
+		String sep = System.getProperty("line.separator");
+		StringWriter out = new StringWriter();
+		table.writeCSV(out);
+		assertEquals("Year,Count,Mean" + sep + "1701,3,0.5" + sep + "1702,0," + sep, out.toString());
+		assertEquals("0.5", table.getRow(1)[2]);
+		assertEquals("", table.getRow(2)[2]);
+	}
+}
@@ -0,0 +1,218 @@
+/**************************************************************************************************
+ * Fire History Analysis and Exploration System (FHAES), Copyright (C) 2015
+ * 
+ * Contributors: Peter Brewer
+ * 
+ * 		This program is free software: you can redistribute it and/or modify it under the terms of
+ * 		the GNU General Public License as published by the Free Software Foundation, either version
+ * 		3 of the License, or (at your option) any later version.
+ * 
+ * 		This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * 		without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * 		See the GNU General Public License for more details.
+ * 
+ * 		You should have received a copy of the GNU General Public License along with this program.
+ * 		If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *************************************************************************************************/
+package org.fhaes.neofhchart.svg;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.fhaes.fhfilereader.FHX2FileReader;
+import org.fhaes.preferences.App;
+import org.fhaes.preferences.FHAESPreferences.PrefKey;
+
+/**
+ * FireChartRebuildBenchmark Class. Times how long FireChartSVG takes to update its DOM when the chart is sorted, a series or plot is shown
+ * or hidden, and a chart preference is changed, alongside the time for a full rebuild with buildElements(), which is what each of these
+ * did before the chart was updated incrementally. Only the DOM updates are timed; Batik repainting is not included.
+ * 
+ * <p>
+ * This is not a unit test so it is not run as part of the build. Run it from the fhaes folder with the test classpath, e.g.:
+ * </p>
+ * 
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.fhaes.neofhchart.svg.FireChartRebuildBenchmark
+ *     -Dexec.args="../FHUtil/TestData/usdcr001.fhx 50"
+ * </pre>
+ * 
+ * <p>
+ * The arguments are the FHX file to chart, which defaults to usdcr001.fhx from the FHUtil test data, and the number of timed repetitions
+ * of each scenario. Preferences are changed in silent mode and restored afterwards.
+ * </p>
+ * 
+ * @author Peter Brewer
+ */
+public class FireChartRebuildBenchmark {
+	
+	private static final String DEFAULT_FILE = "../FHUtil/TestData/usdcr001.fhx";
+	private static final int DEFAULT_REPETITIONS = 20;
+	private static final int WARMUP_REPETITIONS = 5;
+	
+	/**
+	 * A change to the chart that is timed.
+	 */
+	private interface Scenario {
+		
+		void run(int repetition);
+	}
+	
+	private final FireChartSVG chart;
+	private final int repetitions;
+	
+	private FireChartRebuildBenchmark(FireChartSVG chart, int repetitions) {
+		
+		this.chart = chart;
+		this.repetitions = repetitions;
+	}
+	
+	/**
+	 * Run a scenario repeatedly after warming up and return the median time in milliseconds.
+	 * 
+	 * @param scenario
+	 * @return
+	 */
+	private double time(Scenario scenario) {
+		
+		for (int i = 0; i < WARMUP_REPETITIONS; i++)
+		{
+			scenario.run(i);
+		}
+		
+		long[] nanos = new long[repetitions];
+		for (int i = 0; i < repetitions; i++)
+		{
+			long start = System.nanoTime();
+			scenario.run(i);
+			nanos[i] = System.nanoTime() - start;
+		}
+		
+		Arrays.sort(nanos);
+		return nanos[repetitions / 2] / 1000000.0;
+	}
+	
+	/**
+	 * Time a scenario and print the result.
+	 * 
+	 * @param name
+	 * @param scenario
+	 */
+	private void report(String name, Scenario scenario) {
+		
+		System.out.println(String.format("%-28s %10.2f ms", name, time(scenario)));
+	}
+	
+	/**
+	 * Scenario that flips a boolean preference and applies the change to the chart.
+	 * 
+	 * @param key
+	 * @return
+	 */
+	private Scenario toggle(final PrefKey key) {
+		
+		return new Scenario() {
+			
+			@Override
+			public void run(int repetition) {
+				
+				App.prefs.setBooleanPref(key, !App.prefs.getBooleanPref(key, true));
+				chart.applyPreferenceChange(key);
+			}
+		};
+	}
+	
+	private void run() {
+		
+		report("full rebuild", new Scenario() {
+			
+			@Override
+			public void run(int repetition) {
+				
+				chart.buildElements();
+			}
+		});
+		
+		report("sort", new Scenario() {
+			
+			@Override
+			public void run(int repetition) {
+				
+				if (repetition % 2 == 0)
+				{
+					chart.sortByFirstFireYear();
+				}
+				else
+				{
+					chart.sortByName();
+				}
+			}
+		});
+		
+		report("series visibility toggle", new Scenario() {
+			
+			@Override
+			public void run(int repetition) {
+				
+				chart.toggleVisibilityOfSeries(0);
+			}
+		});
+		
+		report("legend toggle", toggle(PrefKey.CHART_SHOW_LEGEND));
+		report("label toggle", toggle(PrefKey.CHART_SHOW_CHRONOLOGY_PLOT_LABELS));
+		report("fire symbol toggle", toggle(PrefKey.CHART_SHOW_FIRE_EVENT_SYMBOL));
+		
+		report("index plot height", new Scenario() {
+			
+			@Override
+			public void run(int repetition) {
+				
+				App.prefs.setIntPref(PrefKey.CHART_INDEX_PLOT_HEIGHT, repetition % 2 == 0 ? 120 : 100);
+				chart.applyPreferenceChange(PrefKey.CHART_INDEX_PLOT_HEIGHT);
+			}
+		});
+	}
+	
+	public static void main(String[] args) throws Exception {
+		
+		File file = new File(args.length > 0 ? args[0] : DEFAULT_FILE);
+		int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_REPETITIONS;
+		
+		// No frame as the benchmark may be run headless
+		App.init(null);
+		App.prefs.setSilentMode(true);
+		
+		// Remember the preferences that are changed so that the user's settings are left as they were
+		PrefKey[] booleanKeys = new PrefKey[] { PrefKey.CHART_SHOW_LEGEND, PrefKey.CHART_SHOW_CHRONOLOGY_PLOT_LABELS,
+				PrefKey.CHART_SHOW_FIRE_EVENT_SYMBOL };
+		boolean[] booleanValues = new boolean[booleanKeys.length];
+		for (int i = 0; i < booleanKeys.length; i++)
+		{
+			booleanValues[i] = App.prefs.getBooleanPref(booleanKeys[i], true);
+		}
+		int indexPlotHeight = App.prefs.getIntPref(PrefKey.CHART_INDEX_PLOT_HEIGHT, 100);
+		
+		try
+		{
+			FHX2FileReader reader = new FHX2FileReader(file);
+			System.out.println("Charting " + file.getName() + " (" + reader.getNumberOfSeries() + " series), median of " + repetitions
+					+ " repetitions");
+			
+			long start = System.nanoTime();
+			FireChartSVG chart = new FireChartSVG(reader);
+			System.out.println(String.format("%-28s %10.2f ms", "initial build", (System.nanoTime() - start) / 1000000.0));
+			
+			new FireChartRebuildBenchmark(chart, repetitions).run();
+		}
+		finally
+		{
+			for (int i = 0; i < booleanKeys.length; i++)
+			{
+				App.prefs.setBooleanPref(booleanKeys[i], booleanValues[i]);
+			}
+			App.prefs.setIntPref(PrefKey.CHART_INDEX_PLOT_HEIGHT, indexPlotHeight);
+			App.prefs.setSilentMode(false);
+		}
+	}
+}